@@ -0,0 +1,74 @@
+package heigvd.plm.nothello.bench;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.logic.LeafEvaluator;
+import heigvd.plm.nothello.logic.NotHelloAlphaBetaStrategy;
+import heigvd.plm.nothello.logic.PatternEvaluator;
+import heigvd.plm.nothello.logic.PatternWeights;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une évaluation de feuille : poids des cases de l'alpha-bêta contre évaluation par motifs.
+ * Une opération = toutes les positions de la phase ; à lancer avec -prof gc pour vérifier l'absence d'allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private long[] players;
+    private long[] opponents;
+    private LeafEvaluator squareWeights;
+    private LeafEvaluator patterns;
+
+    @Setup
+    public void setup() {
+        Board[] boards = Positions.load(phase);
+        players = new long[boards.length];
+        opponents = new long[boards.length];
+        for (int i = 0; i < boards.length; ++i) {
+            PieceColor turn = boards[i].getPlayerTurn();
+            players[i] = boards[i].getDiscs(turn);
+            opponents[i] = boards[i].getDiscs(turn.opposite());
+        }
+        squareWeights = new NotHelloAlphaBetaStrategy().getEvaluator();
+        patterns = new PatternEvaluator(PatternWeights.defaults());
+    }
+
+    @Benchmark
+    public int squareWeights() {
+        int sum = 0;
+        for (int i = 0; i < players.length; ++i) {
+            sum += squareWeights.evaluate(players[i], opponents[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int patterns() {
+        int sum = 0;
+        for (int i = 0; i < players.length; ++i) {
+            sum += patterns.evaluate(players[i], opponents[i]);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,57 @@
+package heigvd.plm.nothello.bench;
+
+import heigvd.plm.nothello.game.Board;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Génération de coups sur le corpus de positions : une opération = toutes les positions de la phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGenerationBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private Board[] boards;
+
+    @Setup
+    public void setup() {
+        boards = Positions.load(phase);
+    }
+
+    @Benchmark
+    public void validMoves(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(board.getValidMovesForCurrentPlayer());
+        }
+    }
+
+    @Benchmark
+    public void moveScoreAllSquares(Blackhole bh) {
+        for (Board board : boards) {
+            for (int x = 0; x < Board.BOARD_SIZE; ++x) {
+                for (int y = 0; y < Board.BOARD_SIZE; ++y) {
+                    bh.consume(board.getMoveScore(x, y, board.getPlayerTurn()));
+                }
+            }
+        }
+    }
+}
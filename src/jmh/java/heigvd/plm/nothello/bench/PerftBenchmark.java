@@ -0,0 +1,48 @@
+package heigvd.plm.nothello.bench;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.Perft;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Perft depuis la position initiale : débit de makeMove/unmakeMove et de la génération de coups.
+ * Une opération = un perft complet (cf. Perft pour les valeurs de référence).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PerftBenchmark {
+
+    @Param({"7", "8"})
+    public int depth;
+
+    @Param({"true", "false"})
+    public boolean bulk;
+
+    private Board board;
+
+    @Setup
+    public void setup() {
+        board = new Board();
+    }
+
+    @Benchmark
+    public long perft() {
+        return Perft.perft(board, depth, bulk);
+    }
+}
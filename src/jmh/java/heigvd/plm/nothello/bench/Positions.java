@@ -0,0 +1,56 @@
+package heigvd.plm.nothello.bench;
+
+import heigvd.plm.nothello.game.Board;
+
+/**
+ * Corpus fixe de positions utilisées par les benchmarks (forme compacte, cf. Board.fromCompactString),
+ * relevées dans des parties entre les stratégies alphabeta, pattern et mcts. Chaque phase contient autant
+ * de positions avec noir qu'avec blanc au trait.
+ */
+public final class Positions {
+
+    // Coups 10 à 13
+    public static final String[] OPENING = {
+            "-----------X------XXX----XXXXX----OXOX------O------------------- O",
+            "-------------------XXX----OXXX-----OOOX-----OOOX---------------- X",
+            "------------------X-OXXX---XOXOO---XXOO------X-------X---------- O",
+            "--O-------XO-O-----XOO-----OXOO----OXXX---O--O------------------ X",
+    };
+
+    // Coups 30 à 33
+    public static final String[] MIDGAME = {
+            "----O---X-OOO---XXOOOO--XXOXOX--XOXXOX--XXXXXX----XXXX-----X---- O",
+            "--X-O------O------OOOOO--OOXXOXX-XXXOXXX-XXOXOXX--XX-X----X-XO-- X",
+            "---------------O--XXXXXO--XXOOXO-XXXOOXX--XOXXXX-XOXXX---OOOOO-- O",
+            "--O-------OO-O--OOOXOOOXXOXOOOO--OOXOOOX-OOOXOXX---OO--X---O---- X",
+    };
+
+    // 9 à 12 cases vides
+    public static final String[] ENDGAME = {
+            "--XXXX--X-XXOX--XXXXXO--XXXXOXXXXXXOOOXOXOOXXXOO-OOOXOOO--OOOXOO O",
+            "-OOOOO--O-OXXXX-OOOOXXXXOXOXXOXXOOXXOXXXOXXXXOXX--XXXXOX--X-XO-O X",
+            "--O-----X-OOOO--XXOOOOOXXXOXXXXXXXOOXOOXXXOXXXXXXOOOXXXX-XXXXXXX O",
+            "-OOOOO--O-OOOOOOOOOOXXOOOXOXXOXOOOXXOXXOOXXXXOXO--XXXXXO--X-XXXO X",
+    };
+
+    private Positions() {
+    }
+
+    /**
+     * @param phase "opening", "midgame" ou "endgame"
+     * @return les plateaux correspondants
+     */
+    public static Board[] load(String phase) {
+        String[] positions = switch (phase) {
+            case "opening" -> OPENING;
+            case "midgame" -> MIDGAME;
+            case "endgame" -> ENDGAME;
+            default -> throw new IllegalArgumentException("Unknown phase: " + phase);
+        };
+        Board[] boards = new Board[positions.length];
+        for (int i = 0; i < positions.length; ++i) {
+            boards[i] = Board.fromCompactString(positions[i]);
+        }
+        return boards;
+    }
+}
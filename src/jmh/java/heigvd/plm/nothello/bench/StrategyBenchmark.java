@@ -0,0 +1,59 @@
+package heigvd.plm.nothello.bench;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.logic.NotHelloConstraintStrategy;
+import heigvd.plm.nothello.logic.NotHelloMaxFlipsStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Temps d'évaluation des stratégies sur le corpus de positions : une opération = toutes les positions de la phase.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StrategyBenchmark {
+
+    @Param({"opening", "midgame", "endgame"})
+    public String phase;
+
+    private Board[] boards;
+    private NotHelloMaxFlipsStrategy maxFlips;
+    private NotHelloConstraintStrategy constraint;
+
+    @Setup
+    public void setup() {
+        boards = Positions.load(phase);
+        maxFlips = new NotHelloMaxFlipsStrategy();
+        constraint = new NotHelloConstraintStrategy();
+    }
+
+    @Benchmark
+    public void maxFlips(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(maxFlips.evaluate(board));
+        }
+    }
+
+    @Benchmark
+    public void constraint(Blackhole bh) {
+        for (Board board : boards) {
+            bh.consume(constraint.evaluate(board));
+        }
+    }
+}
@@ -1,20 +1,60 @@
 package heigvd.plm.nothello;
 
-import heigvd.plm.nothello.game.Board;
-import heigvd.plm.nothello.game.PieceColor;
-
+import heigvd.plm.nothello.cli.ArchiveCheck;
+import heigvd.plm.nothello.cli.BatchAnalysis;
+import heigvd.plm.nothello.cli.BoardSizeBenchmark;
+import heigvd.plm.nothello.cli.BookGenerator;
+import heigvd.plm.nothello.cli.EndgameBenchmark;
+import heigvd.plm.nothello.cli.PatternTraining;
+import heigvd.plm.nothello.cli.PerftCommand;
+import heigvd.plm.nothello.cli.SearchSpeedup;
+import heigvd.plm.nothello.cli.ServerCommand;
+import heigvd.plm.nothello.cli.Tournament;
 import heigvd.plm.nothello.gui.OthelloGUI;
 
 import javax.swing.*;
+import java.util.Arrays;
 
 /**
- * Hello world!
+ * Point d'entrée : lance l'interface graphique, ou un mode sans interface si une commande est donnée.
  *
+ * Commandes :
+ *   tournament ...   parties entre deux stratégies, cf. Tournament
+ *   speedup ...      accélération de la recherche parallèle, cf. SearchSpeedup
+ *   book ...         construction d'un livre d'ouvertures, cf. BookGenerator
+ *   endgame ...      vitesse de la résolution exacte des fins de partie, cf. EndgameBenchmark
+ *   perft ...        comptage de l'arbre de jeu et vitesse de Board, cf. PerftCommand
+ *   analyze ...      analyse en flux d'un fichier de positions, cf. BatchAnalysis
+ *   archive ...      vérification d'une archive de parties, cf. ArchiveCheck
+ *   sizes ...        coûts des stratégies selon la taille du plateau, cf. BoardSizeBenchmark
+ *   patterns ...     poids de l'évaluation par motifs, cf. PatternTraining
+ *   serve ...        serveur de parties HTTP sur localhost, cf. GameServer
  */
 public class App
 {
-    public static void main( String[] args )
+    public static void main( String[] args ) throws Exception
     {
-        SwingUtilities.invokeLater(OthelloGUI::new);
+        if (args.length == 0) {
+            SwingUtilities.invokeLater(OthelloGUI::new);
+            return;
+        }
+
+        String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+            case "tournament" -> Tournament.main(commandArgs);
+            case "speedup" -> SearchSpeedup.main(commandArgs);
+            case "book" -> BookGenerator.main(commandArgs);
+            case "endgame" -> EndgameBenchmark.main(commandArgs);
+            case "perft" -> PerftCommand.main(commandArgs);
+            case "analyze" -> BatchAnalysis.main(commandArgs);
+            case "archive" -> ArchiveCheck.main(commandArgs);
+            case "sizes" -> BoardSizeBenchmark.main(commandArgs);
+            case "patterns" -> PatternTraining.main(commandArgs);
+            case "serve" -> ServerCommand.main(commandArgs);
+            default -> {
+                System.err.println("Unknown command: " + args[0] + ", expected: tournament, speedup, book, endgame, perft, analyze, archive, sizes, patterns, serve");
+                System.exit(1);
+            }
+        }
     }
 }
@@ -0,0 +1,74 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.GameRecord;
+import heigvd.plm.nothello.game.GameRecordReader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Relit une archive de parties (cf. GameRecordWriter), rejoue et vérifie chaque partie, et affiche
+ * le nombre de parties, leur taille moyenne et la vitesse de vérification.
+ */
+public class ArchiveCheck {
+
+    private static void usage() {
+        System.err.println("Usage: archive --in <file> [--print true|false]");
+    }
+
+    public static void main(String[] args) throws IOException {
+        String in = null;
+        boolean print = false;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--in" -> in = value;
+                    case "--print" -> print = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (in == null) {
+                throw new IllegalArgumentException("--in is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        Path file = Paths.get(in);
+        long games = 0, invalid = 0, plies = 0, blackWins = 0, draws = 0;
+        long start = System.nanoTime();
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                ++games;
+                plies += record.getPlies();
+                try {
+                    record.replay();
+                } catch (IllegalStateException e) {
+                    ++invalid;
+                    System.out.println("Game " + games + " is invalid: " + e.getMessage());
+                    continue;
+                }
+                if (record.getDiscDifference() > 0) ++blackWins;
+                else if (record.getDiscDifference() == 0) ++draws;
+                if (print) {
+                    System.out.println(games + ": " + record);
+                }
+            }
+        } catch (EOFException e) {
+            System.out.println("Game " + (games + 1) + " is truncated, the archive ends in the middle of it");
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%,d games (%,d invalid), %.1f plies and %.1f bytes per game, black +%d =%d -%d%n",
+                games, invalid, games == 0 ? 0.0 : (double) plies / games,
+                games == 0 ? 0.0 : (double) Files.size(file) / games,
+                blackWins, draws, games - invalid - blackWins - draws);
+        System.out.printf("Replayed in %.3f s, %,.0f games/s%n", seconds, games / seconds);
+    }
+}
@@ -0,0 +1,294 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.logic.NotHelloEndgameStrategy;
+import heigvd.plm.nothello.logic.NotHelloStrategy;
+import heigvd.plm.nothello.logic.Strategies;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Analyse en flux d'un fichier de positions (une position compacte par ligne, cf. Board.fromCompactString) :
+ * chaque position passe par la stratégie sur un pool de threads, et le meilleur coup, le score et le temps
+ * sont écrits au fur et à mesure, dans l'ordre du fichier.
+ *
+ * Au plus {@code threads + window} positions sont en mémoire : quand la fenêtre est pleine, la lecture attend
+ * que la plus ancienne position soit écrite. Les lignes vides et celles commençant par # sont ignorées.
+ */
+public class BatchAnalysis {
+
+    public static final int DEFAULT_WINDOW = 64;
+
+    private final Supplier<NotHelloStrategy> strategy;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int window = DEFAULT_WINDOW;
+
+    /**
+     * @param strategy crée une instance de la stratégie par thread, les stratégies n'étant pas forcément thread-safe
+     */
+    public BatchAnalysis(Supplier<NotHelloStrategy> strategy) {
+        this.strategy = strategy;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * @param window nombre de positions lues en avance au-delà de celles en cours d'analyse
+     */
+    public void setWindow(int window) {
+        this.window = Math.max(1, window);
+    }
+
+    /**
+     * Analyse toutes les positions de in et écrit une ligne par position dans out, séparée par des tabulations :
+     * numéro de ligne, position, x, y, score et temps en microsecondes. Le coup est "-" si la partie est terminée,
+     * le score est vide si la stratégie n'en donne pas ; une position invalide donne une ligne "error".
+     *
+     * @return les statistiques de l'analyse
+     */
+    public Result run(BufferedReader in, Writer out) throws IOException, InterruptedException {
+        ThreadLocal<NotHelloStrategy> local = ThreadLocal.withInitial(strategy);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "analysis-worker");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // File bornée des analyses en cours, dans l'ordre de lecture : la lecture attend quand elle est pleine
+        BlockingQueue<Future<Row>> pending = new ArrayBlockingQueue<>(threads + window);
+        Future<Row> end = CompletableFuture.completedFuture(null);
+        Result result = new Result(threads);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> drain(pending, end, out, result), r -> {
+            Thread t = new Thread(r, "analysis-writer");
+            t.setDaemon(true);
+            t.start();
+        });
+
+        long start = System.nanoTime();
+        try {
+            String line;
+            long lineNumber = 0;
+            while ((line = in.readLine()) != null) {
+                ++lineNumber;
+                String position = line.trim();
+                if (position.isEmpty() || position.startsWith("#")) {
+                    continue;
+                }
+                final long number = lineNumber;
+                if (!enqueue(pending, pool.submit(() -> analyze(local.get(), number, position)), writer)) {
+                    break;
+                }
+            }
+            enqueue(pending, end, writer);
+            writer.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Analysis failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        out.flush();
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    /**
+     * Attend une place dans la file, sauf si l'écriture s'est arrêtée sur une erreur.
+     *
+     * @return false si l'écriture s'est arrêtée
+     */
+    private static boolean enqueue(BlockingQueue<Future<Row>> pending, Future<Row> next, Future<Void> writer)
+            throws InterruptedException {
+        while (!pending.offer(next, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void drain(BlockingQueue<Future<Row>> pending, Future<Row> end, Writer out, Result result) {
+        try {
+            for (Future<Row> next = pending.take(); next != end; next = pending.take()) {
+                Row row = next.get();
+                out.write(row.toString());
+                out.write('\n');
+                result.add(row);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Analysis interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Analysis failed", e.getCause());
+        }
+    }
+
+    private static Row analyze(NotHelloStrategy strategy, long lineNumber, String position) {
+        Row row = new Row(lineNumber, position);
+        Board board;
+        try {
+            board = Board.fromCompactString(position);
+        } catch (IllegalArgumentException e) {
+            row.error = e.getMessage();
+            return row;
+        }
+        if (board.isOver()) {
+            return row;
+        }
+
+        long start = System.nanoTime();
+        row.move = strategy.evaluate(board);
+        row.micros = (System.nanoTime() - start) / 1000;
+        if (row.move != null) {
+            row.score = Strategies.lastScore(strategy, board);
+        }
+        return row;
+    }
+
+    /**
+     * Résultat de l'analyse d'une ligne du fichier.
+     */
+    private static final class Row {
+        private final long lineNumber;
+        private final String position;
+        private String error;
+        private int[] move;
+        private Integer score;
+        private long micros;
+
+        private Row(long lineNumber, String position) {
+            this.lineNumber = lineNumber;
+            this.position = position;
+        }
+
+        @Override
+        public String toString() {
+            if (error != null) {
+                return lineNumber + "\t" + position + "\terror\t" + error;
+            }
+            return lineNumber + "\t" + position + "\t" + (move == null ? "-\t-" : move[0] + "\t" + move[1])
+                    + "\t" + (score == null ? "" : score.toString()) + "\t" + micros;
+        }
+    }
+
+    /**
+     * Statistiques d'une analyse, mises à jour par le thread d'écriture.
+     */
+    public static final class Result {
+        private final int threads;
+        private long positions;
+        private long errors;
+        private long analysisMicros;
+        private long elapsedNanos;
+
+        private Result(int threads) {
+            this.threads = threads;
+        }
+
+        private void add(Row row) {
+            if (row.error != null) {
+                ++errors;
+            } else {
+                ++positions;
+                analysisMicros += row.micros;
+            }
+        }
+
+        public long getPositions() {
+            return positions;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = elapsedNanos / 1e9;
+            return String.format("%,d positions (%,d invalid) in %.3f s on %d thread(s): %,.1f positions/s, "
+                            + "%.3f ms per position",
+                    positions, errors, seconds, threads, positions / seconds,
+                    positions == 0 ? 0.0 : analysisMicros / 1000.0 / positions);
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: analyze --in <file|-> [--out <file|->] [--strategy <strategy>] [--threads T]"
+                + " [--window W] [--endgame E]");
+        System.err.println("Strategies: " + Strategies.names());
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String in = null, out = "-", name = "alphabeta:100";
+        int threads = Runtime.getRuntime().availableProcessors(), window = DEFAULT_WINDOW, endgameEmpties = -1;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--in" -> in = value;
+                    case "--out" -> out = value;
+                    case "--strategy" -> name = value;
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--window" -> window = Integer.parseInt(value);
+                    case "--endgame" -> endgameEmpties = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (in == null) {
+                throw new IllegalArgumentException("--in is required");
+            }
+            Strategies.create(name);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        final String strategyName = name;
+        final int empties = endgameEmpties;
+        BatchAnalysis analysis = new BatchAnalysis(empties < 0
+                ? () -> Strategies.create(strategyName)
+                : () -> new NotHelloEndgameStrategy(Strategies.create(strategyName), empties));
+        analysis.setThreads(threads);
+        analysis.setWindow(window);
+
+        try (BufferedReader reader = "-".equals(in)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(in), StandardCharsets.UTF_8);
+             Writer writer = "-".equals(out)
+                     ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                     : Files.newBufferedWriter(Paths.get(out), StandardCharsets.UTF_8)) {
+            Result result = analysis.run(reader, writer);
+            System.err.println("Analysis with " + strategyName + ": " + result);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.logic.NotHelloConstraintStrategy;
+import heigvd.plm.nothello.logic.NotHelloMaxFlipsStrategy;
+import heigvd.plm.nothello.logic.SolverConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mesure l'évolution des coûts avec la taille du plateau : taille du modèle CP-SAT de la stratégie par contraintes
+ * (variables, contraintes, temps de construction), temps moyen de mise à jour et de résolution, temps de la
+ * stratégie procédurale, et vitesse de la génération de coups sur des parties aléatoires.
+ *
+ * Les positions de chaque taille sont tirées au hasard, après un tiers de la partie environ.
+ */
+public class BoardSizeBenchmark {
+
+    private static void usage() {
+        System.err.println("Usage: sizes [--sizes 6,8,...] [--positions N] [--playouts P] [--workers W] [--seed S]");
+    }
+
+    public static void main(String[] args) {
+        List<Integer> sizes = new ArrayList<>();
+        int positions = 10, playouts = 200, workers = 1;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--sizes" -> {
+                        for (String size : value.split(",")) {
+                            sizes.add(Integer.parseInt(size.trim()));
+                        }
+                    }
+                    case "--positions" -> positions = Integer.parseInt(value);
+                    case "--playouts" -> playouts = Integer.parseInt(value);
+                    case "--workers" -> workers = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (sizes.isEmpty()) {
+                for (int size = Board.MIN_SIZE; size <= Board.MAX_SIZE; size += 2) {
+                    sizes.add(size);
+                }
+            }
+            for (int size : sizes) {
+                new Board(size);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        SolverConfig config = new SolverConfig();
+        config.setNumWorkers(workers);
+        System.out.printf("Board size scaling, %d positions per size, %d random playouts, %d CP-SAT worker(s)%n",
+                positions, playouts, workers);
+        System.out.printf("%4s  %9s  %11s  %9s  %9s  %9s  %11s  %12s  %14s%n", "size", "variables", "constraints",
+                "build ms", "update ms", "solve ms", "maxflips ms", "playouts/s", "moves/s");
+        for (int size : sizes) {
+            // Échauffement du JIT (et chargement des bibliothèques natives), non affiché
+            measure(size, 1, playouts, config, new Random(seed));
+            measure(size, positions, playouts, config, new Random(seed)).print();
+        }
+    }
+
+    private static Row measure(int size, int positions, int playouts, SolverConfig config, Random rng) {
+        Row row = new Row(size);
+        NotHelloConstraintStrategy constraint = new NotHelloConstraintStrategy();
+        constraint.setSolverConfig(config);
+        NotHelloMaxFlipsStrategy maxFlips = new NotHelloMaxFlipsStrategy();
+        maxFlips.setSolverConfig(config);
+
+        for (int done = 0; done < positions; ) {
+            Board board = new Board(size);
+            Tournament.playRandomMoves(board, rng, (size * size - 4) / 3);
+            if (board.isOver()) {
+                continue;
+            }
+            constraint.evaluate(board);
+            row.updateNanos += constraint.getLastUpdateNanos();
+            row.solveNanos += constraint.getLastSolveNanos();
+            long start = System.nanoTime();
+            maxFlips.evaluate(board);
+            row.maxFlipsNanos += System.nanoTime() - start;
+            ++done;
+        }
+        row.positions = positions;
+        row.variables = constraint.getModelVariables();
+        row.constraints = constraint.getModelConstraints();
+        row.buildNanos = constraint.getModelBuildNanos();
+
+        long start = System.nanoTime();
+        for (int game = 0; game < playouts; ++game) {
+            Board board = new Board(size);
+            row.moves += Tournament.playRandomMoves(board, rng, Integer.MAX_VALUE, null);
+        }
+        row.playouts = playouts;
+        row.playoutNanos = Math.max(1, System.nanoTime() - start);
+        return row;
+    }
+
+    /**
+     * Mesures pour une taille de plateau.
+     */
+    private static final class Row {
+        private final int size;
+        private int positions;
+        private long variables;
+        private long constraints;
+        private long buildNanos;
+        private long updateNanos;
+        private long solveNanos;
+        private long maxFlipsNanos;
+        private int playouts;
+        private long moves;
+        private long playoutNanos;
+
+        private Row(int size) {
+            this.size = size;
+        }
+
+        private void print() {
+            double seconds = playoutNanos / 1e9;
+            System.out.printf("%4d  %,9d  %,11d  %9.1f  %9.3f  %9.3f  %11.3f  %,12.0f  %,14.0f%n",
+                    size, variables, constraints, buildNanos / 1e6, updateNanos / 1e6 / positions,
+                    solveNanos / 1e6 / positions, maxFlipsNanos / 1e6 / positions, playouts / seconds, moves / seconds);
+        }
+    }
+}
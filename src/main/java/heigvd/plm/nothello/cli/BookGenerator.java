@@ -0,0 +1,68 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.logic.OpeningBook;
+import heigvd.plm.nothello.logic.OpeningBookBuilder;
+import heigvd.plm.nothello.logic.Strategies;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Construit un livre d'ouvertures à partir de parties jouées entre deux stratégies (cf. Tournament).
+ * Une ouverture aléatoire de quelques coups diversifie les parties ; elle fait partie du livre.
+ */
+public class BookGenerator {
+
+    private static void usage() {
+        System.err.println("Usage: book --out <file> [--a <strategy>] [--b <strategy>] [--games N] [--plies P]"
+                + " [--random-plies K] [--min-plays M] [--threads T] [--seed S]");
+        System.err.println("Strategies: " + Strategies.names());
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String a = "alphabeta:100", b = "alphabeta:100", out = null;
+        int games = 200, plies = 16, randomPlies = 4, minPlays = 1, threads = Runtime.getRuntime().availableProcessors();
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--out" -> out = value;
+                    case "--a" -> a = value;
+                    case "--b" -> b = value;
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--plies" -> plies = Integer.parseInt(value);
+                    case "--random-plies" -> randomPlies = Integer.parseInt(value);
+                    case "--min-plays" -> minPlays = Integer.parseInt(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (out == null) {
+                throw new IllegalArgumentException("--out is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        final String nameA = a, nameB = b;
+        OpeningBookBuilder builder = new OpeningBookBuilder(plies);
+        Tournament tournament = new Tournament(nameA, () -> Strategies.create(nameA), nameB, () -> Strategies.create(nameB), games);
+        tournament.setThreads(threads);
+        tournament.setRandomPlies(randomPlies);
+        tournament.setSeed(seed);
+        tournament.setGameListener((game, moves, blackDiscs, whiteDiscs) -> builder.addGame(moves, blackDiscs, whiteDiscs));
+
+        System.out.println("Opening book: A=" + nameA + " vs B=" + nameB + ", " + plies + " plies per game");
+        System.out.println(tournament.run());
+
+        Path file = Paths.get(out);
+        builder.write(file, minPlays);
+        System.out.println(OpeningBook.open(file) + " from " + builder.getGames() + " games, written to " + file);
+    }
+}
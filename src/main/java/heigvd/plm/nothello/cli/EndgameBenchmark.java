@@ -0,0 +1,59 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.logic.NotHelloEndgameStrategy;
+
+import java.util.Random;
+
+/**
+ * Résout exactement des fins de partie aléatoires avec un nombre donné de cases vides,
+ * et affiche le score, le nombre de noeuds et la vitesse de la résolution.
+ */
+public class EndgameBenchmark {
+
+    public static void main(String[] args) {
+        int empties = 14, positions = 10;
+        long seed = 42;
+        boolean exact = true;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--empties" -> empties = Integer.parseInt(value);
+                case "--positions" -> positions = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--wld" -> exact = !Boolean.parseBoolean(value);
+                default -> {
+                    System.err.println("Usage: endgame [--empties E] [--positions N] [--seed S] [--wld true|false]");
+                    System.exit(1);
+                }
+            }
+        }
+
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null, empties);
+        solver.setExact(exact);
+        Random rng = new Random(seed);
+        long totalNodes = 0, totalNanos = 0;
+        System.out.printf("Endgame solver, %d positions with %d empty squares, %s%n",
+                positions, empties, exact ? "exact disc differential" : "win/draw/loss");
+        for (int solved = 0; solved < positions; ) {
+            Board board = new Board();
+            while (!board.isOver() && BitBoard.count(board.getDiscs(PieceColor.NONE)) > empties) {
+                Tournament.playRandomMoves(board, rng, 1);
+            }
+            if (board.isOver()) {
+                continue;
+            }
+            int[] move = solver.evaluate(board);
+            totalNodes += solver.getLastNodes();
+            totalNanos += solver.getLastNanos();
+            ++solved;
+            System.out.printf("%s  best [%d, %d], score %+3d, %,12d nodes, %8.3f s, %,12.0f nodes/s%n",
+                    board.toCompactString(), move[0], move[1], solver.getLastScore(),
+                    solver.getLastNodes(), solver.getLastNanos() / 1e9, solver.getLastNodesPerSecond());
+        }
+        System.out.printf("Total: %,d nodes in %.3f s, %,.0f nodes/s%n",
+                totalNodes, totalNanos / 1e9, totalNodes / (totalNanos / 1e9));
+    }
+}
@@ -0,0 +1,87 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.GameRecord;
+import heigvd.plm.nothello.game.GameRecordReader;
+import heigvd.plm.nothello.logic.PatternTrainer;
+import heigvd.plm.nothello.logic.PatternWeights;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Écrit un fichier de poids pour l'évaluation par motifs (cf. PatternWeights) : les poids par défaut, ou des poids
+ * appris sur les parties d'une archive (cf. GameRecordWriter, tournament --record).
+ */
+public class PatternTraining {
+
+    private static void usage() {
+        System.err.println("Usage: patterns --out <file> [--in <archive>] [--epochs E] [--rate R] [--seed S]");
+    }
+
+    public static void main(String[] args) throws IOException {
+        String in = null, out = null;
+        int epochs = 10;
+        double rate = PatternTrainer.DEFAULT_LEARNING_RATE;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--in" -> in = value;
+                    case "--out" -> out = value;
+                    case "--epochs" -> epochs = Integer.parseInt(value);
+                    case "--rate" -> rate = Double.parseDouble(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (out == null) {
+                throw new IllegalArgumentException("--out is required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        PatternWeights weights;
+        if (in == null) {
+            System.out.println("Default weights (square weights, mobility and stable discs)");
+            weights = PatternWeights.defaults();
+        } else {
+            PatternTrainer trainer = new PatternTrainer();
+            trainer.setLearningRate(rate);
+            long games = 0, invalid = 0;
+            try (GameRecordReader reader = new GameRecordReader(Paths.get(in))) {
+                for (GameRecord record = reader.next(); record != null; record = reader.next()) {
+                    ++games;
+                    try {
+                        trainer.addGame(record);
+                    } catch (IllegalStateException e) {
+                        ++invalid;
+                    }
+                }
+            } catch (EOFException e) {
+                System.out.println("Archive truncated after " + games + " games");
+            }
+            System.out.printf("%,d games (%,d invalid), %,d positions%n", games, invalid, trainer.getSamples());
+
+            Random rng = new Random(seed);
+            for (int epoch = 1; epoch <= epochs; ++epoch) {
+                long start = System.nanoTime();
+                double error = trainer.epoch(rng);
+                System.out.printf("epoch %3d  RMS error %6.2f discs  %7.3f s%n", epoch, error, (System.nanoTime() - start) / 1e9);
+            }
+            weights = trainer.toWeights();
+        }
+
+        Path file = Paths.get(out);
+        weights.write(file);
+        System.out.printf("Wrote %s (%,d bytes)%n", file, Files.size(file));
+    }
+}
@@ -0,0 +1,63 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.Perft;
+
+/**
+ * Compte les feuilles de l'arbre de jeu (perft) pour chaque profondeur jusqu'à --depth, depuis la position
+ * initiale (de taille --size) ou une position compacte, et affiche les noeuds par seconde. --divide détaille le compte par coup.
+ */
+public class PerftCommand {
+
+    private static void usage() {
+        System.err.println("Usage: perft [--depth D] [--size N] [--position <compact>] [--bulk true|false] [--threads T] [--divide true|false]");
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int depth = 9, threads = 1, size = Board.BOARD_SIZE;
+        String position = null;
+        boolean bulk = true, divide = false;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--depth" -> depth = Integer.parseInt(value);
+                    case "--size" -> size = Integer.parseInt(value);
+                    case "--position" -> position = value;
+                    case "--bulk" -> bulk = Boolean.parseBoolean(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--divide" -> divide = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (position == null) {
+                new Board(size);
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        Board board = position == null ? new Board(size) : Board.fromCompactString(position);
+        System.out.printf("Perft from %s, %s, %d thread(s)%n",
+                board.toCompactString(), bulk ? "bulk counting" : "no bulk counting", threads);
+        for (int d = 1; d <= depth; ++d) {
+            long start = System.nanoTime();
+            long nodes = threads > 1 ? Perft.perftParallel(board, d, bulk, threads) : Perft.perft(board, d, bulk);
+            long nanos = Math.max(1, System.nanoTime() - start);
+            System.out.printf("depth %2d  %,16d nodes  %9.3f s  %,14.0f nodes/s%n",
+                    d, nodes, nanos / 1e9, nodes / (nanos / 1e9));
+        }
+
+        if (divide) {
+            long[] divided = Perft.divide(board, depth, bulk, threads);
+            for (int square = 0; square < divided.length; ++square) {
+                if (divided[square] != 0) {
+                    System.out.printf("[%d, %d]  %,d%n", square / board.getSize(), square % board.getSize(), divided[square]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.logic.NotHelloAlphaBetaStrategy;
+import heigvd.plm.nothello.logic.NotHelloMctsStrategy;
+import heigvd.plm.nothello.logic.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Mesure l'accélération de la recherche parallèle (Lazy SMP) : temps pour atteindre une profondeur fixe
+ * sur un ensemble de positions, avec 1, 2, 4, ... threads, et vitesse en noeuds par seconde.
+ *
+ * Avec --search mcts, mesure de la même façon le MCTS parallélisé à la racine : temps pour jouer un nombre fixe
+ * de parties aléatoires par position, et parties par seconde.
+ */
+public class SearchSpeedup {
+
+    public static void main(String[] args) {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int depth = 9, positions = 8, randomPlies = 20, tableMb = 64;
+        long seed = 42, playouts = 200_000;
+        boolean mcts = false;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--threads" -> maxThreads = Integer.parseInt(value);
+                case "--depth" -> depth = Integer.parseInt(value);
+                case "--positions" -> positions = Integer.parseInt(value);
+                case "--random-plies" -> randomPlies = Integer.parseInt(value);
+                case "--table-mb" -> tableMb = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--search" -> mcts = "mcts".equals(value);
+                case "--playouts" -> playouts = Long.parseLong(value);
+                default -> {
+                    System.err.println("Usage: speedup [--search alphabeta|mcts] [--threads T] [--depth D]"
+                            + " [--playouts P] [--positions N] [--random-plies K] [--table-mb M] [--seed S]");
+                    System.exit(1);
+                }
+            }
+        }
+
+        List<Board> boards = new ArrayList<>();
+        Random rng = new Random(seed);
+        while (boards.size() < positions) {
+            Board board = new Board();
+            Tournament.playRandomMoves(board, rng, randomPlies);
+            if (!board.isOver()) {
+                boards.add(board);
+            }
+        }
+
+        if (mcts) {
+            measureMcts(boards, maxThreads, playouts, randomPlies);
+            return;
+        }
+
+        System.out.printf("Lazy SMP speedup, %d positions after %d random plies, depth %d%n", positions, randomPlies, depth);
+        measure(boards, 1, depth, tableMb); // échauffement du JIT, non affiché
+
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            long[] measure = measure(boards, threads, depth, tableMb);
+            long nanos = measure[0], nodes = measure[1];
+            if (threads == 1) {
+                baseline = nanos;
+            }
+            System.out.printf("threads %3d: %8.3f s, %,14d nodes, %,12.0f nodes/s, speedup %.2fx%n",
+                    threads, nanos / 1e9, nodes, nodes / (nanos / 1e9), baseline / nanos);
+            if (threads >= maxThreads) break;
+        }
+    }
+
+    private static void measureMcts(List<Board> boards, int maxThreads, long playouts, int randomPlies) {
+        System.out.printf("MCTS root parallelism speedup, %d positions after %d random plies, %,d playouts%n",
+                boards.size(), randomPlies, playouts);
+        measureMcts(boards, 1, playouts); // échauffement du JIT, non affiché
+
+        double baseline = 0;
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            long[] measure = measureMcts(boards, threads, playouts);
+            long nanos = measure[0], played = measure[1];
+            if (threads == 1) {
+                baseline = nanos;
+            }
+            System.out.printf("threads %3d: %8.3f s, %,14d playouts, %,12.0f playouts/s, speedup %.2fx%n",
+                    threads, nanos / 1e9, played, played / (nanos / 1e9), baseline / nanos);
+            if (threads >= maxThreads) break;
+        }
+    }
+
+    /**
+     * @return {temps total en ns, parties aléatoires jouées} pour le nombre de parties donné sur chaque position
+     */
+    private static long[] measureMcts(List<Board> boards, int threads, long playouts) {
+        long nanos = 0, played = 0;
+        for (Board board : boards) {
+            // Stratégie neuve pour chaque position, sans arbre gardé d'une mesure précédente
+            NotHelloMctsStrategy strategy = new NotHelloMctsStrategy(Long.MAX_VALUE / 2_000_000L, threads);
+            strategy.setPlayoutLimit(playouts);
+            long start = System.nanoTime();
+            strategy.evaluate(board);
+            nanos += System.nanoTime() - start;
+            played += strategy.getLastPlayouts();
+            strategy.shutdown();
+        }
+        return new long[]{nanos, played};
+    }
+
+    /**
+     * @return {temps total en ns, noeuds visités} pour chercher toutes les positions à la profondeur donnée
+     */
+    private static long[] measure(List<Board> boards, int threads, int depth, int tableMb) {
+        long nanos = 0, nodes = 0;
+        for (Board board : boards) {
+            // Table neuve pour chaque position, pour ne pas avantager les mesures suivantes
+            TranspositionTable table = new TranspositionTable(tableMb, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+            NotHelloAlphaBetaStrategy strategy = new NotHelloAlphaBetaStrategy(Long.MAX_VALUE / 2_000_000L, table, threads);
+            strategy.setMaxDepth(depth);
+            long start = System.nanoTime();
+            strategy.evaluate(board);
+            nanos += System.nanoTime() - start;
+            nodes += strategy.getLastNodes();
+            strategy.shutdown();
+        }
+        return new long[]{nanos, nodes};
+    }
+}
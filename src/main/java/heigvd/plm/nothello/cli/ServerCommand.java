@@ -0,0 +1,63 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.server.GameServer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Lance le serveur de parties (cf. GameServer) sur localhost, jusqu'à l'arrêt du processus.
+ */
+public class ServerCommand {
+
+    private static void usage() {
+        System.err.println("Usage: serve [--port P] [--threads T] [--queue Q] [--max-sessions N] [--handlers H]"
+                + " [--idle-minutes M] [--strategies NAME,NAME...]");
+        System.err.println("Default strategies: " + String.join(",", GameServer.DEFAULT_STRATEGIES));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = GameServer.DEFAULT_PORT, threads = Runtime.getRuntime().availableProcessors();
+        int queue = GameServer.DEFAULT_QUEUE, maxSessions = GameServer.DEFAULT_MAX_SESSIONS;
+        int handlers = GameServer.DEFAULT_HANDLERS;
+        long idleMinutes = GameServer.DEFAULT_IDLE_MINUTES;
+        List<String> strategies = GameServer.DEFAULT_STRATEGIES;
+        GameServer server;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--queue" -> queue = Integer.parseInt(value);
+                    case "--max-sessions" -> maxSessions = Integer.parseInt(value);
+                    case "--handlers" -> handlers = Integer.parseInt(value);
+                    case "--idle-minutes" -> idleMinutes = Long.parseLong(value);
+                    case "--strategies" -> strategies = Arrays.asList(value.split(","));
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            server = new GameServer(port);
+            server.setStrategies(strategies);
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        server.setEvaluationThreads(threads);
+        server.setQueueCapacity(queue);
+        server.setMaxSessions(maxSessions);
+        server.setHandlerThreads(handlers);
+        server.setIdleTimeout(idleMinutes);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "server-shutdown"));
+        System.out.println("Game server on http://" + server.getAddress() + " ("
+                + (server.usesVirtualThreads() ? "virtual" : "platform") + " handler threads), GET /stats for statistics");
+    }
+}
@@ -0,0 +1,94 @@
+package heigvd.plm.nothello.cli;
+
+/**
+ * Test séquentiel du rapport de vraisemblance (SPRT) sur des résultats victoire/nul/défaite.
+ * Utilise l'approximation normale du GSPRT : H0 = le joueur A a un Elo de elo0, H1 = elo1.
+ */
+public class Sprt {
+
+    public enum Decision {
+        CONTINUE,
+        ACCEPT_H0,
+        ACCEPT_H1
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * @param elo0 différence d'Elo de l'hypothèse nulle
+     * @param elo1 différence d'Elo de l'hypothèse alternative
+     * @param alpha risque de première espèce
+     * @param beta risque de deuxième espèce
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo0 >= elo1) {
+            throw new IllegalArgumentException("elo0 must be lower than elo1");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Parse une configuration de la forme "elo0,elo1,alpha,beta".
+     */
+    public static Sprt parse(String spec) {
+        String[] parts = spec.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Expected elo0,elo1,alpha,beta but got: " + spec);
+        }
+        return new Sprt(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]),
+                Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+    }
+
+    /**
+     * Calcule le log du rapport de vraisemblance pour les résultats observés.
+     *
+     * Un demi-résultat fictif est ajouté à chaque catégorie : sans cela la variance est nulle, et le test
+     * bloqué, tant qu'un des joueurs n'a gagné aucune partie (typiquement un écart de force important).
+     */
+    public double llr(long wins, long draws, long losses) {
+        if (wins + draws + losses == 0) {
+            return 0.0;
+        }
+        double w = wins + 0.5;
+        double d = draws + 0.5;
+        double l = losses + 0.5;
+        double n = w + d + l;
+        double score = (w + 0.5 * d) / n;
+        double variance = (w * Math.pow(1 - score, 2)
+                + d * Math.pow(0.5 - score, 2)
+                + l * Math.pow(score, 2)) / n;
+        double s0 = expectedScore(elo0);
+        double s1 = expectedScore(elo1);
+        return (s1 - s0) * (2 * score - s0 - s1) * n / (2 * variance);
+    }
+
+    public Decision decide(long wins, long draws, long losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound) return Decision.ACCEPT_H1;
+        if (llr <= lowerBound) return Decision.ACCEPT_H0;
+        return Decision.CONTINUE;
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    private static double expectedScore(double elo) {
+        return 1.0 / (1.0 + Math.pow(10, -elo / 400.0));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT(elo0=%.1f, elo1=%.1f, bounds=[%.2f, %.2f])", elo0, elo1, lowerBound, upperBound);
+    }
+}
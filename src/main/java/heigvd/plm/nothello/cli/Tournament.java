@@ -0,0 +1,489 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.GameRecord;
+import heigvd.plm.nothello.game.GameRecordWriter;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.logic.BookStrategy;
+import heigvd.plm.nothello.logic.EvaluationCache;
+import heigvd.plm.nothello.logic.NotHelloEndgameStrategy;
+import heigvd.plm.nothello.logic.NotHelloStrategy;
+import heigvd.plm.nothello.logic.OpeningBook;
+import heigvd.plm.nothello.logic.Strategies;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Fait jouer N parties entre deux stratégies, sans interface graphique et sur tous les coeurs disponibles.
+ * Les couleurs sont alternées : les parties 2k et 2k+1 partent de la même ouverture aléatoire,
+ * avec A en noir puis A en blanc.
+ */
+public class Tournament {
+
+    // Cases vides sous lesquelles les deux stratégies résolvent la fin de partie, quelques dizaines de ms par coup
+    static final int DEFAULT_ENDGAME_EMPTIES = 12;
+
+    private final String nameA;
+    private final String nameB;
+    private final Supplier<NotHelloStrategy> strategyA;
+    private final Supplier<NotHelloStrategy> strategyB;
+    private final int games;
+
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int randomPlies = 0;
+    private long seed = 42;
+    private Sprt sprt = null;
+    private EvaluationCache<int[]> cache = null;
+    private GameListener listener = null;
+    private GameRecordWriter recordWriter = null;
+
+    public Tournament(String nameA, Supplier<NotHelloStrategy> strategyA,
+                      String nameB, Supplier<NotHelloStrategy> strategyB, int games) {
+        if (games <= 0) {
+            throw new IllegalArgumentException("At least one game is required");
+        }
+        this.nameA = nameA;
+        this.nameB = nameB;
+        this.strategyA = strategyA;
+        this.strategyB = strategyB;
+        this.games = games;
+    }
+
+    public void setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * @param randomPlies nombre de coups aléatoires joués avant de laisser la main aux stratégies
+     */
+    public void setRandomPlies(int randomPlies) {
+        this.randomPlies = randomPlies;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * @param sprt test permettant d'arrêter le tournoi dès qu'une conclusion est atteinte, null pour le désactiver
+     */
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    /**
+     * Partage les coups calculés entre toutes les parties : une position déjà rencontrée (ouverture commune)
+     * n'est pas réévaluée. À n'utiliser qu'avec des stratégies déterministes, une stratégie limitée en temps
+     * rejouerait sinon toujours son premier choix.
+     *
+     * @param maxEntries taille du cache, 0 pour le désactiver
+     */
+    public void setCacheSize(int maxEntries) {
+        this.cache = maxEntries > 0 ? new EvaluationCache<>(maxEntries) : null;
+    }
+
+    /**
+     * @param listener appelé à la fin de chaque partie, depuis le thread qui l'a jouée
+     */
+    public void setGameListener(GameListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @param writer archive à laquelle ajouter chaque partie jouée (noms des stratégies, évaluations des coups
+     *               quand la stratégie en donne), null pour ne rien enregistrer
+     */
+    public void setRecordWriter(GameRecordWriter writer) {
+        this.recordWriter = writer;
+    }
+
+    /**
+     * Lance le tournoi et attend la fin de toutes les parties (ou la décision du SPRT).
+     *
+     * @return les statistiques, du point de vue de la stratégie A
+     */
+    public Result run() throws InterruptedException {
+        // Une instance de chaque stratégie par thread, les stratégies n'étant pas forcément thread-safe.
+        // Toutes sont gardées pour arrêter leurs threads auxiliaires à la fin du tournoi.
+        Queue<NotHelloStrategy> instances = new ConcurrentLinkedQueue<>();
+        ThreadLocal<NotHelloStrategy> localA = ThreadLocal.withInitial(() -> register(instances, strategyA.get()));
+        ThreadLocal<NotHelloStrategy> localB = ThreadLocal.withInitial(() -> register(instances, strategyB.get()));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tournament-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<GameOutcome> completion = new ExecutorCompletionService<>(pool);
+        for (int i = 0; i < games; ++i) {
+            final int game = i;
+            completion.submit(() -> playGame(game, localA.get(), localB.get()));
+        }
+
+        Result result = new Result(threads, cache);
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < games; ++i) {
+                result.add(completion.take().get());
+                if (sprt != null) {
+                    result.sprtDecision = sprt.decide(result.wins, result.draws, result.losses);
+                    result.llr = sprt.llr(result.wins, result.draws, result.losses);
+                    if (result.sprtDecision != Sprt.Decision.CONTINUE) {
+                        break;
+                    }
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("A game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            for (NotHelloStrategy strategy : instances) {
+                Strategies.shutdown(strategy);
+            }
+        }
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+
+    private static NotHelloStrategy register(Queue<NotHelloStrategy> instances, NotHelloStrategy strategy) {
+        instances.add(strategy);
+        return strategy;
+    }
+
+    private GameOutcome playGame(int game, NotHelloStrategy a, NotHelloStrategy b) {
+        boolean aIsBlack = game % 2 == 0;
+        Board board = new Board();
+        int[] moves = new int[BitBoard.SQUARES];
+        short[] evaluations = recordWriter == null ? null : new short[BitBoard.SQUARES];
+        long startMillis = System.currentTimeMillis();
+        // Graine mélangée : des graines consécutives donnent sinon les mêmes premiers tirages à Random
+        Random rng = new Random(new SplittableRandom(seed + game / 2).nextLong());
+        int moveCount = playRandomMoves(board, rng, randomPlies, moves);
+        if (evaluations != null) {
+            Arrays.fill(evaluations, 0, moveCount, GameRecord.NO_EVALUATION);
+        }
+
+        GameOutcome outcome = new GameOutcome(aIsBlack);
+        while (!board.isOver()) {
+            boolean aToMove = (board.getPlayerTurn() == PieceColor.BLACK) == aIsBlack;
+            NotHelloStrategy strategy = aToMove ? a : b;
+
+            long start = System.nanoTime();
+            int[] move = evaluate(strategy, aToMove ? nameA : nameB, board);
+            long elapsed = System.nanoTime() - start;
+
+            if (move == null || !board.isLegalMove(BitBoard.square(move[0], move[1]))) {
+                throw new IllegalStateException((aToMove ? nameA : nameB) + " returned an illegal move in game " + game);
+            }
+            if (evaluations != null) {
+                // Avec le cache, la stratégie n'a pas forcément calculé ce coup : son dernier score serait faux
+                Integer score = cache == null ? Strategies.lastScore(strategy, board) : null;
+                evaluations[moveCount] = score == null ? GameRecord.NO_EVALUATION
+                        : (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, score));
+            }
+            moves[moveCount++] = BitBoard.square(move[0], move[1]);
+            board.makeMove(moves[moveCount - 1]);
+            outcome.addMove(aToMove, elapsed);
+        }
+
+        outcome.blackDiscs = BitBoard.count(board.getDiscs(PieceColor.BLACK));
+        outcome.whiteDiscs = BitBoard.count(board.getDiscs(PieceColor.WHITE));
+        if (listener != null) {
+            listener.gameFinished(game, Arrays.copyOf(moves, moveCount), outcome.blackDiscs, outcome.whiteDiscs);
+        }
+        if (recordWriter != null) {
+            GameRecord record = GameRecord.fromMoves(Arrays.copyOf(moves, moveCount),
+                    Arrays.copyOf(evaluations, moveCount));
+            record.setBlackPlayer(aIsBlack ? "A" : "B");
+            record.setBlackStrategy(aIsBlack ? nameA : nameB);
+            record.setWhitePlayer(aIsBlack ? "B" : "A");
+            record.setWhiteStrategy(aIsBlack ? nameB : nameA);
+            record.setStartMillis(startMillis);
+            record.setDurationMillis((int) (System.currentTimeMillis() - startMillis));
+            try {
+                recordWriter.write(record);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return outcome;
+    }
+
+    private int[] evaluate(NotHelloStrategy strategy, String name, Board board) {
+        if (cache == null) {
+            return strategy.evaluate(board);
+        }
+        EvaluationCache.Key key = EvaluationCache.keyOf(board, name);
+        int[] move = cache.get(key);
+        if (move == null) {
+            move = strategy.evaluate(board);
+            cache.put(key, move);
+        }
+        return move;
+    }
+
+    /**
+     * Joue des coups légaux tirés au hasard, pour diversifier les positions de départ.
+     */
+    static void playRandomMoves(Board board, Random rng, int plies) {
+        playRandomMoves(board, rng, plies, null);
+    }
+
+    /**
+     * @param played si non null, reçoit les cases jouées
+     * @return le nombre de coups joués
+     */
+    static int playRandomMoves(Board board, Random rng, int plies, int[] played) {
+        // Les plateaux qui ne sont pas en 8x8 passent par la liste des coups légaux
+        int[] legal = board.isSingleWord() ? null : new int[board.getSquares()];
+        int ply = 0;
+        for (; ply < plies && !board.isOver(); ++ply) {
+            int square;
+            if (legal != null) {
+                square = legal[rng.nextInt(board.getLegalSquares(legal))];
+            } else {
+                long moves = board.getLegalMoves();
+                for (int skip = rng.nextInt(BitBoard.count(moves)); skip > 0; --skip) {
+                    moves &= moves - 1;
+                }
+                square = Long.numberOfTrailingZeros(moves);
+            }
+            if (played != null) {
+                played[ply] = square;
+            }
+            board.makeMove(square);
+        }
+        return ply;
+    }
+
+    /**
+     * Observateur des parties terminées, par exemple pour construire un livre d'ouvertures.
+     */
+    public interface GameListener {
+        /**
+         * @param moves cases jouées depuis la position initiale, ouverture aléatoire comprise (passes implicites)
+         */
+        void gameFinished(int game, int[] moves, int blackDiscs, int whiteDiscs);
+    }
+
+    /**
+     * Résultat d'une seule partie.
+     */
+    private static class GameOutcome {
+        final boolean aIsBlack;
+        int blackDiscs;
+        int whiteDiscs;
+        long nanosA, nanosB;
+        int movesA, movesB;
+
+        GameOutcome(boolean aIsBlack) {
+            this.aIsBlack = aIsBlack;
+        }
+
+        void addMove(boolean byA, long nanos) {
+            if (byA) {
+                nanosA += nanos;
+                ++movesA;
+            } else {
+                nanosB += nanos;
+                ++movesB;
+            }
+        }
+
+        int discDifferentialA() {
+            return aIsBlack ? blackDiscs - whiteDiscs : whiteDiscs - blackDiscs;
+        }
+    }
+
+    /**
+     * Statistiques cumulées du tournoi, du point de vue de la stratégie A.
+     */
+    public static class Result {
+        private final int threads;
+        private final EvaluationCache<int[]> cache;
+        private long wins, draws, losses;
+        private long discDifferential;
+        private long nanosA, nanosB;
+        private long movesA, movesB;
+        private long elapsedNanos;
+        private double llr;
+        private Sprt.Decision sprtDecision;
+
+        Result(int threads, EvaluationCache<int[]> cache) {
+            this.threads = threads;
+            this.cache = cache;
+        }
+
+        void add(GameOutcome outcome) {
+            int diff = outcome.discDifferentialA();
+            if (diff > 0) ++wins;
+            else if (diff < 0) ++losses;
+            else ++draws;
+            discDifferential += diff;
+            nanosA += outcome.nanosA;
+            nanosB += outcome.nanosB;
+            movesA += outcome.movesA;
+            movesB += outcome.movesB;
+        }
+
+        public long getGames() {
+            return wins + draws + losses;
+        }
+
+        public long getWins() {
+            return wins;
+        }
+
+        public long getDraws() {
+            return draws;
+        }
+
+        public long getLosses() {
+            return losses;
+        }
+
+        public double getScore() {
+            return getGames() == 0 ? 0.0 : (wins + 0.5 * draws) / getGames();
+        }
+
+        public double getAverageDiscDifferential() {
+            return getGames() == 0 ? 0.0 : (double) discDifferential / getGames();
+        }
+
+        public double getAverageMoveMillisA() {
+            return movesA == 0 ? 0.0 : nanosA / 1e6 / movesA;
+        }
+
+        public double getAverageMoveMillisB() {
+            return movesB == 0 ? 0.0 : nanosB / 1e6 / movesB;
+        }
+
+        public double getGamesPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : getGames() / (elapsedNanos / 1e9);
+        }
+
+        public Sprt.Decision getSprtDecision() {
+            return sprtDecision;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Games: %d on %d threads, A: +%d =%d -%d (score %.1f%%)%n",
+                    getGames(), threads, wins, draws, losses, 100 * getScore()));
+            sb.append(String.format("Disc differential (A - B): %+.2f per game%n", getAverageDiscDifferential()));
+            sb.append(String.format("Average time per move: A %.3f ms, B %.3f ms%n",
+                    getAverageMoveMillisA(), getAverageMoveMillisB()));
+            sb.append(String.format("Throughput: %.2f games/s (%.1f s)", getGamesPerSecond(), elapsedNanos / 1e9));
+            if (sprtDecision != null) {
+                sb.append(String.format("%nSPRT: llr %.3f, %s", llr, sprtDecision));
+            }
+            if (cache != null) {
+                sb.append(System.lineSeparator()).append(cache);
+            }
+            return sb.toString();
+        }
+    }
+
+    private static void usage() {
+        System.err.println("Usage: tournament --a <strategy> --b <strategy> [--games N] [--threads T]"
+                + " [--random-plies K] [--seed S] [--sprt elo0,elo1,alpha,beta] [--cache N] [--book file]"
+                + " [--endgame E] [--record file]");
+        System.err.println("--endgame: solve the last E empty squares exactly (default "
+                + DEFAULT_ENDGAME_EMPTIES + ", 0 to disable)");
+        System.err.println("Strategies: " + Strategies.names());
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        String a = null, b = null, sprt = null, bookFile = null, recordFile = null;
+        int games = 100, threads = Runtime.getRuntime().availableProcessors(), randomPlies = 0, cacheSize = 0;
+        int endgameEmpties = DEFAULT_ENDGAME_EMPTIES;
+        long seed = 42;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--a" -> a = value;
+                    case "--b" -> b = value;
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--random-plies" -> randomPlies = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--sprt" -> sprt = value;
+                    case "--cache" -> cacheSize = Integer.parseInt(value);
+                    case "--book" -> bookFile = value;
+                    case "--endgame" -> endgameEmpties = Integer.parseInt(value);
+                    case "--record" -> recordFile = value;
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (a == null || b == null) {
+                throw new IllegalArgumentException("Both --a and --b are required");
+            }
+        } catch (RuntimeException e) {
+            System.err.println(e.getMessage());
+            usage();
+            System.exit(1);
+            return;
+        }
+
+        final String nameA = a, nameB = b;
+        Supplier<NotHelloStrategy> strategyA = () -> Strategies.create(nameA);
+        Supplier<NotHelloStrategy> strategyB = () -> Strategies.create(nameB);
+        if (endgameEmpties > 0) {
+            // Les deux stratégies passent à la résolution exacte sous le seuil de cases vides
+            final int empties = endgameEmpties;
+            Supplier<NotHelloStrategy> midgameA = strategyA, midgameB = strategyB;
+            strategyA = () -> new NotHelloEndgameStrategy(midgameA.get(), empties);
+            strategyB = () -> new NotHelloEndgameStrategy(midgameB.get(), empties);
+        }
+        if (bookFile != null) {
+            // Les deux stratégies jouent les coups du livre tant que la position y figure
+            OpeningBook book = OpeningBook.open(Paths.get(bookFile));
+            System.out.println(book);
+            Supplier<NotHelloStrategy> withoutBookA = strategyA, withoutBookB = strategyB;
+            strategyA = () -> new BookStrategy(book, withoutBookA.get());
+            strategyB = () -> new BookStrategy(book, withoutBookB.get());
+        }
+        Tournament tournament = new Tournament(nameA, strategyA, nameB, strategyB, games);
+        tournament.setThreads(threads);
+        tournament.setRandomPlies(randomPlies);
+        tournament.setSeed(seed);
+        tournament.setCacheSize(cacheSize);
+        if (sprt != null) {
+            tournament.setSprt(Sprt.parse(sprt));
+        }
+
+        System.out.println("Tournament: A=" + nameA + " vs B=" + nameB);
+        if (recordFile == null) {
+            System.out.println(tournament.run());
+            return;
+        }
+        try (GameRecordWriter writer = new GameRecordWriter(Paths.get(recordFile))) {
+            tournament.setRecordWriter(writer);
+            System.out.println(tournament.run());
+            System.out.println(writer.getWritten() + " games appended to " + recordFile);
+        }
+    }
+}
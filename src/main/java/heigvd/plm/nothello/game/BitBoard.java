@@ -0,0 +1,135 @@
+package heigvd.plm.nothello.game;
+
+/**
+ * Représentation "bitboard" d'un plateau 8x8 : un long par couleur, un bit par case.
+ * La case (x, y) correspond au bit {@code x * 8 + y} (x = ligne, y = colonne), comme dans {@link Board}.
+ *
+ * Toutes les méthodes sont statiques et travaillent directement sur des longs, afin que le code
+ * de recherche puisse manipuler des positions sans aucune allocation.
+ */
+public final class BitBoard {
+
+    public static final int SIZE = 8;
+    public static final int SQUARES = SIZE * SIZE;
+
+    /** Cases de la colonne 0 (y == 0) */
+    public static final long COL_0 = 0x0101010101010101L;
+    /** Cases de la colonne 7 (y == 7) */
+    public static final long COL_7 = 0x8080808080808080L;
+
+    /** Nombre de directions, dans le même ordre que {@link Direction#getAllDirections()} */
+    public static final int DIRECTIONS = 8;
+
+    private static final long NOT_COL_0 = ~COL_0;
+    private static final long NOT_COL_7 = ~COL_7;
+
+    /** Position initiale (cf. constructeur de {@link Board}) */
+    public static final long INITIAL_WHITE = bit(3, 3) | bit(4, 4);
+    public static final long INITIAL_BLACK = bit(3, 4) | bit(4, 3);
+
+    private BitBoard() {
+    }
+
+    public static int square(int x, int y) {
+        return x * SIZE + y;
+    }
+
+    public static int x(int square) {
+        return square >>> 3;
+    }
+
+    public static int y(int square) {
+        return square & 7;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static long bit(int x, int y) {
+        return 1L << square(x, y);
+    }
+
+    public static int count(long discs) {
+        return Long.bitCount(discs);
+    }
+
+    /**
+     * Décale toutes les cases d'un pas dans la direction donnée, en supprimant celles qui sortent du plateau.
+     *
+     * @param discs ensemble de cases
+     * @param dir index de direction (0..7), cf. {@link #DIRECTIONS}
+     * @return les cases décalées
+     */
+    public static long shift(long discs, int dir) {
+        switch (dir) {
+            case 0: return (discs >>> 9) & NOT_COL_7; // (-1, -1)
+            case 1: return discs >>> 8;               // (-1,  0)
+            case 2: return (discs >>> 7) & NOT_COL_0; // (-1, +1)
+            case 3: return (discs >>> 1) & NOT_COL_7; // ( 0, -1)
+            case 4: return (discs << 1) & NOT_COL_0;  // ( 0, +1)
+            case 5: return (discs << 7) & NOT_COL_7;  // (+1, -1)
+            case 6: return discs << 8;                // (+1,  0)
+            default: return (discs << 9) & NOT_COL_0; // (+1, +1)
+        }
+    }
+
+    /**
+     * Calcule l'ensemble des coups légaux pour le joueur {@code player}.
+     *
+     * @param player pièces du joueur qui doit jouer
+     * @param opponent pièces de l'adversaire
+     * @return un masque des cases jouables
+     */
+    public static long legalMoves(long player, long opponent) {
+        long empty = ~(player | opponent);
+        long moves = 0L;
+        for (int dir = 0; dir < DIRECTIONS; ++dir) {
+            moves |= movesInDirection(player, opponent, empty, dir);
+        }
+        return moves;
+    }
+
+    private static long movesInDirection(long player, long opponent, long empty, int dir) {
+        long x = shift(player, dir) & opponent;
+        x |= shift(x, dir) & opponent;
+        x |= shift(x, dir) & opponent;
+        x |= shift(x, dir) & opponent;
+        x |= shift(x, dir) & opponent;
+        x |= shift(x, dir) & opponent;
+        return shift(x, dir) & empty;
+    }
+
+    /**
+     * Indique si le joueur {@code player} a au moins un coup légal.
+     */
+    public static boolean hasMove(long player, long opponent) {
+        return legalMoves(player, opponent) != 0L;
+    }
+
+    /**
+     * Calcule les pièces adverses retournées si {@code player} joue en {@code square}.
+     * La case elle-même n'est pas vérifiée (elle doit être vide pour que le coup soit légal).
+     *
+     * @param player pièces du joueur qui joue
+     * @param opponent pièces de l'adversaire
+     * @param square case jouée
+     * @return le masque des pièces retournées, 0 si le coup est illégal
+     */
+    public static long flips(long player, long opponent, int square) {
+        long move = 1L << square;
+        long flipped = 0L;
+        for (int dir = 0; dir < DIRECTIONS; ++dir) {
+            long line = 0L;
+            long cursor = shift(move, dir);
+            while ((cursor & opponent) != 0L) {
+                line |= cursor;
+                cursor = shift(cursor, dir);
+            }
+            if ((cursor & player) != 0L) {
+                flipped |= line;
+            }
+        }
+        return flipped;
+    }
+}
@@ -1,280 +1,705 @@
-package heigvd.plm.nothello.game;
-
-import heigvd.plm.nothello.logic.NotHelloConstraintStrategy;
-import heigvd.plm.nothello.logic.NotHelloStrategy;
-
-import java.sql.SQLOutput;
-import java.util.LinkedList;
-
-public class Board {
-    public static final int BOARD_SIZE = 8;
-
-    private PieceColor[][] board;
-    private PieceColor currentPlayer;
-    private boolean gameOver = false;
-
-    public Board() {
-        // Set initial state
-        this.board = new PieceColor[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                board[i][j] = PieceColor.NONE;
-            }
-        }
-        board[3][3] = PieceColor.WHITE;
-        board[3][4] = PieceColor.BLACK;
-        board[4][3] = PieceColor.BLACK;
-        board[4][4] = PieceColor.WHITE;
-
-        currentPlayer = PieceColor.WHITE;
-    }
-
-    public PieceColor getColorAt(int x, int y) {
-        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
-        }
-        return board[x][y];
-    }
-
-    public boolean playAt(int x, int y) {
-        //System.out.println("try to played at: (" + x + ";" + y + ")");
-
-        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
-        }
-
-        int score = setColorAt(x, y, currentPlayer);
-        if (score >= 1) {
-            updateBoard(x, y, currentPlayer);
-            currentPlayer = currentPlayer.opposite();
-
-            if (!isPlayable()) {
-                System.out.println("No more moves available for " + currentPlayer);
-                currentPlayer = currentPlayer.opposite();
-                if (!isPlayable()) {
-                    System.out.println("Game over, no one can play");
-                    end();
-                }
-            }
-            return true;
-        }
-        else {
-            System.out.println("Invalid placement at (" + x + ";" + y + "), score: " + score);
-            return false;
-        }
-    }
-
-    public java.util.List<int[]> getValidMovesForCurrentPlayer() { // TODO : voir si on ne devrait pas utiliser OR-Tools pour ça
-        java.util.List<int[]> validMoves = new java.util.ArrayList<>();
-        for (int i = 0; i < 8; ++i) {
-            for (int j = 0; j < 8; ++j) {
-                if (board[i][j] == PieceColor.NONE && getMoveScore(i, j, currentPlayer) > 0) {
-                    validMoves.add(new int[]{i, j});
-                }
-            }
-        }
-        return validMoves;
-    }
-
-    private void end() {
-        int blackScore = 0;
-        int whiteScore = 0;
-
-        for (int i = 0; i < 8; ++i) {
-            for (int j = 0; j < 8; ++j) {
-                if (board[i][j] == PieceColor.BLACK) {
-                    ++blackScore;
-                } else if (board[i][j] == PieceColor.WHITE) {
-                    ++whiteScore;
-                }
-            }
-        }
-
-        System.out.println("Game over! Final score: Black: " + blackScore + ", White: " + whiteScore);
-        gameOver = true;
-    }
-
-    public boolean isOver() {
-        return gameOver;
-    }
-
-    private boolean isPlayable() {
-        for (int i = 0; i < 8; ++i) {
-            for (int j = 0; j < 8; ++j) {
-                // TODO : optimisation car getMoveScore va calculer le score complet
-                //  alors qu'on a juste besoin de savoir si un coup est possible pour le joueur courant
-
-                if (board[i][j] == PieceColor.NONE && getMoveScore(i, j, currentPlayer) > 0) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private void updateBoard(int x, int y, PieceColor color) { // TODO : optimisation
-        for (int i = -1; i < 2; ++i) {
-            for (int j = -1; j < 2; ++j) {
-                if (i == 0 && j == 0) continue; // Skip these positions
-                int nx = x + i;
-                int ny = y + j;
-                int tmp_val = 0;
-                boolean ok = false;
-
-                while(nx >= 0 && ny >= 0 && nx < 8 && ny < 8) {
-                    if (board[nx][ny] == color.opposite()) {
-                        ++tmp_val;
-                        nx += i;
-                        ny += j;
-                    }
-                    else if (board[nx][ny] == color) {
-                        ok = true;
-                        break;
-                    }
-                    else { // empty cell
-                        break;
-                    }
-                }
-
-                if (ok) {
-                    for (int k = 0; k < tmp_val; ++k) {
-                        nx -= i;
-                        ny -= j;
-                        System.out.println("played at: (" + x + ";" + y + "), colored: (" + nx + ";" + ny + ")");
-                        board[nx][ny] = color;
-                    }
-                }
-            }
-        }
-    }
-
-    public int setColorAt(int x, int y, PieceColor pieceColor) {
-        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
-        }
-        if (board[x][y] != PieceColor.NONE) {
-            //System.out.println("at: (" + x + ";" + y + ") contain piece");
-            return 0; // Cannot overwrite an existing piece
-        }
-
-        int score = getMoveScore(x, y, pieceColor);
-        if (score == 0) {
-            //System.out.println("at: (" + x + ";" + y + ") Invalid move");
-            return 0; // Invalid move
-        }
-        board[x][y] = pieceColor;
-        return score;
-    }
-
-    public void hardSetColorAt(int x, int y, PieceColor pieceColor) {
-        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
-        }
-
-        board[x][y] = pieceColor;
-    }
-
-
-    /**
-     * Force player turn
-     * @param pieceColor the new player color desired
-     * @return false if nothing changed
-     */
-    public boolean setPlayerTurn(PieceColor pieceColor) {
-        if (getPlayerTurn() == pieceColor) return false;
-        currentPlayer = pieceColor;
-        return true;
-    }
-
-    public PieceColor getPlayerTurn() {
-        return currentPlayer;
-    }
-
-    public int getMoveScore(int x, int y, PieceColor pieceColor) { // TODO : optimisation
-        if (x < 0 || x >= 8 || y < 0 || y >= 8) {
-            throw new IllegalArgumentException("Coordinates out of bounds");
-        }
-        if (board[x][y] != PieceColor.NONE) {
-            return 0; // Cannot overwrite an existing piece
-        }
-
-        int score = 0;
-        int tmpScore;
-        boolean ok;
-        for (int i = -1; i <= 1; ++i) {
-            for (int j = -1; j <= 1; ++j) {
-                tmpScore = 0;
-                ok = false;
-                if (i == 0 && j == 0) continue; // Skip the current position
-                int nx = x + i;
-                int ny = y + j;
-                if (i == 1 && j == -1 && x == 2 && y == 5) {
-                    //System.out.println("for (2, 5), pieceColor: " + pieceColor);
-                }
-                while (nx >= 0 && nx < 8 && ny >= 0 && ny < 8) {
-                    if (i == 1 && j == -1 && x == 2 && y == 5) {
-                        //System.out.println("nx: " + nx + ", ny: " + ny + ", board[nx][ny]: " + board[nx][ny]);
-                    }
-                    if (board[nx][ny] == pieceColor.opposite()) {
-                        if (i == 1 && j == -1 && x == 2 && y == 5) {
-                            //System.out.println("tmpScore: " + (tmpScore + 1));
-                        }
-                        tmpScore++;
-                    } else if (board[nx][ny] == pieceColor) {
-                        ok = true;
-                        if (i == 1 && j == -1 && x == 2 && y == 5) {
-                            //System.out.println("ok");
-                        }
-                        break;
-                    } else {
-                        break;
-                    }
-                    nx += i;
-                    ny += j;
-                }
-                if (ok) score += tmpScore;
-            }
-        }
-        //System.out.println("for: (" + x + ";" + y + "), score: " + score);
-        return score;
-    }
-
-    @Override
-    public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("  0 1 2 3 4 5 6 7\n");
-        sb.append(" ┌────────────────┐\n");
-        for (int i = 0; i < 8; i++) {
-            sb.append(i).append("│");
-            for (int j = 0; j < 8; j++) {
-                sb.append(board[i][j].getChar());
-                sb.append(" ");
-            }
-            sb.append("│\n");
-        }
-        sb.append(" └────────────────┘");
-        return sb.toString();
-    }
-
-    /*
-        * Retourne une matrice qui représente l'état du plateau de jeu.
-        * 0 représente une case vide
-        * 1 représente une pièce de la couleur du joueur qui demande
-        * 2 représente une pièce de l'adversaire.
-     */
-    public int[][] getBoardMatrix(PieceColor forColor) {
-        int[][] matrix = new int[8][8];
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (board[i][j] == PieceColor.NONE) {
-                    matrix[i][j] = NotHelloConstraintStrategy.EMPTY;
-                } else if (board[i][j] == forColor) {
-                    matrix[i][j] = NotHelloConstraintStrategy.MY_COLOR;
-                } else {
-                    matrix[i][j] = NotHelloConstraintStrategy.OPP_COLOR;
-                }
-            }
-        }
-        return matrix;
-    }
-}
+package heigvd.plm.nothello.game;
+
+import heigvd.plm.nothello.log.Log;
+import heigvd.plm.nothello.logic.NotHelloConstraintStrategy;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Metrics;
+
+public class Board {
+    /** Taille par défaut du plateau */
+    public static final int BOARD_SIZE = BitBoard.SIZE;
+    /** Tailles de plateau acceptées (paires, cf. Board(int)) */
+    public static final int MIN_SIZE = 6;
+    public static final int MAX_SIZE = 16;
+
+    private final int size;
+    private final int squares;
+    // Représentation des plateaux qui ne sont pas en 8x8, null pour le chemin rapide sur un long (cf. BitBoard)
+    private final WideBitBoard wide;
+
+    // En 8x8, une case (x, y) correspond au bit x * 8 + y, cf. BitBoard
+    private long black;
+    private long white;
+    // Sinon, un bit par case x * size + y sur plusieurs longs, cf. WideBitBoard
+    private final long[] blackWords;
+    private final long[] whiteWords;
+    // Tableaux de travail de WideBitBoard, pour jouer sans allocation
+    private final long[] moveWords;
+    private final long[] lineWords;
+    private final long[] shiftedWords;
+    private final long[] flippedWords;
+    private PieceColor currentPlayer;
+    private boolean gameOver = false;
+    // Clé de Zobrist de la position, mise à jour à chaque coup et passe
+    private long zobristKey;
+
+    private static final Log LOG = Log.get("board");
+    private static final Counter MOVES = Metrics.counter("board.moves");
+    private static final Counter LEGAL_MOVES = Metrics.counter("board.legalMoves");
+
+    /** Valeur de "case" enregistrée pour un passe */
+    public static final int PASS = -1;
+
+    // Historique pour makeMove/unmakeMove, préalloué pour ne rien allouer pendant une recherche.
+    // En 8x8, 60 coups au plus, plus quelques passes explicites ; sinon un passe au plus par coup.
+    private static final int MAX_PLIES = 128;
+    private final int maxPlies;
+    private final long[] undoFlipped;
+    private final short[] undoSquare;
+    private final PieceColor[] undoPlayer;
+    private final long[] undoKey;
+    private int ply = 0;
+
+    public Board() {
+        this(BOARD_SIZE);
+    }
+
+    /**
+     * Plateau de taille size x size dans la position initiale : les quatre pièces au centre,
+     * comme en 8x8.
+     *
+     * @param size taille paire entre MIN_SIZE et MAX_SIZE
+     */
+    public Board(int size) {
+        this(size, size != BitBoard.SIZE);
+    }
+
+    /**
+     * @param forceWide utilise WideBitBoard même en 8x8 (pour comparer les deux représentations)
+     */
+    Board(int size, boolean forceWide) {
+        if (size < MIN_SIZE || size > MAX_SIZE || size % 2 != 0) {
+            throw new IllegalArgumentException("Invalid board size: " + size + ", expected an even size between "
+                    + MIN_SIZE + " and " + MAX_SIZE);
+        }
+        this.size = size;
+        this.squares = size * size;
+        this.wide = forceWide ? WideBitBoard.of(size) : null;
+        int words = wide == null ? 0 : wide.getWords();
+        blackWords = new long[words];
+        whiteWords = new long[words];
+        moveWords = new long[words];
+        lineWords = new long[words];
+        shiftedWords = new long[words];
+        flippedWords = new long[words];
+        maxPlies = wide == null ? MAX_PLIES : 2 * squares;
+        undoFlipped = new long[wide == null ? maxPlies : maxPlies * words];
+        undoSquare = new short[maxPlies];
+        undoPlayer = new PieceColor[maxPlies];
+        undoKey = new long[maxPlies];
+
+        // Set initial state
+        int c = size / 2;
+        if (wide == null) {
+            black = BitBoard.INITIAL_BLACK;
+            white = BitBoard.INITIAL_WHITE;
+        } else {
+            WideBitBoard.set(whiteWords, square(c - 1, c - 1));
+            WideBitBoard.set(whiteWords, square(c, c));
+            WideBitBoard.set(blackWords, square(c - 1, c));
+            WideBitBoard.set(blackWords, square(c, c - 1));
+        }
+
+        currentPlayer = PieceColor.WHITE;
+        rehash();
+    }
+
+    /**
+     * Copie la position d'un autre plateau (sans son historique de coups).
+     *
+     * @param other le plateau à copier
+     */
+    public Board(Board other) {
+        this(other.size, other.wide != null);
+        black = other.black;
+        white = other.white;
+        System.arraycopy(other.blackWords, 0, blackWords, 0, blackWords.length);
+        System.arraycopy(other.whiteWords, 0, whiteWords, 0, whiteWords.length);
+        currentPlayer = other.currentPlayer;
+        gameOver = other.gameOver;
+        zobristKey = other.zobristKey;
+    }
+
+    /**
+     * Restaure une position publiée par un instantané, cf. BoardSnapshot.toBoard.
+     *
+     * @param black pièces noires, un bit par case (un seul mot en 8x8)
+     * @param white pièces blanches
+     */
+    Board(int size, boolean forceWide, long[] black, long[] white, PieceColor turn, boolean over, long key) {
+        this(size, forceWide);
+        if (wide == null) {
+            this.black = black[0];
+            this.white = white[0];
+        } else {
+            System.arraycopy(black, 0, blackWords, 0, blackWords.length);
+            System.arraycopy(white, 0, whiteWords, 0, whiteWords.length);
+        }
+        currentPlayer = turn;
+        gameOver = over;
+        zobristKey = key;
+    }
+
+    /**
+     * Construit un plateau à partir de sa forme compacte : size * size caractères ligne par ligne
+     * ('X' noir, 'O' blanc, '-' vide), un espace, puis le joueur qui doit jouer ('X' ou 'O').
+     * La taille est déduite de la longueur (64 cases pour un plateau 8x8).
+     *
+     * @param position la position, cf. toCompactString
+     * @return un nouveau plateau
+     */
+    public static Board fromCompactString(String position) {
+        String trimmed = position.trim();
+        int squares = trimmed.length() - 2;
+        int size = (int) Math.round(Math.sqrt(Math.max(squares, 0)));
+        if (size * size != squares || size < MIN_SIZE || size > MAX_SIZE || size % 2 != 0
+                || trimmed.charAt(squares) != ' ') {
+            throw new IllegalArgumentException("Invalid position: " + position);
+        }
+        Board board = new Board(size);
+        board.clear();
+        for (int square = 0; square < squares; ++square) {
+            switch (trimmed.charAt(square)) {
+                case 'X' -> board.put(square, PieceColor.BLACK);
+                case 'O' -> board.put(square, PieceColor.WHITE);
+                case '-' -> { }
+                default -> throw new IllegalArgumentException("Invalid square at " + square + ": " + position);
+            }
+        }
+        board.currentPlayer = switch (trimmed.charAt(squares + 1)) {
+            case 'X' -> PieceColor.BLACK;
+            case 'O' -> PieceColor.WHITE;
+            default -> throw new IllegalArgumentException("Invalid side to move: " + position);
+        };
+        if (!board.isPlayable()) {
+            board.currentPlayer = board.currentPlayer.opposite();
+            board.gameOver = !board.isPlayable();
+            board.currentPlayer = board.currentPlayer.opposite();
+        }
+        board.rehash();
+        return board;
+    }
+
+    /**
+     * @return la forme compacte de la position, cf. fromCompactString
+     */
+    public String toCompactString() {
+        StringBuilder sb = new StringBuilder(squares + 2);
+        for (int square = 0; square < squares; ++square) {
+            PieceColor color = colorAt(square);
+            sb.append(color == PieceColor.BLACK ? 'X' : color == PieceColor.WHITE ? 'O' : '-');
+        }
+        sb.append(' ').append(currentPlayer == PieceColor.BLACK ? 'X' : 'O');
+        return sb.toString();
+    }
+
+    /**
+     * @return la taille du plateau (size x size cases)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return le nombre de cases du plateau
+     */
+    public int getSquares() {
+        return squares;
+    }
+
+    /**
+     * @return true si le plateau utilise le chemin rapide 8x8 sur un long (getLegalMoves, getDiscs)
+     */
+    public boolean isSingleWord() {
+        return wide == null;
+    }
+
+    /**
+     * @return l'index de la case (x, y) sur ce plateau : x * size + y (cf. BitBoard en 8x8)
+     */
+    public int square(int x, int y) {
+        return x * size + y;
+    }
+
+    public PieceColor getColorAt(int x, int y) {
+        checkBounds(x, y);
+        return colorAt(square(x, y));
+    }
+
+    private PieceColor colorAt(int square) {
+        if (wide == null) {
+            long bit = BitBoard.bit(square);
+            if ((black & bit) != 0L) return PieceColor.BLACK;
+            if ((white & bit) != 0L) return PieceColor.WHITE;
+        } else {
+            if (WideBitBoard.get(blackWords, square)) return PieceColor.BLACK;
+            if (WideBitBoard.get(whiteWords, square)) return PieceColor.WHITE;
+        }
+        return PieceColor.NONE;
+    }
+
+    /**
+     * Pose une pièce sur une case vide, sans retournement ni mise à jour de la clé.
+     */
+    private void put(int square, PieceColor pieceColor) {
+        if (wide == null) {
+            if (pieceColor == PieceColor.BLACK) {
+                black |= BitBoard.bit(square);
+            } else {
+                white |= BitBoard.bit(square);
+            }
+        } else {
+            WideBitBoard.set(pieceColor == PieceColor.BLACK ? blackWords : whiteWords, square);
+        }
+    }
+
+    /**
+     * Vide une case, sans mise à jour de la clé.
+     */
+    private void remove(int square) {
+        if (wide == null) {
+            black &= ~BitBoard.bit(square);
+            white &= ~BitBoard.bit(square);
+        } else {
+            blackWords[square >>> 6] &= ~(1L << square);
+            whiteWords[square >>> 6] &= ~(1L << square);
+        }
+    }
+
+    private void clear() {
+        black = 0L;
+        white = 0L;
+        java.util.Arrays.fill(blackWords, 0L);
+        java.util.Arrays.fill(whiteWords, 0L);
+    }
+
+    private void rehash() {
+        zobristKey = wide == null
+                ? Zobrist.hash(black, white, currentPlayer)
+                : Zobrist.hash(blackWords, whiteWords, currentPlayer);
+    }
+
+    public boolean playAt(int x, int y) {
+        //System.out.println("try to played at: (" + x + ";" + y + ")");
+        checkBounds(x, y);
+
+        int square = square(x, y);
+        if (!isLegalMove(square)) {
+            if (LOG.isEnabled(Log.Level.INFO)) {
+                LOG.log(Log.Level.INFO, "Invalid placement at ({};{}), score: {}", x, y, getMoveScore(x, y, currentPlayer));
+            }
+            return false;
+        }
+
+        PieceColor player = currentPlayer;
+        makeMove(square);
+        if (currentPlayer == player) {
+            LOG.info("No more moves available for {}", player.opposite());
+            if (gameOver) {
+                LOG.info("Game over, no one can play");
+                end();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Joue un coup légal pour le joueur courant, sans aucune allocation.
+     * Les passes qui en découlent sont gérés comme dans playAt : si l'adversaire ne peut pas jouer,
+     * le joueur courant rejoue, et si personne ne peut jouer la partie est terminée.
+     *
+     * @param square la case jouée (cf. square(x, y))
+     * @return un jeton à passer à unmakeMove pour annuler le coup
+     */
+    public int makeMove(int square) {
+        if (wide != null) {
+            return makeWideMove(square);
+        }
+        long move = BitBoard.bit(square);
+        long player = getDiscs(currentPlayer);
+        long opponent = getDiscs(currentPlayer.opposite());
+        long flipped = ((player | opponent) & move) == 0L ? BitBoard.flips(player, opponent, square) : 0L;
+        if (flipped == 0L) {
+            throw new IllegalArgumentException("Illegal move at square " + square);
+        }
+
+        int token = pushUndo(square, flipped);
+        MOVES.increment();
+        if (currentPlayer == PieceColor.BLACK) {
+            black |= move | flipped;
+            white ^= flipped;
+        } else {
+            white |= move | flipped;
+            black ^= flipped;
+        }
+        zobristKey ^= Zobrist.disc(currentPlayer, square) ^ Zobrist.flips(flipped);
+        endMove();
+        return token;
+    }
+
+    private int makeWideMove(int square) {
+        long[] player = words(currentPlayer);
+        long[] opponent = words(currentPlayer.opposite());
+        if (square < 0 || square >= squares || WideBitBoard.get(player, square) || WideBitBoard.get(opponent, square)
+                || wide.flips(player, opponent, square, flippedWords) == 0) {
+            throw new IllegalArgumentException("Illegal move at square " + square);
+        }
+
+        int token = pushUndo(square, 0L);
+        System.arraycopy(flippedWords, 0, undoFlipped, token * flippedWords.length, flippedWords.length);
+        MOVES.increment();
+        for (int i = 0; i < flippedWords.length; ++i) {
+            player[i] |= flippedWords[i];
+            opponent[i] ^= flippedWords[i];
+        }
+        WideBitBoard.set(player, square);
+        zobristKey ^= Zobrist.disc(currentPlayer, square) ^ Zobrist.flips(flippedWords);
+        endMove();
+        return token;
+    }
+
+    /**
+     * Donne le trait à l'adversaire, ou le rend au joueur courant si l'adversaire doit passer.
+     */
+    private void endMove() {
+        currentPlayer = currentPlayer.opposite();
+        if (!isPlayable()) {
+            currentPlayer = currentPlayer.opposite();
+            gameOver = !isPlayable();
+        } else {
+            zobristKey ^= Zobrist.SIDE;
+        }
+    }
+
+    /**
+     * Passe le tour du joueur courant. Uniquement possible s'il n'a aucun coup légal,
+     * ce qui n'arrive que pour une position construite à la main (les passes sont sinon automatiques).
+     *
+     * @return un jeton à passer à unmakeMove pour annuler le passe
+     */
+    public int makePass() {
+        if (isPlayable()) {
+            throw new IllegalStateException("Cannot pass, " + currentPlayer + " has a legal move");
+        }
+        int token = pushUndo(PASS, 0L);
+        currentPlayer = currentPlayer.opposite();
+        zobristKey ^= Zobrist.SIDE;
+        gameOver = !isPlayable();
+        return token;
+    }
+
+    /**
+     * Annule le dernier coup (ou passe) joué avec makeMove/makePass et restaure exactement la position.
+     *
+     * @param token le jeton retourné par makeMove/makePass, les coups doivent être annulés dans l'ordre inverse
+     */
+    public void unmakeMove(int token) {
+        if (token != ply - 1) {
+            throw new IllegalStateException("Moves must be undone in reverse order");
+        }
+        --ply;
+        PieceColor player = undoPlayer[ply];
+        int square = undoSquare[ply];
+        if (square != PASS && wide == null) {
+            long move = BitBoard.bit(square);
+            long flipped = undoFlipped[ply];
+            if (player == PieceColor.BLACK) {
+                black &= ~(move | flipped);
+                white |= flipped;
+            } else {
+                white &= ~(move | flipped);
+                black |= flipped;
+            }
+        } else if (square != PASS) {
+            long[] mine = words(player);
+            long[] theirs = words(player.opposite());
+            int offset = ply * mine.length;
+            for (int i = 0; i < mine.length; ++i) {
+                mine[i] &= ~undoFlipped[offset + i];
+                theirs[i] |= undoFlipped[offset + i];
+            }
+            mine[square >>> 6] &= ~(1L << square);
+        }
+        currentPlayer = player;
+        zobristKey = undoKey[ply];
+        gameOver = false; // un coup n'a pu être joué que si la partie n'était pas terminée
+    }
+
+    private int pushUndo(int square, long flipped) {
+        if (gameOver) {
+            throw new IllegalStateException("Game is over");
+        }
+        if (ply == maxPlies) {
+            throw new IllegalStateException("Too many moves to undo");
+        }
+        undoSquare[ply] = (short) square;
+        if (wide == null) {
+            undoFlipped[ply] = flipped;
+        }
+        undoPlayer[ply] = currentPlayer;
+        undoKey[ply] = zobristKey;
+        return ply++;
+    }
+
+    /**
+     * @param square une case (cf. square(x, y))
+     * @return true si le joueur courant peut jouer sur cette case
+     */
+    public boolean isLegalMove(int square) {
+        if (square < 0 || square >= squares) {
+            return false;
+        }
+        if (wide == null) {
+            return (getLegalMoves() & BitBoard.bit(square)) != 0L;
+        }
+        return !WideBitBoard.get(blackWords, square) && !WideBitBoard.get(whiteWords, square)
+                && wide.flips(words(currentPlayer), words(currentPlayer.opposite()), square, flippedWords) != 0;
+    }
+
+    public java.util.List<int[]> getValidMovesForCurrentPlayer() {
+        java.util.List<int[]> validMoves = new java.util.ArrayList<>();
+        if (wide == null) {
+            long moves = getLegalMoves();
+            while (moves != 0L) {
+                int square = Long.numberOfTrailingZeros(moves);
+                moves &= moves - 1;
+                validMoves.add(new int[]{BitBoard.x(square), BitBoard.y(square)});
+            }
+        } else {
+            legalWords();
+            for (int square = WideBitBoard.next(moveWords, 0); square >= 0; square = WideBitBoard.next(moveWords, square + 1)) {
+                validMoves.add(new int[]{square / size, square % size});
+            }
+        }
+        return validMoves;
+    }
+
+    /**
+     * Liste les coups légaux du joueur courant sans allocation, quelle que soit la taille du plateau.
+     *
+     * @param out reçoit les cases jouables (cf. square(x, y)), au moins getSquares() éléments
+     * @return le nombre de coups légaux
+     */
+    public int getLegalSquares(int[] out) {
+        int count = 0;
+        if (wide == null) {
+            for (long moves = getLegalMoves(); moves != 0L; moves &= moves - 1) {
+                out[count++] = Long.numberOfTrailingZeros(moves);
+            }
+        } else {
+            legalWords();
+            for (int square = WideBitBoard.next(moveWords, 0); square >= 0; square = WideBitBoard.next(moveWords, square + 1)) {
+                out[count++] = square;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return le masque (cf. BitBoard) des coups légaux pour le joueur courant
+     * @throws IllegalStateException si le plateau n'utilise pas la représentation 8x8, cf. isSingleWord
+     */
+    public long getLegalMoves() {
+        requireSingleWord();
+        LEGAL_MOVES.increment();
+        return BitBoard.legalMoves(getDiscs(currentPlayer), getDiscs(currentPlayer.opposite()));
+    }
+
+    private void legalWords() {
+        LEGAL_MOVES.increment();
+        wide.legalMoves(words(currentPlayer), words(currentPlayer.opposite()), moveWords, lineWords, shiftedWords);
+    }
+
+    /**
+     * @return true si le joueur courant a au moins un coup légal
+     */
+    public boolean hasLegalMove() {
+        return isPlayable();
+    }
+
+    /**
+     * @param pieceColor la couleur désirée
+     * @return le masque (cf. BitBoard) des pièces de cette couleur
+     * @throws IllegalStateException si le plateau n'utilise pas la représentation 8x8, cf. isSingleWord
+     */
+    public long getDiscs(PieceColor pieceColor) {
+        requireSingleWord();
+        return switch (pieceColor) {
+            case BLACK -> black;
+            case WHITE -> white;
+            default -> ~(black | white);
+        };
+    }
+
+    /**
+     * @param pieceColor la couleur désirée, NONE pour les cases vides
+     * @return une copie de l'ensemble des pièces de cette couleur, un bit par case (cf. square(x, y))
+     */
+    public long[] getDiscWords(PieceColor pieceColor) {
+        if (wide == null) {
+            return new long[]{getDiscs(pieceColor)};
+        }
+        if (pieceColor.isNone()) {
+            long[] empties = new long[blackWords.length];
+            wide.empties(blackWords, whiteWords, empties);
+            return empties;
+        }
+        return words(pieceColor).clone();
+    }
+
+    /**
+     * @param pieceColor la couleur désirée, NONE pour les cases vides
+     * @return le nombre de pièces de cette couleur
+     */
+    public int countDiscs(PieceColor pieceColor) {
+        if (wide == null) {
+            return BitBoard.count(getDiscs(pieceColor));
+        }
+        return switch (pieceColor) {
+            case BLACK -> WideBitBoard.count(blackWords);
+            case WHITE -> WideBitBoard.count(whiteWords);
+            default -> squares - WideBitBoard.count(blackWords) - WideBitBoard.count(whiteWords);
+        };
+    }
+
+    private long[] words(PieceColor pieceColor) {
+        return pieceColor == PieceColor.BLACK ? blackWords : whiteWords;
+    }
+
+    private void requireSingleWord() {
+        if (wide != null) {
+            throw new IllegalStateException("Only available on " + BitBoard.SIZE + "x" + BitBoard.SIZE + " boards");
+        }
+    }
+
+    private void end() {
+        LOG.info("Game over! Final score: Black: {}, White: {}", countDiscs(PieceColor.BLACK), countDiscs(PieceColor.WHITE));
+    }
+
+    public boolean isOver() {
+        return gameOver;
+    }
+
+    private boolean isPlayable() {
+        if (wide == null) {
+            return getLegalMoves() != 0L;
+        }
+        legalWords();
+        return !WideBitBoard.isEmpty(moveWords);
+    }
+
+    public int setColorAt(int x, int y, PieceColor pieceColor) {
+        checkBounds(x, y);
+        int square = square(x, y);
+        if (!colorAt(square).isNone()) {
+            //System.out.println("at: (" + x + ";" + y + ") contain piece");
+            return 0; // Cannot overwrite an existing piece
+        }
+
+        int score = getMoveScore(x, y, pieceColor);
+        if (score == 0) {
+            //System.out.println("at: (" + x + ";" + y + ") Invalid move");
+            return 0; // Invalid move
+        }
+        put(square, pieceColor);
+        rehash();
+        return score;
+    }
+
+    public void hardSetColorAt(int x, int y, PieceColor pieceColor) {
+        checkBounds(x, y);
+        int square = square(x, y);
+        remove(square);
+        if (!pieceColor.isNone()) {
+            put(square, pieceColor);
+        }
+        rehash();
+    }
+
+
+    /**
+     * Force player turn
+     * @param pieceColor the new player color desired
+     * @return false if nothing changed
+     */
+    public boolean setPlayerTurn(PieceColor pieceColor) {
+        if (getPlayerTurn() == pieceColor) return false;
+        currentPlayer = pieceColor;
+        rehash();
+        return true;
+    }
+
+    public PieceColor getPlayerTurn() {
+        return currentPlayer;
+    }
+
+    /**
+     * @return la clé de Zobrist de la position (pièces et joueur qui doit jouer), cf. Zobrist
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    public int getMoveScore(int x, int y, PieceColor pieceColor) {
+        checkBounds(x, y);
+        int square = square(x, y);
+        if (!colorAt(square).isNone() || pieceColor.isNone()) {
+            return 0; // Cannot overwrite an existing piece
+        }
+
+        if (wide == null) {
+            return BitBoard.count(BitBoard.flips(getDiscs(pieceColor), getDiscs(pieceColor.opposite()), square));
+        }
+        return wide.flips(words(pieceColor), words(pieceColor.opposite()), square, flippedWords);
+    }
+
+    private void checkBounds(int x, int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IllegalArgumentException("Coordinates out of bounds");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        // Coordonnées en hexadécimal pour que chaque colonne tienne sur un caractère jusqu'en 16x16
+        sb.append(" ");
+        for (int j = 0; j < size; j++) {
+            sb.append(' ').append(Character.forDigit(j, 16));
+        }
+        sb.append("\n ┌").append("──".repeat(size)).append("┐\n");
+        for (int i = 0; i < size; i++) {
+            sb.append(Character.forDigit(i, 16)).append("│");
+            for (int j = 0; j < size; j++) {
+                sb.append(getColorAt(i, j).getChar());
+                sb.append(" ");
+            }
+            sb.append("│\n");
+        }
+        sb.append(" └").append("──".repeat(size)).append("┘");
+        return sb.toString();
+    }
+
+    /*
+        * Retourne une matrice qui représente l'état du plateau de jeu.
+        * 0 représente une case vide
+        * 1 représente une pièce de la couleur du joueur qui demande
+        * 2 représente une pièce de l'adversaire.
+     */
+    public int[][] getBoardMatrix(PieceColor forColor) {
+        int[][] matrix = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                PieceColor color = colorAt(square(i, j));
+                if (color.isNone()) {
+                    matrix[i][j] = NotHelloConstraintStrategy.EMPTY;
+                } else if (color == forColor) {
+                    matrix[i][j] = NotHelloConstraintStrategy.MY_COLOR;
+                } else {
+                    matrix[i][j] = NotHelloConstraintStrategy.OPP_COLOR;
+                }
+            }
+        }
+        return matrix;
+    }
+}
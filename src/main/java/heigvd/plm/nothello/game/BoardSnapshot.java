@@ -0,0 +1,116 @@
+package heigvd.plm.nothello.game;
+
+/**
+ * Position figée d'une partie, publiée par {@link GameActor} après chaque commande.
+ *
+ * Un instantané n'est jamais modifié après sa construction : il se lit depuis n'importe quel thread sans
+ * synchronisation. Les stratégies, qui jouent et annulent des coups, travaillent sur une copie (toBoard).
+ */
+public final class BoardSnapshot {
+
+    /** Valeur de getLastMove() pour une partie qui vient de commencer */
+    public static final int NO_MOVE = -2;
+
+    private final int size;
+    private final boolean wide;
+    // Un bit par case (cf. Board.square), un seul mot en 8x8
+    private final long[] black;
+    private final long[] white;
+    private final PieceColor playerTurn;
+    private final boolean over;
+    private final long zobristKey;
+    private final long version;
+    private final int ply;
+    private final int lastMove;
+
+    /**
+     * @param version numéro de la commande qui a produit la position, croissant pendant toute la vie de l'acteur
+     * @param ply     nombre de coups et de passes depuis le début de la partie
+     * @param lastMove dernière case jouée, Board.PASS pour un passe, NO_MOVE en début de partie
+     */
+    BoardSnapshot(Board board, long version, int ply, int lastMove) {
+        this.size = board.getSize();
+        this.wide = !board.isSingleWord();
+        this.black = board.getDiscWords(PieceColor.BLACK);
+        this.white = board.getDiscWords(PieceColor.WHITE);
+        this.playerTurn = board.getPlayerTurn();
+        this.over = board.isOver();
+        this.zobristKey = board.getZobristKey();
+        this.version = version;
+        this.ply = ply;
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * @return un nouveau plateau dans cette position (sans historique de coups), que l'appelant peut modifier
+     */
+    public Board toBoard() {
+        return new Board(size, wide, black, white, playerTurn, over, zobristKey);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public PieceColor getColorAt(int x, int y) {
+        if (x < 0 || x >= size || y < 0 || y >= size) {
+            throw new IllegalArgumentException("Coordinates out of bounds");
+        }
+        int square = x * size + y;
+        if (WideBitBoard.get(black, square)) return PieceColor.BLACK;
+        if (WideBitBoard.get(white, square)) return PieceColor.WHITE;
+        return PieceColor.NONE;
+    }
+
+    /**
+     * @param pieceColor la couleur désirée, NONE pour les cases vides
+     * @return le nombre de pièces de cette couleur
+     */
+    public int countDiscs(PieceColor pieceColor) {
+        return switch (pieceColor) {
+            case BLACK -> WideBitBoard.count(black);
+            case WHITE -> WideBitBoard.count(white);
+            default -> size * size - WideBitBoard.count(black) - WideBitBoard.count(white);
+        };
+    }
+
+    public PieceColor getPlayerTurn() {
+        return playerTurn;
+    }
+
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * @return la clé de Zobrist de la position, cf. Board.getZobristKey
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return le numéro de la commande qui a produit cette position, pour comparer deux instantanés
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return le nombre de coups et de passes depuis le début de la partie, 0 après une nouvelle partie
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * @return la dernière case jouée (cf. Board.square), Board.PASS pour un passe, NO_MOVE en début de partie
+     */
+    public int getLastMove() {
+        return lastMove;
+    }
+
+    public String toCompactString() {
+        return toBoard().toCompactString();
+    }
+}
@@ -0,0 +1,176 @@
+package heigvd.plm.nothello.game;
+
+import heigvd.plm.nothello.log.Log;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Metrics;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Partie possédée par un seul thread : les commandes (coup, passe, nouvelle partie) sont mises en file et
+ * appliquées dans l'ordre par le thread de l'acteur, seul à modifier le plateau. Chaque nouvelle position est
+ * ensuite publiée sous forme d'instantané immuable ({@link BoardSnapshot}).
+ *
+ * Les lecteurs (interface, prédictions, stratégies) ne voient ainsi jamais une position en cours de modification,
+ * sans verrou : getSnapshot est une simple lecture volatile. Un coup calculé sur un instantané (coup d'un bot)
+ * est refusé si la partie a changé entre-temps, plutôt que joué sur une autre position.
+ */
+public final class GameActor {
+
+    private static final Log LOG = Log.get("game");
+    private static final Counter COMMANDS = Metrics.counter("game.commands");
+    private static final Counter REJECTED = Metrics.counter("game.rejected");
+
+    // Un seul thread : la file de l'exécuteur sert de boîte aux lettres
+    private final ExecutorService mailbox = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "game-actor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final List<Consumer<BoardSnapshot>> listeners = new CopyOnWriteArrayList<>();
+
+    // Modifié uniquement par le thread de l'acteur (et le constructeur, avant toute commande)
+    private Board board;
+
+    private volatile BoardSnapshot snapshot;
+
+    /**
+     * @param size taille du plateau, cf. Board(int)
+     */
+    public GameActor(int size) {
+        this.board = new Board(size);
+        this.snapshot = new BoardSnapshot(board, 0, 0, BoardSnapshot.NO_MOVE);
+    }
+
+    /**
+     * @return la dernière position publiée
+     */
+    public BoardSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Ajoute un observateur, appelé par le thread de l'acteur pour chaque nouvelle position, dans l'ordre.
+     * Il doit rendre la main rapidement (par exemple en transmettant l'instantané au thread de l'interface).
+     */
+    public void addListener(Consumer<BoardSnapshot> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<BoardSnapshot> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Joue un coup pour le joueur courant, quelle que soit la position au moment où la commande est appliquée.
+     *
+     * @return la position après le coup, ou un futur en erreur (IllegalArgumentException) si le coup est illégal
+     */
+    public CompletableFuture<BoardSnapshot> play(int x, int y) {
+        return play(null, x, y);
+    }
+
+    /**
+     * Joue un coup calculé sur la position basis.
+     *
+     * @param basis position sur laquelle le coup a été choisi, null pour ne pas la vérifier
+     * @return la position après le coup, ou un futur en erreur : IllegalStateException si la partie a changé
+     * depuis basis, IllegalArgumentException si le coup est illégal
+     */
+    public CompletableFuture<BoardSnapshot> play(BoardSnapshot basis, int x, int y) {
+        return send(basis, () -> {
+            if (!board.playAt(x, y)) {
+                throw new IllegalArgumentException("Illegal move at (" + x + ", " + y + ")");
+            }
+            return board.square(x, y);
+        });
+    }
+
+    /**
+     * Passe le tour du joueur courant, s'il n'a aucun coup légal (cf. Board.makePass).
+     */
+    public CompletableFuture<BoardSnapshot> pass() {
+        return pass(null);
+    }
+
+    /**
+     * Passe le tour du joueur au trait dans la position basis, refusé si la partie a changé depuis.
+     */
+    public CompletableFuture<BoardSnapshot> pass(BoardSnapshot basis) {
+        return send(basis, () -> {
+            if (board.isOver()) {
+                throw new IllegalStateException("Game is over");
+            }
+            board.makePass();
+            return Board.PASS;
+        });
+    }
+
+    /**
+     * Recommence une partie, les coups calculés sur l'ancienne partie seront refusés.
+     *
+     * @param size taille du nouveau plateau
+     */
+    public CompletableFuture<BoardSnapshot> reset(int size) {
+        return send(null, () -> {
+            board = new Board(size);
+            return BoardSnapshot.NO_MOVE;
+        });
+    }
+
+    /**
+     * Arrête le thread de l'acteur après les commandes déjà en file ; les suivantes sont refusées.
+     */
+    public void shutdown() {
+        mailbox.shutdown();
+    }
+
+    /**
+     * @param command modifie le plateau et retourne le coup joué, ou lance une exception sans l'avoir modifié
+     */
+    private CompletableFuture<BoardSnapshot> send(BoardSnapshot basis, IntSupplier command) {
+        CompletableFuture<BoardSnapshot> result = new CompletableFuture<>();
+        try {
+            mailbox.execute(() -> {
+                try {
+                    result.complete(apply(basis, command));
+                } catch (RuntimeException e) {
+                    REJECTED.increment();
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new IllegalStateException("Game actor is shut down"));
+        }
+        return result;
+    }
+
+    private BoardSnapshot apply(BoardSnapshot basis, IntSupplier command) {
+        BoardSnapshot current = snapshot;
+        if (basis != null && basis.getVersion() != current.getVersion()) {
+            throw new IllegalStateException("Stale position: version " + basis.getVersion()
+                    + ", current version " + current.getVersion());
+        }
+        int move = command.getAsInt();
+        COMMANDS.increment();
+        int ply = move == BoardSnapshot.NO_MOVE ? 0 : current.getPly() + 1;
+        BoardSnapshot next = new BoardSnapshot(board, current.getVersion() + 1, ply, move);
+        snapshot = next;
+        for (Consumer<BoardSnapshot> listener : listeners) {
+            try {
+                listener.accept(next);
+            } catch (RuntimeException e) {
+                LOG.warn("Snapshot listener failed: {}", e);
+            }
+        }
+        return next;
+    }
+}
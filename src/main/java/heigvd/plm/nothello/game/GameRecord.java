@@ -0,0 +1,218 @@
+package heigvd.plm.nothello.game;
+
+import java.util.Arrays;
+
+/**
+ * Enregistrement d'une partie depuis la position initiale : joueurs, stratégies, résultat, horodatage, durée,
+ * coups (passes compris) et, optionnellement, l'évaluation de chaque coup par la stratégie qui l'a joué.
+ *
+ * Les coups sont des cases (cf. BitBoard) ou {@link Board#PASS}. Un passe suit chaque coup après lequel
+ * l'adversaire ne peut pas jouer, cf. fromMoves et replay.
+ */
+public class GameRecord {
+
+    /** Évaluation d'un coup pour lequel la stratégie n'en a pas donné (coup humain, aléatoire ou passe) */
+    public static final short NO_EVALUATION = Short.MIN_VALUE;
+
+    // 60 coups au plus, et au plus un passe après chacun
+    static final int MAX_PLIES = 2 * BitBoard.SQUARES;
+
+    private String blackPlayer = "";
+    private String blackStrategy = "";
+    private String whitePlayer = "";
+    private String whiteStrategy = "";
+    private long startMillis;
+    private int durationMillis;
+    private int blackDiscs;
+    private int whiteDiscs;
+    private byte[] moves = new byte[0];
+    private short[] evaluations;
+
+    /**
+     * Construit l'enregistrement d'une partie terminée à partir des cases jouées, en ajoutant les passes
+     * et le résultat final.
+     *
+     * @param squares     les cases jouées dans l'ordre, sans les passes
+     * @param evaluations l'évaluation de chaque case jouée (NO_EVALUATION si aucune), ou null
+     * @throws IllegalArgumentException si un coup est illégal
+     */
+    public static GameRecord fromMoves(int[] squares, short[] evaluations) {
+        GameRecord record = new GameRecord();
+        Board board = new Board();
+        byte[] moves = new byte[MAX_PLIES];
+        short[] scores = evaluations == null ? null : new short[MAX_PLIES];
+        int plies = 0;
+        for (int i = 0; i < squares.length; ++i) {
+            PieceColor mover = board.getPlayerTurn();
+            board.makeMove(squares[i]);
+            if (scores != null) {
+                scores[plies] = evaluations[i];
+            }
+            moves[plies++] = (byte) squares[i];
+            if (!board.isOver() && board.getPlayerTurn() == mover) {
+                if (scores != null) {
+                    scores[plies] = NO_EVALUATION;
+                }
+                moves[plies++] = (byte) Board.PASS;
+            }
+        }
+        record.moves = Arrays.copyOf(moves, plies);
+        record.evaluations = scores == null ? null : Arrays.copyOf(scores, plies);
+        record.blackDiscs = BitBoard.count(board.getDiscs(PieceColor.BLACK));
+        record.whiteDiscs = BitBoard.count(board.getDiscs(PieceColor.WHITE));
+        return record;
+    }
+
+    /**
+     * Rejoue la partie sur un nouveau plateau en vérifiant chaque coup, chaque passe et le résultat.
+     *
+     * @return le plateau dans la position finale
+     * @throws IllegalStateException si l'enregistrement ne correspond pas à une partie légale
+     */
+    public Board replay() {
+        Board board = new Board();
+        for (int ply = 0; ply < moves.length; ++ply) {
+            int square = moves[ply];
+            if (board.isOver()) {
+                throw new IllegalStateException("Move after the end of the game at ply " + ply);
+            }
+            if (square < 0 || square >= BitBoard.SQUARES) {
+                throw new IllegalStateException("Illegal move " + square + " at ply " + ply);
+            }
+            PieceColor mover = board.getPlayerTurn();
+            try {
+                // makeMove vérifie déjà la légalité, sans recalculer tous les coups légaux
+                board.makeMove(square);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Illegal move " + square + " at ply " + ply);
+            }
+            // makeMove passe automatiquement : le passe enregistré doit suivre, et seulement dans ce cas
+            boolean passed = !board.isOver() && board.getPlayerTurn() == mover;
+            boolean recorded = ply + 1 < moves.length && moves[ply + 1] == Board.PASS;
+            if (passed != recorded) {
+                throw new IllegalStateException((passed ? "Missing" : "Unexpected") + " pass after ply " + ply);
+            }
+            if (passed) {
+                ++ply;
+            }
+        }
+        if (board.isOver() && (BitBoard.count(board.getDiscs(PieceColor.BLACK)) != blackDiscs
+                || BitBoard.count(board.getDiscs(PieceColor.WHITE)) != whiteDiscs)) {
+            throw new IllegalStateException("Recorded result " + blackDiscs + "-" + whiteDiscs
+                    + " does not match the final position");
+        }
+        return board;
+    }
+
+    /**
+     * @return la différence de pions noir - blanc
+     */
+    public int getDiscDifference() {
+        return blackDiscs - whiteDiscs;
+    }
+
+    /**
+     * @return le nombre de coups, passes compris
+     */
+    public int getPlies() {
+        return moves.length;
+    }
+
+    /**
+     * @return la case jouée au coup ply, ou Board.PASS
+     */
+    public int getMove(int ply) {
+        return moves[ply];
+    }
+
+    /**
+     * @return l'évaluation du coup ply, ou NO_EVALUATION
+     */
+    public short getEvaluation(int ply) {
+        return evaluations == null ? NO_EVALUATION : evaluations[ply];
+    }
+
+    public boolean hasEvaluations() {
+        return evaluations != null;
+    }
+
+    public String getBlackPlayer() {
+        return blackPlayer;
+    }
+
+    public void setBlackPlayer(String blackPlayer) {
+        this.blackPlayer = blackPlayer;
+    }
+
+    public String getBlackStrategy() {
+        return blackStrategy;
+    }
+
+    public void setBlackStrategy(String blackStrategy) {
+        this.blackStrategy = blackStrategy;
+    }
+
+    public String getWhitePlayer() {
+        return whitePlayer;
+    }
+
+    public void setWhitePlayer(String whitePlayer) {
+        this.whitePlayer = whitePlayer;
+    }
+
+    public String getWhiteStrategy() {
+        return whiteStrategy;
+    }
+
+    public void setWhiteStrategy(String whiteStrategy) {
+        this.whiteStrategy = whiteStrategy;
+    }
+
+    /**
+     * @return le début de la partie, en millisecondes depuis l'epoch
+     */
+    public long getStartMillis() {
+        return startMillis;
+    }
+
+    public void setStartMillis(long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    public int getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(int durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public int getBlackDiscs() {
+        return blackDiscs;
+    }
+
+    public int getWhiteDiscs() {
+        return whiteDiscs;
+    }
+
+    void setResult(int blackDiscs, int whiteDiscs) {
+        this.blackDiscs = blackDiscs;
+        this.whiteDiscs = whiteDiscs;
+    }
+
+    void setMoves(byte[] moves, short[] evaluations) {
+        this.moves = moves;
+        this.evaluations = evaluations;
+    }
+
+    byte[] getMoves() {
+        return moves;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s) vs %s (%s): %d-%d in %d plies, %d ms",
+                blackPlayer, blackStrategy, whitePlayer, whiteStrategy, blackDiscs, whiteDiscs, moves.length,
+                durationMillis);
+    }
+}
@@ -0,0 +1,77 @@
+package heigvd.plm.nothello.game;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Lit séquentiellement les parties d'une archive écrite par GameRecordWriter, sans la charger en mémoire.
+ */
+public class GameRecordReader implements Closeable {
+
+    private final DataInputStream in;
+    private final byte[] name = new byte[255];
+
+    public GameRecordReader(Path file) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+        try {
+            GameRecordWriter.checkHeader(in, file);
+        } catch (EOFException e) {
+            in.close();
+            throw new IOException("Not a game archive: " + file, e);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return la partie suivante, ou null à la fin de l'archive
+     * @throws EOFException si la dernière partie est tronquée (écriture interrompue)
+     */
+    public GameRecord next() throws IOException {
+        int flags = in.read();
+        if (flags < 0) {
+            return null;
+        }
+        GameRecord record = new GameRecord();
+        int plies = in.readUnsignedByte();
+        if (plies > GameRecord.MAX_PLIES) {
+            throw new IOException("Corrupted game archive: " + plies + " plies");
+        }
+        record.setResult(in.readUnsignedByte(), in.readUnsignedByte());
+        record.setStartMillis(in.readLong());
+        record.setDurationMillis(in.readInt());
+        record.setBlackPlayer(readName());
+        record.setBlackStrategy(readName());
+        record.setWhitePlayer(readName());
+        record.setWhiteStrategy(readName());
+        byte[] moves = new byte[plies];
+        in.readFully(moves);
+        short[] evaluations = null;
+        if ((flags & GameRecordWriter.FLAG_EVALUATIONS) != 0) {
+            evaluations = new short[plies];
+            for (int ply = 0; ply < plies; ++ply) {
+                evaluations[ply] = in.readShort();
+            }
+        }
+        record.setMoves(moves, evaluations);
+        return record;
+    }
+
+    private String readName() throws IOException {
+        int length = in.readUnsignedByte();
+        in.readFully(name, 0, length);
+        return new String(name, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
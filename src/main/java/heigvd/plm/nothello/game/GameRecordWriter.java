@@ -0,0 +1,122 @@
+package heigvd.plm.nothello.game;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Ajoute des parties à la fin d'une archive, sans jamais relire les parties existantes.
+ *
+ * Format du fichier (big-endian) : un en-tête de 8 octets (magic, version) suivi des parties, chacune :
+ * drapeaux (octet, bit 0 : évaluations présentes), nombre de coups n (octet), pions noirs et blancs (octets),
+ * début (long, ms depuis l'epoch), durée (int, ms), joueur et stratégie noirs puis blancs
+ * (longueur sur un octet et UTF-8), n coups d'un octet (case, ou 0xFF pour un passe),
+ * puis si présentes n évaluations (short).
+ *
+ * Une partie typique entre deux stratégies occupe ainsi une centaine d'octets. Les écritures sont synchronisées,
+ * l'instance peut être partagée entre threads.
+ */
+public class GameRecordWriter implements Closeable {
+
+    static final int MAGIC = 0x4E484752; // "NHGR"
+    static final int VERSION = 1;
+    static final int FLAG_EVALUATIONS = 1;
+
+    private final DataOutputStream out;
+    private long written;
+
+    /**
+     * Ouvre l'archive en ajout, en la créant si elle n'existe pas.
+     *
+     * @throws IOException si le fichier existe et n'est pas une archive de parties
+     */
+    public GameRecordWriter(Path file) throws IOException {
+        boolean empty = !Files.exists(file) || Files.size(file) == 0;
+        if (!empty) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                checkHeader(in, file);
+            }
+        }
+        OutputStream stream = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+        if (empty) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+    }
+
+    static void checkHeader(DataInputStream in, Path file) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a game archive (version " + VERSION + "): " + file);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si un nom dépasse 255 octets en UTF-8, avant d'écrire quoi que ce soit
+     */
+    public synchronized void write(GameRecord record) throws IOException {
+        // Noms encodés et vérifiés d'abord : une exception ne doit pas laisser une partie tronquée dans l'archive
+        byte[][] names = {
+                encodeName(record.getBlackPlayer()), encodeName(record.getBlackStrategy()),
+                encodeName(record.getWhitePlayer()), encodeName(record.getWhiteStrategy())
+        };
+        byte[] moves = record.getMoves();
+        out.writeByte(record.hasEvaluations() ? FLAG_EVALUATIONS : 0);
+        out.writeByte(moves.length);
+        out.writeByte(record.getBlackDiscs());
+        out.writeByte(record.getWhiteDiscs());
+        out.writeLong(record.getStartMillis());
+        out.writeInt(record.getDurationMillis());
+        for (byte[] name : names) {
+            out.writeByte(name.length);
+            out.write(name);
+        }
+        out.write(moves);
+        if (record.hasEvaluations()) {
+            for (int ply = 0; ply < moves.length; ++ply) {
+                out.writeShort(record.getEvaluation(ply));
+            }
+        }
+        ++written;
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 255) {
+            throw new IllegalArgumentException("Name longer than 255 bytes: " + name);
+        }
+        return bytes;
+    }
+
+    /**
+     * @return le nombre de parties écrites par cette instance
+     */
+    public synchronized long getWritten() {
+        return written;
+    }
+
+    public synchronized void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Ajoute une seule partie à l'archive, pour les appels ponctuels (interface graphique).
+     */
+    public static void append(Path file, GameRecord record) throws IOException {
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(record);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package heigvd.plm.nothello.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Perft : compte les feuilles de l'arbre de jeu jusqu'à une profondeur donnée, pour vérifier la génération
+ * des coups, les retournements et les passes de {@link Board} (makeMove/unmakeMove), et en mesurer la vitesse.
+ *
+ * Comme pour les valeurs de référence de l'Othello, une passe compte comme un coup, et une partie terminée
+ * avant la profondeur demandée compte comme une feuille.
+ *
+ * Les plateaux 8x8 énumèrent les coups sur le masque de BitBoard ; les autres tailles passent par
+ * Board.getLegalSquares, avec un tableau de coups préalloué par profondeur.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @param bulk compte directement les coups légaux à la profondeur 1, au lieu de les jouer
+     * @return le nombre de feuilles à la profondeur donnée
+     */
+    public static long perft(Board board, int depth, boolean bulk) {
+        return perft(board, depth, bulk, buffers(board, depth));
+    }
+
+    /**
+     * @return les tableaux de coups par profondeur restante, ou null pour le chemin 8x8
+     */
+    private static int[][] buffers(Board board, int depth) {
+        return board.isSingleWord() ? null : new int[Math.max(depth, 0) + 1][board.getSquares()];
+    }
+
+    private static long perft(Board board, int depth, boolean bulk, int[][] buffers) {
+        if (depth == 0) {
+            return 1;
+        }
+        if (board.isOver()) {
+            return 1; // partie terminée : feuille anticipée
+        }
+
+        long nodes = 0;
+        if (buffers != null) {
+            int[] squares = buffers[depth];
+            int count = board.getLegalSquares(squares);
+            if (bulk && depth == 1) {
+                return count;
+            }
+            for (int i = 0; i < count; ++i) {
+                nodes += child(board, squares[i], depth, bulk, buffers);
+            }
+            return nodes;
+        }
+
+        long moves = board.getLegalMoves();
+        if (bulk && depth == 1) {
+            return BitBoard.count(moves);
+        }
+        while (moves != 0L) {
+            int square = Long.numberOfTrailingZeros(moves);
+            moves &= moves - 1;
+            nodes += child(board, square, depth, bulk, null);
+        }
+        return nodes;
+    }
+
+    /**
+     * @return le nombre de feuilles sous le coup donné, joué depuis une position de profondeur restante depth
+     */
+    private static long child(Board board, int square, int depth, boolean bulk, int[][] buffers) {
+        PieceColor mover = board.getPlayerTurn();
+        int token = board.makeMove(square);
+        long nodes;
+        if (!board.isOver() && board.getPlayerTurn() == mover) {
+            // L'adversaire a passé automatiquement : la passe compte comme un coup
+            nodes = depth == 1 ? 1 : perft(board, depth - 2, bulk, buffers);
+        } else {
+            nodes = perft(board, depth - 1, bulk, buffers);
+        }
+        board.unmakeMove(token);
+        return nodes;
+    }
+
+    /**
+     * Perft parallèle : chaque coup de la racine est compté sur une copie du plateau, par un pool de threads.
+     *
+     * @param threads nombre de threads
+     */
+    public static long perftParallel(Board board, int depth, boolean bulk, int threads) throws InterruptedException {
+        if (depth == 0 || board.isOver()) {
+            return perft(board, depth, bulk);
+        }
+        long[] divided = divide(board, depth, bulk, threads);
+        long nodes = 0;
+        for (long count : divided) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * Compte les feuilles sous chaque coup de la racine, pour localiser une différence avec une référence.
+     *
+     * @return le nombre de feuilles indexé par case (0 pour les cases qui ne sont pas des coups légaux)
+     */
+    public static long[] divide(Board board, int depth, boolean bulk, int threads) throws InterruptedException {
+        long[] divided = new long[board.getSquares()];
+        if (depth == 0 || board.isOver()) {
+            return divided;
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "perft-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            List<Integer> squares = new ArrayList<>();
+            int[] legal = new int[board.getSquares()];
+            int count = board.getLegalSquares(legal);
+            for (int i = 0; i < count; ++i) {
+                int square = legal[i];
+                Board copy = new Board(board);
+                squares.add(square);
+                results.add(pool.submit(() -> child(copy, square, depth, bulk, buffers(copy, depth))));
+            }
+            for (int i = 0; i < results.size(); ++i) {
+                divided[squares.get(i)] = results.get(i).get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Perft worker failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return divided;
+    }
+}
@@ -0,0 +1,218 @@
+package heigvd.plm.nothello.game;
+
+/**
+ * Représentation "bitboard" des plateaux de taille quelconque (cf. {@link Board#MIN_SIZE}, {@link Board#MAX_SIZE}) :
+ * un tableau de longs par couleur, un bit par case. La case (x, y) correspond au bit {@code x * size + y},
+ * comme pour {@link BitBoard} en 8x8.
+ *
+ * Une instance par taille (cf. of) contient les masques de colonnes ; les méthodes écrivent leurs résultats
+ * dans des tableaux fournis par l'appelant, pour que le plateau puisse jouer sans allocation.
+ */
+public final class WideBitBoard {
+
+    private static final WideBitBoard[] INSTANCES = new WideBitBoard[Board.MAX_SIZE + 1];
+    private static final Direction[] DIRECTIONS = Direction.getAllDirections();
+
+    private final int size;
+    private final int squares;
+    private final int words;
+    // Cases valides, et cases hors de la première / dernière colonne
+    private final long[] all;
+    private final long[] notFirstColumn;
+    private final long[] notLastColumn;
+    // Décalage (en cases) et masque de chaque direction, dans l'ordre de Direction.getAllDirections()
+    private final int[] offsets;
+    private final long[][] masks;
+
+    private WideBitBoard(int size) {
+        this.size = size;
+        this.squares = size * size;
+        this.words = (squares + Long.SIZE - 1) / Long.SIZE;
+        all = new long[words];
+        notFirstColumn = new long[words];
+        notLastColumn = new long[words];
+        for (int square = 0; square < squares; ++square) {
+            set(all, square);
+            if (square % size != 0) {
+                set(notFirstColumn, square);
+            }
+            if (square % size != size - 1) {
+                set(notLastColumn, square);
+            }
+        }
+        offsets = new int[]{-size - 1, -size, -size + 1, -1, 1, size - 1, size, size + 1};
+        // Un décalage vers la gauche (y - 1) ne peut pas arriver en dernière colonne, et inversement
+        masks = new long[][]{notLastColumn, all, notFirstColumn, notLastColumn,
+                notFirstColumn, notLastColumn, all, notFirstColumn};
+    }
+
+    /**
+     * @return l'instance pour cette taille de plateau
+     */
+    public static synchronized WideBitBoard of(int size) {
+        if (INSTANCES[size] == null) {
+            INSTANCES[size] = new WideBitBoard(size);
+        }
+        return INSTANCES[size];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int getSquares() {
+        return squares;
+    }
+
+    /**
+     * @return le nombre de longs d'un ensemble de cases
+     */
+    public int getWords() {
+        return words;
+    }
+
+    public static boolean get(long[] set, int square) {
+        return (set[square >>> 6] & (1L << square)) != 0L;
+    }
+
+    public static void set(long[] set, int square) {
+        set[square >>> 6] |= 1L << square;
+    }
+
+    public static int count(long[] set) {
+        int count = 0;
+        for (long word : set) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public static boolean isEmpty(long[] set) {
+        for (long word : set) {
+            if (word != 0L) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param from index de départ
+     * @return la première case de l'ensemble à partir de from, ou -1
+     */
+    public static int next(long[] set, int from) {
+        int word = from >>> 6;
+        if (word >= set.length) {
+            return -1;
+        }
+        long bits = set[word] & (-1L << from);
+        while (bits == 0L) {
+            if (++word == set.length) {
+                return -1;
+            }
+            bits = set[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * out = cases vides du plateau
+     */
+    public void empties(long[] black, long[] white, long[] out) {
+        for (int i = 0; i < words; ++i) {
+            out[i] = ~(black[i] | white[i]) & all[i];
+        }
+    }
+
+    /**
+     * dst = src décalé d'un pas dans la direction dir, sans les cases sorties du plateau.
+     * src et dst doivent être distincts.
+     */
+    private void shift(long[] src, int dir, long[] dst) {
+        int offset = offsets[dir];
+        long[] mask = masks[dir];
+        int wordShift = Math.abs(offset) >>> 6;
+        int bitShift = Math.abs(offset) & 63;
+        for (int i = 0; i < words; ++i) {
+            long value;
+            if (offset > 0) {
+                // Vers les indices croissants
+                int from = i - wordShift;
+                long low = from >= 0 ? src[from] : 0L;
+                long carry = bitShift != 0 && from - 1 >= 0 ? src[from - 1] >>> (Long.SIZE - bitShift) : 0L;
+                value = (low << bitShift) | carry;
+            } else {
+                int from = i + wordShift;
+                long high = from < words ? src[from] : 0L;
+                long carry = bitShift != 0 && from + 1 < words ? src[from + 1] << (Long.SIZE - bitShift) : 0L;
+                value = (high >>> bitShift) | carry;
+            }
+            dst[i] = value & mask[i];
+        }
+    }
+
+    /**
+     * Calcule les coups légaux du joueur player.
+     *
+     * @param moves   reçoit le masque des cases jouables
+     * @param line    tableau de travail de getWords() longs
+     * @param shifted tableau de travail de getWords() longs
+     */
+    public void legalMoves(long[] player, long[] opponent, long[] moves, long[] line, long[] shifted) {
+        for (int i = 0; i < words; ++i) {
+            moves[i] = 0L;
+        }
+        for (int dir = 0; dir < BitBoard.DIRECTIONS; ++dir) {
+            shift(player, dir, shifted);
+            boolean grown = false;
+            for (int i = 0; i < words; ++i) {
+                line[i] = shifted[i] & opponent[i];
+                grown |= line[i] != 0L;
+            }
+            // Au plus size - 2 pièces adverses entre le coup et une pièce du joueur
+            for (int step = 1; grown && step < size - 2; ++step) {
+                shift(line, dir, shifted);
+                grown = false;
+                for (int i = 0; i < words; ++i) {
+                    long next = line[i] | (shifted[i] & opponent[i]);
+                    grown |= next != line[i];
+                    line[i] = next;
+                }
+            }
+            shift(line, dir, shifted);
+            for (int i = 0; i < words; ++i) {
+                moves[i] |= shifted[i] & ~(player[i] | opponent[i]) & all[i];
+            }
+        }
+    }
+
+    /**
+     * Calcule les pièces adverses retournées si player joue en square (la case n'est pas vérifiée).
+     *
+     * @param flipped reçoit le masque des pièces retournées, vide si le coup est illégal
+     * @return le nombre de pièces retournées
+     */
+    public int flips(long[] player, long[] opponent, int square, long[] flipped) {
+        for (int i = 0; i < words; ++i) {
+            flipped[i] = 0L;
+        }
+        int x0 = square / size, y0 = square % size;
+        int count = 0;
+        for (Direction dir : DIRECTIONS) {
+            int dx = dir.getX(), dy = dir.getY();
+            int x = x0 + dx, y = y0 + dy, length = 0;
+            while (x >= 0 && x < size && y >= 0 && y < size && get(opponent, x * size + y)) {
+                x += dx;
+                y += dy;
+                ++length;
+            }
+            if (length > 0 && x >= 0 && x < size && y >= 0 && y < size && get(player, x * size + y)) {
+                for (int k = 1; k <= length; ++k) {
+                    set(flipped, (x0 + k * dx) * size + (y0 + k * dy));
+                }
+                count += length;
+            }
+        }
+        return count;
+    }
+}
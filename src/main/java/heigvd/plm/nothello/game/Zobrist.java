@@ -0,0 +1,111 @@
+package heigvd.plm.nothello.game;
+
+import java.util.SplittableRandom;
+
+/**
+ * Clés de Zobrist : une clé aléatoire par (case, couleur) et une pour le joueur qui doit jouer.
+ * La clé d'une position est le XOR des clés de ses pièces, plus SIDE si c'est à noir de jouer,
+ * ce qui permet de la mettre à jour incrémentalement à chaque coup.
+ *
+ * Les tables couvrent les plus grands plateaux (cf. Board.MAX_SIZE) ; la case d'index i d'un plateau
+ * de taille quelconque utilise la clé i.
+ */
+public final class Zobrist {
+
+    // Graine fixe : les clés doivent être identiques d'une exécution à l'autre (livre d'ouvertures, etc.)
+    private static final long SEED = 0x4E6F7448656C6C6FL;
+
+    private static final int SQUARES = Board.MAX_SIZE * Board.MAX_SIZE;
+
+    private static final long[] BLACK = new long[SQUARES];
+    private static final long[] WHITE = new long[SQUARES];
+    private static final long[] FLIP = new long[SQUARES];
+
+    /** Clé du joueur qui doit jouer (présente si c'est à noir) */
+    public static final long SIDE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int square = 0; square < BitBoard.SQUARES; ++square) {
+            BLACK[square] = random.nextLong();
+            WHITE[square] = random.nextLong();
+            FLIP[square] = BLACK[square] ^ WHITE[square];
+        }
+        SIDE = random.nextLong();
+        // Tirées après SIDE pour garder les clés 8x8 (et le livre d'ouvertures) inchangées
+        for (int square = BitBoard.SQUARES; square < SQUARES; ++square) {
+            BLACK[square] = random.nextLong();
+            WHITE[square] = random.nextLong();
+            FLIP[square] = BLACK[square] ^ WHITE[square];
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Calcule la clé complète d'une position.
+     */
+    public static long hash(long black, long white, PieceColor sideToMove) {
+        long key = sideToMove == PieceColor.BLACK ? SIDE : 0L;
+        while (black != 0L) {
+            key ^= BLACK[Long.numberOfTrailingZeros(black)];
+            black &= black - 1;
+        }
+        while (white != 0L) {
+            key ^= WHITE[Long.numberOfTrailingZeros(white)];
+            white &= white - 1;
+        }
+        return key;
+    }
+
+    /**
+     * Calcule la clé complète d'une position représentée sur plusieurs longs, cf. WideBitBoard.
+     */
+    public static long hash(long[] black, long[] white, PieceColor sideToMove) {
+        long key = sideToMove == PieceColor.BLACK ? SIDE : 0L;
+        for (int i = 0; i < black.length; ++i) {
+            key ^= hash(BLACK, black[i], i * Long.SIZE) ^ hash(WHITE, white[i], i * Long.SIZE);
+        }
+        return key;
+    }
+
+    private static long hash(long[] keys, long bits, int offset) {
+        long key = 0L;
+        while (bits != 0L) {
+            key ^= keys[offset + Long.numberOfTrailingZeros(bits)];
+            bits &= bits - 1;
+        }
+        return key;
+    }
+
+    /**
+     * @return la clé d'une pièce de la couleur donnée sur une case
+     */
+    public static long disc(PieceColor color, int square) {
+        return color == PieceColor.BLACK ? BLACK[square] : WHITE[square];
+    }
+
+    /**
+     * @return la variation de clé quand les pièces données changent de couleur
+     */
+    public static long flips(long flipped) {
+        long key = 0L;
+        while (flipped != 0L) {
+            key ^= FLIP[Long.numberOfTrailingZeros(flipped)];
+            flipped &= flipped - 1;
+        }
+        return key;
+    }
+
+    /**
+     * @return la variation de clé quand les pièces données (cf. WideBitBoard) changent de couleur
+     */
+    public static long flips(long[] flipped) {
+        long key = 0L;
+        for (int i = 0; i < flipped.length; ++i) {
+            key ^= hash(FLIP, flipped[i], i * Long.SIZE);
+        }
+        return key;
+    }
+}
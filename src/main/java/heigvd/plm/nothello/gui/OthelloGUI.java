@@ -1,23 +1,47 @@
 package heigvd.plm.nothello.gui;
 
 import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.BoardSnapshot;
+import heigvd.plm.nothello.game.GameActor;
+import heigvd.plm.nothello.game.GameRecord;
+import heigvd.plm.nothello.game.GameRecordWriter;
 import heigvd.plm.nothello.game.PieceColor;
 import heigvd.plm.nothello.logic.*;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ItemListener;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 
 public class OthelloGUI extends JFrame {
-    private final Board board;
+    // Seul le thread de la partie modifie le plateau ; l'interface et les bots lisent ses instantanés
+    private final GameActor game;
     private final PredictionEvaluator evaluator;
     private final NotHelloMaxFlipsStrategy maxFlipsStrategy;
-    private final JButton[][] buttons = new JButton[8][8];
+    // Stratégie procédurale des bots, gardée d'un coup à l'autre : ses coups sont mis en cache par instance
+    private final NotHelloMaxFlipsStrategy proceduralStrategy;
+    // Analyse multi-PV des prédictions en 8x8, utilisée uniquement par le thread de l'évaluateur
+    private final NotHelloAlphaBetaStrategy analysisStrategy;
+    // Une seule instance, pour réutiliser la table de transposition d'un coup à l'autre
+    private final NotHelloAlphaBetaStrategy alphaBetaStrategy;
+    // Une seule instance, pour réutiliser le modèle CP-SAT d'un coup à l'autre
+    private final NotHelloConstraintStrategy constraintStrategy;
+    // Instance gardée d'un coup à l'autre pour réutiliser l'arbre de recherche, créée au premier coup MCTS
+    // (threads auxiliaires et arbres de plusieurs Mo), cf. mctsStrategy()
+    private NotHelloMctsStrategy mctsStrategy;
+    private final JButton[][] buttons;
+    private final JComboBox<Integer> sizeSelection;
     private final JComboBox<String> player1Type;
     private final JComboBox<String> player2Type;
     private final JComboBox<String> player1Strategy;
@@ -27,7 +51,15 @@ public class OthelloGUI extends JFrame {
     private final JLabel currentPlayerLabel;
     private final JButton simulateButton;
     private final String[] playerSelection = new String[]{"Human", "Bot"};
-    private final String[] strat = new String[]{"Procédural", "Contrainte"};
+    private final String[] strat = new String[]{"Procédural", "Contrainte", "Alpha-Beta", "MCTS"};
+    // L'alpha-bêta et le MCTS ne jouent qu'en 8x8
+    private final String[] stratOtherSizes = new String[]{"Procédural", "Contrainte"};
+
+    // Taille d'une case en pixels, réduite pour que les grands plateaux tiennent à l'écran
+    private static final int CELL_SIZE = 60;
+    private static final int MAX_GRID_SIZE = 600;
+    private final int cellSize;
+    private final Map<String, ImageIcon> icons = new ConcurrentHashMap<>();
 
     private final JButton stepByStepButton;
     private final JCheckBox player1PredictionToggle;
@@ -35,24 +67,52 @@ public class OthelloGUI extends JFrame {
     private final JButton showPrediction = new JButton("Compute Strategy");
     private final JLabel loadingLabel = new JLabel();
 
+    // Durée maximale d'une analyse de prédiction, et nombre de coups dont le score est exact
+    private static final long PREDICTION_BUDGET_MS = 3000;
+    private static final int PREDICTION_MULTI_PV = 4;
+
     // Possibilité d'ajouter un délai
     private static final int SIMULATION_DELAY_MS = 0;
 
+    // Threads du MCTS de l'interface : chacun garde deux arbres d'environ 8 Mo (cf. NotHelloMctsStrategy)
+    private static final int MCTS_MAX_THREADS = 4;
+
+    // Archive à laquelle ajouter les parties terminées (-Dnothello.archive=fichier), aucune par défaut
+    private static final String ARCHIVE = System.getProperty("nothello.archive");
+    private final List<Integer> playedSquares = new ArrayList<>();
+    // Un bot calcule un coup (thread de l'interface uniquement) : les stratégies gardées d'un coup à l'autre
+    // ne calculent qu'un coup à la fois
+    private boolean botThinking;
+    private long startMillis = System.currentTimeMillis();
+
     public OthelloGUI(){
-        this.board = new Board();
-        this.evaluator = new PredictionEvaluator(this.board);
+        this(Board.BOARD_SIZE);
+    }
+
+    /**
+     * @param size taille du plateau, paire entre Board.MIN_SIZE et Board.MAX_SIZE
+     */
+    public OthelloGUI(int size){
+        this.game = new GameActor(size);
+        this.buttons = new JButton[size][size];
+        this.cellSize = Math.min(CELL_SIZE, MAX_GRID_SIZE / size);
+        this.evaluator = new PredictionEvaluator(game::getSnapshot);
         this.maxFlipsStrategy = new NotHelloMaxFlipsStrategy();
+        this.proceduralStrategy = new NotHelloMaxFlipsStrategy();
+        this.analysisStrategy = new NotHelloAlphaBetaStrategy(PREDICTION_BUDGET_MS);
+        this.alphaBetaStrategy = new NotHelloAlphaBetaStrategy();
+        this.constraintStrategy = new NotHelloConstraintStrategy();
 
-        setTitle("Othello - PLM");
+        setTitle(size == Board.BOARD_SIZE ? "Othello - PLM" : "Othello - PLM (" + size + "x" + size + ")");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
         // Grid Panel
-        JPanel gridPanel = new JPanel(new GridLayout(8, 8));
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
+        JPanel gridPanel = new JPanel(new GridLayout(size, size));
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 JButton btn = new JButton();
-                btn.setPreferredSize(new Dimension(60, 60));
+                btn.setPreferredSize(new Dimension(cellSize, cellSize));
                 btn.setFocusPainted(false);
                 btn.setMargin(new Insets(0, 0, 0, 0));
                 btn.setBackground(new Color(17, 100, 7));
@@ -74,7 +134,7 @@ public class OthelloGUI extends JFrame {
         player1Panel.setBorder(BorderFactory.createTitledBorder("Joueur Noir"));
 
         player1Type = new JComboBox<>(playerSelection);
-        player1Strategy = new JComboBox<>(strat);
+        player1Strategy = new JComboBox<>(size == Board.BOARD_SIZE ? strat : stratOtherSizes);
         blackScoreLabel= new JLabel("Noir : 2");
         player1Panel.add(new JLabel("Type :"));
         player1Panel.add(player1Type);
@@ -93,7 +153,7 @@ public class OthelloGUI extends JFrame {
         player2Panel.setBorder(BorderFactory.createTitledBorder("Joueur Blanc"));
 
         player2Type = new JComboBox<>(playerSelection);
-        player2Strategy = new JComboBox<>(strat);
+        player2Strategy = new JComboBox<>(size == Board.BOARD_SIZE ? strat : stratOtherSizes);
         whiteScoreLabel = new JLabel("Blanc : 2");
         player2Panel.add(new JLabel("Type :"));
         player2Panel.add(player2Type);
@@ -138,7 +198,7 @@ public class OthelloGUI extends JFrame {
         player2Type.addItemListener(typeChangeListener);
 
         // Panel infos & actions
-        JPanel bottomControlPanel = new JPanel(new GridLayout(6, 1, 5, 5));
+        JPanel bottomControlPanel = new JPanel(new GridLayout(7, 1, 5, 5));
         bottomControlPanel.add(currentPlayerLabel);
         bottomControlPanel.add(blackScoreLabel);
         bottomControlPanel.add(whiteScoreLabel);
@@ -147,6 +207,16 @@ public class OthelloGUI extends JFrame {
         JButton resetButton = new JButton("Nouvelle Partie");
         resetButton.addActionListener(e -> resetBoard());
         bottomControlPanel.add(resetButton);
+        // Taille de la prochaine partie
+        JPanel sizePanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 5, 0));
+        sizeSelection = new JComboBox<>();
+        for (int s = Board.MIN_SIZE; s <= Board.MAX_SIZE; s += 2) {
+            sizeSelection.addItem(s);
+        }
+        sizeSelection.setSelectedItem(size);
+        sizePanel.add(new JLabel("Taille :"));
+        sizePanel.add(sizeSelection);
+        bottomControlPanel.add(sizePanel);
 
         controlPanel.add(playersPanel, BorderLayout.NORTH);
         controlPanel.add(bottomControlPanel, BorderLayout.SOUTH);
@@ -162,6 +232,9 @@ public class OthelloGUI extends JFrame {
         add(gridPanel, BorderLayout.CENTER);
         add(controlPanel, BorderLayout.EAST);
 
+        // Chaque position publiée est affichée sur le thread de l'interface, dans l'ordre des coups
+        game.addListener(snapshot -> SwingUtilities.invokeLater(() -> onSnapshot(snapshot)));
+
         updateBoardDisplay();
         pack();
         setLocationRelativeTo(null);
@@ -169,39 +242,76 @@ public class OthelloGUI extends JFrame {
     }
 
     private void handleCellClick(int x, int y) {
-        if (board.playAt(x, y)) {
-            System.out.println("valid placement");
-            updateBoardDisplay();
-            currentPlayerLabel.setText("Tour actuel : " + board.getPlayerTurn());
-            updateStepByStepButtonState();
-            if (board.isOver()) { // TODO : recompute score
-                String blackScore = blackScoreLabel.getText().split(":")[1].trim();
-                String whiteScore = whiteScoreLabel.getText().split(":")[1].trim();
-                JOptionPane.showMessageDialog(this, "Game Over: " + " Scores: Noir: " + blackScore + ", Blanc: " + whiteScore + ".");
-            }
+        // Le coup est appliqué par le thread de la partie (un coup illégal est ignoré), cf. onSnapshot
+        game.play(x, y);
+    }
+
+    /**
+     * Affiche une position publiée par la partie, sur le thread de l'interface.
+     */
+    private void onSnapshot(BoardSnapshot snapshot) {
+        if (snapshot.getPly() == 0) {
+            playedSquares.clear();
+            startMillis = System.currentTimeMillis();
+        } else if (snapshot.getLastMove() >= 0) {
+            playedSquares.add(snapshot.getLastMove());
+        }
+        updateBoardDisplay(snapshot);
+        currentPlayerLabel.setText("Tour actuel : " + snapshot.getPlayerTurn());
+        updateStepByStepButtonState();
+        // Une seule position terminée est publiée par partie : les commandes suivantes sont refusées
+        if (snapshot.isOver() && snapshot.getPly() > 0) {
+            archiveGame(snapshot);
+            JOptionPane.showMessageDialog(this, "Game Over: " + " Scores: Noir: " + snapshot.countDiscs(PieceColor.BLACK)
+                    + ", Blanc: " + snapshot.countDiscs(PieceColor.WHITE) + ".");
+        }
+    }
+
+    /**
+     * Ajoute la partie terminée à l'archive, si elle est configurée.
+     */
+    private void archiveGame(BoardSnapshot snapshot) {
+        // Le format d'archive ne contient que des parties 8x8
+        if (ARCHIVE == null || snapshot.getSize() != Board.BOARD_SIZE) {
+            return;
+        }
+        try {
+            GameRecord record = GameRecord.fromMoves(playedSquares.stream().mapToInt(Integer::intValue).toArray(), null);
+            record.setBlackPlayer(Objects.toString(player1Type.getSelectedItem()));
+            record.setBlackStrategy("Bot".equals(player1Type.getSelectedItem())
+                    ? Objects.toString(player1Strategy.getSelectedItem()) : "");
+            record.setWhitePlayer(Objects.toString(player2Type.getSelectedItem()));
+            record.setWhiteStrategy("Bot".equals(player2Type.getSelectedItem())
+                    ? Objects.toString(player2Strategy.getSelectedItem()) : "");
+            record.setStartMillis(startMillis);
+            record.setDurationMillis((int) (System.currentTimeMillis() - startMillis));
+            GameRecordWriter.append(Paths.get(ARCHIVE), record);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not archive the game: " + e.getMessage());
         }
-        updateBoardDisplay();
     }
 
     private void updateBoardDisplay() {
+        updateBoardDisplay(game.getSnapshot());
+    }
+
+    private void updateBoardDisplay(BoardSnapshot snapshot) {
         loadingLabel.setVisible(true);
         int blackScore = 0;
         int whiteScore = 0;
 
-        for (int i = 0; i < 8; ++i) {
-            for (int j = 0; j < 8; ++j) {
+        for (int i = 0; i < snapshot.getSize(); ++i) {
+            for (int j = 0; j < snapshot.getSize(); ++j) {
                 JButton btn = buttons[i][j];
-                PieceColor c = board.getColorAt(i, j);
+                PieceColor c = snapshot.getColorAt(i, j);
                 //System.out.print(c);
                 switch (c) {
                     case BLACK -> {
-                        btn.setIcon(new ImageIcon(Objects.requireNonNull(
-                                getClass().getResource("/images/black.png"))));
+                        btn.setIcon(icon("black"));
                         ++blackScore;
                     }
                     case WHITE -> {
-                        btn.setIcon(new ImageIcon(Objects.requireNonNull(
-                                getClass().getResource("/images/white.png"))));
+                        btn.setIcon(icon("white"));
                         ++whiteScore;
                     }
                     case NONE -> btn.setIcon(null);
@@ -213,93 +323,75 @@ public class OthelloGUI extends JFrame {
         blackScoreLabel.setText("Noir : " + blackScore);
         whiteScoreLabel.setText("Blanc : " + whiteScore);
 
-        if (shouldShowPrediction()) {
+        if (shouldShowPrediction(snapshot)) {
             loadingLabel.setVisible(true);
 
-            SwingWorker<List<int[]>, Void> worker = new SwingWorker<>() {
-                @Override
-                protected List<int[]> doInBackground() {
-                    // Calculer en background
-                    return maxFlipsStrategy.getNormalizedScores(board);
-                }
-
-                @Override
-                protected void done() {
-                    try {
-                        List<int[]> predictions = get(); // récupère les résultats
-                        showPredictions(predictions);
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    } finally {
-                        loadingLabel.setVisible(false);
-                    }
-                }
-            };
-            worker.execute(); // démarre le thread
+            // Calculer en background, en annulant le calcul lancé pour une position précédente.
+            // En 8x8, l'analyse multi-PV affine le classement après chaque profondeur ; sinon il arrive à la fin.
+            CompletableFuture<PredictionEvaluator.Prediction<List<int[]>>> ranking = snapshot.getSize() == Board.BOARD_SIZE
+                    ? evaluator.analyzeMovesAsync(analysisStrategy, PREDICTION_MULTI_PV,
+                            partial -> SwingUtilities.invokeLater(() -> showPredictionsIfCurrent(partial, snapshot)))
+                    : evaluator.rankMovesAsync(maxFlipsStrategy);
+            ranking.whenComplete((prediction, error) ->
+                    SwingUtilities.invokeLater(() -> {
+                        if (error instanceof CancellationException) {
+                            return; // remplacée par une évaluation plus récente
+                        }
+                        if (error != null) {
+                            error.printStackTrace();
+                            loadingLabel.setVisible(false);
+                        } else if (showPredictionsIfCurrent(prediction, snapshot)) {
+                            loadingLabel.setVisible(false);
+                        }
+                    }));
+        } else {
+            evaluator.cancel();
         }
     }
 
-    private NotHelloStrategy getSelectedStrategyForCurrentPlayer() {
-        JComboBox<String> box = board.getPlayerTurn() == PieceColor.BLACK ? player1Strategy : player2Strategy;
+    private NotHelloStrategy getSelectedStrategy(PieceColor player) {
+        JComboBox<String> box = player == PieceColor.BLACK ? player1Strategy : player2Strategy;
         return switch (Objects.requireNonNull(box.getSelectedItem()).toString()) {
-            case "Procédural" -> new NotHelloMaxFlipsStrategy();
-            case "Contrainte" -> new NotHelloConstraintStrategy();
-            default -> new NotHelloMaxFlipsStrategy();
+            case "Procédural" -> proceduralStrategy;
+            case "Contrainte" -> constraintStrategy;
+            case "Alpha-Beta" -> alphaBetaStrategy;
+            case "MCTS" -> mctsStrategy();
+            default -> proceduralStrategy;
         };
     }
 
-    private NotHelloStrategy getSelectedStrategyForOpponent() {
-        JComboBox<String> box = board.getPlayerTurn() != PieceColor.BLACK ? player1Strategy : player2Strategy;
-        return switch (Objects.requireNonNull(box.getSelectedItem()).toString()) {
-            case "Procédural" -> new NotHelloMaxFlipsStrategy();
-            case "Contrainte" -> new NotHelloConstraintStrategy();
-            default -> new NotHelloMaxFlipsStrategy();
-        };
-    }
 
+    private synchronized NotHelloMctsStrategy mctsStrategy() {
+        if (mctsStrategy == null) {
+            mctsStrategy = new NotHelloMctsStrategy(NotHelloMctsStrategy.DEFAULT_BUDGET_MS,
+                    Math.min(MCTS_MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        }
+        return mctsStrategy;
+    }
 
     private void simulateGame() {
+        botThinking = true;
         simulateButton.setEnabled(false);
         stepByStepButton.setEnabled(false);
+        loadingLabel.setVisible(true);
 
         SwingWorker<Void, Void> simulationWorker = new SwingWorker<>() {
             @Override
             protected Void doInBackground() throws Exception {
-                while (!board.isOver()) {
-                    loadingLabel.setVisible(true);
-
-                    NotHelloStrategy strategy = getSelectedStrategyForCurrentPlayer();
-                    evaluator.setStrategy(strategy);
-                    int[] bestMove = evaluator.evaluateMoves();
-
-                    if (bestMove == null) {
-                        // Aucun coup valide, on passe au joueur suivant
-                        board.setPlayerTurn(board.getPlayerTurn().opposite());
-                        continue;
-                    }
-
-
-                    final int moveX = bestMove[0];
-                    final int moveY = bestMove[1];
-
-                    SwingUtilities.invokeLater(() -> {
-                        handleCellClick(moveX, moveY);
-                        currentPlayerLabel.setText("Tour actuel : " + board.getPlayerTurn());
-                        loadingLabel.setVisible(false);
-                    });
-
+                BoardSnapshot position = game.getSnapshot();
+                while (!position.isOver()) {
+                    position = playBotMove(position);
                     Thread.sleep(SIMULATION_DELAY_MS);
-
-
                 }
                 return null;
             }
 
             @Override
             protected void done() {
+                botThinking = false;
+                reportFailure(this);
                 updateSimulationButtonState();
                 updateStepByStepButtonState();
-                updateBoardDisplay();
                 loadingLabel.setVisible(false);
             }
         };
@@ -308,74 +400,129 @@ public class OthelloGUI extends JFrame {
     }
 
     private void playOneBotTurn() {
+        botThinking = true;
+        stepByStepButton.setEnabled(false);
+        simulateButton.setEnabled(false);
         loadingLabel.setVisible(true);
         SwingWorker<Void, Void> worker = new SwingWorker<>() {
             @Override
-            protected Void doInBackground() {
-                NotHelloStrategy strategy = getSelectedStrategyForCurrentPlayer();
-                NotHelloStrategy opponentStrategy = getSelectedStrategyForOpponent();
-                evaluator.setStrategy(strategy);
-
-                evaluator.setStrategy(strategy);
-
-                int[] bestMove = evaluator.evaluateMoves();
-
-                if (bestMove == null) {
-                    // Aucun coup valide, on passe au joueur suivant
-                    board.setPlayerTurn(board.getPlayerTurn().opposite());
-                    return null;
-                }
-
-                handleCellClick(bestMove[0], bestMove[1]);
-
+            protected Void doInBackground() throws Exception {
+                playBotMove(game.getSnapshot());
                 return null;
             }
 
             @Override
             protected void done() {
+                botThinking = false;
+                reportFailure(this);
+                updateSimulationButtonState();
+                updateStepByStepButtonState();
                 loadingLabel.setVisible(false);
-                updateBoardDisplay();
-                currentPlayerLabel.setText("Tour actuel : " + board.getPlayerTurn());
             }
         };
         worker.execute();
     }
 
+    /**
+     * Calcule le coup du bot au trait sur l'instantané donné et le joue, depuis un thread de fond.
+     * Le coup est refusé si la partie a changé pendant le calcul (nouvelle partie, autre coup déjà joué).
+     *
+     * @return la position après le coup
+     */
+    private BoardSnapshot playBotMove(BoardSnapshot position) throws InterruptedException, ExecutionException {
+        NotHelloStrategy strategy = getSelectedStrategy(position.getPlayerTurn());
+        int[] bestMove = evaluator.evaluateMoves(position, strategy);
+        if (bestMove == null) {
+            // Aucun coup valide, on passe au joueur suivant
+            return game.pass(position).get();
+        }
+        return game.play(position, bestMove[0], bestMove[1]).get();
+    }
+
+    private static void reportFailure(SwingWorker<?, ?> worker) {
+        try {
+            worker.get();
+        } catch (ExecutionException e) {
+            System.err.println("Bot move not played: " + e.getCause().getMessage());
+        } catch (InterruptedException | CancellationException ignored) {
+            // le worker est terminé, rien à signaler
+        }
+    }
+
+    /**
+     * Affiche un classement s'il répond encore à la dernière demande et correspond à la position affichée.
+     * @return true s'il a été affiché
+     */
+    private boolean showPredictionsIfCurrent(PredictionEvaluator.Prediction<List<int[]>> prediction, BoardSnapshot snapshot) {
+        if (!evaluator.isCurrent(prediction) || prediction.getPositionKey() != snapshot.getZobristKey()) {
+            return false;
+        }
+        showPredictions(prediction.getValue());
+        return true;
+    }
+
     /**
      * Affiche les prédictions des coups possibles sur la grille.
      * @param evaluations Liste de coups avec leur score (1 à 5). Chaque entrée est : int[0]=x, int[1]=y, int[2]=score (1=meilleur, 5=pire)
      */
     private void showPredictions(java.util.List<int[]> evaluations) {
         for (int[] eval : evaluations) {
-            ImageIcon icon = new ImageIcon(Objects.requireNonNull(
-                    getClass().getResource("/images/prediction_" + eval[2] + ".png")));
-            buttons[eval[0]][eval[1]].setIcon(icon);
+            buttons[eval[0]][eval[1]].setIcon(icon("prediction_" + eval[2]));
         }
     }
 
-    private boolean shouldShowPrediction() {
-        return (board.getPlayerTurn() == PieceColor.BLACK && player1PredictionToggle.isSelected())
-                || (board.getPlayerTurn() == PieceColor.WHITE && player2PredictionToggle.isSelected());
+    /**
+     * @param name nom de l'image dans /images, sans extension
+     * @return l'icône, chargée une seule fois et réduite à la taille des cases si nécessaire
+     */
+    private ImageIcon icon(String name) {
+        return icons.computeIfAbsent(name, n -> {
+            ImageIcon icon = new ImageIcon(Objects.requireNonNull(getClass().getResource("/images/" + n + ".png")));
+            if (cellSize >= CELL_SIZE) {
+                return icon;
+            }
+            return new ImageIcon(icon.getImage().getScaledInstance(cellSize, cellSize, Image.SCALE_SMOOTH));
+        });
+    }
+
+    private boolean shouldShowPrediction(BoardSnapshot snapshot) {
+        return (snapshot.getPlayerTurn() == PieceColor.BLACK && player1PredictionToggle.isSelected())
+                || (snapshot.getPlayerTurn() == PieceColor.WHITE && player2PredictionToggle.isSelected());
     }
 
 
     private void updateSimulationButtonState() {
-        simulateButton.setEnabled(
+        simulateButton.setEnabled(!botThinking &&
                 Objects.equals(player1Type.getSelectedItem(), "Bot") &&
                 Objects.equals(player2Type.getSelectedItem(), "Bot"));
     }
 
     private void updateStepByStepButtonState() {
-        PieceColor current = board.getPlayerTurn();
+        PieceColor current = game.getSnapshot().getPlayerTurn();
         boolean isCurrentBot =
                 (current == PieceColor.BLACK && Objects.equals(player1Type.getSelectedItem(), "Bot")) ||
                         (current == PieceColor.WHITE && Objects.equals(player2Type.getSelectedItem(), "Bot"));
-        stepByStepButton.setEnabled(isCurrentBot);
+        stepByStepButton.setEnabled(isCurrentBot && !botThinking);
     }
 
     private void resetBoard() {
+        int size = (Integer) Objects.requireNonNull(sizeSelection.getSelectedItem());
+        if (size == game.getSnapshot().getSize()) {
+            // Même taille : la partie recommence dans cette fenêtre, les coups de bot en cours seront refusés
+            game.reset(size);
+            return;
+        }
+        evaluator.shutdown();
+        analysisStrategy.shutdown();
+        alphaBetaStrategy.shutdown();
+        synchronized (this) {
+            if (mctsStrategy != null) {
+                mctsStrategy.shutdown();
+            }
+        }
+        game.shutdown();
         this.dispose();
-        new OthelloGUI();
+        new OthelloGUI(size);
     }
 
     public static void main(String[] args) {
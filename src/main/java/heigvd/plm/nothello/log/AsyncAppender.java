@@ -0,0 +1,94 @@
+package heigvd.plm.nothello.log;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Écrit les messages depuis un thread démon : le thread qui journalise ne fait que mettre le message en file.
+ * La file est bornée ; quand elle est pleine, l'appelant attend plutôt que de perdre des traces.
+ *
+ * À l'arrêt de la JVM, un marqueur de fin est mis en file : le thread d'écriture écrit les messages qui le
+ * précèdent puis se termine, et seul le crochet d'arrêt écrit ensuite les retardataires, sans concurrence.
+ */
+public class AsyncAppender implements Consumer<String> {
+
+    private static final int CAPACITY = 8192;
+    private static final long SHUTDOWN_TIMEOUT_MS = 2000;
+
+    // Marqueur de fin, comparé par identité
+    private static final String STOP = new String("stop");
+
+    private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(CAPACITY);
+    private final PrintStream out;
+    private final Thread writer;
+
+    public AsyncAppender(PrintStream out) {
+        this.out = out;
+        writer = new Thread(this::run, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "log-flush"));
+    }
+
+    @Override
+    public void accept(String line) {
+        try {
+            queue.put(line);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            out.println(line);
+        }
+    }
+
+    private void run() {
+        List<String> batch = new ArrayList<>();
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                boolean stopped = batch.removeIf(line -> line == STOP);
+                write(batch);
+                batch.clear();
+                if (stopped) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write(List<String> batch) {
+        synchronized (out) {
+            for (String line : batch) {
+                out.println(line);
+            }
+        }
+    }
+
+    /**
+     * Arrête le thread d'écriture après les messages déjà en file, puis écrit ceux arrivés entre-temps.
+     * Si le thread ne s'arrête pas à temps (sortie bloquée), les messages restants sont abandonnés plutôt
+     * qu'écrits en parallèle avec lui.
+     */
+    private void shutdown() {
+        try {
+            if (queue.offer(STOP, SHUTDOWN_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                writer.join(SHUTDOWN_TIMEOUT_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!writer.isAlive()) {
+            List<String> batch = new ArrayList<>();
+            queue.drainTo(batch);
+            write(batch);
+        }
+        out.flush();
+    }
+}
@@ -0,0 +1,177 @@
+package heigvd.plm.nothello.log;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Journal à niveaux des paquetages game et logic, à la place de System.out.
+ *
+ * Un message d'un niveau désactivé ne coûte qu'une comparaison : les arguments sont passés tels quels
+ * (surcharges en long pour ne pas allouer d'objet), et le message n'est construit, en remplaçant chaque {}
+ * par l'argument suivant, que si le niveau est activé. Un argument coûteux à calculer doit être protégé par
+ * isEnabled.
+ *
+ * Configuration : -Dnothello.log=NIVEAU pour tous les journaux (INFO par défaut, OFF pour tout couper),
+ * -Dnothello.log.NOM=NIVEAU pour un journal, et -Dnothello.log.async=true pour écrire depuis un thread dédié
+ * (cf. AsyncAppender), utile pour les traces détaillées.
+ */
+public final class Log {
+
+    public enum Level {
+        TRACE, DEBUG, INFO, WARN, ERROR, OFF
+    }
+
+    private static final Map<String, Log> LOGS = new ConcurrentHashMap<>();
+    private static final Level DEFAULT_LEVEL = parse(System.getProperty("nothello.log"), Level.INFO);
+
+    private static volatile Consumer<String> appender = Boolean.getBoolean("nothello.log.async")
+            ? new AsyncAppender(System.out)
+            : System.out::println;
+
+    private final String name;
+    private volatile int threshold;
+
+    private Log(String name) {
+        this.name = name;
+        this.threshold = parse(System.getProperty("nothello.log." + name), DEFAULT_LEVEL).ordinal();
+    }
+
+    /**
+     * @return le journal de ce nom, créé au premier appel (à garder dans un champ static final)
+     */
+    public static Log get(String name) {
+        return LOGS.computeIfAbsent(name, Log::new);
+    }
+
+    /**
+     * Remplace la destination des messages de tous les journaux (une ligne par appel).
+     */
+    public static void setAppender(Consumer<String> appender) {
+        Log.appender = appender;
+    }
+
+    private static Level parse(String value, Level defaultLevel) {
+        return value == null ? defaultLevel : Level.valueOf(value.trim().toUpperCase());
+    }
+
+    public void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    public boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    public boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
+    public boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE);
+    }
+
+    public void log(Level level, String message) {
+        if (isEnabled(level)) {
+            write(level, message, null, null, null, 0);
+        }
+    }
+
+    public void log(Level level, String format, Object a) {
+        if (isEnabled(level)) {
+            write(level, format, a, null, null, 1);
+        }
+    }
+
+    public void log(Level level, String format, Object a, Object b) {
+        if (isEnabled(level)) {
+            write(level, format, a, b, null, 2);
+        }
+    }
+
+    public void log(Level level, String format, long a) {
+        if (isEnabled(level)) {
+            write(level, format, a, null, null, 1);
+        }
+    }
+
+    public void log(Level level, String format, long a, long b) {
+        if (isEnabled(level)) {
+            write(level, format, a, b, null, 2);
+        }
+    }
+
+    public void log(Level level, String format, long a, long b, long c) {
+        if (isEnabled(level)) {
+            write(level, format, a, b, c, 3);
+        }
+    }
+
+    public void trace(String message) {
+        log(Level.TRACE, message);
+    }
+
+    public void trace(String format, Object a) {
+        log(Level.TRACE, format, a);
+    }
+
+    public void trace(String format, Object a, Object b) {
+        log(Level.TRACE, format, a, b);
+    }
+
+    public void trace(String format, long a, long b) {
+        log(Level.TRACE, format, a, b);
+    }
+
+    public void debug(String message) {
+        log(Level.DEBUG, message);
+    }
+
+    public void debug(String format, Object a) {
+        log(Level.DEBUG, format, a);
+    }
+
+    public void debug(String format, Object a, Object b) {
+        log(Level.DEBUG, format, a, b);
+    }
+
+    public void debug(String format, long a, long b, long c) {
+        log(Level.DEBUG, format, a, b, c);
+    }
+
+    public void info(String message) {
+        log(Level.INFO, message);
+    }
+
+    public void info(String format, Object a) {
+        log(Level.INFO, format, a);
+    }
+
+    public void info(String format, long a, long b) {
+        log(Level.INFO, format, a, b);
+    }
+
+    public void warn(String message) {
+        log(Level.WARN, message);
+    }
+
+    public void warn(String format, Object a) {
+        log(Level.WARN, format, a);
+    }
+
+    private void write(Level level, String format, Object a, Object b, Object c, int args) {
+        StringBuilder sb = new StringBuilder(format.length() + 32);
+        sb.append('[').append(level).append("] ").append(name).append(": ");
+        int from = 0;
+        for (int i = 0; i < args; ++i) {
+            int at = format.indexOf("{}", from);
+            if (at < 0) {
+                break;
+            }
+            sb.append(format, from, at).append(i == 0 ? a : i == 1 ? b : c);
+            from = at + 2;
+        }
+        sb.append(format, from, format.length());
+        appender.accept(sb.toString());
+    }
+}
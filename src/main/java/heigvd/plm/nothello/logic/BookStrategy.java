@@ -0,0 +1,90 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Joue le coup du livre d'ouvertures quand la position y figure, sinon délègue à une autre stratégie.
+ */
+public class BookStrategy implements NotHelloStrategy {
+
+    /**
+     * Choix du coup parmi ceux du livre.
+     */
+    public enum Selection {
+        /** Le coup au meilleur score. */
+        BEST,
+        /** Un coup tiré au hasard, proportionnellement à son nombre de parties. */
+        WEIGHTED_RANDOM
+    }
+
+    private final OpeningBook book;
+    private final NotHelloStrategy fallback;
+    private Selection selection = Selection.BEST;
+    private int minPlays = 1;
+
+    private long bookMoves;
+    private long fallbackMoves;
+
+    public BookStrategy(OpeningBook book, NotHelloStrategy fallback) {
+        this.book = book;
+        this.fallback = fallback;
+    }
+
+    public void setSelection(Selection selection) {
+        this.selection = selection;
+    }
+
+    /**
+     * @param minPlays nombre minimal de parties pour qu'un coup du livre soit retenu (mode BEST)
+     */
+    public void setMinPlays(int minPlays) {
+        this.minPlays = minPlays;
+    }
+
+    @Override
+    public int[] evaluate(Board board) {
+        return evaluate(board, new CancellationToken());
+    }
+
+    @Override
+    public int[] evaluate(Board board, CancellationToken token) {
+        int square = bookMove(board);
+        if (square >= 0) {
+            ++bookMoves;
+            return new int[]{BitBoard.x(square), BitBoard.y(square)};
+        }
+        ++fallbackMoves;
+        return fallback.evaluate(board, token);
+    }
+
+    /**
+     * @return la case proposée par le livre pour cette position, ou -1
+     */
+    private int bookMove(Board board) {
+        // Le livre ne contient que des positions 8x8
+        if (board.isOver() || !board.isSingleWord()) {
+            return -1;
+        }
+        long key = board.getZobristKey();
+        int square = selection == Selection.BEST
+                ? book.bestMove(key, minPlays)
+                : book.weightedRandomMove(key, ThreadLocalRandom.current().nextDouble());
+        // Une collision de clé Zobrist pourrait proposer un coup illégal
+        return square >= 0 && board.isLegalMove(square) ? square : -1;
+    }
+
+    public NotHelloStrategy getFallback() {
+        return fallback;
+    }
+
+    public long getBookMoves() {
+        return bookMoves;
+    }
+
+    public long getFallbackMoves() {
+        return fallbackMoves;
+    }
+}
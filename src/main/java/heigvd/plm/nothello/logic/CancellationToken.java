@@ -0,0 +1,55 @@
+package heigvd.plm.nothello.logic;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Demande d'annulation coopérative d'une évaluation.
+ *
+ * Les stratégies consultent isCancelled() régulièrement, ou enregistrent une action (par ex. arrêter le solveur)
+ * exécutée au moment de l'annulation.
+ */
+public class CancellationToken {
+
+    private volatile boolean cancelled = false;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Annule l'évaluation et exécute les actions enregistrées. Sans effet si elle est déjà annulée.
+     */
+    public void cancel() {
+        synchronized (this) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Enregistre une action à exécuter lors de l'annulation. Elle est exécutée immédiatement si c'est déjà le cas.
+     */
+    public void onCancel(Runnable listener) {
+        synchronized (this) {
+            if (!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Retire une action enregistrée avec onCancel, typiquement une fois l'évaluation terminée.
+     */
+    public void removeOnCancel(Runnable listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,164 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache borné (LRU) des résultats des stratégies, indexé par la position, le joueur au trait et la stratégie.
+ *
+ * La position complète (taille et pions des deux couleurs) fait partie de la clé : il n'y a donc pas de collision
+ * possible, contrairement à une clé Zobrist seule. Thread-safe.
+ */
+public class EvaluationCache<V> {
+
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private final int maxEntries;
+    private final LinkedHashMap<Key, V> entries;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public EvaluationCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    public EvaluationCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.maxEntries = maxEntries;
+        // Ordre d'accès : l'entrée la plus ancienne est la moins récemment utilisée
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, V> eldest) {
+                if (size() > EvaluationCache.this.maxEntries) {
+                    ++evictions;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @param strategy stratégie ayant produit la valeur : son nom complet avec ses paramètres, ou l'instance
+     *                 elle-même (comparée par identité, deux instances configurées différemment ne partageant rien)
+     * @return la clé de la position actuelle du plateau pour cette stratégie
+     */
+    public static Key keyOf(Board board, Object strategy) {
+        if (!board.isSingleWord()) {
+            long[] black = board.getDiscWords(PieceColor.BLACK);
+            long[] white = board.getDiscWords(PieceColor.WHITE);
+            long[] discs = Arrays.copyOf(black, black.length + white.length);
+            System.arraycopy(white, 0, discs, black.length, white.length);
+            return new Key(board.getSize(), 0L, 0L, discs, board.getPlayerTurn(), strategy);
+        }
+        return new Key(board.getSize(), board.getDiscs(PieceColor.BLACK), board.getDiscs(PieceColor.WHITE), null,
+                board.getPlayerTurn(), strategy);
+    }
+
+    /**
+     * @return la valeur en cache, ou null si elle est absente
+     */
+    public synchronized V get(Key key) {
+        V value = entries.get(key);
+        if (value == null) {
+            ++misses;
+        } else {
+            ++hits;
+        }
+        return value;
+    }
+
+    /**
+     * Ajoute une valeur, en évinçant l'entrée la moins récemment utilisée si le cache est plein.
+     * Les valeurs null ne sont pas conservées.
+     */
+    public synchronized void put(Key key, V value) {
+        if (value != null) {
+            entries.put(key, value);
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * @return la proportion de lectures trouvées dans le cache, 0 s'il n'y en a pas encore eu
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("Evaluation cache: %d/%d entries, %d hits, %d misses (%.1f%%), %d evictions",
+                entries.size(), maxEntries, hits, misses, 100 * getHitRate(), evictions);
+    }
+
+    /**
+     * Clé d'une entrée : position, joueur au trait et stratégie.
+     */
+    public static final class Key {
+        private final int size;
+        private final long black;
+        private final long white;
+        // Pièces noires puis blanches des plateaux qui ne sont pas en 8x8, null sinon
+        private final long[] discs;
+        private final PieceColor side;
+        private final Object strategy;
+
+        Key(int size, long black, long white, long[] discs, PieceColor side, Object strategy) {
+            this.size = size;
+            this.black = black;
+            this.white = white;
+            this.discs = discs;
+            this.side = side;
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return size == other.size && black == other.black && white == other.white
+                    && Arrays.equals(discs, other.discs) && side == other.side && strategy.equals(other.strategy);
+        }
+
+        @Override
+        public int hashCode() {
+            long h = (black * 0x9E3779B97F4A7C15L ^ white) + Arrays.hashCode(discs);
+            h = h * 31 + side.ordinal();
+            return Long.hashCode(h) * 31 + strategy.hashCode();
+        }
+    }
+}
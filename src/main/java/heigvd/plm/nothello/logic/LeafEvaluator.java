@@ -0,0 +1,18 @@
+package heigvd.plm.nothello.logic;
+
+/**
+ * Évaluation statique d'une position 8x8 aux feuilles d'une recherche (cf. BitBoard).
+ *
+ * Appelée à chaque feuille, éventuellement depuis plusieurs threads à la fois : une implémentation doit être
+ * thread-safe et ne rien allouer.
+ */
+@FunctionalInterface
+public interface LeafEvaluator {
+
+    /**
+     * @param player pièces du joueur qui doit jouer
+     * @param opponent pièces de l'adversaire
+     * @return le score de la position du point de vue de player, plus grand est meilleur
+     */
+    int evaluate(long player, long opponent);
+}
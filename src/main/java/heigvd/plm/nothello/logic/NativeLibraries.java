@@ -0,0 +1,25 @@
+package heigvd.plm.nothello.logic;
+
+import com.google.ortools.Loader;
+
+/**
+ * Chargement unique des bibliothèques natives d'OR-Tools.
+ */
+final class NativeLibraries {
+
+    private static volatile boolean loaded = false;
+
+    private NativeLibraries() {
+    }
+
+    static void load() {
+        if (!loaded) {
+            synchronized (NativeLibraries.class) {
+                if (!loaded) {
+                    Loader.loadNativeLibraries();
+                    loaded = true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,674 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Recherche negamax alpha-beta avec approfondissement itératif.
+ * La recherche s'arrête à une échéance donnée et retourne le meilleur coup de la dernière profondeur terminée.
+ * Les résultats sont mémorisés dans une table de transposition, qui peut être partagée entre plusieurs instances.
+ *
+ * Avec plusieurs threads, la recherche est parallélisée en "Lazy SMP" : chaque thread explore la même racine
+ * sur sa propre copie du plateau, et ils s'entraident uniquement au travers de la table de transposition.
+ *
+ * Les feuilles sont évaluées par un LeafEvaluator, par défaut evaluatePosition (poids des cases et mobilité).
+ *
+ * En mode analyse (cf. analyze), la recherche donne le score exact des K meilleurs coups (multi-PV) et publie
+ * le classement de tous les coups après chaque profondeur terminée.
+ */
+public class NotHelloAlphaBetaStrategy implements NotHelloStrategy {
+
+    private static final Histogram SEARCH = Metrics.histogram("alphabeta.search");
+    private static final Counter NODES = Metrics.counter("alphabeta.nodes");
+
+    public static final long DEFAULT_BUDGET_MS = 1000;
+
+    static final int MAX_DEPTH = 64;
+    static final int WIN_SCORE = 1_000_000;
+    private static final int INFINITY = Integer.MAX_VALUE - 1;
+
+    // Vérifie l'échéance tous les 1024 noeuds
+    private static final int DEADLINE_CHECK_MASK = 1023;
+
+    // Poids statiques des cases, utilisés pour l'évaluation et l'ordre des coups
+    static final int[] SQUARE_WEIGHTS = {
+            100, -20, 10,  5,  5, 10, -20, 100,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+             10,  -2, -1, -1, -1, -1,  -2,  10,
+              5,  -2, -1, -1, -1, -1,  -2,   5,
+              5,  -2, -1, -1, -1, -1,  -2,   5,
+             10,  -2, -1, -1, -1, -1,  -2,  10,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            100, -20, 10,  5,  5, 10, -20, 100,
+    };
+
+    private final long budgetNanos;
+    private final TranspositionTable table;
+    private final int threads;
+    private final Searcher[] searchers;
+    private final ExecutorService helpers;
+
+    private int maxDepth = MAX_DEPTH;
+    private LeafEvaluator evaluator = NotHelloAlphaBetaStrategy::evaluatePosition;
+    private volatile boolean stop;
+    private volatile long deadline;
+
+    private int lastDepth;
+    private int lastScore;
+    private long lastNodes;
+    private long lastNanos;
+
+    public NotHelloAlphaBetaStrategy() {
+        this(DEFAULT_BUDGET_MS);
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     */
+    public NotHelloAlphaBetaStrategy(long budgetMillis) {
+        this(budgetMillis, new TranspositionTable());
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     * @param table table de transposition, éventuellement partagée
+     */
+    public NotHelloAlphaBetaStrategy(long budgetMillis, TranspositionTable table) {
+        this(budgetMillis, table, 1);
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     * @param table table de transposition, partagée par tous les threads de recherche
+     * @param threads nombre de threads de recherche
+     */
+    public NotHelloAlphaBetaStrategy(long budgetMillis, TranspositionTable table, int threads) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.table = table;
+        this.threads = threads;
+        this.searchers = new Searcher[threads];
+        for (int i = 0; i < threads; ++i) {
+            searchers[i] = new Searcher(i);
+        }
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "alphabeta-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Limite la profondeur de recherche, utile pour mesurer le temps nécessaire pour atteindre une profondeur.
+     */
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = Math.max(1, Math.min(maxDepth, MAX_DEPTH));
+    }
+
+    /**
+     * Change l'évaluation des feuilles. Les scores déjà mémorisés dans la table de transposition venant
+     * de l'ancienne évaluation, la table doit être vidée si elle est partagée avec d'autres recherches.
+     */
+    public void setEvaluator(LeafEvaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    public LeafEvaluator getEvaluator() {
+        return evaluator;
+    }
+
+    /**
+     * Arrête les threads auxiliaires, la stratégie ne doit plus être utilisée ensuite.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    @Override
+    public int[] evaluate(Board board) {
+        return evaluate(board, System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Retourne le meilleur coup trouvé avant l'échéance.
+     *
+     * @param board L'état actuel du plateau, qui n'est pas modifié
+     * @param deadlineNanos échéance, dans la base de temps de System.nanoTime()
+     * @return un tableau {x, y}, ou null si aucun coup n'est possible
+     */
+    public int[] evaluate(Board board, long deadlineNanos) {
+        return evaluate(board, deadlineNanos, null);
+    }
+
+    /**
+     * Comme evaluate(Board), l'annulation du jeton arrête la recherche comme si l'échéance était atteinte.
+     */
+    @Override
+    public int[] evaluate(Board board, CancellationToken token) {
+        return evaluate(board, System.nanoTime() + budgetNanos, token);
+    }
+
+    private int[] evaluate(Board board, long deadlineNanos, CancellationToken token) {
+        if (!board.isSingleWord()) {
+            throw new IllegalArgumentException("Alpha-beta only supports " + BitBoard.SIZE + "x" + BitBoard.SIZE + " boards");
+        }
+        int square = searchBestMove(board, deadlineNanos, token);
+        return square < 0 ? null : new int[]{BitBoard.x(square), BitBoard.y(square)};
+    }
+
+    private int searchBestMove(Board board, long deadlineNanos, CancellationToken token) {
+        if (board.isOver() || board.getLegalMoves() == 0L) {
+            return -1;
+        }
+        long start = System.nanoTime();
+        deadline = deadlineNanos;
+        stop = false;
+        Runnable stopSearch = () -> stop = true;
+        if (token != null) {
+            token.onCancel(stopSearch);
+        }
+        try {
+            return search(board, start);
+        } finally {
+            if (token != null) {
+                token.removeOnCancel(stopSearch);
+            }
+        }
+    }
+
+    /**
+     * Comme analyze(Board, int, long, CancellationToken, Consumer), avec le temps de réflexion de la stratégie.
+     */
+    public Analysis analyze(Board board, int multiPv, CancellationToken token, Consumer<Analysis> listener) {
+        return analyze(board, multiPv, System.nanoTime() + budgetNanos, token, listener);
+    }
+
+    /**
+     * Analyse multi-PV : à chaque profondeur de l'approfondissement itératif, les multiPv meilleurs coups reçoivent
+     * un score exact (fenêtre ouverte au-dessus du K-ième meilleur score), les autres seulement une borne
+     * supérieure. Le classement est transmis à listener après chaque profondeur terminée : les premières
+     * profondeurs ne prennent que quelques millisecondes, puis le classement s'affine jusqu'à l'échéance.
+     *
+     * L'analyse se fait sur un seul thread, les threads auxiliaires ne sont pas utilisés.
+     *
+     * @param multiPv nombre de coups dont le score doit être exact
+     * @param deadlineNanos échéance, dans la base de temps de System.nanoTime()
+     * @param token annulation, qui arrête l'analyse comme l'échéance (peut être null)
+     * @param listener appelé dans le thread de l'analyse, avec chaque nouveau classement
+     * @return la dernière analyse terminée, ou null si aucun coup n'est possible
+     */
+    public Analysis analyze(Board board, int multiPv, long deadlineNanos, CancellationToken token,
+                            Consumer<Analysis> listener) {
+        if (!board.isSingleWord()) {
+            throw new IllegalArgumentException("Alpha-beta only supports " + BitBoard.SIZE + "x" + BitBoard.SIZE + " boards");
+        }
+        if (multiPv <= 0) {
+            throw new IllegalArgumentException("At least one principal variation is required");
+        }
+        if (board.isOver() || board.getLegalMoves() == 0L) {
+            return null;
+        }
+        long start = System.nanoTime();
+        deadline = deadlineNanos;
+        stop = false;
+        Runnable stopSearch = () -> stop = true;
+        if (token != null) {
+            token.onCancel(stopSearch);
+        }
+        try {
+            table.newSearch();
+            Searcher main = searchers[0];
+            Analysis analysis = main.analyze(new Board(board), multiPv, listener, start);
+            lastDepth = analysis.getDepth();
+            lastScore = analysis.getScore(0);
+            lastNodes = main.nodes;
+            lastNanos = System.nanoTime() - start;
+            SEARCH.record(lastNanos);
+            NODES.add(main.nodes);
+            return analysis;
+        } finally {
+            if (token != null) {
+                token.removeOnCancel(stopSearch);
+            }
+        }
+    }
+
+    private int search(Board board, long start) {
+        table.newSearch();
+
+        // Les threads auxiliaires commencent à des profondeurs décalées pour diversifier leur exploration
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threads; ++i) {
+            Searcher helper = searchers[i];
+            Board copy = new Board(board);
+            running.add(helpers.submit(() -> helper.search(copy, 1 + helper.id % 2)));
+        }
+        Searcher main = searchers[0];
+        main.search(new Board(board), 1);
+
+        stop = true;
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search thread failed", e.getCause());
+            }
+        }
+
+        // Le thread principal fait foi s'il est allé au bout ; à l'échéance, garde le résultat le plus profond
+        Searcher best = main;
+        long nodes = 0;
+        for (Searcher searcher : searchers) {
+            nodes += searcher.nodes;
+            if (main.aborted && searcher.completedDepth > best.completedDepth) {
+                best = searcher;
+            }
+        }
+        lastDepth = best.completedDepth;
+        lastScore = best.completedScore;
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        SEARCH.record(lastNanos);
+        NODES.add(nodes);
+        return best.completedMove;
+    }
+
+    /**
+     * État d'un thread de recherche : coups et clés de tri par profondeur, préalloués pour ne rien allouer.
+     */
+    private class Searcher {
+        final int id;
+        final int[][] moves = new int[MAX_DEPTH + 1][BitBoard.SQUARES];
+        final int[][] keys = new int[MAX_DEPTH + 1][BitBoard.SQUARES];
+
+        boolean aborted;
+        long nodes;
+        int completedDepth;
+        int completedScore;
+        int completedMove;
+
+        Searcher(int id) {
+            this.id = id;
+        }
+
+        void search(Board board, int startDepth) {
+            aborted = false;
+            nodes = 0;
+            completedDepth = 0;
+
+            int count = orderMoves(board, 0, -1);
+            completedMove = moves[0][0];
+            int depthLimit = Math.min(maxDepth, BitBoard.count(board.getDiscs(PieceColor.NONE)));
+
+            for (int depth = Math.min(startDepth, depthLimit); depth <= depthLimit; ++depth) {
+                int alpha = -INFINITY;
+                int iterationBest = -1;
+                for (int i = 0; i < count; ++i) {
+                    int move = moves[0][i];
+                    PieceColor player = board.getPlayerTurn();
+                    int token = board.makeMove(move);
+                    int score = childScore(board, player, depth - 1, alpha, INFINITY, 1);
+                    board.unmakeMove(token);
+                    if (aborted) break;
+                    if (score > alpha) {
+                        alpha = score;
+                        iterationBest = move;
+                    }
+                }
+                if (aborted) break;
+
+                completedMove = iterationBest;
+                completedDepth = depth;
+                completedScore = alpha;
+                // Pas d'arrêt sur une victoire prouvée avant depthLimit : son écart de pions n'est exact
+                // qu'une fois toutes les cases vides explorées
+                count = orderMoves(board, 0, completedMove);
+            }
+        }
+
+        /**
+         * Approfondissement itératif multi-PV, cf. NotHelloAlphaBetaStrategy.analyze.
+         * Les coups de la racine sont repris à chaque profondeur dans l'ordre du classement précédent.
+         *
+         * @return la dernière analyse terminée (celle de la profondeur 0, sans score, si la première est interrompue)
+         */
+        Analysis analyze(Board board, int multiPv, Consumer<Analysis> listener, long start) {
+            aborted = false;
+            nodes = 0;
+            completedDepth = 0;
+
+            int count = orderMoves(board, 0, -1);
+            int[] rootMoves = Arrays.copyOf(moves[0], count);
+            int[] scores = new int[count];
+            boolean[] exact = new boolean[count];
+            int[] best = new int[Math.min(multiPv, count)];
+            Analysis analysis = new Analysis(0, rootMoves.clone(), scores.clone(), exact.clone(), 0, 0);
+            int depthLimit = Math.min(maxDepth, BitBoard.count(board.getDiscs(PieceColor.NONE)));
+
+            for (int depth = 1; depth <= depthLimit; ++depth) {
+                // best : scores exacts les plus élevés de cette profondeur, par ordre décroissant
+                int found = 0;
+                for (int i = 0; i < count; ++i) {
+                    int alpha = found == best.length ? best[found - 1] : -INFINITY;
+                    PieceColor player = board.getPlayerTurn();
+                    int token = board.makeMove(rootMoves[i]);
+                    int score = childScore(board, player, depth - 1, alpha, INFINITY, 1);
+                    board.unmakeMove(token);
+                    if (aborted) break;
+                    scores[i] = score;
+                    exact[i] = score > alpha;
+                    if (exact[i]) {
+                        int j = Math.min(found, best.length - 1);
+                        while (j > 0 && best[j - 1] < score) {
+                            best[j] = best[j - 1];
+                            --j;
+                        }
+                        best[j] = score;
+                        found = Math.min(found + 1, best.length);
+                    }
+                }
+                if (aborted) break;
+
+                sortRoot(rootMoves, scores, exact);
+                completedDepth = depth;
+                analysis = new Analysis(depth, rootMoves.clone(), scores.clone(), exact.clone(), nodes,
+                        System.nanoTime() - start);
+                if (listener != null) {
+                    listener.accept(analysis);
+                }
+            }
+            return analysis;
+        }
+
+        /**
+         * Trie les coups de la racine : scores exacts d'abord, puis par score (ou borne) décroissant.
+         */
+        private void sortRoot(int[] rootMoves, int[] scores, boolean[] exact) {
+            for (int i = 1; i < rootMoves.length; ++i) {
+                int move = rootMoves[i];
+                int score = scores[i];
+                boolean isExact = exact[i];
+                int j = i;
+                while (j > 0 && (isExact && !exact[j - 1] || isExact == exact[j - 1] && scores[j - 1] < score)) {
+                    rootMoves[j] = rootMoves[j - 1];
+                    scores[j] = scores[j - 1];
+                    exact[j] = exact[j - 1];
+                    --j;
+                }
+                rootMoves[j] = move;
+                scores[j] = score;
+                exact[j] = isExact;
+            }
+        }
+
+        /**
+         * Score, du point de vue de {@code player} qui vient de jouer, de la position atteinte.
+         * Le tour lui revient si l'adversaire doit passer ou si la partie est terminée : la perspective ne change alors pas.
+         *
+         * @param alpha borne inférieure, du point de vue de {@code player}
+         * @param beta borne supérieure, du point de vue de {@code player}
+         */
+        private int childScore(Board board, PieceColor player, int depth, int alpha, int beta, int ply) {
+            if (board.getPlayerTurn() == player) {
+                return negamax(board, depth, alpha, beta, ply);
+            }
+            return -negamax(board, depth, -beta, -alpha, ply);
+        }
+
+        private int negamax(Board board, int depth, int alpha, int beta, int ply) {
+            if ((++nodes & DEADLINE_CHECK_MASK) == 0 && (stop || System.nanoTime() > deadline)) {
+                aborted = true;
+            }
+            if (aborted) return 0;
+
+            if (board.isOver()) {
+                return finalScore(board);
+            }
+            if (depth <= 0 || ply >= MAX_DEPTH) {
+                return evaluator.evaluate(board.getDiscs(board.getPlayerTurn()), board.getDiscs(board.getPlayerTurn().opposite()));
+            }
+
+            long key = board.getZobristKey();
+            long entry = table.probe(key);
+            int hashMove = -1;
+            if (entry != 0L) {
+                hashMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int score = TranspositionTable.score(entry);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && score >= beta)
+                            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                        return score;
+                    }
+                }
+            }
+
+            int count = orderMoves(board, ply, hashMove);
+            int best = -INFINITY;
+            int bestMove = -1;
+            for (int i = 0; i < count; ++i) {
+                PieceColor player = board.getPlayerTurn();
+                int token = board.makeMove(moves[ply][i]);
+                int score = childScore(board, player, depth - 1, Math.max(alpha, best), beta, ply + 1);
+                board.unmakeMove(token);
+                if (aborted) return 0;
+                if (score > best) {
+                    best = score;
+                    bestMove = moves[ply][i];
+                    if (best >= beta) break;
+                }
+            }
+
+            int bound = best <= alpha ? TranspositionTable.UPPER
+                    : best >= beta ? TranspositionTable.LOWER : TranspositionTable.EXACT;
+            table.store(key, bestMove, depth, bound, best);
+            return best;
+        }
+
+        /**
+         * Remplit moves[ply] avec les coups légaux triés : le coup {@code first} d'abord,
+         * puis par poids de case décroissant.
+         *
+         * @return le nombre de coups
+         */
+        private int orderMoves(Board board, int ply, int first) {
+            int[] plyMoves = moves[ply];
+            int[] plyKeys = keys[ply];
+            int count = 0;
+            long legal = board.getLegalMoves();
+            while (legal != 0L) {
+                int square = Long.numberOfTrailingZeros(legal);
+                legal &= legal - 1;
+                int key = square == first ? Integer.MAX_VALUE : SQUARE_WEIGHTS[square];
+
+                // Tri par insertion, il y a rarement plus d'une vingtaine de coups
+                int i = count++;
+                while (i > 0 && plyKeys[i - 1] < key) {
+                    plyMoves[i] = plyMoves[i - 1];
+                    plyKeys[i] = plyKeys[i - 1];
+                    --i;
+                }
+                plyMoves[i] = square;
+                plyKeys[i] = key;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Score final exact, du point de vue du joueur courant.
+     */
+    private static int finalScore(Board board) {
+        int diff = BitBoard.count(board.getDiscs(board.getPlayerTurn()))
+                - BitBoard.count(board.getDiscs(board.getPlayerTurn().opposite()));
+        if (diff > 0) return WIN_SCORE + diff;
+        if (diff < 0) return -WIN_SCORE + diff;
+        return 0;
+    }
+
+    /**
+     * Évaluation statique : poids des cases et mobilité.
+     */
+    static int evaluatePosition(long player, long opponent) {
+        int score = 0;
+        long discs = player;
+        while (discs != 0L) {
+            score += SQUARE_WEIGHTS[Long.numberOfTrailingZeros(discs)];
+            discs &= discs - 1;
+        }
+        discs = opponent;
+        while (discs != 0L) {
+            score -= SQUARE_WEIGHTS[Long.numberOfTrailingZeros(discs)];
+            discs &= discs - 1;
+        }
+        int mobility = BitBoard.count(BitBoard.legalMoves(player, opponent))
+                - BitBoard.count(BitBoard.legalMoves(opponent, player));
+        return score + 10 * mobility;
+    }
+
+    /**
+     * @return la dernière profondeur entièrement explorée
+     */
+    public int getLastDepth() {
+        return lastDepth;
+    }
+
+    /**
+     * @return le score de la dernière profondeur entièrement explorée, du point de vue du joueur qui joue
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return le nombre de noeuds visités lors de la dernière recherche, tous threads confondus
+     */
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    /**
+     * @return la vitesse de la dernière recherche, tous threads confondus
+     */
+    public double getLastNodesPerSecond() {
+        return lastNanos == 0 ? 0.0 : lastNodes / (lastNanos / 1e9);
+    }
+
+    /**
+     * Classement des coups de la racine après une profondeur de l'analyse multi-PV, du meilleur au moins bon.
+     * Les scores sont du point de vue du joueur qui joue ; ceux qui ne sont pas exacts sont des bornes supérieures.
+     */
+    public static final class Analysis {
+        private final int depth;
+        private final int[] squares;
+        private final int[] scores;
+        private final boolean[] exact;
+        private final long nodes;
+        private final long elapsedNanos;
+
+        Analysis(int depth, int[] squares, int[] scores, boolean[] exact, long nodes, long elapsedNanos) {
+            this.depth = depth;
+            this.squares = squares;
+            this.scores = scores;
+            this.exact = exact;
+            this.nodes = nodes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * @return le nombre de coups légaux, exacts ou non
+         */
+        public int getMoveCount() {
+            return squares.length;
+        }
+
+        /**
+         * @param rank rang du coup, 0 pour le meilleur
+         * @return la case du coup (cf. BitBoard)
+         */
+        public int getSquare(int rank) {
+            return squares[rank];
+        }
+
+        public int getScore(int rank) {
+            return scores[rank];
+        }
+
+        /**
+         * @return true si le score est exact, false si c'est une borne supérieure (coup hors des K meilleurs)
+         */
+        public boolean isExact(int rank) {
+            return exact[rank];
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Classement pour l'affichage, sur la même échelle que NotHelloMaxFlipsStrategy.getNormalizedScores :
+         * les coups exacts de 1 (meilleur) à 4 selon leur écart au meilleur score, les autres à 5.
+         *
+         * @return liste de coups (x, y, classement)
+         */
+        public List<int[]> getRanking() {
+            if (depth == 0) {
+                return Collections.emptyList();
+            }
+            int max = scores[0];
+            int min = max;
+            for (int i = 0; i < scores.length && exact[i]; ++i) {
+                min = Math.min(min, scores[i]);
+            }
+            List<int[]> ranking = new ArrayList<>(squares.length);
+            for (int i = 0; i < squares.length; ++i) {
+                int rank = 5;
+                if (exact[i]) {
+                    rank = max == min ? 1 : 1 + (int) Math.round(3.0 * ((long) max - scores[i]) / ((long) max - min));
+                }
+                ranking.add(new int[]{BitBoard.x(squares[i]), BitBoard.y(squares[i]), rank});
+            }
+            return Collections.unmodifiableList(ranking);
+        }
+    }
+}
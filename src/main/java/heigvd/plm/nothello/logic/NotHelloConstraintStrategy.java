@@ -1,19 +1,64 @@
 package heigvd.plm.nothello.logic;
 
-import com.google.ortools.Loader;
+import com.google.ortools.sat.BoolVar;
 import com.google.ortools.sat.CpModel;
 import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverSolutionCallback;
 import com.google.ortools.sat.CpSolverStatus;
-import com.google.ortools.sat.IntVar;
 import com.google.ortools.sat.LinearExpr;
+import com.google.ortools.sat.LinearExprBuilder;
 import heigvd.plm.nothello.game.Board;
 import heigvd.plm.nothello.game.Direction;
+import heigvd.plm.nothello.log.Log;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Stratégie par contraintes : le meilleur coup est celui qui maximise le nombre de pièces adverses retournées.
+ *
+ * Le squelette du modèle (variables et contraintes qui ne dépendent pas du plateau) est construit une seule fois
+ * par instance et par taille de plateau. À chaque coup, seuls les domaines des variables de flip sont mis à jour selon le plateau :
+ * un flip impossible sur le plateau courant est fixé à 0. Si les indices sont activés (cf. SolverConfig),
+ * le coup légal qui retourne le plus de pièces, calculé directement sur le plateau, est donné comme point de départ.
+ */
 public class NotHelloConstraintStrategy implements NotHelloStrategy {
 
+    private static final Log LOG = Log.get("constraint");
+
+    private static final Histogram BUILD = Metrics.histogram("constraint.build");
+    private static final Histogram UPDATE = Metrics.histogram("constraint.update");
+    private static final Histogram SOLVE = Metrics.histogram("constraint.solve");
+    private static final Counter BRANCHES = Metrics.counter("constraint.branches");
+    private static final Counter CONFLICTS = Metrics.counter("constraint.conflicts");
+
+    private final Direction[] allDirections = Direction.getAllDirections();
+
+    private CpModel model;
+    // Taille du plateau du modèle, et longueur maximale d'un flip (pièce du joueur comprise)
+    private int size;
+    private int maxK;
+    private long modelVariables;
+    private long modelConstraints;
+
+    // Variables de décision:
+    // - moveVars[x][y]: 1 si le mouvement (x,y) est joué, 0 sinon
+    // - flipVars[x][y][direction][k]: 1 si le mouvement (x,y) retourne k-1 pièces dans la direction d, 0 sinon
+    // - flipMoveVars[x][y][direction][k]: 1 si le mouvement (x,y) retourne k-1 dans la direction et est joué, 0 sinon
+    private BoolVar[][] moveVars;
+    private BoolVar[][][][] flipVars;
+    private BoolVar[][][][] flipMoveVars;
+
+    private SolverConfig solverConfig = new SolverConfig();
+    private SolveStats lastStats;
+
+    private long modelBuildNanos;
+    private long lastUpdateNanos;
+    private long lastSolveNanos;
+
     /**
      * Calcule le meilleur mouvement possible pour le joueur courant.
      * Le meilleur mouvement est celui qui maximise le nombre de pièces adverses retournées.
@@ -23,121 +68,190 @@ public class NotHelloConstraintStrategy implements NotHelloStrategy {
      */
     @Override
     public int[] evaluate(Board board) {
-        Loader.loadNativeLibraries();
-
-        CpModel model = new CpModel();
-
-        Direction[] allDirections = Direction.getAllDirections();
-        int[][] boardMatrix = board.getBoardMatrix(board.getPlayerTurn());
-        final int MAX_K = Board.BOARD_SIZE - 1;
-
-        // Variables de décision:
-        // - moveVars[x][y]: 1 si le mouvement (x,y) est joué, 0 sinon
-        // - flipVars[x][y][direction][k]: 1 si le mouvement (x,y) retourne k-1 pièces dans la direction d, 0 sinon
-        // - flipMoveVars[x][y][direction][k]: 1 si le mouvement (x,y) retourne k-1 dans la direction et est joué, 0 sinon
-        IntVar[][] moveVars = new IntVar[Board.BOARD_SIZE][Board.BOARD_SIZE];
-        IntVar[][][][] flipVars = new IntVar[Board.BOARD_SIZE][Board.BOARD_SIZE][allDirections.length][MAX_K + 1];
-        IntVar[][][][] flipMoveVars = new IntVar[Board.BOARD_SIZE][Board.BOARD_SIZE][allDirections.length][MAX_K + 1];
-
-        IntVar[] allMoveVars = new IntVar[Board.BOARD_SIZE * Board.BOARD_SIZE];
-        int moveVarCount = 0;
-
-        LinearExpr objectiveExpr = LinearExpr.constant(0);
-
-        for (int i = 0; i < Board.BOARD_SIZE; i++) {
-            for (int j = 0; j < Board.BOARD_SIZE; j++) {
-                if (boardMatrix[i][j] == EMPTY) {
-                    String moveVarName = String.format("move_%d_%d", i, j);
-                    moveVars[i][j] = model.newBoolVar(moveVarName);
-                    allMoveVars[moveVarCount++] = moveVars[i][j];
-
-                    LinearExpr validDirectionsExpr = LinearExpr.constant(0);
-
-                    for (int d = 0; d < allDirections.length; d++) {
-                        Direction dir = allDirections[d];
-
-                        for (int k = 2; k <= MAX_K; k++) {
-                            if (isValidFlipLength(i, j, dir.getX(), dir.getY(), k)) {
-                                String flipVarName = String.format("flip_%d_%d_%d_%d", i, j, d, k);
-                                flipVars[i][j][d][k] = model.newBoolVar(flipVarName);
-
-                                String flipMoveVarName = String.format("flipmove_%d_%d_%d_%d", i, j, d, k);
-                                flipMoveVars[i][j][d][k] = model.newBoolVar(flipMoveVarName);
-
-                                model.addLessOrEqual(flipMoveVars[i][j][d][k], flipVars[i][j][d][k]);
-                                model.addLessOrEqual(flipMoveVars[i][j][d][k], moveVars[i][j]);
-
-                                model.addGreaterOrEqual(
-                                        LinearExpr.sum(new LinearExpr[]{
-                                                LinearExpr.term(flipMoveVars[i][j][d][k], 1),
-                                                LinearExpr.constant(1)
-                                        }),
-                                        LinearExpr.sum(new IntVar[]{flipVars[i][j][d][k], moveVars[i][j]})
-                                );
-
-                                addFlipConstraints(boardMatrix, model, i, j, dir.getX(), dir.getY(), k, flipVars[i][j][d][k]);
-
-                                validDirectionsExpr = LinearExpr.sum(new LinearExpr[]{
-                                        validDirectionsExpr,
-                                        LinearExpr.term(flipVars[i][j][d][k], 1)
-                                });
-
-                                // Ajouter à l'objectif, chaque flip ajoute k-1 points à la fct objectif
-                                objectiveExpr = LinearExpr.sum(new LinearExpr[]{
-                                        objectiveExpr,
-                                        LinearExpr.term(flipMoveVars[i][j][d][k], k - 1)
-                                });
-                            }
-                        }
-                    }
+        return evaluate(board, new CancellationToken());
+    }
 
-                    List<IntVar> validFlipsForThisMove = new ArrayList<>();
-                    for (int d = 0; d < allDirections.length; d++) {
-                        for (int k = 2; k <= MAX_K; k++) {
-                            if (flipVars[i][j][d][k] != null) {
-                                validFlipsForThisMove.add(flipVars[i][j][d][k]);
-                            }
-                        }
-                    }
+    /**
+     * Comme evaluate(Board), l'annulation du jeton arrête le solveur en cours de recherche.
+     */
+    @Override
+    public synchronized int[] evaluate(Board board, CancellationToken token) {
+        if (token.isCancelled()) {
+            return null;
+        }
+        if (model == null || size != board.getSize()) {
+            buildModel(board.getSize());
+        }
+        if (!board.hasLegalMove()) {
+            LOG.debug("No valid move found.");
+            return null;
+        }
 
-                    if (!validFlipsForThisMove.isEmpty()) {
-                        IntVar[] flipVarsArray = validFlipsForThisMove.toArray(new IntVar[0]);
+        long start = System.nanoTime();
+        applyBoard(board.getBoardMatrix(board.getPlayerTurn()));
+        applyHints(board);
+        lastUpdateNanos = System.nanoTime() - start;
+        UPDATE.record(lastUpdateNanos);
 
-                        // moveVars[i][j] = 1 si la somme des flips valides (en boolean) east >= 1
-                        model.addMaxEquality(moveVars[i][j], flipVarsArray);
+        start = System.nanoTime();
+        CpSolver solver = solverConfig.newSolver();
+        // stopSearch n'a d'effet qu'une fois la résolution commencée : le callback rattrape une annulation
+        // arrivée juste avant, à la première solution trouvée
+        Runnable stopSearch = solver::stopSearch;
+        token.onCancel(stopSearch);
+        CpSolverStatus status;
+        try {
+            status = solver.solve(model, new CpSolverSolutionCallback() {
+                @Override
+                public void onSolutionCallback() {
+                    if (token.isCancelled()) {
+                        stopSearch();
                     }
-                    else {
-                        // Si pas de flips, alors le mouvement n'est pas valide
-                        model.addEquality(moveVars[i][j], 0);
+                }
+            });
+        } finally {
+            token.removeOnCancel(stopSearch);
+        }
+        lastSolveNanos = System.nanoTime() - start;
+        lastStats = SolveStats.of(solver, status);
+        SOLVE.record(lastSolveNanos);
+        BRANCHES.add(lastStats.getBranches());
+        CONFLICTS.add(lastStats.getConflicts());
+        if (token.isCancelled()) {
+            return null;
+        }
+
+        if (status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE) {
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    if (solver.booleanValue(moveVars[i][j])) {
+                        return new int[] {i, j};
                     }
                 }
             }
         }
 
-        // Ajoute la contrainte d'unicité du mouvement
-        if (moveVarCount > 0) {
-            IntVar[] actualMoveVars = new IntVar[moveVarCount];
-            System.arraycopy(allMoveVars, 0, actualMoveVars, 0, moveVarCount);
-            model.addEquality(LinearExpr.sum(actualMoveVars), 1);
+        LOG.debug("No valid move found.");
+        return null;
+    }
+
+    /**
+     * Construit le squelette du modèle, indépendant du plateau : toutes les cases et tous les flips
+     * géométriquement possibles, les liens entre eux, l'unicité du coup et l'objectif.
+     */
+    private void buildModel(int size) {
+        long start = System.nanoTime();
+        NativeLibraries.load();
+        this.size = size;
+        maxK = size - 1;
 
-            model.maximize(objectiveExpr);
+        model = new CpModel();
+        moveVars = new BoolVar[size][size];
+        flipVars = new BoolVar[size][size][allDirections.length][maxK + 1];
+        flipMoveVars = new BoolVar[size][size][allDirections.length][maxK + 1];
 
-            CpSolver solver = new CpSolver();
-            CpSolverStatus status = solver.solve(model);
+        BoolVar[] allMoveVars = new BoolVar[size * size];
+        LinearExprBuilder objective = LinearExpr.newBuilder();
 
-            if (status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE) {
-                for (int i = 0; i < Board.BOARD_SIZE; i++) {
-                    for (int j = 0; j < Board.BOARD_SIZE; j++) {
-                        if (moveVars[i][j] != null && solver.value(moveVars[i][j]) == 1) {
-                            return new int[] {i, j};
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                moveVars[i][j] = model.newBoolVar("move_" + i + "_" + j);
+                allMoveVars[i * size + j] = moveVars[i][j];
+
+                List<BoolVar> flipsForThisMove = new ArrayList<>();
+                for (int d = 0; d < allDirections.length; d++) {
+                    Direction dir = allDirections[d];
+
+                    for (int k = 2; k <= maxK; k++) {
+                        if (!isValidFlipLength(i, j, dir.getX(), dir.getY(), k)) {
+                            break; // les longueurs supérieures sortent aussi du plateau
                         }
+                        BoolVar flip = model.newBoolVar("flip_" + i + "_" + j + "_" + d + "_" + k);
+                        BoolVar flipMove = model.newBoolVar("flipmove_" + i + "_" + j + "_" + d + "_" + k);
+                        flipVars[i][j][d][k] = flip;
+                        flipMoveVars[i][j][d][k] = flipMove;
+
+                        // flipMove = flip ET move
+                        model.addLessOrEqual(flipMove, flip);
+                        model.addLessOrEqual(flipMove, moveVars[i][j]);
+                        model.addGreaterOrEqual(
+                                LinearExpr.newBuilder().add(flipMove).add(1),
+                                LinearExpr.newBuilder().add(flip).add(moveVars[i][j]));
+
+                        flipsForThisMove.add(flip);
+
+                        // Ajouter à l'objectif, chaque flip ajoute k-1 points à la fct objectif
+                        objective.addTerm(flipMove, k - 1);
                     }
                 }
+
+                // moveVars[i][j] = 1 si au moins un flip est possible depuis cette case
+                model.addMaxEquality(moveVars[i][j], flipsForThisMove.toArray(new BoolVar[0]));
             }
         }
 
-        System.out.println("No valid move found.");
-        return null;
+        // Ajoute la contrainte d'unicité du mouvement
+        model.addEquality(LinearExpr.sum(allMoveVars), 1);
+        model.maximize(objective);
+        modelBuildNanos = System.nanoTime() - start;
+        BUILD.record(modelBuildNanos);
+        modelVariables = model.model().getVariablesCount();
+        modelConstraints = model.model().getConstraintsCount();
+        long variables = modelVariables;
+        long constraints = modelConstraints;
+        Metrics.gauge("constraint.variables", () -> variables);
+        Metrics.gauge("constraint.constraints", () -> constraints);
+    }
+
+    /**
+     * Fixe à 0 les flips impossibles sur ce plateau et libère les autres.
+     *
+     * @param boardMatrix Le plateau de jeu sous forme de matrice, du point de vue du joueur courant
+     */
+    private void applyBoard(int[][] boardMatrix) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                boolean empty = boardMatrix[i][j] == EMPTY;
+                for (int d = 0; d < allDirections.length; d++) {
+                    Direction dir = allDirections[d];
+                    for (int k = 2; k <= maxK && flipVars[i][j][d][k] != null; k++) {
+                        boolean possible = empty && isFlipPossible(boardMatrix, i, j, dir.getX(), dir.getY(), k);
+                        flipVars[i][j][d][k].getBuilder().clearDomain().addDomain(0).addDomain(possible ? 1 : 0);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Donne comme indice au solveur le coup légal qui retourne le plus de pièces, ou retire les indices
+     * s'ils sont désactivés. La solution du coup précédent ne convient pas : sa case est désormais occupée.
+     *
+     * Ce coup est exactement l'optimum de l'objectif, calculé ici sans solveur : avec l'indice, CP-SAT
+     * part de la réponse et ne fait plus que prouver qu'il n'y a pas mieux. L'indice mesure donc le coût
+     * de cette preuve, il n'aide pas à trouver le coup.
+     */
+    private void applyHints(Board board) {
+        model.clearHints();
+        if (!solverConfig.isUseHints()) {
+            return;
+        }
+        int[] legal = new int[board.getSquares()];
+        int count = board.getLegalSquares(legal);
+        int hint = -1;
+        int hintFlips = 0;
+        for (int m = 0; m < count; m++) {
+            int flips = board.getMoveScore(legal[m] / size, legal[m] % size, board.getPlayerTurn());
+            if (flips > hintFlips) {
+                hint = legal[m];
+                hintFlips = flips;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                model.addHint(moveVars[i][j], i * size + j == hint ? 1 : 0);
+            }
+        }
     }
 
     /**
@@ -155,8 +269,8 @@ public class NotHelloConstraintStrategy implements NotHelloStrategy {
             int newRow = i + n * dx;
             int newCol = j + n * dy;
 
-            if (newRow < 0 || newRow >= Board.BOARD_SIZE ||
-                    newCol < 0 || newCol >= Board.BOARD_SIZE) {
+            if (newRow < 0 || newRow >= size ||
+                    newCol < 0 || newCol >= size) {
                 return false;
             }
         }
@@ -164,29 +278,75 @@ public class NotHelloConstraintStrategy implements NotHelloStrategy {
     }
 
     /**
-     * Ajoute les contraintes pour vérifier si un flip est valide dans une direction donnée avec une distance k.
+     * Vérifie si un flip est possible sur le plateau dans une direction donnée avec une distance k.
      *
      * @param boardMatrix Le plateau de jeu sous forme de matrice
-     * @param model le modèle
      * @param i coordonnée de la ligne
      * @param j coordonnée de la colonne
      * @param dx direction selon x
      * @param dy direction selon y
      * @param k distance du flip
-     * @param flipVar La variable de flip à contraindre
+     * @return true si les cellules 1 à k-1 sont adverses et la cellule k au joueur actuel
      */
-    private void addFlipConstraints(int[][] boardMatrix, CpModel model, int i, int j, int dx, int dy, int k, IntVar flipVar) {
+    private boolean isFlipPossible(int[][] boardMatrix, int i, int j, int dx, int dy, int k) {
         // Les cellules de 1 à k-1 doivent être des pièces de l'adversaire
         for (int n = 1; n < k; n++) {
             if (boardMatrix[i + n * dx][j + n * dy] != OPP_COLOR) {
-                model.addEquality(flipVar, 0);
-                return;
+                return false;
             }
         }
 
         // La cellule à distance k doit être une pièce du joueur actuel
-        if (boardMatrix[i + k * dx][j + k * dy] != MY_COLOR) {
-            model.addEquality(flipVar, 0);
-        }
+        return boardMatrix[i + k * dx][j + k * dy] == MY_COLOR;
+    }
+
+    public synchronized void setSolverConfig(SolverConfig solverConfig) {
+        this.solverConfig = solverConfig;
+    }
+
+    public SolverConfig getSolverConfig() {
+        return solverConfig;
+    }
+
+    /**
+     * @return les statistiques de la dernière résolution, null si aucune n'a eu lieu
+     */
+    public SolveStats getLastStats() {
+        return lastStats;
+    }
+
+    /**
+     * @return le temps de construction du squelette du modèle (une fois par instance et par taille), en ns
+     */
+    public long getModelBuildNanos() {
+        return modelBuildNanos;
+    }
+
+    /**
+     * @return le nombre de variables du modèle, 0 s'il n'est pas encore construit
+     */
+    public long getModelVariables() {
+        return modelVariables;
+    }
+
+    /**
+     * @return le nombre de contraintes du modèle, 0 s'il n'est pas encore construit
+     */
+    public long getModelConstraints() {
+        return modelConstraints;
+    }
+
+    /**
+     * @return le temps de mise à jour du modèle pour le dernier plateau, en ns
+     */
+    public long getLastUpdateNanos() {
+        return lastUpdateNanos;
+    }
+
+    /**
+     * @return le temps de résolution du dernier coup, en ns
+     */
+    public long getLastSolveNanos() {
+        return lastSolveNanos;
     }
-}
\ No newline at end of file
+}
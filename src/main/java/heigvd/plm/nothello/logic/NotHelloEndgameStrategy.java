@@ -0,0 +1,394 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
+
+/**
+ * Résolution exacte des fins de partie : dès que le nombre de cases vides est inférieur ou égal au seuil,
+ * joue le coup qui maximise la différence de pions finale (ou, en mode victoire/nul/défaite, le meilleur résultat).
+ * Au-dessus du seuil, délègue à une autre stratégie.
+ *
+ * La recherche travaille directement sur les longs (cf. BitBoard), sans plateau ni allocation :
+ * - au-delà de FASTEST_FIRST_EMPTIES cases vides, les coups sont triés par mobilité adverse croissante
+ *   (fastest-first), puis par parité ;
+ * - en dessous, les coups des quadrants ayant un nombre impair de cases vides sont joués en premier ;
+ * - les 3, 2 et 1 dernières cases vides sont traitées par des fonctions dédiées.
+ */
+public class NotHelloEndgameStrategy implements NotHelloStrategy {
+
+    private static final Histogram SOLVE = Metrics.histogram("endgame.solve");
+    private static final Counter NODES = Metrics.counter("endgame.nodes");
+
+    public static final int DEFAULT_MAX_EMPTIES = 14;
+
+    private static final int FASTEST_FIRST_EMPTIES = 7;
+    private static final int INFINITY = BitBoard.SQUARES + 1;
+    // Vérifie l'annulation tous les 4096 noeuds
+    private static final int STOP_CHECK_MASK = 4095;
+    // Profondeur maximale de récursion : un coup ou une passe par niveau
+    private static final int MAX_PLIES = 2 * BitBoard.SQUARES;
+
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L
+    };
+
+    private final NotHelloStrategy fallback;
+    private int maxEmpties;
+    private boolean exact = true;
+
+    // Coups et clés de tri par niveau, préalloués
+    private final int[][] moves = new int[MAX_PLIES][BitBoard.SQUARES];
+    private final int[][] keys = new int[MAX_PLIES][BitBoard.SQUARES];
+
+    private volatile boolean stop;
+    private boolean aborted;
+    private long nodes;
+
+    private int lastScore;
+    private long lastNodes;
+    private long lastNanos;
+
+    /**
+     * @param fallback stratégie utilisée tant qu'il reste plus de maxEmpties cases vides, null pour n'en avoir aucune
+     * @param maxEmpties nombre de cases vides à partir duquel la fin de partie est résolue
+     */
+    public NotHelloEndgameStrategy(NotHelloStrategy fallback, int maxEmpties) {
+        this.fallback = fallback;
+        setMaxEmpties(maxEmpties);
+    }
+
+    public NotHelloEndgameStrategy(NotHelloStrategy fallback) {
+        this(fallback, DEFAULT_MAX_EMPTIES);
+    }
+
+    public void setMaxEmpties(int maxEmpties) {
+        if (maxEmpties < 0 || maxEmpties > BitBoard.SQUARES) {
+            throw new IllegalArgumentException("Empty square threshold out of range: " + maxEmpties);
+        }
+        this.maxEmpties = maxEmpties;
+    }
+
+    public int getMaxEmpties() {
+        return maxEmpties;
+    }
+
+    /**
+     * @param exact true pour calculer la différence de pions exacte, false pour seulement victoire/nul/défaite
+     *              (fenêtre [-1, 1], plus rapide)
+     */
+    public void setExact(boolean exact) {
+        this.exact = exact;
+    }
+
+    @Override
+    public int[] evaluate(Board board) {
+        return evaluate(board, new CancellationToken());
+    }
+
+    @Override
+    public int[] evaluate(Board board, CancellationToken token) {
+        if (board.isOver()) {
+            return null;
+        }
+        // Résolution exacte uniquement en 8x8 (BitBoard), la stratégie de repli joue les autres tailles
+        if (!board.isSingleWord() || board.countDiscs(PieceColor.NONE) > maxEmpties) {
+            return fallback == null ? null : fallback.evaluate(board, token);
+        }
+        long player = board.getDiscs(board.getPlayerTurn());
+        long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+
+        Runnable stopSearch = () -> stop = true;
+        stop = false;
+        token.onCancel(stopSearch);
+        try {
+            int square = solveRoot(player, opponent);
+            return square < 0 ? null : new int[]{BitBoard.x(square), BitBoard.y(square)};
+        } finally {
+            token.removeOnCancel(stopSearch);
+        }
+    }
+
+    /**
+     * Résout la position, le joueur au trait possédant les pions {@code player}.
+     *
+     * @return la différence de pions finale avec un jeu parfait des deux côtés (en mode victoire/nul/défaite,
+     * seul son signe est exact)
+     */
+    public int solve(long player, long opponent) {
+        stop = false;
+        aborted = false;
+        nodes = 0;
+        long start = System.nanoTime();
+        int score = search(player, opponent, exact ? -INFINITY : -1, exact ? INFINITY : 1, false, 0);
+        record(score, start);
+        return score;
+    }
+
+    /**
+     * @return le meilleur coup, ou -1 s'il n'y en a pas
+     */
+    private int solveRoot(long player, long opponent) {
+        aborted = false;
+        nodes = 0;
+        long start = System.nanoTime();
+
+        long empty = ~(player | opponent);
+        int count = orderMoves(player, opponent, empty, 0);
+        if (count == 0) {
+            return -1;
+        }
+        int alpha = exact ? -INFINITY : -1;
+        int beta = exact ? INFINITY : 1;
+        int bestMove = moves[0][0];
+        int bestScore = -INFINITY;
+        for (int i = 0; i < count; ++i) {
+            int square = moves[0][i];
+            long flipped = BitBoard.flips(player, opponent, square);
+            int score = -search(opponent ^ flipped, player | flipped | BitBoard.bit(square), -beta, -alpha, false, 1);
+            if (aborted) break;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = square;
+                if (score > alpha) alpha = score;
+                if (alpha >= beta) break;
+            }
+        }
+        record(bestScore, start);
+        return bestMove;
+    }
+
+    private void record(int score, long start) {
+        lastScore = score;
+        lastNodes = nodes;
+        lastNanos = System.nanoTime() - start;
+        SOLVE.record(lastNanos);
+        NODES.add(nodes);
+    }
+
+    private int search(long player, long opponent, int alpha, int beta, boolean passed, int ply) {
+        if ((++nodes & STOP_CHECK_MASK) == 0 && stop) {
+            aborted = true;
+        }
+        if (aborted) return 0;
+
+        long empty = ~(player | opponent);
+        int empties = BitBoard.count(empty);
+        switch (empties) {
+            case 0:
+                return finalDiff(player, opponent);
+            case 1:
+                return solve1(player, opponent, Long.numberOfTrailingZeros(empty));
+            case 2:
+                return solve2(player, opponent, empty, alpha, beta, passed);
+            case 3:
+                return solve3(player, opponent, empty, alpha, beta, passed);
+            default:
+                break;
+        }
+
+        int best = -INFINITY;
+        if (empties > FASTEST_FIRST_EMPTIES) {
+            int count = orderMoves(player, opponent, empty, ply);
+            for (int i = 0; i < count; ++i) {
+                int square = moves[ply][i];
+                long flipped = BitBoard.flips(player, opponent, square);
+                int score = -search(opponent ^ flipped, player | flipped | BitBoard.bit(square), -beta, -alpha, false, ply + 1);
+                if (score > best) {
+                    best = score;
+                    if (score > alpha) alpha = score;
+                    if (alpha >= beta) return best;
+                }
+            }
+        } else {
+            long legal = BitBoard.legalMoves(player, opponent);
+            long odd = oddQuadrants(empty);
+            // Quadrants impairs d'abord, puis les autres
+            for (int parity = 0; parity < 2; ++parity) {
+                long group = parity == 0 ? legal & odd : legal & ~odd;
+                while (group != 0L) {
+                    int square = Long.numberOfTrailingZeros(group);
+                    group &= group - 1;
+                    long flipped = BitBoard.flips(player, opponent, square);
+                    int score = -search(opponent ^ flipped, player | flipped | BitBoard.bit(square), -beta, -alpha, false, ply + 1);
+                    if (score > best) {
+                        best = score;
+                        if (score > alpha) alpha = score;
+                        if (alpha >= beta) return best;
+                    }
+                }
+            }
+        }
+
+        if (best == -INFINITY) {
+            // Aucun coup : passe, ou fin de partie si l'adversaire vient aussi de passer
+            if (passed) return finalDiff(player, opponent);
+            return -search(opponent, player, -beta, -alpha, true, ply + 1);
+        }
+        return best;
+    }
+
+    /**
+     * Trie les coups légaux du niveau ply : mobilité adverse croissante, puis quadrants impairs d'abord.
+     *
+     * @return le nombre de coups
+     */
+    private int orderMoves(long player, long opponent, long empty, int ply) {
+        int[] levelMoves = moves[ply];
+        int[] levelKeys = keys[ply];
+        long odd = oddQuadrants(empty);
+        int count = 0;
+        for (long legal = BitBoard.legalMoves(player, opponent); legal != 0L; legal &= legal - 1) {
+            int square = Long.numberOfTrailingZeros(legal);
+            long flipped = BitBoard.flips(player, opponent, square);
+            long nextPlayer = opponent ^ flipped;
+            long nextOpponent = player | flipped | BitBoard.bit(square);
+            int key = 2 * BitBoard.count(BitBoard.legalMoves(nextPlayer, nextOpponent))
+                    + ((odd & BitBoard.bit(square)) != 0L ? 0 : 1);
+
+            // Tri par insertion
+            int i = count++;
+            while (i > 0 && levelKeys[i - 1] > key) {
+                levelMoves[i] = levelMoves[i - 1];
+                levelKeys[i] = levelKeys[i - 1];
+                --i;
+            }
+            levelMoves[i] = square;
+            levelKeys[i] = key;
+        }
+        return count;
+    }
+
+    private int solve3(long player, long opponent, long empty, int alpha, int beta, boolean passed) {
+        ++nodes;
+        int sq1 = Long.numberOfTrailingZeros(empty);
+        int sq2 = Long.numberOfTrailingZeros(empty & (empty - 1));
+        int sq3 = 63 - Long.numberOfLeadingZeros(empty);
+
+        // Parité : la case seule dans son quadrant est jouée en premier
+        if (quadrantOf(sq2) != quadrantOf(sq1) && quadrantOf(sq2) != quadrantOf(sq3)) {
+            int t = sq1; sq1 = sq2; sq2 = t;
+        } else if (quadrantOf(sq3) != quadrantOf(sq1) && quadrantOf(sq3) != quadrantOf(sq2)) {
+            int t = sq1; sq1 = sq3; sq3 = t;
+        }
+
+        int best = -INFINITY;
+        long flipped = BitBoard.flips(player, opponent, sq1);
+        if (flipped != 0L) {
+            best = -solve2(opponent ^ flipped, player | flipped | BitBoard.bit(sq1),
+                    BitBoard.bit(sq2) | BitBoard.bit(sq3), -beta, -alpha, false);
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+        flipped = BitBoard.flips(player, opponent, sq2);
+        if (flipped != 0L) {
+            int score = -solve2(opponent ^ flipped, player | flipped | BitBoard.bit(sq2),
+                    BitBoard.bit(sq1) | BitBoard.bit(sq3), -beta, -alpha, false);
+            if (score > best) {
+                best = score;
+                if (best >= beta) return best;
+                if (best > alpha) alpha = best;
+            }
+        }
+        flipped = BitBoard.flips(player, opponent, sq3);
+        if (flipped != 0L) {
+            int score = -solve2(opponent ^ flipped, player | flipped | BitBoard.bit(sq3),
+                    BitBoard.bit(sq1) | BitBoard.bit(sq2), -beta, -alpha, false);
+            if (score > best) best = score;
+        }
+
+        if (best == -INFINITY) {
+            if (passed) return finalDiff(player, opponent);
+            return -solve3(opponent, player, empty, -beta, -alpha, true);
+        }
+        return best;
+    }
+
+    private int solve2(long player, long opponent, long empty, int alpha, int beta, boolean passed) {
+        ++nodes;
+        int sq1 = Long.numberOfTrailingZeros(empty);
+        int sq2 = 63 - Long.numberOfLeadingZeros(empty);
+
+        int best = -INFINITY;
+        long flipped = BitBoard.flips(player, opponent, sq1);
+        if (flipped != 0L) {
+            best = -solve1(opponent ^ flipped, player | flipped | BitBoard.bit(sq1), sq2);
+            if (best >= beta) return best;
+        }
+        flipped = BitBoard.flips(player, opponent, sq2);
+        if (flipped != 0L) {
+            int score = -solve1(opponent ^ flipped, player | flipped | BitBoard.bit(sq2), sq1);
+            if (score > best) best = score;
+        }
+
+        if (best == -INFINITY) {
+            if (passed) return finalDiff(player, opponent);
+            return -solve2(opponent, player, empty, -beta, -alpha, true);
+        }
+        return best;
+    }
+
+    /**
+     * Dernière case vide : le joueur la prend s'il le peut, sinon l'adversaire, sinon la partie s'arrête.
+     */
+    private int solve1(long player, long opponent, int square) {
+        ++nodes;
+        int diff = BitBoard.count(player) - BitBoard.count(opponent);
+        long flipped = BitBoard.flips(player, opponent, square);
+        if (flipped != 0L) {
+            return diff + 2 * BitBoard.count(flipped) + 1;
+        }
+        flipped = BitBoard.flips(opponent, player, square);
+        if (flipped != 0L) {
+            return diff - 2 * BitBoard.count(flipped) - 1;
+        }
+        return diff;
+    }
+
+    private static int finalDiff(long player, long opponent) {
+        return BitBoard.count(player) - BitBoard.count(opponent);
+    }
+
+    /**
+     * @return les cases des quadrants contenant un nombre impair de cases vides
+     */
+    private static long oddQuadrants(long empty) {
+        long odd = 0L;
+        for (long quadrant : QUADRANTS) {
+            if ((BitBoard.count(empty & quadrant) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        return odd;
+    }
+
+    private static int quadrantOf(int square) {
+        return (BitBoard.x(square) >= 4 ? 2 : 0) + (BitBoard.y(square) >= 4 ? 1 : 0);
+    }
+
+    public NotHelloStrategy getFallback() {
+        return fallback;
+    }
+
+    /**
+     * @return la différence de pions finale (du point de vue du joueur au trait) de la dernière résolution
+     */
+    public int getLastScore() {
+        return lastScore;
+    }
+
+    public long getLastNodes() {
+        return lastNodes;
+    }
+
+    public double getLastNodesPerSecond() {
+        return lastNanos == 0 ? 0.0 : lastNodes / (lastNanos / 1e9);
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+}
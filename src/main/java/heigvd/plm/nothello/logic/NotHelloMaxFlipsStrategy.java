@@ -1,9 +1,13 @@
 package heigvd.plm.nothello.logic;
 
-import com.google.ortools.Loader;
 import com.google.ortools.sat.*;
+import com.google.ortools.util.Domain;
 import heigvd.plm.nothello.game.Board;
 import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.log.Log;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -12,9 +16,67 @@ import java.util.List;
 
 public class NotHelloMaxFlipsStrategy implements NotHelloStrategy {
 
+    /**
+     * Manière d'obtenir le score de chaque coup légal.
+     */
+    public enum Mode {
+        /** Un modèle et une résolution par coup légal. */
+        PER_MOVE,
+        /** Un seul modèle (contrainte de table coup/score) dont on énumère toutes les solutions. */
+        SINGLE_SOLVE
+    }
+
+    private static final Log LOG = Log.get("maxflips");
+
+    private static final Histogram EVALUATE = Metrics.histogram("maxflips.evaluate");
+    private static final Histogram SOLVE = Metrics.histogram("maxflips.solve");
+    // Rapporté à maxflips.evaluate.count : nombre de résolutions par coup évalué
+    private static final Counter SOLVER_CALLS = Metrics.counter("maxflips.solverCalls");
+
+    private Mode mode = Mode.SINGLE_SOLVE;
+    private SolverConfig solverConfig = new SolverConfig();
+    private SolveStats lastStats;
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setSolverConfig(SolverConfig solverConfig) {
+        this.solverConfig = solverConfig;
+    }
+
+    public SolverConfig getSolverConfig() {
+        return solverConfig;
+    }
+
+    /**
+     * @return les statistiques de la dernière évaluation (cumulées sur tous les coups en mode PER_MOVE),
+     * null si aucune résolution n'a eu lieu
+     */
+    public SolveStats getLastStats() {
+        return lastStats;
+    }
+
     @Override
     public int[] evaluate(Board board) {
-        List<int[]> evaluations = evaluateAllMoves(board);
+        return evaluate(board, new CancellationToken());
+    }
+
+    /**
+     * @return true sans limite de temps de résolution : le score de chaque coup est alors optimal
+     */
+    @Override
+    public boolean isDeterministic() {
+        return solverConfig.getMaxTimeSeconds() == 0;
+    }
+
+    @Override
+    public int[] evaluate(Board board, CancellationToken token) {
+        List<int[]> evaluations = evaluateAllMoves(board, token);
         if (evaluations.isEmpty()) {
             return null; // Aucun coup possible
         }
@@ -25,7 +87,14 @@ public class NotHelloMaxFlipsStrategy implements NotHelloStrategy {
     }
 
     public List<int[]> getNormalizedScores(Board board) {
-        return normalizeScores(evaluateAllMoves(board));
+        return getNormalizedScores(board, new CancellationToken());
+    }
+
+    /**
+     * @return les coups classés de 1 (meilleur) à 5 (pire), ou une liste vide si le jeton a été annulé
+     */
+    public List<int[]> getNormalizedScores(Board board, CancellationToken token) {
+        return normalizeScores(evaluateAllMoves(board, token));
     }
 
     /**
@@ -34,19 +103,47 @@ public class NotHelloMaxFlipsStrategy implements NotHelloStrategy {
      * @param board    L'état actuel du plateau
      * @return Un score entier représentant la qualité du coup
      */
-    private List<int[]> evaluateAllMoves(Board board) {
+    private List<int[]> evaluateAllMoves(Board board, CancellationToken token) {
 
         // 1. Cloner le plateau
         // 2. Appliquer le coup du joueur
         // 3. Retourner une évaluation brute
 
-        System.out.println("NotHelloMaxFlipsStrategy:evaluate() for player: " + board.getPlayerTurn());
-        Loader.loadNativeLibraries();
+        LOG.debug("evaluate() for player: {}", board.getPlayerTurn());
+        NativeLibraries.load();
+        long start = Metrics.start();
 
         List<int[]> validMoves = board.getValidMovesForCurrentPlayer();
+        List<int[]> evaluatedMoves = mode == Mode.SINGLE_SOLVE
+                ? evaluateInSingleSolve(board, validMoves, token)
+                : evaluateOneByOne(board, validMoves, token);
+        Metrics.stop(EVALUATE, start);
+        if (token.isCancelled()) {
+            return new ArrayList<>();
+        }
+
+        if (LOG.isTraceEnabled()) {
+            StringBuilder scores = new StringBuilder();
+            for (int[] evalMove : evaluatedMoves) {
+                scores.append(Arrays.toString(evalMove)).append(' ');
+            }
+            LOG.trace("Possible moves, evaluatedMoves.size(): {}, scores: {}", evaluatedMoves.size(), scores);
+        }
+
+        return evaluatedMoves;
+    }
+
+    /**
+     * Un modèle par coup : on force le coup à être joué et on maximise son score.
+     */
+    private List<int[]> evaluateOneByOne(Board board, List<int[]> validMoves, CancellationToken token) {
         List<int[]> evaluatedMoves = new LinkedList<>();
+        SolveStats stats = null;
 
         for (int[] move : validMoves) {
+            if (token.isCancelled()) {
+                break;
+            }
             int x = move[0];
             int y = move[1];
 
@@ -60,20 +157,89 @@ public class NotHelloMaxFlipsStrategy implements NotHelloStrategy {
             model.maximize(LinearExpr.weightedSum(new BoolVar[]{moveVar}, new long[]{score}));
             model.addEquality(moveVar, 1); // on force à "jouer" ce coup
 
-            CpSolver solver = new CpSolver();
+            CpSolver solver = solverConfig.newSolver();
+            long start = Metrics.start();
             CpSolverStatus status = solver.solve(model);
+            Metrics.stop(SOLVE, start);
+            SOLVER_CALLS.increment();
+            SolveStats moveStats = SolveStats.of(solver, status);
+            stats = stats == null ? moveStats : stats.plus(moveStats);
 
             if (status == CpSolverStatus.OPTIMAL || status == CpSolverStatus.FEASIBLE) {
                 evaluatedMoves.add(new int[]{x, y, score});
             }
         }
 
-        System.out.print("Possible moves, evaluatedMoves.size(): " + evaluatedMoves.size() + ", scores: ");
-        for (int[] evalMove : evaluatedMoves) {
-            System.out.print(Arrays.toString(evalMove) + " ");
+        lastStats = stats;
+        return evaluatedMoves;
+    }
+
+    /**
+     * Un seul modèle pour tous les coups : une variable pour la case jouée, une pour le score,
+     * liées par une contrainte de table. Chaque solution énumérée correspond à un coup légal et son score.
+     *
+     * L'énumération n'est complète que si CP-SAT répond OPTIMAL : interrompue par la limite de temps, elle
+     * répond FEASIBLE avec une partie des coups seulement. On repasse alors en mode PER_MOVE plutôt que de
+     * classer une liste incomplète.
+     */
+    private List<int[]> evaluateInSingleSolve(Board board, List<int[]> validMoves, CancellationToken token) {
+        List<int[]> evaluatedMoves = new ArrayList<>(validMoves.size());
+        if (validMoves.isEmpty()) {
+            return evaluatedMoves;
+        }
+
+        int size = board.getSize();
+        long[] squares = new long[validMoves.size()];
+        long[] scores = new long[validMoves.size()];
+        for (int i = 0; i < squares.length; i++) {
+            int x = validMoves.get(i)[0];
+            int y = validMoves.get(i)[1];
+            squares[i] = board.square(x, y);
+            scores[i] = board.getMoveScore(x, y, board.getPlayerTurn());
         }
-        System.out.println();
 
+        CpModel model = new CpModel();
+        IntVar squareVar = model.newIntVarFromDomain(Domain.fromValues(squares), "square");
+        IntVar scoreVar = model.newIntVarFromDomain(Domain.fromValues(scores), "score");
+
+        TableConstraint table = model.addAllowedAssignments(new IntVar[]{squareVar, scoreVar});
+        for (int i = 0; i < squares.length; i++) {
+            table.addTuple(new long[]{squares[i], scores[i]});
+        }
+
+        CpSolver solver = solverConfig.newSolver();
+        // L'énumération de toutes les solutions n'est possible qu'avec un seul worker, déjà déterministe :
+        // la recherche entrelacée du mode déterministe rendrait le modèle invalide
+        solver.getParameters().setEnumerateAllSolutions(true).setNumWorkers(1).setInterleaveSearch(false);
+        long start = Metrics.start();
+        CpSolverStatus status = solver.solve(model, new CpSolverSolutionCallback() {
+            @Override
+            public void onSolutionCallback() {
+                if (token.isCancelled()) {
+                    stopSearch();
+                    return;
+                }
+                int square = (int) value(squareVar);
+                evaluatedMoves.add(new int[]{square / size, square % size, (int) value(scoreVar)});
+            }
+        });
+        Metrics.stop(SOLVE, start);
+        SOLVER_CALLS.increment();
+        SolveStats stats = SolveStats.of(solver, status);
+        lastStats = stats;
+
+        if (token.isCancelled()) {
+            return evaluatedMoves;
+        }
+        if (status != CpSolverStatus.OPTIMAL || evaluatedMoves.size() != validMoves.size()) {
+            LOG.debug("Incomplete enumeration ({}, {} moves), falling back to one solve per move",
+                    status, evaluatedMoves.size() + "/" + validMoves.size());
+            List<int[]> perMove = evaluateOneByOne(board, validMoves, token);
+            lastStats = lastStats == null ? stats : stats.plus(lastStats);
+            return perMove;
+        }
+        // Même ordre que les coups valides, pour départager les égalités comme en mode PER_MOVE
+        evaluatedMoves.sort((a, b) -> a[0] != b[0] ? Integer.compare(a[0], b[0]) : Integer.compare(a[1], b[1]));
         return evaluatedMoves;
     }
 
@@ -0,0 +1,639 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recherche arborescente Monte-Carlo (UCT) : chaque itération descend l'arbre en suivant l'enfant de meilleure
+ * borne UCB1, développe le noeud atteint, termine la partie par des coups aléatoires et remonte le résultat.
+ * Le coup joué est le plus visité.
+ *
+ * Les noeuds sont rangés dans des tableaux primitifs préalloués (cf. Tree), les enfants d'un noeud étant contigus,
+ * et les parties aléatoires jouent directement sur les bitboards : une recherche n'alloue rien. Quand l'arbre
+ * est plein, les itérations continuent sans le développer.
+ *
+ * Avec plusieurs threads, la recherche est parallélisée "à la racine" : chaque thread construit son propre arbre
+ * avec sa propre suite aléatoire, et les visites des coups de la racine sont additionnées à la fin. Comme pour le
+ * Lazy SMP de l'alpha-beta, les threads ne partagent rien pendant la recherche.
+ *
+ * D'un coup à l'autre, chaque arbre garde le sous-arbre de la nouvelle position s'il la contient (coup joué
+ * et réponse de l'adversaire), et les visites déjà faites comptent pour la recherche suivante.
+ */
+public class NotHelloMctsStrategy implements NotHelloStrategy {
+
+    private static final Histogram SEARCH = Metrics.histogram("mcts.search");
+    private static final Counter PLAYOUTS = Metrics.counter("mcts.playouts");
+
+    public static final long DEFAULT_BUDGET_MS = 1000;
+    public static final int DEFAULT_NODES = 1 << 18;
+    public static final double DEFAULT_EXPLORATION = 0.5;
+
+    // Une partie compte au plus 60 coups, et au plus un passe après chacun
+    private static final int MAX_PLIES = 2 * BitBoard.SQUARES;
+
+    // Vérifie l'échéance toutes les 16 parties aléatoires
+    private static final int DEADLINE_CHECK_MASK = 15;
+
+    private static final long CORNERS = 0x8100000000000081L;
+
+    // Résultats d'une partie, comptés en demi-points pour rester entiers
+    private static final int WIN = 2;
+    private static final int DRAW = 1;
+
+    private final long budgetNanos;
+    private final int threads;
+    private final Worker[] workers;
+    private final ExecutorService helpers;
+
+    private double exploration = DEFAULT_EXPLORATION;
+    private long playoutLimit;
+    private volatile boolean stop;
+    private volatile long deadline;
+
+    private long lastPlayouts;
+    private long lastVisits;
+    private double lastWinRate;
+    private long lastNanos;
+
+    public NotHelloMctsStrategy() {
+        this(DEFAULT_BUDGET_MS);
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     */
+    public NotHelloMctsStrategy(long budgetMillis) {
+        this(budgetMillis, 1);
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     * @param threads nombre de threads de recherche
+     */
+    public NotHelloMctsStrategy(long budgetMillis, int threads) {
+        this(budgetMillis, threads, DEFAULT_NODES);
+    }
+
+    /**
+     * @param budgetMillis temps de réflexion par coup utilisé par evaluate(Board)
+     * @param threads nombre de threads de recherche
+     * @param nodes nombre de noeuds de l'arbre de chaque thread
+     */
+    public NotHelloMctsStrategy(long budgetMillis, int threads, int nodes) {
+        if (budgetMillis <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        if (nodes <= BitBoard.SQUARES) {
+            throw new IllegalArgumentException("The tree needs more than " + BitBoard.SQUARES + " nodes");
+        }
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.threads = threads;
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; ++i) {
+            workers[i] = new Worker(nodes, System.nanoTime() + i);
+        }
+        this.helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "mcts-helper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * @param exploration constante d'exploration de UCB1, les résultats étant comptés entre 0 et 1
+     */
+    public void setExploration(double exploration) {
+        this.exploration = exploration;
+    }
+
+    /**
+     * Limite le nombre de parties aléatoires par coup, réparties entre les threads, en plus du temps de réflexion.
+     * Utile pour une force de jeu indépendante de la machine.
+     *
+     * @param playoutLimit nombre maximal de parties, 0 pour aucune limite
+     */
+    public void setPlayoutLimit(long playoutLimit) {
+        this.playoutLimit = Math.max(0, playoutLimit);
+    }
+
+    /**
+     * Réinitialise les suites aléatoires des threads, pour des recherches reproductibles à nombre de parties fixé.
+     * Les arbres gardés du coup précédent sont oubliés.
+     */
+    public void setSeed(long seed) {
+        for (int i = 0; i < threads; ++i) {
+            workers[i].reset(seed + i);
+        }
+    }
+
+    /**
+     * Arrête les threads auxiliaires, la stratégie ne doit plus être utilisée ensuite.
+     */
+    public void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    @Override
+    public int[] evaluate(Board board) {
+        return evaluate(board, System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Retourne le coup le plus visité avant l'échéance.
+     *
+     * @param board L'état actuel du plateau, qui n'est pas modifié
+     * @param deadlineNanos échéance, dans la base de temps de System.nanoTime()
+     * @return un tableau {x, y}, ou null si aucun coup n'est possible
+     */
+    public int[] evaluate(Board board, long deadlineNanos) {
+        return evaluate(board, deadlineNanos, null);
+    }
+
+    /**
+     * Comme evaluate(Board), l'annulation du jeton arrête la recherche comme si l'échéance était atteinte.
+     */
+    @Override
+    public int[] evaluate(Board board, CancellationToken token) {
+        return evaluate(board, System.nanoTime() + budgetNanos, token);
+    }
+
+    private int[] evaluate(Board board, long deadlineNanos, CancellationToken token) {
+        if (!board.isSingleWord()) {
+            throw new IllegalArgumentException("MCTS only supports " + BitBoard.SIZE + "x" + BitBoard.SIZE + " boards");
+        }
+        if (board.isOver()) {
+            return null;
+        }
+        long moves = board.getLegalMoves();
+        if (moves == 0L) {
+            return null;
+        }
+        int square;
+        if (BitBoard.count(moves) == 1) {
+            // Coup forcé : rien à chercher
+            square = Long.numberOfTrailingZeros(moves);
+            lastPlayouts = 0;
+            lastVisits = 0;
+            lastWinRate = 0.5;
+            lastNanos = 0;
+        } else {
+            deadline = deadlineNanos;
+            stop = false;
+            Runnable stopSearch = () -> stop = true;
+            if (token != null) {
+                token.onCancel(stopSearch);
+            }
+            try {
+                PieceColor turn = board.getPlayerTurn();
+                square = search(board.getDiscs(turn), board.getDiscs(turn.opposite()));
+            } finally {
+                if (token != null) {
+                    token.removeOnCancel(stopSearch);
+                }
+            }
+        }
+        return new int[]{BitBoard.x(square), BitBoard.y(square)};
+    }
+
+    private int search(long player, long opponent) {
+        long start = System.nanoTime();
+        long limit = playoutLimit == 0 ? Long.MAX_VALUE : (playoutLimit + threads - 1) / threads;
+
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 1; i < threads; ++i) {
+            Worker helper = workers[i];
+            running.add(helpers.submit(() -> helper.search(player, opponent, limit)));
+        }
+        // Chaque thread s'arrête à l'échéance ou à sa part de la limite de parties
+        workers[0].search(player, opponent, limit);
+
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Search thread failed", e.getCause());
+            }
+        }
+
+        // Visites et résultats de chaque coup de la racine, tous arbres confondus
+        long[] visits = new long[BitBoard.SQUARES];
+        long[] wins = new long[BitBoard.SQUARES];
+        long playouts = 0;
+        for (Worker worker : workers) {
+            playouts += worker.playouts;
+            Tree tree = worker.tree;
+            int first = tree.firstChild[0];
+            for (int child = first; first > 0 && child < first + tree.childCount[0]; ++child) {
+                visits[tree.moves[child]] += tree.visits[child];
+                wins[tree.moves[child]] += tree.wins[child];
+            }
+        }
+        int best = Long.numberOfTrailingZeros(BitBoard.legalMoves(player, opponent));
+        for (int square = 0; square < BitBoard.SQUARES; ++square) {
+            if (visits[square] > visits[best]) {
+                best = square;
+            }
+        }
+
+        lastPlayouts = playouts;
+        lastVisits = visits[best];
+        lastWinRate = visits[best] == 0 ? 0.5 : wins[best] / (2.0 * visits[best]);
+        lastNanos = System.nanoTime() - start;
+        SEARCH.record(lastNanos);
+        PLAYOUTS.add(playouts);
+        return best;
+    }
+
+    /**
+     * Arbre d'un thread : les noeuds sont des index dans des tableaux parallèles, la racine est le noeud 0.
+     * Chaque noeud garde la position (joueur au trait, adversaire) et, du point de vue du joueur qui vient de jouer
+     * le coup qui y mène, le nombre de visites et la somme des résultats en demi-points.
+     */
+    private static final class Tree {
+        // firstChild d'un noeud pas encore développé, et d'une position de fin de partie
+        static final int UNEXPANDED = 0;
+        static final int TERMINAL = -1;
+
+        final int capacity;
+        final long[] players;
+        final long[] opponents;
+        final int[] firstChild;
+        final byte[] childCount;
+        final byte[] moves;
+        final int[] visits;
+        final int[] wins;
+        int size;
+
+        Tree(int capacity) {
+            this.capacity = capacity;
+            players = new long[capacity];
+            opponents = new long[capacity];
+            firstChild = new int[capacity];
+            childCount = new byte[capacity];
+            moves = new byte[capacity];
+            visits = new int[capacity];
+            wins = new int[capacity];
+        }
+
+        int add(long player, long opponent, int move) {
+            int node = size++;
+            players[node] = player;
+            opponents[node] = opponent;
+            firstChild[node] = UNEXPANDED;
+            childCount[node] = 0;
+            moves[node] = (byte) move;
+            visits[node] = 0;
+            wins[node] = 0;
+            return node;
+        }
+
+        /**
+         * Copie le noeud source de from à la fin de l'arbre, sans ses enfants.
+         */
+        int copy(Tree from, int source) {
+            int node = add(from.players[source], from.opponents[source], from.moves[source]);
+            visits[node] = from.visits[source];
+            wins[node] = from.wins[source];
+            return node;
+        }
+    }
+
+    /**
+     * État d'un thread de recherche. L'arbre de rechange, qui reçoit le sous-arbre gardé d'un coup à l'autre,
+     * n'est alloué qu'à la première réutilisation.
+     */
+    private final class Worker {
+        final int[] path = new int[MAX_PLIES + 1];
+        Tree tree;
+        Tree spare;
+        long random;
+        long playouts;
+
+        Worker(int nodes, long seed) {
+            tree = new Tree(nodes);
+            reset(seed);
+        }
+
+        void reset(long seed) {
+            // Le générateur xorshift ne doit pas partir de 0
+            random = seed * 0x9E3779B97F4A7C15L | 1L;
+            tree.size = 0;
+        }
+
+        void search(long player, long opponent, long limit) {
+            int root = find(player, opponent);
+            if (root < 0) {
+                tree.size = 0;
+                tree.add(player, opponent, Board.PASS);
+            } else if (root > 0) {
+                keepSubtree(root);
+            }
+
+            playouts = 0;
+            while (playouts < limit) {
+                if ((playouts & DEADLINE_CHECK_MASK) == 0 && (stop || System.nanoTime() > deadline)) {
+                    break;
+                }
+                iterate();
+                ++playouts;
+            }
+        }
+
+        /**
+         * @return le noeud de la position parmi la racine et ses descendants sur deux coups, ou -1
+         */
+        private int find(long player, long opponent) {
+            if (tree.size == 0) {
+                return -1;
+            }
+            if (matches(0, player, opponent)) {
+                return 0;
+            }
+            for (int child = tree.firstChild[0]; child > 0 && child < tree.firstChild[0] + tree.childCount[0]; ++child) {
+                if (matches(child, player, opponent)) {
+                    return child;
+                }
+                int first = tree.firstChild[child];
+                for (int grandChild = first; first > 0 && grandChild < first + tree.childCount[child]; ++grandChild) {
+                    if (matches(grandChild, player, opponent)) {
+                        return grandChild;
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private boolean matches(int node, long player, long opponent) {
+            return tree.players[node] == player && tree.opponents[node] == opponent;
+        }
+
+        /**
+         * Recopie en largeur le sous-arbre de root dans l'arbre de rechange, qui devient l'arbre courant.
+         * Pendant la copie, firstChild d'un noeud copié contient provisoirement l'index de son original.
+         */
+        private void keepSubtree(int root) {
+            if (spare == null) {
+                spare = new Tree(tree.capacity);
+            }
+            spare.size = 0;
+            spare.firstChild[spare.copy(tree, root)] = root;
+            for (int node = 0; node < spare.size; ++node) {
+                int source = spare.firstChild[node];
+                int first = tree.firstChild[source];
+                if (first <= 0) {
+                    spare.firstChild[node] = first;
+                    continue;
+                }
+                spare.firstChild[node] = spare.size;
+                spare.childCount[node] = tree.childCount[source];
+                for (int child = first; child < first + tree.childCount[source]; ++child) {
+                    spare.firstChild[spare.copy(tree, child)] = child;
+                }
+            }
+            Tree old = tree;
+            tree = spare;
+            spare = old;
+        }
+
+        /**
+         * Une itération : sélection, développement, partie aléatoire et mise à jour des noeuds traversés.
+         */
+        private void iterate() {
+            Tree t = tree;
+            int node = 0;
+            int depth = 0;
+            path[0] = 0;
+            while (t.firstChild[node] > 0) {
+                node = select(t, node);
+                path[++depth] = node;
+            }
+            if (t.firstChild[node] == Tree.UNEXPANDED && (t.visits[node] > 0 || depth == 0)) {
+                expand(t, node);
+                if (t.firstChild[node] > 0) {
+                    node = t.firstChild[node];
+                    path[++depth] = node;
+                }
+            }
+            int result = t.firstChild[node] == Tree.TERMINAL
+                    ? result(t.players[node], t.opponents[node])
+                    : playout(t.players[node], t.opponents[node]);
+
+            // Chaque noeud compte le résultat du joueur qui a joué le coup qui y mène : la perspective alterne
+            int score = WIN - result;
+            for (int i = depth; i >= 0; --i) {
+                t.visits[path[i]]++;
+                t.wins[path[i]] += score;
+                score = WIN - score;
+            }
+        }
+
+        /**
+         * @return l'enfant de meilleure borne UCB1, ou le premier enfant pas encore visité
+         */
+        private int select(Tree t, int node) {
+            int first = t.firstChild[node];
+            int end = first + t.childCount[node];
+            double logVisits = Math.log(t.visits[node]);
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < end; ++child) {
+                int visits = t.visits[child];
+                if (visits == 0) {
+                    return child;
+                }
+                double value = t.wins[child] / (2.0 * visits) + exploration * Math.sqrt(logVisits / visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Ajoute les enfants du noeud : un par coup légal, ou un passe. Sans effet si l'arbre est plein ;
+         * une position de fin de partie est marquée TERMINAL.
+         */
+        private void expand(Tree t, int node) {
+            long player = t.players[node], opponent = t.opponents[node];
+            long moves = BitBoard.legalMoves(player, opponent);
+            if (moves == 0L) {
+                if (!BitBoard.hasMove(opponent, player)) {
+                    t.firstChild[node] = Tree.TERMINAL;
+                } else if (t.size < t.capacity) {
+                    t.firstChild[node] = t.size;
+                    t.childCount[node] = 1;
+                    t.add(opponent, player, Board.PASS);
+                }
+                return;
+            }
+            int count = BitBoard.count(moves);
+            if (t.size + count > t.capacity) {
+                return;
+            }
+            t.firstChild[node] = t.size;
+            t.childCount[node] = (byte) count;
+            for (; moves != 0L; moves &= moves - 1) {
+                int square = Long.numberOfTrailingZeros(moves);
+                long flipped = BitBoard.flips(player, opponent, square);
+                t.add(opponent ^ flipped, player | flipped | BitBoard.bit(square), square);
+            }
+        }
+
+        /**
+         * Termine la partie par des coups aléatoires, en prenant un coin dès que possible et en évitant
+         * les cases en diagonale d'un coin vide quand il y a d'autres coups.
+         *
+         * @return le résultat en demi-points, du point de vue du joueur au trait dans la position de départ
+         */
+        private int playout(long player, long opponent) {
+            boolean swapped = false;
+            while (true) {
+                long moves = BitBoard.legalMoves(player, opponent);
+                if (moves == 0L) {
+                    if (!BitBoard.hasMove(opponent, player)) {
+                        break;
+                    }
+                } else {
+                    long corners = moves & CORNERS;
+                    long safe = moves & ~xSquares(player | opponent);
+                    moves = corners != 0L ? corners : safe != 0L ? safe : moves;
+                    for (int skip = nextInt(BitBoard.count(moves)); skip > 0; --skip) {
+                        moves &= moves - 1;
+                    }
+                    int square = Long.numberOfTrailingZeros(moves);
+                    long flipped = BitBoard.flips(player, opponent, square);
+                    player |= flipped | BitBoard.bit(square);
+                    opponent ^= flipped;
+                }
+                long next = opponent;
+                opponent = player;
+                player = next;
+                swapped = !swapped;
+            }
+            int result = result(player, opponent);
+            return swapped ? WIN - result : result;
+        }
+
+        /**
+         * @return un entier uniforme dans [0, bound), par xorshift64*
+         */
+        private int nextInt(int bound) {
+            random ^= random >>> 12;
+            random ^= random << 25;
+            random ^= random >>> 27;
+            return (int) ((((random * 0x2545F4914F6CDD1DL) >>> 32) * bound) >>> 32);
+        }
+    }
+
+    /**
+     * @return les cases en diagonale d'un coin vide
+     */
+    private static long xSquares(long occupied) {
+        long empty = ~occupied & CORNERS;
+        return ((empty & 0x1L) << 9) | ((empty & 0x80L) << 7)
+                | ((empty & 0x0100000000000000L) >>> 7) | ((empty & 0x8000000000000000L) >>> 9);
+    }
+
+    /**
+     * @return le résultat final en demi-points, du point de vue de player
+     */
+    private static int result(long player, long opponent) {
+        int diff = BitBoard.count(player) - BitBoard.count(opponent);
+        return diff > 0 ? WIN : diff < 0 ? 0 : DRAW;
+    }
+
+    /**
+     * Vérifie l'arbre de chaque thread, pour les tests : racine dans la position donnée, enfants dans la position
+     * obtenue par leur coup, et jamais plus de visites pour les enfants que pour leur parent.
+     *
+     * @throws IllegalStateException si un arbre est incohérent
+     */
+    void checkTrees(long player, long opponent) {
+        for (Worker worker : workers) {
+            Tree t = worker.tree;
+            if (t.size == 0 || t.players[0] != player || t.opponents[0] != opponent) {
+                throw new IllegalStateException("Root does not match the position");
+            }
+            for (int node = 0; node < t.size; ++node) {
+                int first = t.firstChild[node];
+                if (first <= 0) {
+                    continue;
+                }
+                long childVisits = 0;
+                for (int child = first; child < first + t.childCount[node]; ++child) {
+                    if (child >= t.size) {
+                        throw new IllegalStateException("Child " + child + " outside the tree");
+                    }
+                    int move = t.moves[child];
+                    long flipped = move == Board.PASS ? 0L : BitBoard.flips(t.players[node], t.opponents[node], move);
+                    long nextOpponent = move == Board.PASS ? t.players[node] : t.players[node] | flipped | BitBoard.bit(move);
+                    if (t.players[child] != (t.opponents[node] ^ flipped) || t.opponents[child] != nextOpponent) {
+                        throw new IllegalStateException("Child " + child + " does not follow move " + move);
+                    }
+                    childVisits += t.visits[child];
+                }
+                if (childVisits > t.visits[node]) {
+                    throw new IllegalStateException("Children of " + node + " have more visits than their parent");
+                }
+            }
+        }
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @return le nombre de parties aléatoires jouées lors de la dernière recherche, tous threads confondus
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * @return la vitesse de la dernière recherche, tous threads confondus
+     */
+    public double getLastPlayoutsPerSecond() {
+        return lastNanos == 0 ? 0.0 : lastPlayouts / (lastNanos / 1e9);
+    }
+
+    /**
+     * @return le nombre de visites du coup choisi, visites des recherches précédentes comprises
+     */
+    public long getLastVisits() {
+        return lastVisits;
+    }
+
+    /**
+     * @return la proportion de points obtenus par le coup choisi, entre 0 et 1, du point de vue du joueur qui joue
+     */
+    public double getLastWinRate() {
+        return lastWinRate;
+    }
+
+    /**
+     * @return le score du coup choisi, de -100 (toujours perdu) à 100 (toujours gagné)
+     */
+    public int getLastScore() {
+        return (int) Math.round(100 * (2 * lastWinRate - 1));
+    }
+}
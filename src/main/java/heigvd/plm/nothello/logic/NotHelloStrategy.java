@@ -15,4 +15,26 @@ public interface NotHelloStrategy {
      * @return Un tableau {x, y} représentant les coordonnées du meilleur coup
      */
     int[] evaluate(Board board);
+
+    /**
+     * Comme evaluate(Board), mais peut être interrompue. Les stratégies qui le peuvent s'arrêtent dès
+     * que le jeton est annulé ; le coup retourné n'a alors plus d'importance.
+     *
+     * @param board    L'état actuel du plateau
+     * @param token    Jeton d'annulation de cette évaluation
+     * @return Un tableau {x, y} représentant les coordonnées du meilleur coup, ou null si annulée avant de commencer
+     */
+    default int[] evaluate(Board board, CancellationToken token) {
+        return token.isCancelled() ? null : evaluate(board);
+    }
+
+    /**
+     * Indique si la stratégie donne toujours le même coup pour une même position, quels que soient le temps
+     * disponible et les coups précédents. Seuls ses résultats peuvent être réutilisés (cf. PredictionEvaluator).
+     *
+     * @return false par défaut : les stratégies limitées en temps ou aléatoires ne doivent pas être mises en cache
+     */
+    default boolean isDeterministic() {
+        return false;
+    }
 }
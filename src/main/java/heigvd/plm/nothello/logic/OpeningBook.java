@@ -0,0 +1,162 @@
+package heigvd.plm.nothello.logic;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Livre d'ouvertures en lecture seule, projeté en mémoire.
+ *
+ * Format du fichier (big-endian) : un en-tête de 16 octets (magic, version, nombre d'entrées) suivi des entrées
+ * de 24 octets triées par clé Zobrist puis par case :
+ * clé (long), case (int), parties (int), victoires (int), nuls (int).
+ * Les victoires et nuls sont du point de vue du joueur qui a joué le coup.
+ *
+ * Les recherches se font par dichotomie directement dans le fichier projeté, sans allocation ; l'instance
+ * peut être partagée entre threads.
+ */
+public class OpeningBook {
+
+    static final int MAGIC = 0x4E48424B; // "NHBK"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 24;
+
+    private static final int SQUARE_OFFSET = 8;
+    private static final int PLAYS_OFFSET = 12;
+    private static final int WINS_OFFSET = 16;
+    private static final int DRAWS_OFFSET = 20;
+
+    private final ByteBuffer records;
+    private final int size;
+
+    private OpeningBook(ByteBuffer records, int size) {
+        this.records = records;
+        this.size = size;
+    }
+
+    /**
+     * Projette en mémoire un livre écrit par OpeningBookBuilder.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid opening book size: " + length + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not an opening book (version " + VERSION + "): " + file);
+            }
+            long size = buffer.getLong(8);
+            if (HEADER_BYTES + size * RECORD_BYTES != length) {
+                throw new IOException("Truncated opening book: " + size + " entries announced, " + length + " bytes");
+            }
+            // La projection reste valide après la fermeture du canal
+            return new OpeningBook(buffer.slice(HEADER_BYTES, (int) (length - HEADER_BYTES)), (int) size);
+        }
+    }
+
+    /**
+     * @return le nombre d'entrées (position, coup) du livre
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return le coup du livre ayant le meilleur score (victoires + nuls/2) / parties parmi ceux joués au moins
+     * minPlays fois, le plus joué en cas d'égalité, ou -1 si la position n'est pas dans le livre
+     */
+    public int bestMove(long key, int minPlays) {
+        int best = -1;
+        long bestNumerator = -1;
+        int bestPlays = 0;
+        for (int i = firstIndex(key); i < size && keyAt(i) == key; ++i) {
+            int plays = intAt(i, PLAYS_OFFSET);
+            if (plays < minPlays) {
+                continue;
+            }
+            // Score en demi-points, comparé par produit en croix pour rester en entiers
+            long numerator = 2L * intAt(i, WINS_OFFSET) + intAt(i, DRAWS_OFFSET);
+            long lhs = numerator * (2L * bestPlays);
+            long rhs = bestNumerator * (2L * plays);
+            if (best < 0 || lhs > rhs || (lhs == rhs && plays > bestPlays)) {
+                best = intAt(i, SQUARE_OFFSET);
+                bestNumerator = numerator;
+                bestPlays = plays;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Tire un coup du livre avec une probabilité proportionnelle à son nombre de parties.
+     *
+     * @param uniform nombre tiré uniformément dans [0, 1)
+     * @return le coup tiré, ou -1 si la position n'est pas dans le livre
+     */
+    public int weightedRandomMove(long key, double uniform) {
+        int first = firstIndex(key);
+        long total = 0;
+        int end = first;
+        for (; end < size && keyAt(end) == key; ++end) {
+            total += intAt(end, PLAYS_OFFSET);
+        }
+        if (total == 0) {
+            return -1;
+        }
+        long target = (long) (uniform * total);
+        for (int i = first; i < end; ++i) {
+            target -= intAt(i, PLAYS_OFFSET);
+            if (target < 0) {
+                return intAt(i, SQUARE_OFFSET);
+            }
+        }
+        return intAt(end - 1, SQUARE_OFFSET);
+    }
+
+    /**
+     * @return le nombre de parties enregistrées depuis cette position, tous coups confondus
+     */
+    public long plays(long key) {
+        long total = 0;
+        for (int i = firstIndex(key); i < size && keyAt(i) == key; ++i) {
+            total += intAt(i, PLAYS_OFFSET);
+        }
+        return total;
+    }
+
+    /**
+     * @return l'indice de la première entrée de clé supérieure ou égale à key
+     */
+    private int firstIndex(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int index) {
+        return records.getLong(index * RECORD_BYTES);
+    }
+
+    private int intAt(int index, int offset) {
+        return records.getInt(index * RECORD_BYTES + offset);
+    }
+
+    @Override
+    public String toString() {
+        return "Opening book: " + size + " entries";
+    }
+}
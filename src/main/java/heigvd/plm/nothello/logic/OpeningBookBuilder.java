@@ -0,0 +1,139 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Construit un livre d'ouvertures (cf. OpeningBook) à partir de parties complètes.
+ *
+ * Pour chacun des premiers coups de chaque partie, on compte le nombre de fois où il a été joué depuis la position
+ * et le résultat final pour le joueur qui l'a joué. Thread-safe, pour être alimenté par un tournoi parallèle.
+ */
+public class OpeningBookBuilder {
+
+    private final int maxPlies;
+    private final Map<Long, List<MoveStats>> positions = new HashMap<>();
+    private long games;
+
+    /**
+     * @param maxPlies nombre de coups enregistrés au début de chaque partie
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        if (maxPlies <= 0) {
+            throw new IllegalArgumentException("At least one ply is required");
+        }
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Ajoute une partie jouée depuis la position initiale.
+     *
+     * @param moves cases jouées dans l'ordre (les passes sont implicites)
+     * @param blackDiscs nombre de pions noirs en fin de partie
+     * @param whiteDiscs nombre de pions blancs en fin de partie
+     */
+    public synchronized void addGame(int[] moves, int blackDiscs, int whiteDiscs) {
+        Board board = new Board();
+        for (int ply = 0; ply < moves.length && ply < maxPlies; ++ply) {
+            PieceColor player = board.getPlayerTurn();
+            int result = Integer.signum(player == PieceColor.BLACK ? blackDiscs - whiteDiscs : whiteDiscs - blackDiscs);
+            statsFor(board.getZobristKey(), moves[ply]).add(result);
+            board.makeMove(moves[ply]);
+        }
+        ++games;
+    }
+
+    private MoveStats statsFor(long key, int square) {
+        List<MoveStats> moves = positions.computeIfAbsent(key, k -> new ArrayList<>(2));
+        for (MoveStats stats : moves) {
+            if (stats.square == square) {
+                return stats;
+            }
+        }
+        MoveStats stats = new MoveStats(square);
+        moves.add(stats);
+        return stats;
+    }
+
+    public synchronized long getGames() {
+        return games;
+    }
+
+    /**
+     * @return le nombre d'entrées (position, coup) qui seront écrites
+     */
+    public synchronized int size() {
+        int size = 0;
+        for (List<MoveStats> moves : positions.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+
+    /**
+     * Écrit le livre, trié par clé puis par case.
+     *
+     * @param minPlays nombre minimal de parties pour qu'un coup soit conservé
+     */
+    public synchronized void write(Path file, int minPlays) throws IOException {
+        List<Long> keys = new ArrayList<>(positions.keySet());
+        keys.sort(Long::compare);
+
+        List<long[]> entries = new ArrayList<>();
+        for (long key : keys) {
+            List<MoveStats> moves = new ArrayList<>(positions.get(key));
+            moves.sort((a, b) -> Integer.compare(a.square, b.square));
+            for (MoveStats stats : moves) {
+                if (stats.plays >= minPlays) {
+                    entries.add(new long[]{key, stats.square, stats.plays, stats.wins, stats.draws});
+                }
+            }
+        }
+
+        try (OutputStream stream = Files.newOutputStream(file);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+            out.writeInt(OpeningBook.MAGIC);
+            out.writeInt(OpeningBook.VERSION);
+            out.writeLong(entries.size());
+            for (long[] entry : entries) {
+                out.writeLong(entry[0]);
+                for (int i = 1; i < entry.length; ++i) {
+                    out.writeInt((int) entry[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Statistiques d'un coup depuis une position.
+     */
+    private static class MoveStats {
+        final int square;
+        int plays, wins, draws;
+
+        MoveStats(int square) {
+            if (square < 0 || square >= BitBoard.SQUARES) {
+                throw new IllegalArgumentException("Invalid square: " + square);
+            }
+            this.square = square;
+        }
+
+        void add(int result) {
+            ++plays;
+            if (result > 0) ++wins;
+            else if (result == 0) ++draws;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+
+/**
+ * Évaluation statique par motifs : la configuration de chaque motif (bord, coin 3x3, diagonales) indexe
+ * une table de poids précalculée, à laquelle s'ajoutent la mobilité et les pions stables.
+ *
+ * Chaque motif est lu dans les quatre rotations du plateau, qui partagent la même table : l'évaluation est
+ * donc invariante par rotation. L'index d'un motif est {@code sum(3^i * case_i)} (0 vide, 1 joueur, 2 adversaire) ;
+ * les cases d'un motif sont d'abord rassemblées en un mot de bits (décalages, ou multiplication pour les diagonales),
+ * puis converties en base 3 par la table TERNARY, sans boucle sur les cases ni allocation.
+ */
+public final class PatternEvaluator implements LeafEvaluator {
+
+    // Motifs, dans l'ordre des tables de PatternWeights
+    static final int EDGE = 0;
+    static final int CORNER = 1;
+    static final int DIAG8 = 2;
+    static final int DIAG7 = 3;
+    static final int DIAG6 = 4;
+    static final int DIAG5 = 5;
+    static final int DIAG4 = 6;
+    static final int PATTERNS = 7;
+    static final int ROTATIONS = 4;
+
+    /**
+     * Cases de chaque motif dans la rotation 0, dans l'ordre des chiffres de l'index :
+     * bord (0, y), coin (i / 3, i % 3), diagonales (i, i + c).
+     */
+    static final int[][] SQUARES = new int[PATTERNS][];
+    /** Nombre d'entrées de la table de chaque motif (3^cases) et position de la table dans un tableau commun */
+    static final int[] SIZES = new int[PATTERNS];
+    static final int[] OFFSETS = new int[PATTERNS];
+    /** Nombre total d'entrées des tables d'une phase */
+    static final int ENTRIES;
+
+    /** TERNARY[bits] = somme des 3^i pour les bits i présents */
+    private static final int[] TERNARY = new int[1 << 9];
+
+    // Diagonale (i, i + c), i = 0 .. 7 - c
+    private static final long[] DIAGONALS = new long[5];
+    private static final long GATHER = 0x0101010101010101L;
+
+    // Lignes complètes pour les pions stables : diagonales x - y constant et x + y constant
+    private static final long[] DIAGONAL_LINES = new long[15];
+    private static final long[] ANTI_DIAGONAL_LINES = new long[15];
+    private static final long ROW_0 = 0xFFL;
+    private static final long ROW_7 = 0xFFL << 56;
+    private static final long BORDER = ROW_0 | ROW_7 | BitBoard.COL_0 | BitBoard.COL_7;
+
+    static {
+        for (int bits = 0; bits < TERNARY.length; ++bits) {
+            int value = 0;
+            for (int i = 8, power = 6561; i >= 0; --i, power /= 3) {
+                if ((bits & (1 << i)) != 0) {
+                    value += power;
+                }
+            }
+            TERNARY[bits] = value;
+        }
+        SQUARES[EDGE] = new int[8];
+        for (int y = 0; y < 8; ++y) {
+            SQUARES[EDGE][y] = BitBoard.square(0, y);
+        }
+        SQUARES[CORNER] = new int[9];
+        for (int i = 0; i < 9; ++i) {
+            SQUARES[CORNER][i] = BitBoard.square(i / 3, i % 3);
+        }
+        for (int c = 0; c <= 4; ++c) {
+            int[] squares = new int[8 - c];
+            for (int i = 0; i < squares.length; ++i) {
+                squares[i] = BitBoard.square(i, i + c);
+                DIAGONALS[c] |= BitBoard.bit(squares[i]);
+            }
+            SQUARES[DIAG8 + c] = squares;
+        }
+        int entries = 0;
+        for (int p = 0; p < PATTERNS; ++p) {
+            SIZES[p] = (int) Math.pow(3, SQUARES[p].length);
+            OFFSETS[p] = entries;
+            entries += SIZES[p];
+        }
+        ENTRIES = entries;
+        for (int square = 0; square < BitBoard.SQUARES; ++square) {
+            int x = BitBoard.x(square), y = BitBoard.y(square);
+            DIAGONAL_LINES[x - y + 7] |= BitBoard.bit(square);
+            ANTI_DIAGONAL_LINES[x + y] |= BitBoard.bit(square);
+        }
+    }
+
+    private final PatternWeights weights;
+
+    public PatternEvaluator(PatternWeights weights) {
+        this.weights = weights;
+    }
+
+    public PatternWeights getWeights() {
+        return weights;
+    }
+
+    @Override
+    public int evaluate(long player, long opponent) {
+        int phase = PatternWeights.phase(BitBoard.SQUARES - BitBoard.count(player | opponent));
+        short[] table = weights.table(phase);
+
+        long p90 = rotate90(player), o90 = rotate90(opponent);
+        int score = patterns(table, player, opponent)
+                + patterns(table, p90, o90)
+                + patterns(table, Long.reverse(player), Long.reverse(opponent))
+                + patterns(table, Long.reverse(p90), Long.reverse(o90));
+
+        int mobility = BitBoard.count(BitBoard.legalMoves(player, opponent))
+                - BitBoard.count(BitBoard.legalMoves(opponent, player));
+        int stability = BitBoard.count(stableDiscs(player, opponent)) - BitBoard.count(stableDiscs(opponent, player));
+        return score + weights.getBias(phase) + weights.getMobility(phase) * mobility
+                + weights.getStability(phase) * stability;
+    }
+
+    /**
+     * Somme des poids des motifs lus dans la rotation 0 de (player, opponent).
+     */
+    private static int patterns(short[] table, long player, long opponent) {
+        return table[OFFSETS[EDGE] + index(edge(player), edge(opponent))]
+                + table[OFFSETS[CORNER] + index(corner(player), corner(opponent))]
+                + table[OFFSETS[DIAG8] + index(diagonal(player, 0), diagonal(opponent, 0))]
+                + table[OFFSETS[DIAG7] + index(diagonal(player, 1), diagonal(opponent, 1))]
+                + table[OFFSETS[DIAG6] + index(diagonal(player, 2), diagonal(opponent, 2))]
+                + table[OFFSETS[DIAG5] + index(diagonal(player, 3), diagonal(opponent, 3))]
+                + table[OFFSETS[DIAG4] + index(diagonal(player, 4), diagonal(opponent, 4))];
+    }
+
+    /**
+     * Remplit indices[rotation * PATTERNS + motif] avec l'index (sans décalage de table) de chaque motif,
+     * pour l'apprentissage des poids.
+     */
+    static void indices(long player, long opponent, int[] indices) {
+        long p90 = rotate90(player), o90 = rotate90(opponent);
+        indices(player, opponent, indices, 0);
+        indices(p90, o90, indices, PATTERNS);
+        indices(Long.reverse(player), Long.reverse(opponent), indices, 2 * PATTERNS);
+        indices(Long.reverse(p90), Long.reverse(o90), indices, 3 * PATTERNS);
+    }
+
+    private static void indices(long player, long opponent, int[] indices, int from) {
+        indices[from + EDGE] = index(edge(player), edge(opponent));
+        indices[from + CORNER] = index(corner(player), corner(opponent));
+        for (int c = 0; c <= 4; ++c) {
+            indices[from + DIAG8 + c] = index(diagonal(player, c), diagonal(opponent, c));
+        }
+    }
+
+    private static int index(int playerBits, int opponentBits) {
+        return TERNARY[playerBits] + 2 * TERNARY[opponentBits];
+    }
+
+    private static int edge(long discs) {
+        return (int) (discs & 0xFF);
+    }
+
+    private static int corner(long discs) {
+        return (int) ((discs & 0x7) | ((discs >>> 5) & 0x38) | ((discs >>> 10) & 0x1C0));
+    }
+
+    /**
+     * Les cases de la diagonale sont toutes dans des colonnes différentes : la multiplication les rassemble
+     * sans retenue dans l'octet de poids fort, la case (i, i + c) au bit i + c.
+     */
+    private static int diagonal(long discs, int c) {
+        return (int) (((discs & DIAGONALS[c]) * GATHER) >>> (56 + c));
+    }
+
+    /**
+     * Rotation d'un quart de tour : la case (x, y) va en (7 - y, x).
+     */
+    static long rotate90(long discs) {
+        return Long.reverseBytes(transpose(discs));
+    }
+
+    /**
+     * Symétrie par rapport à la diagonale (0, 0)-(7, 7) : la case (x, y) va en (y, x).
+     */
+    static long transpose(long discs) {
+        long t = 0x0F0F0F0F00000000L & (discs ^ (discs << 28));
+        discs ^= t ^ (t >>> 28);
+        t = 0x3333000033330000L & (discs ^ (discs << 14));
+        discs ^= t ^ (t >>> 14);
+        t = 0x5500550055005500L & (discs ^ (discs << 7));
+        discs ^= t ^ (t >>> 7);
+        return discs;
+    }
+
+    /**
+     * Pions de player qui ne pourront plus être retournés, par une approximation par défaut : un pion est stable
+     * si, sur chacun des quatre axes, la ligne est pleine ou l'un de ses voisins est le bord ou un pion stable
+     * du même joueur. Partant des coins, l'ensemble grandit jusqu'à un point fixe.
+     */
+    static long stableDiscs(long player, long opponent) {
+        long occupied = player | opponent;
+        long fullRows = 0L;
+        for (int x = 0; x < 8; ++x) {
+            if (((occupied >>> (8 * x)) & 0xFF) == 0xFF) {
+                fullRows |= 0xFFL << (8 * x);
+            }
+        }
+        long columns = occupied & (occupied >>> 8);
+        columns &= columns >>> 16;
+        columns &= columns >>> 32;
+        long fullColumns = (columns & 0xFF) * GATHER;
+        long fullDiagonals = 0L, fullAntiDiagonals = 0L;
+        for (int i = 0; i < DIAGONAL_LINES.length; ++i) {
+            if ((occupied & DIAGONAL_LINES[i]) == DIAGONAL_LINES[i]) {
+                fullDiagonals |= DIAGONAL_LINES[i];
+            }
+            if ((occupied & ANTI_DIAGONAL_LINES[i]) == ANTI_DIAGONAL_LINES[i]) {
+                fullAntiDiagonals |= ANTI_DIAGONAL_LINES[i];
+            }
+        }
+
+        long horizontal = fullRows | BitBoard.COL_0 | BitBoard.COL_7;
+        long vertical = fullColumns | ROW_0 | ROW_7;
+        long diagonal = fullDiagonals | BORDER;
+        long antiDiagonal = fullAntiDiagonals | BORDER;
+        long stable = 0L;
+        while (true) {
+            long next = player
+                    & (horizontal | BitBoard.shift(stable, 3) | BitBoard.shift(stable, 4))
+                    & (vertical | BitBoard.shift(stable, 1) | BitBoard.shift(stable, 6))
+                    & (diagonal | BitBoard.shift(stable, 0) | BitBoard.shift(stable, 7))
+                    & (antiDiagonal | BitBoard.shift(stable, 2) | BitBoard.shift(stable, 5));
+            if (next == stable) {
+                return stable;
+            }
+            stable = next;
+        }
+    }
+}
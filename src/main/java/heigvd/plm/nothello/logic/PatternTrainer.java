@@ -0,0 +1,151 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.GameRecord;
+import heigvd.plm.nothello.game.PieceColor;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Ajuste les poids de PatternEvaluator sur des parties enregistrées (cf. GameRecord) : chaque position avant
+ * un coup est un exemple, dont la cible est la différence de pions finale du point de vue du joueur au trait.
+ *
+ * Descente de gradient stochastique sur l'erreur quadratique, en flottants ; les poids sont arrondis en shorts
+ * par toWeights. Les scores appris sont en centièmes de pion (cf. DISC).
+ */
+public class PatternTrainer {
+
+    /** Score d'un pion d'avance dans les poids appris */
+    public static final int DISC = 100;
+
+    public static final double DEFAULT_LEARNING_RATE = 0.002;
+
+    // Pas réduit pour la mobilité et la stabilité, dont les valeurs sont bien plus grandes que celles des motifs (±1)
+    private static final double SCALAR_RATE = 1.0 / 64;
+
+    private static final int FEATURES = PatternEvaluator.ROTATIONS * PatternEvaluator.PATTERNS;
+
+    private long[] players = new long[1 << 12];
+    private long[] opponents = new long[1 << 12];
+    private byte[] targets = new byte[1 << 12];
+    private int samples;
+
+    private final float[][] tables = new float[PatternWeights.PHASES][PatternEvaluator.ENTRIES];
+    // Biais, mobilité et stabilité de chaque phase
+    private final float[][] scalars = new float[PatternWeights.PHASES][3];
+    private double learningRate = DEFAULT_LEARNING_RATE;
+
+    public void setLearningRate(double learningRate) {
+        if (learningRate <= 0) {
+            throw new IllegalArgumentException("Learning rate must be positive");
+        }
+        this.learningRate = learningRate;
+    }
+
+    /**
+     * Ajoute les positions d'une partie.
+     *
+     * @throws IllegalStateException si la partie contient un coup illégal (aucune position n'est alors ajoutée)
+     */
+    public void addGame(GameRecord record) {
+        int first = samples;
+        Board board = new Board();
+        for (int ply = 0; ply < record.getPlies(); ++ply) {
+            int square = record.getMove(ply);
+            if (square == Board.PASS) {
+                continue; // les passes sont joués automatiquement par makeMove
+            }
+            PieceColor turn = board.getPlayerTurn();
+            add(board.getDiscs(turn), board.getDiscs(turn.opposite()),
+                    turn == PieceColor.BLACK ? record.getDiscDifference() : -record.getDiscDifference());
+            try {
+                board.makeMove(square);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                samples = first;
+                throw new IllegalStateException("Illegal move " + square + " at ply " + ply);
+            }
+        }
+    }
+
+    private void add(long player, long opponent, int target) {
+        if (samples == players.length) {
+            players = Arrays.copyOf(players, 2 * samples);
+            opponents = Arrays.copyOf(opponents, 2 * samples);
+            targets = Arrays.copyOf(targets, 2 * samples);
+        }
+        players[samples] = player;
+        opponents[samples] = opponent;
+        targets[samples] = (byte) target;
+        ++samples;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Une passe sur tous les exemples, dans un ordre aléatoire.
+     *
+     * @return l'erreur quadratique moyenne de la passe, en pions
+     */
+    public double epoch(Random rng) {
+        int[] order = new int[samples];
+        for (int i = 0; i < samples; ++i) {
+            int j = rng.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+
+        int[] indices = new int[FEATURES];
+        double squaredError = 0;
+        for (int sample : order) {
+            long player = players[sample], opponent = opponents[sample];
+            int phase = PatternWeights.phase(BitBoard.SQUARES - BitBoard.count(player | opponent));
+            float[] table = tables[phase];
+            float[] scalar = scalars[phase];
+            PatternEvaluator.indices(player, opponent, indices);
+            int mobility = BitBoard.count(BitBoard.legalMoves(player, opponent))
+                    - BitBoard.count(BitBoard.legalMoves(opponent, player));
+            int stability = BitBoard.count(PatternEvaluator.stableDiscs(player, opponent))
+                    - BitBoard.count(PatternEvaluator.stableDiscs(opponent, player));
+
+            double predicted = scalar[0] + scalar[1] * mobility + scalar[2] * stability;
+            for (int f = 0; f < FEATURES; ++f) {
+                predicted += table[offset(f) + indices[f]];
+            }
+            double error = targets[sample] * DISC - predicted;
+            squaredError += error * error;
+
+            float step = (float) (learningRate * error);
+            for (int f = 0; f < FEATURES; ++f) {
+                table[offset(f) + indices[f]] += step;
+            }
+            scalar[0] += step * SCALAR_RATE;
+            scalar[1] += step * SCALAR_RATE * mobility;
+            scalar[2] += step * SCALAR_RATE * stability;
+        }
+        return samples == 0 ? 0 : Math.sqrt(squaredError / samples) / DISC;
+    }
+
+    private static int offset(int feature) {
+        return PatternEvaluator.OFFSETS[feature % PatternEvaluator.PATTERNS];
+    }
+
+    /**
+     * @return les poids appris, arrondis
+     */
+    public PatternWeights toWeights() {
+        PatternWeights weights = new PatternWeights();
+        for (int phase = 0; phase < PatternWeights.PHASES; ++phase) {
+            short[] table = weights.table(phase);
+            for (int i = 0; i < table.length; ++i) {
+                table[i] = PatternWeights.clamp(Math.round(tables[phase][i]));
+            }
+            float[] scalar = scalars[phase];
+            weights.setScalars(phase, Math.round(scalar[0]), Math.round(scalar[1]), Math.round(scalar[2]));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,191 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Poids de PatternEvaluator : pour chaque phase de la partie, une table de poids par motif, plus un biais
+ * et les poids de la mobilité et des pions stables.
+ *
+ * Format du fichier (big-endian) : un en-tête de 16 octets (magic, version, nombre de phases, nombre d'entrées
+ * des tables d'une phase), puis pour chaque phase le biais, la mobilité, la stabilité et les tables, en shorts.
+ */
+public final class PatternWeights {
+
+    static final int MAGIC = 0x4E485057; // "NHPW"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+
+    /** Nombre de phases de jeu, selon le nombre de coups joués */
+    public static final int PHASES = 4;
+
+    // Valeurs par défaut, cf. defaults
+    private static final short DEFAULT_MOBILITY = 10;
+    private static final short DEFAULT_STABILITY = 10;
+
+    private final short[][] tables = new short[PHASES][PatternEvaluator.ENTRIES];
+    private final short[] bias = new short[PHASES];
+    private final short[] mobility = new short[PHASES];
+    private final short[] stability = new short[PHASES];
+
+    PatternWeights() {
+    }
+
+    /**
+     * @param empties nombre de cases vides
+     * @return la phase de jeu, de 0 (ouverture) à PHASES - 1 (finale)
+     */
+    static int phase(int empties) {
+        int played = Math.max(0, BitBoard.SQUARES - 4 - empties);
+        return Math.min(PHASES - 1, played * PHASES / (BitBoard.SQUARES - 3));
+    }
+
+    /**
+     * Poids déduits de l'évaluation de l'alpha-bêta (poids des cases et mobilité), plus un bonus par pion stable :
+     * le poids d'une case est réparti entre tous les motifs qui la contiennent.
+     */
+    public static PatternWeights defaults() {
+        int[] coverage = new int[BitBoard.SQUARES];
+        for (int rotation = 0; rotation < PatternEvaluator.ROTATIONS; ++rotation) {
+            for (int[] squares : PatternEvaluator.SQUARES) {
+                for (int square : squares) {
+                    // La rotation r lit la case square du plateau tourné, soit la case d'origine tournée en sens inverse
+                    ++coverage[Long.numberOfTrailingZeros(rotate(BitBoard.bit(square), (4 - rotation) % 4))];
+                }
+            }
+        }
+
+        PatternWeights weights = new PatternWeights();
+        short[] table = weights.tables[0];
+        for (int p = 0; p < PatternEvaluator.PATTERNS; ++p) {
+            int[] squares = PatternEvaluator.SQUARES[p];
+            for (int index = 0; index < PatternEvaluator.SIZES[p]; ++index) {
+                double value = 0;
+                for (int i = 0, digits = index; i < squares.length; ++i, digits /= 3) {
+                    int square = squares[i];
+                    double weight = (double) NotHelloAlphaBetaStrategy.SQUARE_WEIGHTS[square] / coverage[square];
+                    value += digits % 3 == 1 ? weight : digits % 3 == 2 ? -weight : 0;
+                }
+                table[PatternEvaluator.OFFSETS[p] + index] = (short) Math.round(value);
+            }
+        }
+        for (int phase = 0; phase < PHASES; ++phase) {
+            if (phase > 0) {
+                System.arraycopy(table, 0, weights.tables[phase], 0, table.length);
+            }
+            weights.mobility[phase] = DEFAULT_MOBILITY;
+            weights.stability[phase] = DEFAULT_STABILITY;
+        }
+        return weights;
+    }
+
+    /**
+     * @return les poids du fichier donné par -Dnothello.patterns, ou les poids par défaut, chargés une seule fois
+     */
+    public static PatternWeights standard() {
+        return Standard.WEIGHTS;
+    }
+
+    private static final class Standard {
+        private static final PatternWeights WEIGHTS = load();
+
+        private static PatternWeights load() {
+            String file = System.getProperty("nothello.patterns");
+            if (file == null) {
+                return defaults();
+            }
+            try {
+                return read(Paths.get(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not load pattern weights from " + file, e);
+            }
+        }
+    }
+
+    /**
+     * Rotation de r quarts de tour, cf. PatternEvaluator.rotate90.
+     */
+    static long rotate(long discs, int rotation) {
+        return switch (rotation) {
+            case 0 -> discs;
+            case 1 -> PatternEvaluator.rotate90(discs);
+            case 2 -> Long.reverse(discs);
+            default -> Long.reverse(PatternEvaluator.rotate90(discs));
+        };
+    }
+
+    public static PatternWeights read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IOException("Not a pattern weights file (version " + VERSION + "): " + file);
+        }
+        int phases = buffer.getInt();
+        int entries = buffer.getInt();
+        if (phases != PHASES || entries != PatternEvaluator.ENTRIES) {
+            throw new IOException("Unsupported pattern weights: " + phases + " phases, " + entries + " entries");
+        }
+        if (buffer.remaining() != phases * (3 + entries) * Short.BYTES) {
+            throw new IOException("Truncated pattern weights file: " + file);
+        }
+        PatternWeights weights = new PatternWeights();
+        for (int phase = 0; phase < PHASES; ++phase) {
+            weights.bias[phase] = buffer.getShort();
+            weights.mobility[phase] = buffer.getShort();
+            weights.stability[phase] = buffer.getShort();
+            buffer.asShortBuffer().get(weights.tables[phase]);
+            buffer.position(buffer.position() + entries * Short.BYTES);
+        }
+        return weights;
+    }
+
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(PHASES);
+            out.writeInt(PatternEvaluator.ENTRIES);
+            for (int phase = 0; phase < PHASES; ++phase) {
+                out.writeShort(bias[phase]);
+                out.writeShort(mobility[phase]);
+                out.writeShort(stability[phase]);
+                for (short weight : tables[phase]) {
+                    out.writeShort(weight);
+                }
+            }
+        }
+    }
+
+    short[] table(int phase) {
+        return tables[phase];
+    }
+
+    public int getBias(int phase) {
+        return bias[phase];
+    }
+
+    public int getMobility(int phase) {
+        return mobility[phase];
+    }
+
+    public int getStability(int phase) {
+        return stability[phase];
+    }
+
+    void setScalars(int phase, int bias, int mobility, int stability) {
+        this.bias[phase] = clamp(bias);
+        this.mobility[phase] = clamp(mobility);
+        this.stability[phase] = clamp(stability);
+    }
+
+    static short clamp(long value) {
+        return (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value));
+    }
+}
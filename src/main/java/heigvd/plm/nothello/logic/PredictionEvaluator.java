@@ -1,22 +1,76 @@
 package heigvd.plm.nothello.logic;
 
 import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.BoardSnapshot;
 import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.metrics.Counter;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
+/**
+ * Évalue les coups du plateau de jeu pour l'interface.
+ *
+ * La position est lue sur un instantané (cf. GameActor) : les évaluations travaillent sur une copie du plateau
+ * prise au moment de la demande, sans jamais voir une position en cours de modification. Les évaluations
+ * asynchrones sont numérotées : une nouvelle demande annule la précédente, dont le résultat ne doit plus
+ * être affiché.
+ *
+ * Les résultats des stratégies déterministes (cf. NotHelloStrategy.isDeterministic) sont mis en cache par position,
+ * joueur au trait et instance de stratégie : réévaluer une position déjà vue (rafraîchissement de l'affichage,
+ * ouvertures rejouées) ne relance pas la stratégie. Deux instances configurées différemment ne partagent rien,
+ * et les stratégies limitées en temps ou aléatoires sont toujours réévaluées.
+ */
 public class PredictionEvaluator {
 
-    private final Board board;
+    // Délai entre la demande d'une évaluation asynchrone et son résultat, file d'attente comprise
+    private static final Histogram LATENCY = Metrics.histogram("prediction.latency");
+    private static final Counter CACHED = Metrics.counter("prediction.cached");
+    private static final Counter CANCELLED = Metrics.counter("prediction.cancelled");
+    private static final Counter PARTIAL = Metrics.counter("prediction.partial");
+
+    // Dernière position publiée, par exemple GameActor::getSnapshot
+    private final Supplier<BoardSnapshot> position;
 
     private NotHelloStrategy currentStrategy = new NotHelloMaxFlipsStrategy();
 
     private final Random rng = new Random();
 
-    public PredictionEvaluator(Board board) {
-        this.board = board;
+    // Un seul thread : une évaluation remplacée qui n'a pas encore commencé est abandonnée dès son démarrage
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "prediction-evaluator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final EvaluationCache<int[]> moveCache;
+    private final EvaluationCache<List<int[]>> rankingCache;
+
+    private long version = 0;
+    private CancellationToken currentToken;
+
+    public PredictionEvaluator(Supplier<BoardSnapshot> position) {
+        this(position, EvaluationCache.DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * @param cacheSize nombre maximal de résultats conservés, pour les meilleurs coups et pour les classements
+     */
+    public PredictionEvaluator(Supplier<BoardSnapshot> position, int cacheSize) {
+        this.position = position;
+        this.moveCache = new EvaluationCache<>(cacheSize);
+        this.rankingCache = new EvaluationCache<>(cacheSize);
     }
 
     public void setStrategy(NotHelloStrategy strategy) {
@@ -28,6 +82,246 @@ public class PredictionEvaluator {
      * @return Le meilleur coup sous forme [x, y]
      */
     public int[] evaluateMoves() {
-        return currentStrategy.evaluate(board);
+        return evaluateMoves(currentStrategy);
+    }
+
+    /**
+     * Calcule le meilleur coup du joueur courant avec la stratégie donnée, sans modifier la stratégie courante.
+     * @return Le meilleur coup sous forme [x, y]
+     */
+    public int[] evaluateMoves(NotHelloStrategy strategy) {
+        return evaluateMoves(position.get(), strategy);
+    }
+
+    /**
+     * Calcule le meilleur coup du joueur au trait dans la position donnée, par exemple pour jouer ensuite
+     * ce coup avec GameActor.play(snapshot, x, y).
+     * @return Le meilleur coup sous forme [x, y]
+     */
+    public int[] evaluateMoves(BoardSnapshot snapshot, NotHelloStrategy strategy) {
+        Board board = snapshot.toBoard();
+        if (!strategy.isDeterministic()) {
+            return strategy.evaluate(board);
+        }
+        EvaluationCache.Key key = EvaluationCache.keyOf(board, strategy);
+        int[] move = moveCache.get(key);
+        if (move == null) {
+            move = strategy.evaluate(board);
+            moveCache.put(key, move == null ? null : move.clone());
+            return move;
+        }
+        return move.clone();
+    }
+
+    /**
+     * Calcule en arrière-plan le meilleur coup pour la position actuelle, en annulant l'évaluation précédente.
+     */
+    public CompletableFuture<Prediction<int[]>> evaluateMovesAsync(NotHelloStrategy strategy) {
+        return submitCached(moveCache, strategy, strategy::evaluate, int[]::clone);
+    }
+
+    /**
+     * Classe en arrière-plan les coups de la position actuelle (1 = meilleur, 5 = pire),
+     * en annulant l'évaluation précédente.
+     */
+    public CompletableFuture<Prediction<List<int[]>>> rankMovesAsync(NotHelloMaxFlipsStrategy strategy) {
+        return submitCached(rankingCache, strategy, strategy::getNormalizedScores,
+                ranking -> Collections.unmodifiableList(new ArrayList<>(ranking)));
+    }
+
+    /**
+     * Classe en arrière-plan les coups de la position actuelle par l'analyse multi-PV de l'alpha-bêta
+     * (1 = meilleur, 5 = pire), en annulant l'évaluation précédente. Le classement est transmis à progress
+     * après chaque profondeur terminée, depuis le thread d'évaluation, et le futur donne le dernier : l'affichage
+     * peut s'affiner au fur et à mesure. L'analyse dure au plus le temps de réflexion de la stratégie.
+     *
+     * @param strategy stratégie 8x8, utilisée uniquement par le thread d'évaluation
+     * @param multiPv  nombre de coups dont le score est exact, cf. NotHelloAlphaBetaStrategy.analyze
+     */
+    public CompletableFuture<Prediction<List<int[]>>> analyzeMovesAsync(NotHelloAlphaBetaStrategy strategy, int multiPv,
+                                                                         Consumer<Prediction<List<int[]>>> progress) {
+        Board board = position.get().toBoard();
+        long positionKey = board.getZobristKey();
+        return submit(board, (snapshot, token, taskVersion) -> {
+            NotHelloAlphaBetaStrategy.Analysis analysis = strategy.analyze(snapshot, multiPv, token, partial -> {
+                if (!token.isCancelled()) {
+                    PARTIAL.increment();
+                    progress.accept(new Prediction<>(taskVersion, positionKey, partial.getRanking()));
+                }
+            });
+            return analysis == null ? Collections.<int[]>emptyList() : analysis.getRanking();
+        });
+    }
+
+    /**
+     * Comme submit, mais répond immédiatement si le résultat est en cache, et y ajoute le résultat sinon.
+     * Sans cache pour les stratégies qui ne sont pas déterministes.
+     *
+     * @param copy copie des valeurs, pour que le cache ne partage pas d'objet modifiable avec l'appelant
+     */
+    private <T> CompletableFuture<Prediction<T>> submitCached(EvaluationCache<T> cache, NotHelloStrategy strategy,
+                                                              BiFunction<Board, CancellationToken, T> task,
+                                                              UnaryOperator<T> copy) {
+        Board board = position.get().toBoard();
+        if (!strategy.isDeterministic()) {
+            return submit(board, (snapshot, token, taskVersion) -> task.apply(snapshot, token));
+        }
+        EvaluationCache.Key key = EvaluationCache.keyOf(board, strategy);
+        T cached = cache.get(key);
+        if (cached != null) {
+            CACHED.increment();
+            long taskVersion;
+            synchronized (this) {
+                if (currentToken != null) {
+                    currentToken.cancel();
+                    currentToken = null;
+                }
+                taskVersion = ++version;
+            }
+            return CompletableFuture.completedFuture(new Prediction<>(taskVersion, board.getZobristKey(), copy.apply(cached)));
+        }
+
+        return submit(board, (snapshot, token, taskVersion) -> {
+            T value = task.apply(snapshot, token);
+            if (value != null && !token.isCancelled()) {
+                cache.put(key, copy.apply(value));
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Lance une évaluation de la position actuelle et annule la précédente.
+     *
+     * Le futur est annulé (CancellationException) si l'évaluation est remplacée avant de se terminer ;
+     * annuler le futur annule aussi le jeton transmis à la tâche.
+     *
+     * @param task calcul sur une copie du plateau, qui doit consulter le jeton d'annulation
+     */
+    public <T> CompletableFuture<Prediction<T>> submit(BiFunction<Board, CancellationToken, T> task) {
+        return submit(position.get().toBoard(), (snapshot, token, taskVersion) -> task.apply(snapshot, token));
+    }
+
+    /**
+     * @param snapshot copie de la position à évaluer, réservée à la tâche
+     */
+    private <T> CompletableFuture<Prediction<T>> submit(Board snapshot, Task<T> task) {
+        long start = Metrics.start();
+        CancellationToken token = new CancellationToken();
+        long taskVersion;
+        synchronized (this) {
+            if (currentToken != null) {
+                currentToken.cancel();
+            }
+            currentToken = token;
+            taskVersion = ++version;
+        }
+
+        CompletableFuture<Prediction<T>> future = new CompletableFuture<>();
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                token.cancel();
+                CANCELLED.increment();
+            } else {
+                Metrics.stop(LATENCY, start);
+            }
+        });
+        executor.execute(() -> {
+            if (token.isCancelled()) {
+                future.cancel(false);
+                return;
+            }
+            try {
+                T value = task.apply(snapshot, token, taskVersion);
+                if (token.isCancelled()) {
+                    future.cancel(false);
+                } else {
+                    future.complete(new Prediction<>(taskVersion, snapshot.getZobristKey(), value));
+                }
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Annule l'évaluation en cours, s'il y en a une.
+     */
+    public synchronized void cancel() {
+        if (currentToken != null) {
+            currentToken.cancel();
+            currentToken = null;
+        }
+    }
+
+    /**
+     * @return true si le résultat correspond à la dernière évaluation demandée
+     */
+    public synchronized boolean isCurrent(Prediction<?> prediction) {
+        return prediction.getVersion() == version;
+    }
+
+    /**
+     * @return le cache des meilleurs coups, notamment pour ses statistiques
+     */
+    public EvaluationCache<int[]> getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * @return le cache des classements de coups, notamment pour ses statistiques
+     */
+    public EvaluationCache<List<int[]>> getRankingCache() {
+        return rankingCache;
+    }
+
+    /**
+     * Arrête le thread d'évaluation, l'évaluateur ne doit plus être utilisé ensuite.
+     * Les évaluations en attente sont annulées : aucun futur ne reste sans réponse.
+     */
+    public void shutdown() {
+        cancel();
+        // Toutes les demandes ont désormais un jeton annulé : exécutées ici, elles annulent simplement leur futur
+        for (Runnable pending : executor.shutdownNow()) {
+            pending.run();
+        }
+    }
+
+    /**
+     * Calcul lancé par submit, qui connaît la version de sa demande pour publier des résultats intermédiaires.
+     */
+    private interface Task<T> {
+        T apply(Board snapshot, CancellationToken token, long version);
+    }
+
+    /**
+     * Résultat d'une évaluation, associé à la version de la demande et à la position évaluée.
+     */
+    public static class Prediction<T> {
+        private final long version;
+        private final long positionKey;
+        private final T value;
+
+        Prediction(long version, long positionKey, T value) {
+            this.version = version;
+            this.positionKey = positionKey;
+            this.value = value;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        /**
+         * @return la clé Zobrist de la position évaluée
+         */
+        public long getPositionKey() {
+            return positionKey;
+        }
+
+        public T getValue() {
+            return value;
+        }
     }
 }
@@ -0,0 +1,58 @@
+package heigvd.plm.nothello.logic;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.CpSolverStatus;
+
+/**
+ * Statistiques d'une résolution CP-SAT.
+ */
+public class SolveStats {
+
+    private final CpSolverStatus status;
+    private final double wallTimeSeconds;
+    private final long branches;
+    private final long conflicts;
+
+    public SolveStats(CpSolverStatus status, double wallTimeSeconds, long branches, long conflicts) {
+        this.status = status;
+        this.wallTimeSeconds = wallTimeSeconds;
+        this.branches = branches;
+        this.conflicts = conflicts;
+    }
+
+    /**
+     * @return les statistiques de la dernière résolution du solveur
+     */
+    static SolveStats of(CpSolver solver, CpSolverStatus status) {
+        return new SolveStats(status, solver.wallTime(), solver.numBranches(), solver.numConflicts());
+    }
+
+    /**
+     * @return la somme de ces statistiques et des autres, avec le statut des autres
+     */
+    SolveStats plus(SolveStats other) {
+        return new SolveStats(other.status, wallTimeSeconds + other.wallTimeSeconds,
+                branches + other.branches, conflicts + other.conflicts);
+    }
+
+    public CpSolverStatus getStatus() {
+        return status;
+    }
+
+    public double getWallTimeSeconds() {
+        return wallTimeSeconds;
+    }
+
+    public long getBranches() {
+        return branches;
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s in %.3f ms, %d branches, %d conflicts", status, wallTimeSeconds * 1000, branches, conflicts);
+    }
+}
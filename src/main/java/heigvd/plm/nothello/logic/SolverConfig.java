@@ -0,0 +1,126 @@
+package heigvd.plm.nothello.logic;
+
+import com.google.ortools.sat.CpSolver;
+import com.google.ortools.sat.SatParameters;
+
+/**
+ * Paramètres du solveur CP-SAT utilisés par les stratégies par contraintes.
+ *
+ * Par défaut, on garde le comportement de CP-SAT (tous les coeurs, pas de limite de temps), avec les indices
+ * (coup légal qui retourne le plus de pièces) activés. Seule NotHelloConstraintStrategy utilise les indices.
+ */
+public class SolverConfig {
+
+    private int numWorkers = 0;
+    private double maxTimeSeconds = 0;
+    private int randomSeed = 1;
+    private boolean deterministic = false;
+    private boolean logSearch = false;
+    private boolean useHints = true;
+
+    /**
+     * @param numWorkers nombre de threads de recherche, 0 pour laisser CP-SAT choisir
+     */
+    public void setNumWorkers(int numWorkers) {
+        if (numWorkers < 0) {
+            throw new IllegalArgumentException("Worker count must be positive or 0");
+        }
+        this.numWorkers = numWorkers;
+    }
+
+    public int getNumWorkers() {
+        return numWorkers;
+    }
+
+    /**
+     * @param maxTimeSeconds limite de temps par résolution, 0 pour ne pas en avoir
+     */
+    public void setMaxTimeSeconds(double maxTimeSeconds) {
+        if (maxTimeSeconds < 0) {
+            throw new IllegalArgumentException("Time limit must be positive or 0");
+        }
+        this.maxTimeSeconds = maxTimeSeconds;
+    }
+
+    public double getMaxTimeSeconds() {
+        return maxTimeSeconds;
+    }
+
+    public void setRandomSeed(int randomSeed) {
+        this.randomSeed = randomSeed;
+    }
+
+    public int getRandomSeed() {
+        return randomSeed;
+    }
+
+    /**
+     * En mode déterministe, les workers sont entrelacés et la limite de temps est exprimée en temps
+     * déterministe : deux résolutions du même modèle donnent le même résultat, quelle que soit la charge.
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    /**
+     * @param logSearch affiche la progression de la recherche de CP-SAT sur la sortie standard
+     */
+    public void setLogSearch(boolean logSearch) {
+        this.logSearch = logSearch;
+    }
+
+    public boolean isLogSearch() {
+        return logSearch;
+    }
+
+    /**
+     * Utilisé uniquement par NotHelloConstraintStrategy : NotHelloMaxFlipsStrategy énumère ou résout chaque coup
+     * et ignore ce paramètre. L'indice étant l'optimum, la résolution ne fait plus que le confirmer.
+     *
+     * @param useHints donne le coup légal qui retourne le plus de pièces comme point de départ à la résolution
+     */
+    public void setUseHints(boolean useHints) {
+        this.useHints = useHints;
+    }
+
+    public boolean isUseHints() {
+        return useHints;
+    }
+
+    /**
+     * @return un nouveau solveur configuré selon ces paramètres
+     */
+    public CpSolver newSolver() {
+        CpSolver solver = new CpSolver();
+        applyTo(solver.getParameters());
+        return solver;
+    }
+
+    void applyTo(SatParameters.Builder parameters) {
+        if (numWorkers > 0) {
+            parameters.setNumWorkers(numWorkers);
+        }
+        if (maxTimeSeconds > 0) {
+            if (deterministic) {
+                parameters.setMaxDeterministicTime(maxTimeSeconds);
+            } else {
+                parameters.setMaxTimeInSeconds(maxTimeSeconds);
+            }
+        }
+        parameters.setRandomSeed(randomSeed);
+        parameters.setInterleaveSearch(deterministic);
+        parameters.setLogSearchProgress(logSearch);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("workers=%s, time limit=%s, seed=%d, deterministic=%b, log=%b, hints=%b",
+                numWorkers == 0 ? "default" : numWorkers,
+                maxTimeSeconds == 0 ? "none" : maxTimeSeconds + "s",
+                randomSeed, deterministic, logSearch, useHints);
+    }
+}
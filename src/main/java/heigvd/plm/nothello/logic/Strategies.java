@@ -0,0 +1,172 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Construit les stratégies à partir de leur nom, pour les modes en ligne de commande.
+ */
+public final class Strategies {
+
+    public static final String MAX_FLIPS = "maxflips";
+    public static final String CONSTRAINT = "constraint";
+    public static final String ALPHA_BETA = "alphabeta";
+    public static final String PATTERN = "pattern";
+    public static final String MCTS = "mcts";
+
+    private Strategies() {
+    }
+
+    /**
+     * @return les noms de stratégies acceptés par create
+     */
+    public static List<String> names() {
+        return Arrays.asList(MAX_FLIPS, CONSTRAINT + "[:workers[:ms]]", ALPHA_BETA + "[:ms[:threads]]",
+                PATTERN + "[:ms[:threads]]", MCTS + "[:ms[:threads]]");
+    }
+
+    /**
+     * Crée une nouvelle instance de la stratégie demandée.
+     *
+     * @param name nom de la stratégie (cf. names), éventuellement suivi de paramètres séparés par ":"
+     * @return une nouvelle instance, les stratégies n'étant pas forcément thread-safe
+     */
+    public static NotHelloStrategy create(String name) {
+        String[] parts = name.toLowerCase().split(":");
+        return switch (parts[0]) {
+            case MAX_FLIPS -> new NotHelloMaxFlipsStrategy();
+            case CONSTRAINT -> {
+                NotHelloConstraintStrategy strategy = new NotHelloConstraintStrategy();
+                SolverConfig config = new SolverConfig();
+                if (parts.length > 1) {
+                    config.setNumWorkers(Integer.parseInt(parts[1]));
+                }
+                if (parts.length > 2) {
+                    config.setMaxTimeSeconds(Long.parseLong(parts[2]) / 1000.0);
+                }
+                strategy.setSolverConfig(config);
+                yield strategy;
+            }
+            case ALPHA_BETA -> new NotHelloAlphaBetaStrategy(
+                    parts.length > 1 ? Long.parseLong(parts[1]) : NotHelloAlphaBetaStrategy.DEFAULT_BUDGET_MS,
+                    new TranspositionTable(),
+                    parts.length > 2 ? Integer.parseInt(parts[2]) : 1);
+            case PATTERN -> {
+                // Alpha-bêta évaluée par motifs, cf. PatternWeights.standard
+                NotHelloAlphaBetaStrategy strategy = new NotHelloAlphaBetaStrategy(
+                        parts.length > 1 ? Long.parseLong(parts[1]) : NotHelloAlphaBetaStrategy.DEFAULT_BUDGET_MS,
+                        new TranspositionTable(),
+                        parts.length > 2 ? Integer.parseInt(parts[2]) : 1);
+                strategy.setEvaluator(new PatternEvaluator(PatternWeights.standard()));
+                yield strategy;
+            }
+            case MCTS -> new NotHelloMctsStrategy(
+                    parts.length > 1 ? Long.parseLong(parts[1]) : NotHelloMctsStrategy.DEFAULT_BUDGET_MS,
+                    parts.length > 2 ? Integer.parseInt(parts[2]) : 1);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of " + names());
+        };
+    }
+
+    /**
+     * Forme canonique d'un nom de stratégie : en minuscules, avec les paramètres par défaut explicites et des
+     * nombres sans zéros en tête, pour que deux noms d'une même configuration soient égaux.
+     *
+     * @throws IllegalArgumentException si le nom est inconnu, ou si un paramètre est invalide ou en trop
+     */
+    public static String normalize(String name) {
+        String[] parts = name.toLowerCase().split(":");
+        long[] params = new long[parts.length - 1];
+        for (int i = 0; i < params.length; ++i) {
+            params[i] = Long.parseLong(parts[i + 1]);
+            if (params[i] <= 0) {
+                throw new IllegalArgumentException("Strategy parameters must be positive: " + name);
+            }
+        }
+        int maxParams = MAX_FLIPS.equals(parts[0]) ? 0 : 2;
+        if (params.length > maxParams) {
+            throw new IllegalArgumentException("Too many parameters for strategy " + parts[0] + ": " + name);
+        }
+        return switch (parts[0]) {
+            case MAX_FLIPS -> MAX_FLIPS;
+            case CONSTRAINT -> {
+                StringBuilder sb = new StringBuilder(CONSTRAINT);
+                for (long param : params) {
+                    sb.append(':').append(param);
+                }
+                yield sb.toString();
+            }
+            case ALPHA_BETA, PATTERN -> parts[0] + ":" + param(params, 0, NotHelloAlphaBetaStrategy.DEFAULT_BUDGET_MS)
+                    + ":" + param(params, 1, 1);
+            case MCTS -> MCTS + ":" + param(params, 0, NotHelloMctsStrategy.DEFAULT_BUDGET_MS) + ":" + param(params, 1, 1);
+            default -> throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of " + names());
+        };
+    }
+
+    private static long param(long[] params, int index, long defaultValue) {
+        return index < params.length ? params[index] : defaultValue;
+    }
+
+    /**
+     * Arrête les threads auxiliaires d'une stratégie créée par create, éventuellement enveloppée (fin de partie,
+     * livre d'ouvertures), qui ne doit plus être utilisée ensuite.
+     */
+    public static void shutdown(NotHelloStrategy strategy) {
+        if (strategy instanceof NotHelloAlphaBetaStrategy) {
+            ((NotHelloAlphaBetaStrategy) strategy).shutdown();
+        } else if (strategy instanceof NotHelloMctsStrategy) {
+            ((NotHelloMctsStrategy) strategy).shutdown();
+        } else if (strategy instanceof NotHelloEndgameStrategy) {
+            shutdown(((NotHelloEndgameStrategy) strategy).getFallback());
+        } else if (strategy instanceof BookStrategy) {
+            shutdown(((BookStrategy) strategy).getFallback());
+        }
+    }
+
+    /**
+     * Vérifie un nom de stratégie sans créer d'instance, les stratégies de recherche réservant leur mémoire
+     * à la construction.
+     *
+     * @param size taille du plateau sur lequel la stratégie doit jouer
+     * @throws IllegalArgumentException si le nom ou un paramètre est invalide, ou si la stratégie ne joue pas
+     * sur cette taille de plateau
+     */
+    public static void check(String name, int size) {
+        String[] parts = name.toLowerCase().split(":");
+        if (!Arrays.asList(MAX_FLIPS, CONSTRAINT, ALPHA_BETA, PATTERN, MCTS).contains(parts[0])) {
+            throw new IllegalArgumentException("Unknown strategy: " + name + ", expected one of " + names());
+        }
+        for (int i = 1; i < parts.length; ++i) {
+            if (Long.parseLong(parts[i]) <= 0) {
+                throw new IllegalArgumentException("Strategy parameters must be positive: " + name);
+            }
+        }
+        if (size != Board.BOARD_SIZE && !MAX_FLIPS.equals(parts[0]) && !CONSTRAINT.equals(parts[0])) {
+            throw new IllegalArgumentException("Strategy " + parts[0] + " only plays on "
+                    + Board.BOARD_SIZE + "x" + Board.BOARD_SIZE + " boards");
+        }
+    }
+
+    /**
+     * @return le score du dernier coup calculé par la stratégie sur ce plateau, du point de vue du joueur au trait,
+     * ou null si la stratégie n'en donne pas
+     */
+    public static Integer lastScore(NotHelloStrategy strategy, Board board) {
+        if (strategy instanceof NotHelloEndgameStrategy) {
+            NotHelloEndgameStrategy endgame = (NotHelloEndgameStrategy) strategy;
+            if (board.isSingleWord() && board.countDiscs(PieceColor.NONE) <= endgame.getMaxEmpties()) {
+                return endgame.getLastScore();
+            }
+            return endgame.getFallback() == null ? null : lastScore(endgame.getFallback(), board);
+        }
+        if (strategy instanceof NotHelloAlphaBetaStrategy) {
+            return ((NotHelloAlphaBetaStrategy) strategy).getLastScore();
+        }
+        if (strategy instanceof NotHelloMctsStrategy) {
+            return ((NotHelloMctsStrategy) strategy).getLastScore();
+        }
+        return null;
+    }
+}
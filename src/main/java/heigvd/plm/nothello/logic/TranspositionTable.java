@@ -0,0 +1,242 @@
+package heigvd.plm.nothello.logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Table de transposition de taille fixe, stockée hors du tas (ByteBuffer direct) pour ne pas charger le GC,
+ * et partageable entre plusieurs threads de recherche sans verrou.
+ *
+ * Chaque entrée fait 16 octets : (clé XOR données, données). Une écriture concurrente peut mélanger deux entrées,
+ * mais la vérification clé == (mot 0 XOR mot 1) rejette alors l'entrée ("lockless XOR").
+ * Les entrées sont regroupées par paquets de 4 (une ligne de cache) et le remplacement se fait dans le paquet.
+ */
+public class TranspositionTable {
+
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /** Type de borne du score enregistré */
+    public static final int EXACT = 0;
+    public static final int LOWER = 1;
+    public static final int UPPER = 2;
+
+    public enum ReplacementPolicy {
+        /** Remplace toujours l'entrée la plus ancienne du paquet */
+        ALWAYS,
+        /** Préfère garder les entrées les plus profondes de la recherche en cours */
+        DEPTH_PREFERRED
+    }
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    // Un ByteBuffer est limité à 2 Go : la table est découpée en segments de 1 Go
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    // Accès atomiques (sans déchirure) aux longs alignés d'un ByteBuffer direct
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Format des données (64 bits) :
+    // [0..31] score, [32..38] coup + 1 (0 = aucun), [39..45] profondeur, [46..47] borne, [48..55] génération, [56] valide
+    private static final long VALID = 1L << 56;
+
+    private final ByteBuffer[] segments;
+    private final long bucketMask;
+    private final ReplacementPolicy policy;
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB, ReplacementPolicy.DEPTH_PREFERRED);
+    }
+
+    /**
+     * @param sizeMb taille de la table en Mo, arrondie à la puissance de 2 inférieure
+     * @param policy politique de remplacement dans un paquet
+     */
+    public TranspositionTable(int sizeMb, ReplacementPolicy policy) {
+        if (sizeMb <= 0) {
+            throw new IllegalArgumentException("Table size must be positive");
+        }
+        long bytes = Long.highestOneBit(sizeMb * (1L << 20));
+        long buckets = bytes / BUCKET_BYTES;
+        this.bucketMask = buckets - 1;
+        this.policy = policy;
+
+        int segmentCount = (int) Math.max(1, bytes >>> SEGMENT_SHIFT);
+        this.segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; ++i) {
+            segments[i] = ByteBuffer.allocateDirect((int) Math.min(bytes, SEGMENT_BYTES))
+                    .order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Signale le début d'une nouvelle recherche : les entrées des recherches précédentes deviennent remplaçables.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Cherche une position dans la table.
+     *
+     * @param key clé de Zobrist de la position
+     * @return les données de l'entrée (cf. score, move, depth, bound), ou 0 si absente
+     */
+    public long probe(long key) {
+        long offset = bucketOffset(key);
+        ByteBuffer segment = segments[segmentIndex(offset)];
+        int base = (int) (offset & (SEGMENT_BYTES - 1));
+        for (int i = 0; i < BUCKET_ENTRIES; ++i) {
+            int entry = base + i * ENTRY_BYTES;
+            long data = (long) LONGS.getOpaque(segment, entry + 8);
+            long check = (long) LONGS.getOpaque(segment, entry);
+            if ((data & VALID) != 0L && (check ^ data) == key) {
+                hits.increment();
+                return data;
+            }
+        }
+        misses.increment();
+        return 0L;
+    }
+
+    /**
+     * Enregistre le résultat de la recherche d'une position.
+     *
+     * @param key clé de Zobrist de la position
+     * @param move meilleur coup (case), -1 si aucun
+     * @param depth profondeur de recherche (0..127)
+     * @param bound EXACT, LOWER ou UPPER
+     * @param score score de la position
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        long offset = bucketOffset(key);
+        ByteBuffer segment = segments[segmentIndex(offset)];
+        int base = (int) (offset & (SEGMENT_BYTES - 1));
+        int currentGeneration = generation;
+
+        int target = -1;
+        int worst = Integer.MAX_VALUE;
+        for (int i = 0; i < BUCKET_ENTRIES; ++i) {
+            int entry = base + i * ENTRY_BYTES;
+            long data = (long) LONGS.getOpaque(segment, entry + 8);
+            long check = (long) LONGS.getOpaque(segment, entry);
+            if ((data & VALID) == 0L || (check ^ data) == key) {
+                target = entry; // case vide ou même position
+                break;
+            }
+            int value = replacementValue(data, currentGeneration);
+            if (value < worst) {
+                worst = value;
+                target = entry;
+            }
+        }
+
+        long oldData = (long) LONGS.getOpaque(segment, target + 8);
+        long oldCheck = (long) LONGS.getOpaque(segment, target);
+        if ((oldData & VALID) != 0L && (oldCheck ^ oldData) != key) {
+            collisions.increment();
+        }
+
+        long data = pack(move, depth, bound, score, currentGeneration);
+        LONGS.setOpaque(segment, target, key ^ data);
+        LONGS.setOpaque(segment, target + 8, data);
+    }
+
+    private int replacementValue(long data, int currentGeneration) {
+        int age = (currentGeneration - generation(data)) & 0xFF;
+        if (policy == ReplacementPolicy.ALWAYS) {
+            return -age;
+        }
+        // Les entrées anciennes perdent de leur valeur, les profondes sont gardées
+        return depth(data) - 8 * age;
+    }
+
+    private long bucketOffset(long key) {
+        return (key & bucketMask) * BUCKET_BYTES;
+    }
+
+    private static int segmentIndex(long offset) {
+        return (int) (offset >>> SEGMENT_SHIFT);
+    }
+
+    static long pack(int move, int depth, int bound, int score, int generation) {
+        return (score & 0xFFFFFFFFL)
+                | ((long) (move + 1) & 0x7F) << 32
+                | ((long) depth & 0x7F) << 39
+                | ((long) bound & 0x3) << 46
+                | ((long) generation & 0xFF) << 48
+                | VALID;
+    }
+
+    public static int score(long data) {
+        return (int) data;
+    }
+
+    public static int move(long data) {
+        return (int) ((data >>> 32) & 0x7F) - 1;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> 39) & 0x7F);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> 46) & 0x3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 48) & 0xFF);
+    }
+
+    /**
+     * Vide la table et remet les compteurs à zéro.
+     */
+    public void clear() {
+        for (ByteBuffer segment : segments) {
+            for (int i = 0; i + 8 <= segment.capacity(); i += 8) {
+                LONGS.setOpaque(segment, i, 0L);
+            }
+        }
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return le nombre d'enregistrements ayant écrasé une autre position
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    /**
+     * @return le nombre d'entrées de la table
+     */
+    public long getCapacity() {
+        return (bucketMask + 1) * BUCKET_ENTRIES;
+    }
+
+    @Override
+    public String toString() {
+        long probes = getHits() + getMisses();
+        return String.format("TT[%d entries, hits %d, misses %d (%.1f%% hit), collisions %d]",
+                getCapacity(), getHits(), getMisses(), probes == 0 ? 0.0 : 100.0 * getHits() / probes, getCollisions());
+    }
+}
@@ -0,0 +1,30 @@
+package heigvd.plm.nothello.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteur monotone, sans contention entre threads. Sans effet si les métriques sont désactivées.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    public void increment() {
+        if (Metrics.ENABLED) {
+            value.increment();
+        }
+    }
+
+    public void add(long delta) {
+        if (Metrics.ENABLED) {
+            value.add(delta);
+        }
+    }
+
+    public long get() {
+        return value.sum();
+    }
+}
@@ -0,0 +1,119 @@
+package heigvd.plm.nothello.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogramme de durées en nanosecondes, à la manière de HdrHistogram : des compartiments logarithmiques,
+ * chaque puissance de deux étant découpée en 16 sous-compartiments, soit une erreur relative d'au plus 6,25 %
+ * sur les percentiles, pour une mémoire fixe (960 compteurs) et un enregistrement sans allocation ni verrou.
+ *
+ * Sans effet si les métriques sont désactivées, sauf pour les histogrammes créés par recording.
+ */
+public final class Histogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    private final String name;
+    private final boolean always;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    Histogram(String name) {
+        this(name, false);
+    }
+
+    private Histogram(String name, boolean always) {
+        this.name = name;
+        this.always = always;
+    }
+
+    /**
+     * @return un histogramme hors du registre, qui enregistre même si les métriques sont désactivées,
+     * pour des statistiques toujours exposées par ailleurs
+     */
+    public static Histogram recording(String name) {
+        return new Histogram(name, true);
+    }
+
+    /**
+     * @param nanos une durée en nanosecondes (les valeurs négatives comptent pour 0)
+     */
+    public void record(long nanos) {
+        if (!Metrics.ENABLED && !always) {
+            return;
+        }
+        long value = Math.max(0L, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        max.accumulateAndGet(value, Math::max);
+        if (Metrics.JFR) {
+            PhaseEvent.commit(name, value);
+        }
+    }
+
+    static int bucketOf(long value) {
+        int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value | 1L);
+        if (msb < SUB_BITS) {
+            return (int) value;
+        }
+        int shift = msb - SUB_BITS;
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @return la plus petite valeur du compartiment
+     */
+    static long lowestValueOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BITS) - 1;
+        return (long) ((bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0.0 : (double) sum.get() / n;
+    }
+
+    /**
+     * @param quantile entre 0 et 1
+     * @return une borne inférieure de la valeur au quantile donné, 0 si l'histogramme est vide
+     */
+    public long getValueAtQuantile(double quantile) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * n));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(lowestValueOf(bucket), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %d, mean %.1f us, p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us",
+                getCount(), getMean() / 1e3, getValueAtQuantile(0.5) / 1e3, getValueAtQuantile(0.9) / 1e3,
+                getValueAtQuantile(0.99) / 1e3, getMax() / 1e3);
+    }
+}
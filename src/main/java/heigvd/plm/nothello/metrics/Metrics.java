@@ -0,0 +1,147 @@
+package heigvd.plm.nothello.metrics;
+
+import heigvd.plm.nothello.log.Log;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Registre global des métriques du moteur : compteurs, jauges et histogrammes de durées, désignés par un nom
+ * hiérarchique ("constraint.solve", "board.moves", ...).
+ *
+ * Les métriques sont désactivées par défaut : ENABLED est une constante lue au chargement de la classe
+ * (-Dnothello.metrics=true), de sorte que le JIT supprime entièrement les enregistrements quand elle est fausse.
+ * Une fois activées, elles sont exportées par JMX (heigvd.plm.nothello:type=Metrics), et affichées
+ * périodiquement sur la sortie d'erreur avec -Dnothello.metrics.dump=secondes.
+ * -Dnothello.metrics.jfr=true émet en plus un événement JFR par durée enregistrée.
+ *
+ * Les instruments sont à créer une fois (champ static final) et non à chaque utilisation.
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("nothello.metrics");
+    static final boolean JFR = ENABLED && Boolean.getBoolean("nothello.metrics.jfr");
+
+    public static final String OBJECT_NAME = "heigvd.plm.nothello:type=Metrics";
+
+    private static final Map<String, Counter> COUNTERS = new ConcurrentSkipListMap<>();
+    private static final Map<String, LongSupplier> GAUGES = new ConcurrentSkipListMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new ConcurrentSkipListMap<>();
+
+    private static ScheduledExecutorService dumper;
+
+    static {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsMBean(), new ObjectName(OBJECT_NAME));
+            } catch (JMException e) {
+                Log.get("metrics").warn("Could not register the metrics MBean: {}", e.getMessage());
+            }
+            long period = Long.getLong("nothello.metrics.dump", 0L);
+            if (period > 0) {
+                startDump(period, System.err);
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * @return le compteur de ce nom, créé au premier appel
+     */
+    public static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> new Counter());
+    }
+
+    /**
+     * @return l'histogramme de ce nom, créé au premier appel
+     */
+    public static Histogram histogram(String name) {
+        return HISTOGRAMS.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * Enregistre (ou remplace) une jauge, lue à chaque export.
+     */
+    public static void gauge(String name, LongSupplier value) {
+        if (ENABLED) {
+            GAUGES.put(name, value);
+        }
+    }
+
+    /**
+     * @return l'instant courant en nanosecondes si les métriques sont activées, 0 sinon
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Enregistre la durée écoulée depuis start dans l'histogramme.
+     */
+    public static void stop(Histogram histogram, long start) {
+        if (ENABLED) {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    static Map<String, Counter> counters() {
+        return Collections.unmodifiableMap(COUNTERS);
+    }
+
+    static Map<String, LongSupplier> gauges() {
+        return Collections.unmodifiableMap(GAUGES);
+    }
+
+    static Map<String, Histogram> histograms() {
+        return Collections.unmodifiableMap(HISTOGRAMS);
+    }
+
+    /**
+     * @return toutes les métriques utilisées, une par ligne, triées par nom
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder("Metrics");
+        if (!ENABLED) {
+            return sb.append(" disabled (-Dnothello.metrics=true to enable)").toString();
+        }
+        COUNTERS.forEach((name, counter) -> {
+            if (counter.get() != 0) {
+                sb.append(System.lineSeparator()).append(String.format("  %-28s %,d", name, counter.get()));
+            }
+        });
+        GAUGES.forEach((name, gauge) ->
+                sb.append(System.lineSeparator()).append(String.format("  %-28s %,d", name, gauge.getAsLong())));
+        HISTOGRAMS.forEach((name, histogram) -> {
+            if (histogram.getCount() != 0) {
+                sb.append(System.lineSeparator()).append(String.format("  %-28s %s", name, histogram));
+            }
+        });
+        return sb.toString();
+    }
+
+    /**
+     * Affiche dump() toutes les periodSeconds secondes, depuis un thread démon.
+     */
+    public static synchronized void startDump(long periodSeconds, PrintStream out) {
+        if (dumper != null) {
+            dumper.shutdownNow();
+        }
+        dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dumper.scheduleAtFixedRate(() -> out.println(dump()), periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+}
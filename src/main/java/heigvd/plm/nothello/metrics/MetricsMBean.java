@@ -0,0 +1,85 @@
+package heigvd.plm.nothello.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Exporte toutes les métriques en attributs JMX en lecture seule (JConsole, VisualVM) :
+ * un attribut par compteur et par jauge, et pour chaque histogramme son nombre de valeurs,
+ * sa moyenne, ses percentiles 50/90/99 et son maximum en microsecondes.
+ */
+class MetricsMBean implements DynamicMBean {
+
+    private Map<String, Supplier<Object>> attributes() {
+        Map<String, Supplier<Object>> attributes = new TreeMap<>();
+        Metrics.counters().forEach((name, counter) -> attributes.put(name, counter::get));
+        Metrics.gauges().forEach((name, gauge) -> attributes.put(name, gauge::getAsLong));
+        Metrics.histograms().forEach((name, histogram) -> {
+            attributes.put(name + ".count", histogram::getCount);
+            attributes.put(name + ".meanMicros", () -> histogram.getMean() / 1e3);
+            attributes.put(name + ".p50Micros", () -> histogram.getValueAtQuantile(0.5) / 1e3);
+            attributes.put(name + ".p90Micros", () -> histogram.getValueAtQuantile(0.9) / 1e3);
+            attributes.put(name + ".p99Micros", () -> histogram.getValueAtQuantile(0.99) / 1e3);
+            attributes.put(name + ".maxMicros", () -> histogram.getMax() / 1e3);
+        });
+        return attributes;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Supplier<Object> value = attributes().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value.get();
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] names) {
+        Map<String, Supplier<Object>> attributes = attributes();
+        AttributeList list = new AttributeList();
+        for (String name : names) {
+            Supplier<Object> value = attributes.get(name);
+            if (value != null) {
+                list.add(new Attribute(name, value.get()));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) {
+        throw new UnsupportedOperationException("Metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operation: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        List<MBeanAttributeInfo> infos = new ArrayList<>();
+        attributes().forEach((name, value) -> {
+            Object sample = value.get();
+            infos.add(new MBeanAttributeInfo(name, sample.getClass().getName(), name, true, false, false));
+        });
+        return new MBeanInfo(getClass().getName(), "NotHello engine metrics",
+                infos.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[0], null);
+    }
+}
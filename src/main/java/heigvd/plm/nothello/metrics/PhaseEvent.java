@@ -0,0 +1,35 @@
+package heigvd.plm.nothello.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Événement JFR émis à chaque durée enregistrée dans un histogramme, si -Dnothello.metrics.jfr=true.
+ * Visible dans JDK Mission Control avec un enregistrement JFR (-XX:StartFlightRecording).
+ */
+@Name("heigvd.plm.nothello.Phase")
+@Label("NotHello phase")
+@Category("NotHello")
+@Description("Duration of an engine phase (model build, solve, search, prediction)")
+class PhaseEvent extends Event {
+
+    @Label("Metric")
+    String metric;
+
+    @Label("Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+
+    static void commit(String metric, long nanos) {
+        PhaseEvent event = new PhaseEvent();
+        if (event.isEnabled()) {
+            event.metric = metric;
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+}
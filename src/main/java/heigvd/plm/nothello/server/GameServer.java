@@ -0,0 +1,593 @@
+package heigvd.plm.nothello.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import heigvd.plm.nothello.log.Log;
+import heigvd.plm.nothello.logic.NotHelloStrategy;
+import heigvd.plm.nothello.logic.Strategies;
+import heigvd.plm.nothello.metrics.Histogram;
+import heigvd.plm.nothello.metrics.Metrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serveur de parties sans interface, en HTTP sur localhost : chaque partie (GameSession) a son plateau,
+ * la couleur du joueur et la stratégie du bot qui lui répond.
+ *
+ * Requêtes (paramètres dans la query string, réponses en JSON) :
+ * <pre>
+ *   POST   /games?strategy=alphabeta:100&amp;color=black&amp;size=8   nouvelle partie, le bot joue s'il commence
+ *   GET    /games/{id}                                        état de la partie
+ *   POST   /games/{id}/move?x=2&amp;y=3                           coup du joueur, suivi des réponses du bot
+ *   DELETE /games/{id}                                        fin de la partie
+ *   GET    /stats                                             parties, débit, latences et file d'évaluation
+ * </pre>
+ *
+ * Chaque requête est traitée par un thread virtuel quand la JVM en a (Java 21+), sinon par un pool de threads
+ * ordinaires. Ces threads ne font qu'attendre : les évaluations des stratégies passent par un pool borné de threads
+ * avec une file bornée. Quand la file est pleine, la requête est refusée (503, Retry-After) sans rien changer
+ * à la partie, le client pouvant la renvoyer telle quelle : c'est le contrôle d'admission.
+ *
+ * Les stratégies proposées sont fixées au démarrage (cf. setStrategies), le client ne pouvant en choisir qu'une
+ * de la liste. Chaque thread d'évaluation garde une instance de chaque stratégie proposée, et non une par partie :
+ * la mémoire ne dépend ni du nombre de parties ni des noms envoyés par les clients. Les parties inactives depuis
+ * trop longtemps sont supprimées.
+ */
+public class GameServer {
+
+    private static final Log LOG = Log.get("server");
+
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_QUEUE = 256;
+    public static final int DEFAULT_MAX_SESSIONS = 10_000;
+    public static final int DEFAULT_HANDLERS = 256;
+    public static final long DEFAULT_IDLE_MINUTES = 10;
+    public static final List<String> DEFAULT_STRATEGIES = List.of(Strategies.MAX_FLIPS, Strategies.CONSTRAINT,
+            "alphabeta:100", "alphabeta:1000", "pattern:1000", "mcts:1000");
+
+    private final int port;
+    private int evaluationThreads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = DEFAULT_QUEUE;
+    private int maxSessions = DEFAULT_MAX_SESSIONS;
+    private int handlerThreads = DEFAULT_HANDLERS;
+    private long idleNanos = TimeUnit.MINUTES.toNanos(DEFAULT_IDLE_MINUTES);
+    // Noms canoniques des stratégies proposées, cf. Strategies.normalize
+    private Set<String> allowedStrategies = normalize(DEFAULT_STRATEGIES);
+
+    private final Map<Long, GameSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong(1);
+    // Instances des stratégies de chaque thread d'évaluation, par nom canonique (au plus une par stratégie proposée)
+    private final ThreadLocal<Map<String, NotHelloStrategy>> strategies = ThreadLocal.withInitial(HashMap::new);
+    // Toutes ces instances, pour arrêter leurs threads auxiliaires avec le serveur
+    private final Queue<NotHelloStrategy> instances = new ConcurrentLinkedQueue<>();
+
+    private HttpServer http;
+    private ExecutorService handlers;
+    private boolean virtualThreads;
+    private ThreadPoolExecutor evaluators;
+    private ScheduledExecutorService reaper;
+    private long startNanos;
+
+    private final LongAdder created = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Histogram requestLatency = Histogram.recording("server.request");
+    private final Histogram queueWait = Histogram.recording("server.queue");
+    private final Histogram evaluationLatency = Histogram.recording("server.evaluation");
+
+    /**
+     * @param port port local, 0 pour un port libre (cf. getPort)
+     */
+    public GameServer(int port) {
+        this.port = port;
+    }
+
+    public void setEvaluationThreads(int evaluationThreads) {
+        this.evaluationThreads = Math.max(1, evaluationThreads);
+    }
+
+    /**
+     * @param queueCapacity nombre d'évaluations en attente au-delà duquel les requêtes sont refusées
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public void setMaxSessions(int maxSessions) {
+        this.maxSessions = Math.max(1, maxSessions);
+    }
+
+    /**
+     * @param handlerThreads nombre de threads ordinaires traitant les requêtes, sans threads virtuels
+     */
+    public void setHandlerThreads(int handlerThreads) {
+        this.handlerThreads = Math.max(1, handlerThreads);
+    }
+
+    public void setIdleTimeout(long minutes) {
+        this.idleNanos = TimeUnit.MINUTES.toNanos(Math.max(1, minutes));
+    }
+
+    /**
+     * @param names stratégies que les clients peuvent choisir, avec leurs paramètres (cf. Strategies.names)
+     * @throws IllegalArgumentException si un nom est invalide
+     */
+    public void setStrategies(List<String> names) {
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("At least one strategy is required");
+        }
+        this.allowedStrategies = normalize(names);
+    }
+
+    public Set<String> getStrategies() {
+        return allowedStrategies;
+    }
+
+    private static Set<String> normalize(List<String> names) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String name : names) {
+            normalized.add(Strategies.normalize(name.trim()));
+        }
+        return normalized;
+    }
+
+    public synchronized void start() throws IOException {
+        if (http != null) {
+            throw new IllegalStateException("Server already started");
+        }
+        evaluators = new ThreadPoolExecutor(evaluationThreads, evaluationThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread t = new Thread(r, "server-evaluator");
+            t.setDaemon(true);
+            return t;
+        });
+        handlers = virtualThreadExecutor();
+        virtualThreads = handlers != null;
+        if (handlers == null) {
+            handlers = Executors.newFixedThreadPool(handlerThreads, r -> {
+                Thread t = new Thread(r, "server-handler");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        reaper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "server-reaper");
+            t.setDaemon(true);
+            return t;
+        });
+        reaper.scheduleAtFixedRate(this::removeIdleSessions, 1, 1, TimeUnit.MINUTES);
+
+        http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/games", this::handle);
+        http.createContext("/stats", this::handle);
+        http.setExecutor(handlers);
+        http.start();
+        startNanos = System.nanoTime();
+
+        Metrics.gauge("server.sessions", sessions::size);
+        Metrics.gauge("server.queue.size", () -> evaluators.getQueue().size());
+        LOG.log(Log.Level.INFO, "Listening on http://{}, {} handler threads", getAddress(),
+                virtualThreads ? "virtual" : "platform");
+    }
+
+    /**
+     * Arrête le serveur et les pools ; les requêtes en cours sont interrompues.
+     */
+    public synchronized void stop() {
+        if (http == null) {
+            return;
+        }
+        http.stop(0);
+        reaper.shutdownNow();
+        evaluators.shutdownNow();
+        handlers.shutdownNow();
+        try {
+            evaluators.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (NotHelloStrategy strategy = instances.poll(); strategy != null; strategy = instances.poll()) {
+            Strategies.shutdown(strategy);
+        }
+        http = null;
+    }
+
+    /**
+     * @return le port d'écoute, utile quand le serveur a été créé avec le port 0
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    public String getAddress() {
+        return http.getAddress().getHostString() + ":" + getPort();
+    }
+
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * @return un exécuteur qui crée un thread virtuel par tâche, ou null si la JVM n'en a pas (avant Java 21).
+     * Appelé par réflexion, le projet étant compilé pour une version antérieure.
+     */
+    static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        requests.increment();
+        int status;
+        String body;
+        try {
+            URI uri = exchange.getRequestURI();
+            body = route(exchange.getRequestMethod(), uri.getPath(), query(uri.getRawQuery()));
+            status = "POST".equals(exchange.getRequestMethod()) && "/games".equals(uri.getPath()) ? 201 : 200;
+        } catch (HttpError e) {
+            status = e.status;
+            body = "{\"error\":\"" + escape(e.getMessage()) + "\"}";
+            if (status == 503) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+            }
+        } catch (RuntimeException e) {
+            errors.increment();
+            LOG.log(Log.Level.ERROR, "Request {} failed: {}", exchange.getRequestURI(), e);
+            status = 500;
+            body = "{\"error\":\"" + escape(String.valueOf(e.getMessage())) + "\"}";
+        }
+
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+        requestLatency.record(System.nanoTime() - start);
+    }
+
+    private String route(String method, String path, Map<String, String> query) {
+        if ("/stats".equals(path)) {
+            requireMethod(method, "GET");
+            return stats();
+        }
+        String[] parts = path.split("/");
+        // parts[0] est vide, parts[1] vaut "games"
+        if (parts.length == 2) {
+            requireMethod(method, "POST");
+            return create(query);
+        }
+        GameSession session = session(parts[2]);
+        if (parts.length == 3) {
+            return switch (method) {
+                case "GET" -> withLock(session, () -> state(session, List.of()));
+                case "DELETE" -> {
+                    sessions.remove(session.getId(), session);
+                    yield "{\"id\":" + session.getId() + ",\"deleted\":true}";
+                }
+                default -> throw new HttpError(405, "Method not allowed: " + method);
+            };
+        }
+        if (parts.length == 4 && "move".equals(parts[3])) {
+            requireMethod(method, "POST");
+            return withLock(session, () -> move(session, query));
+        }
+        throw new HttpError(404, "Not found: " + path);
+    }
+
+    private String create(Map<String, String> query) {
+        String requested = query.getOrDefault("strategy", Strategies.MAX_FLIPS);
+        String color = query.getOrDefault("color", "black");
+        int size = integer(query, "size", Board.BOARD_SIZE);
+        PieceColor human = switch (color) {
+            case "black" -> PieceColor.BLACK;
+            case "white" -> PieceColor.WHITE;
+            default -> throw new HttpError(400, "Unknown color: " + color + ", expected black or white");
+        };
+        if (size < Board.MIN_SIZE || size > Board.MAX_SIZE || size % 2 != 0) {
+            throw new HttpError(400, "Board size must be even, from " + Board.MIN_SIZE + " to " + Board.MAX_SIZE);
+        }
+        String strategy;
+        try {
+            strategy = Strategies.normalize(requested);
+            Strategies.check(strategy, size);
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, e.getMessage());
+        }
+        if (!allowedStrategies.contains(strategy)) {
+            throw new HttpError(400, "Strategy not offered by this server: " + requested
+                    + ", expected one of " + allowedStrategies);
+        }
+        if (sessions.size() >= maxSessions) {
+            rejected.increment();
+            throw new HttpError(503, "Too many games (" + maxSessions + "), retry later");
+        }
+
+        GameSession session = new GameSession(nextId.getAndIncrement(), strategy, human, size);
+        // Le bot joue d'abord si c'est à lui de commencer ; la partie n'est enregistrée que si ce coup a été admis
+        List<int[]> botMoves = playBot(session, new int[session.getBoard().getSquares() + 1], 0);
+        sessions.put(session.getId(), session);
+        created.increment();
+        return state(session, botMoves);
+    }
+
+    private String move(GameSession session, Map<String, String> query) {
+        Board board = session.getBoard();
+        if (board.isOver()) {
+            throw new HttpError(409, "The game is over");
+        }
+        if (session.isBotTurn()) {
+            throw new HttpError(409, "Not your turn");
+        }
+        int x = integer(query, "x", -1), y = integer(query, "y", -1);
+        if (x < 0 || x >= board.getSize() || y < 0 || y >= board.getSize()) {
+            throw new HttpError(400, "Missing or invalid coordinates x and y");
+        }
+        int[] tokens = new int[board.getSquares() + 1];
+        try {
+            tokens[0] = board.makeMove(board.square(x, y));
+        } catch (IllegalArgumentException e) {
+            throw new HttpError(400, "Illegal move: " + x + "," + y);
+        }
+        return state(session, playBot(session, tokens, 1));
+    }
+
+    /**
+     * Fait jouer le bot tant que c'est son tour. Si une évaluation est refusée ou échoue, tous les coups de la
+     * requête, déjà mémorisés dans tokens, sont annulés : la partie revient à son état avant la requête.
+     *
+     * @param played nombre de coups de la requête déjà joués
+     * @return les coups du bot
+     */
+    private List<int[]> playBot(GameSession session, int[] tokens, int played) {
+        Board board = session.getBoard();
+        List<int[]> moves = new ArrayList<>();
+        try {
+            while (session.isBotTurn()) {
+                int[] move = evaluate(session.getStrategy(), board);
+                tokens[played++] = board.makeMove(board.square(move[0], move[1]));
+                moves.add(move);
+            }
+        } catch (RuntimeException e) {
+            while (played > 0) {
+                board.unmakeMove(tokens[--played]);
+            }
+            throw e;
+        }
+        return moves;
+    }
+
+    /**
+     * Évalue la position sur le pool d'évaluation, en attendant le résultat.
+     *
+     * @throws HttpError 503 si la file d'évaluation est pleine
+     */
+    private int[] evaluate(String strategy, Board board) {
+        Board copy = new Board(board);
+        long submitted = System.nanoTime();
+        Future<int[]> future;
+        try {
+            future = evaluators.submit(() -> {
+                long start = System.nanoTime();
+                queueWait.record(start - submitted);
+                int[] move = strategies.get().computeIfAbsent(strategy, this::newStrategy).evaluate(copy);
+                evaluationLatency.record(System.nanoTime() - start);
+                return move;
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HttpError(503, "Evaluation queue is full, retry later");
+        }
+        try {
+            int[] move = future.get();
+            if (move == null) {
+                throw new IllegalStateException("Strategy " + strategy + " returned no move");
+            }
+            evaluations.increment();
+            return move;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HttpError(503, "Server is shutting down");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Evaluation failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private NotHelloStrategy newStrategy(String name) {
+        NotHelloStrategy strategy = Strategies.create(name);
+        instances.add(strategy);
+        return strategy;
+    }
+
+    private interface Action {
+        String run();
+    }
+
+    /**
+     * Exécute l'action sous le verrou de la partie, une requête à la fois par partie.
+     */
+    private String withLock(GameSession session, Action action) {
+        session.getLock().lock();
+        try {
+            if (sessions.get(session.getId()) != session) {
+                throw new HttpError(404, "Unknown game: " + session.getId());
+            }
+            session.touch();
+            return action.run();
+        } finally {
+            session.getLock().unlock();
+        }
+    }
+
+    private GameSession session(String id) {
+        GameSession session = null;
+        try {
+            session = sessions.get(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            // traité comme une partie inconnue
+        }
+        if (session == null) {
+            throw new HttpError(404, "Unknown game: " + id);
+        }
+        return session;
+    }
+
+    private void removeIdleSessions() {
+        long now = System.nanoTime();
+        for (GameSession session : sessions.values()) {
+            if (now - session.getLastAccessNanos() > idleNanos && session.getLock().tryLock()) {
+                try {
+                    if (sessions.remove(session.getId(), session)) {
+                        expired.increment();
+                    }
+                } finally {
+                    session.getLock().unlock();
+                }
+            }
+        }
+    }
+
+    private static String state(GameSession session, List<int[]> botMoves) {
+        Board board = session.getBoard();
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"id\":").append(session.getId())
+                .append(",\"size\":").append(board.getSize())
+                .append(",\"strategy\":\"").append(escape(session.getStrategy())).append('"')
+                .append(",\"human\":\"").append(color(session.getHuman())).append('"')
+                .append(",\"turn\":\"").append(board.isOver() ? "none" : color(board.getPlayerTurn())).append('"')
+                .append(",\"over\":").append(board.isOver())
+                .append(",\"black\":").append(board.countDiscs(PieceColor.BLACK))
+                .append(",\"white\":").append(board.countDiscs(PieceColor.WHITE))
+                .append(",\"board\":\"").append(board.toCompactString()).append('"');
+        appendMoves(sb.append(",\"botMoves\":"), botMoves);
+        appendMoves(sb.append(",\"legalMoves\":"),
+                session.isBotTurn() || board.isOver() ? List.of() : board.getValidMovesForCurrentPlayer());
+        return sb.append('}').toString();
+    }
+
+    private static void appendMoves(StringBuilder sb, List<int[]> moves) {
+        sb.append('[');
+        for (int i = 0; i < moves.size(); ++i) {
+            sb.append(i == 0 ? "[" : ",[").append(moves.get(i)[0]).append(',').append(moves.get(i)[1]).append(']');
+        }
+        sb.append(']');
+    }
+
+    private String stats() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return "{\"uptimeSeconds\":" + String.format("%.1f", seconds)
+                + ",\"handlerThreads\":\"" + (virtualThreads ? "virtual" : "platform") + "\""
+                + ",\"evaluationThreads\":" + evaluationThreads
+                + ",\"sessions\":" + sessions.size()
+                + ",\"sessionsCreated\":" + created.sum()
+                + ",\"sessionsExpired\":" + expired.sum()
+                + ",\"requests\":" + requests.sum()
+                + ",\"evaluations\":" + evaluations.sum()
+                + ",\"evaluationsPerSecond\":" + String.format("%.1f", evaluations.sum() / seconds)
+                + ",\"rejected\":" + rejected.sum()
+                + ",\"errors\":" + errors.sum()
+                + ",\"queued\":" + evaluators.getQueue().size()
+                + ",\"queueCapacity\":" + queueCapacity
+                + ",\"requestMicros\":" + latencies(requestLatency)
+                + ",\"queueWaitMicros\":" + latencies(queueWait)
+                + ",\"evaluationMicros\":" + latencies(evaluationLatency)
+                + "}";
+    }
+
+    private static String latencies(Histogram histogram) {
+        return String.format("{\"count\":%d,\"mean\":%.0f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}",
+                histogram.getCount(), histogram.getMean() / 1e3, histogram.getValueAtQuantile(0.5) / 1000,
+                histogram.getValueAtQuantile(0.9) / 1000, histogram.getValueAtQuantile(0.99) / 1000,
+                histogram.getMax() / 1000);
+    }
+
+    private static String color(PieceColor color) {
+        return color.name().toLowerCase();
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!expected.equals(method)) {
+            throw new HttpError(405, "Method not allowed: " + method);
+        }
+    }
+
+    private static int integer(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new HttpError(400, "Invalid " + name + ": " + value);
+        }
+    }
+
+    private static Map<String, String> query(String raw) {
+        Map<String, String> query = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return query;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String escape(String text) {
+        return text.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Erreur renvoyée au client avec son code HTTP.
+     */
+    private static final class HttpError extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package heigvd.plm.nothello.server;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Une partie hébergée par le serveur : le plateau, la couleur du joueur et la stratégie du bot.
+ *
+ * Les requêtes d'une même partie sont traitées l'une après l'autre (cf. lock). Le verrou est un ReentrantLock
+ * plutôt qu'un bloc synchronized, pour qu'un thread virtuel qui attend l'évaluation du bot libère son thread porteur.
+ */
+final class GameSession {
+
+    private final long id;
+    private final String strategy;
+    private final PieceColor human;
+    private final Board board;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile long lastAccessNanos = System.nanoTime();
+
+    GameSession(long id, String strategy, PieceColor human, int size) {
+        this.id = id;
+        this.strategy = strategy;
+        this.human = human;
+        this.board = new Board(size);
+    }
+
+    long getId() {
+        return id;
+    }
+
+    String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return la couleur du joueur, le bot ayant l'autre
+     */
+    PieceColor getHuman() {
+        return human;
+    }
+
+    /**
+     * @return le plateau, à n'utiliser que sous le verrou
+     */
+    Board getBoard() {
+        return board;
+    }
+
+    ReentrantLock getLock() {
+        return lock;
+    }
+
+    boolean isBotTurn() {
+        return !board.isOver() && board.getPlayerTurn() != human;
+    }
+
+    void touch() {
+        lastAccessNanos = System.nanoTime();
+    }
+
+    long getLastAccessNanos() {
+        return lastAccessNanos;
+    }
+}
@@ -0,0 +1,51 @@
+package heigvd.plm.nothello.cli;
+
+import junit.framework.TestCase;
+
+/**
+ * Vérifie les décisions du SPRT sur des résultats nets dans un sens ou dans l'autre.
+ */
+public class SprtTest extends TestCase {
+
+    private final Sprt sprt = new Sprt(0, 50, 0.05, 0.05);
+
+    public void testLopsidedResultAcceptsH1() {
+        assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(40, 5, 5));
+        assertTrue(sprt.llr(40, 5, 5) >= sprt.getUpperBound());
+    }
+
+    /**
+     * Sans aucune défaite, la variance reste estimable (demi-résultats fictifs) et le test peut conclure.
+     */
+    public void testNoLossAcceptsH1() {
+        assertEquals(Sprt.Decision.ACCEPT_H1, sprt.decide(30, 0, 0));
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(0, 0, 30));
+    }
+
+    public void testBalancedResultAcceptsH0() {
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(200, 200, 200));
+        assertTrue(sprt.llr(200, 200, 200) <= sprt.getLowerBound());
+    }
+
+    public void testFewGamesContinue() {
+        assertEquals(0.0, sprt.llr(0, 0, 0));
+        assertEquals(Sprt.Decision.CONTINUE, sprt.decide(0, 0, 0));
+        assertEquals(Sprt.Decision.CONTINUE, sprt.decide(3, 2, 2));
+    }
+
+    public void testParse() {
+        Sprt parsed = Sprt.parse("0,50,0.05,0.05");
+        assertEquals(sprt.getLowerBound(), parsed.getLowerBound(), 1e-12);
+        assertEquals(sprt.getUpperBound(), parsed.getUpperBound(), 1e-12);
+        try {
+            Sprt.parse("0,50");
+            fail("Incomplete SPRT accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new Sprt(50, 0, 0.05, 0.05);
+            fail("elo0 >= elo1 accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package heigvd.plm.nothello.cli;
+
+import heigvd.plm.nothello.logic.Strategies;
+import junit.framework.TestCase;
+
+/**
+ * Vérifie qu'un tournoi libère les threads auxiliaires des stratégies qu'il a créées.
+ */
+public class TournamentTest extends TestCase {
+
+    public void testRunShutsDownStrategies() throws InterruptedException {
+        Tournament tournament = new Tournament("maxflips", () -> Strategies.create("maxflips"),
+                "alphabeta:5:2", () -> Strategies.create("alphabeta:5:2"), 2);
+        tournament.setThreads(2);
+        Tournament.Result result = tournament.run();
+        assertEquals(2, result.getGames());
+
+        // Les threads interrompus se terminent peu après shutdownNow
+        long deadline = System.currentTimeMillis() + 5000;
+        while (helperThreads() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(0, helperThreads());
+    }
+
+    private static int helperThreads() {
+        int count = 0;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("alphabeta-helper") && thread.isAlive()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,105 @@
+package heigvd.plm.nothello.game;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Compare les coups légaux et les retournements de BitBoard à un parcours naïf du plateau case par case.
+ */
+public class BitBoardTest extends TestCase {
+
+    private static final int[][] DIRECTIONS = {
+            {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+
+    /**
+     * Positions quelconques, pas forcément atteignables : les bords et les coins sont tous sollicités.
+     */
+    public void testRandomPositionsMatchNaiveWalk() {
+        Random rng = new Random(1);
+        for (int i = 0; i < 2000; ++i) {
+            long player = 0L;
+            long opponent = 0L;
+            int density = 1 + rng.nextInt(9);
+            for (int square = 0; square < BitBoard.SQUARES; ++square) {
+                int r = rng.nextInt(10);
+                if (r < density / 2) {
+                    player |= BitBoard.bit(square);
+                } else if (r < density) {
+                    opponent |= BitBoard.bit(square);
+                }
+            }
+            assertMatchesNaiveWalk(player, opponent);
+        }
+    }
+
+    /**
+     * Positions de parties jouées au hasard, vérifiées aussi à travers l'API publique de Board.
+     */
+    public void testGamePositionsMatchNaiveWalk() {
+        Random rng = new Random(2);
+        for (int game = 0; game < 50; ++game) {
+            Board board = new Board();
+            int[] legal = new int[BitBoard.SQUARES];
+            while (!board.isOver()) {
+                long player = board.getDiscs(board.getPlayerTurn());
+                long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+                assertMatchesNaiveWalk(player, opponent);
+                for (int square = 0; square < BitBoard.SQUARES; ++square) {
+                    assertEquals(BitBoard.count(naiveFlips(player, opponent, square)),
+                            board.getMoveScore(BitBoard.x(square), BitBoard.y(square), board.getPlayerTurn()));
+                }
+                int count = board.getLegalSquares(legal);
+                assertEquals(BitBoard.count(naiveMoves(player, opponent)), count);
+                board.makeMove(legal[rng.nextInt(count)]);
+            }
+        }
+    }
+
+    private static void assertMatchesNaiveWalk(long player, long opponent) {
+        long expected = naiveMoves(player, opponent);
+        assertEquals(expected, BitBoard.legalMoves(player, opponent));
+        assertEquals(expected != 0L, BitBoard.hasMove(player, opponent));
+        for (int square = 0; square < BitBoard.SQUARES; ++square) {
+            if ((expected & BitBoard.bit(square)) != 0L) {
+                assertEquals(naiveFlips(player, opponent, square), BitBoard.flips(player, opponent, square));
+            }
+        }
+    }
+
+    private static long naiveMoves(long player, long opponent) {
+        long moves = 0L;
+        for (int square = 0; square < BitBoard.SQUARES; ++square) {
+            if (naiveFlips(player, opponent, square) != 0L) {
+                moves |= BitBoard.bit(square);
+            }
+        }
+        return moves;
+    }
+
+    /**
+     * @return les pièces retournées en jouant square, 0 si la case est occupée ou le coup illégal
+     */
+    private static long naiveFlips(long player, long opponent, int square) {
+        if (((player | opponent) & BitBoard.bit(square)) != 0L) {
+            return 0L;
+        }
+        long flips = 0L;
+        for (int[] dir : DIRECTIONS) {
+            long line = 0L;
+            int x = BitBoard.x(square) + dir[0];
+            int y = BitBoard.y(square) + dir[1];
+            while (x >= 0 && x < BitBoard.SIZE && y >= 0 && y < BitBoard.SIZE
+                    && (opponent & BitBoard.bit(x, y)) != 0L) {
+                line |= BitBoard.bit(x, y);
+                x += dir[0];
+                y += dir[1];
+            }
+            if (x >= 0 && x < BitBoard.SIZE && y >= 0 && y < BitBoard.SIZE && (player & BitBoard.bit(x, y)) != 0L) {
+                flips |= line;
+            }
+        }
+        return flips;
+    }
+}
@@ -0,0 +1,182 @@
+package heigvd.plm.nothello.game;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Vérifie makeMove/unmakeMove/makePass de Board, et que la clé de Zobrist mise à jour incrémentalement
+ * est celle recalculée depuis les pions.
+ */
+public class BoardTest extends TestCase {
+
+    /**
+     * Annuler tous les coups d'une partie restaure chaque position intermédiaire, en 8x8 comme en multi-mots.
+     */
+    public void testMakeAndUnmakeRestorePosition() {
+        Random rng = new Random(2);
+        for (int game = 0; game < 30; ++game) {
+            Board board = game % 3 == 0 ? new Board(8) : game % 3 == 1 ? new Board(8, true) : new Board(10);
+            int[] legal = new int[board.getSquares()];
+            int[] tokens = new int[board.getSquares()];
+            String[] positions = new String[board.getSquares()];
+            int plies = 0;
+            while (!board.isOver()) {
+                positions[plies] = board.toCompactString();
+                int count = board.getLegalSquares(legal);
+                int square = legal[rng.nextInt(count)];
+                PieceColor player = board.getPlayerTurn();
+                int before = board.countDiscs(player);
+                tokens[plies++] = board.makeMove(square);
+                assertEquals(player, board.getColorAt(square / board.getSize(), square % board.getSize()));
+                assertTrue(board.countDiscs(player) >= before + 2);
+            }
+            assertFalse(board.hasLegalMove());
+            while (plies > 0) {
+                board.unmakeMove(tokens[--plies]);
+                assertEquals(positions[plies], board.toCompactString());
+                assertFalse(board.isOver());
+            }
+            assertEquals(new Board(board.getSize()).toCompactString(), board.toCompactString());
+        }
+    }
+
+    /**
+     * Les coups illégaux, les passes alors qu'un coup existe et les annulations dans le désordre sont refusés
+     * sans modifier la position.
+     */
+    public void testInvalidMovesAreRejected() {
+        Board board = new Board();
+        String start = board.toCompactString();
+        try {
+            board.makeMove(BitBoard.square(0, 0));
+            fail("A move that flips nothing is illegal");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            board.makeMove(BitBoard.square(3, 3));
+            fail("An occupied square is illegal");
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            board.makePass();
+            fail("Passing is only allowed without a legal move");
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(start, board.toCompactString());
+
+        int[] legal = new int[board.getSquares()];
+        board.getLegalSquares(legal);
+        int first = board.makeMove(legal[0]);
+        board.getLegalSquares(legal);
+        int second = board.makeMove(legal[0]);
+        try {
+            board.unmakeMove(first);
+            fail("Moves must be undone in reverse order");
+        } catch (IllegalStateException expected) {
+        }
+        board.unmakeMove(second);
+        board.unmakeMove(first);
+        assertEquals(start, board.toCompactString());
+    }
+
+    /**
+     * Un passe explicite, puis la fin de partie après un coup qui ne laisse de coup à personne.
+     */
+    public void testPassAndGameOver() {
+        // Blanc n'a aucun coup, noir peut jouer en (0, 2)
+        Board board = Board.fromCompactString("XO" + "-".repeat(62) + " O");
+        String before = board.toCompactString();
+        assertFalse(board.hasLegalMove());
+        assertFalse(board.isOver());
+        int pass = board.makePass();
+        assertEquals(PieceColor.BLACK, board.getPlayerTurn());
+        int move = board.makeMove(BitBoard.square(0, 2));
+        assertTrue(board.isOver());
+        assertEquals(3, board.countDiscs(PieceColor.BLACK));
+        assertEquals(0, board.countDiscs(PieceColor.WHITE));
+        board.unmakeMove(move);
+        assertFalse(board.isOver());
+        assertEquals(PieceColor.BLACK, board.getPlayerTurn());
+        board.unmakeMove(pass);
+        assertEquals(before, board.toCompactString());
+    }
+
+    public void testKeyAfterMakeAndUnmake() {
+        Random rng = new Random(6);
+        for (int game = 0; game < 30; ++game) {
+            Board board = game % 3 == 0 ? new Board(8) : game % 3 == 1 ? new Board(8, true) : new Board(10);
+            int[] legal = new int[board.getSquares()];
+            int[] tokens = new int[board.getSquares()];
+            long[] keys = new long[board.getSquares()];
+            int plies = 0;
+            assertEquals(recompute(board), board.getZobristKey());
+            while (!board.isOver()) {
+                keys[plies] = board.getZobristKey();
+                int count = board.getLegalSquares(legal);
+                tokens[plies++] = board.makeMove(legal[rng.nextInt(count)]);
+                assertEquals(board.toCompactString(), recompute(board), board.getZobristKey());
+            }
+            while (plies > 0) {
+                board.unmakeMove(tokens[--plies]);
+                assertEquals(keys[plies], board.getZobristKey());
+                assertEquals(board.toCompactString(), recompute(board), board.getZobristKey());
+            }
+        }
+    }
+
+    public void testKeyAfterPass() {
+        // Blanc n'a aucun coup, noir peut jouer en (0, 2)
+        Board board = Board.fromCompactString("XO" + "-".repeat(62) + " O");
+        long before = board.getZobristKey();
+        assertEquals(recompute(board), before);
+        int token = board.makePass();
+        assertEquals(PieceColor.BLACK, board.getPlayerTurn());
+        assertEquals(recompute(board), board.getZobristKey());
+        assertEquals(before ^ Zobrist.SIDE, board.getZobristKey());
+        board.unmakeMove(token);
+        assertEquals(PieceColor.WHITE, board.getPlayerTurn());
+        assertEquals(before, board.getZobristKey());
+    }
+
+    /**
+     * Un coup suivi d'un passe automatique de l'adversaire laisse le trait au même joueur.
+     */
+    public void testKeyAfterAutomaticPass() {
+        // Après (0, 2), blanc n'a plus de pion et ne peut pas jouer ; noir non plus, la partie est finie
+        Board board = Board.fromCompactString("XO" + "-".repeat(62) + " X");
+        int token = board.makeMove(BitBoard.square(0, 2));
+        assertTrue(board.isOver());
+        assertEquals(recompute(board), board.getZobristKey());
+        board.unmakeMove(token);
+        assertEquals(recompute(board), board.getZobristKey());
+
+        // Blanc ne peut pas répondre à (0, 2), noir rejoue
+        board = Board.fromCompactString("XO-O" + "-".repeat(60) + " X");
+        String before = board.toCompactString();
+        token = board.makeMove(BitBoard.square(0, 2));
+        assertFalse(board.isOver());
+        assertEquals(PieceColor.BLACK, board.getPlayerTurn());
+        assertEquals(recompute(board), board.getZobristKey());
+        board.unmakeMove(token);
+        assertEquals(before, board.toCompactString());
+        assertEquals(PieceColor.BLACK, board.getPlayerTurn());
+    }
+
+    public void testCompactStringRoundTrip() {
+        Random rng = new Random(60);
+        Board board = new Board(12);
+        int[] legal = new int[board.getSquares()];
+        for (int ply = 0; ply < 40 && !board.isOver(); ++ply) {
+            board.makeMove(legal[rng.nextInt(board.getLegalSquares(legal))]);
+            Board copy = Board.fromCompactString(board.toCompactString());
+            assertEquals(board.toCompactString(), copy.toCompactString());
+            assertEquals(board.getZobristKey(), copy.getZobristKey());
+        }
+    }
+
+    private static long recompute(Board board) {
+        return Zobrist.hash(board.getDiscWords(PieceColor.BLACK), board.getDiscWords(PieceColor.WHITE),
+                board.getPlayerTurn());
+    }
+}
@@ -0,0 +1,108 @@
+package heigvd.plm.nothello.game;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Vérifie les commandes de GameActor et les instantanés qu'il publie.
+ */
+public class GameActorTest extends TestCase {
+
+    private GameActor game;
+
+    @Override
+    protected void setUp() {
+        game = new GameActor(Board.BOARD_SIZE);
+    }
+
+    @Override
+    protected void tearDown() {
+        game.shutdown();
+    }
+
+    /**
+     * Les instantanés publiés suivent une partie jouée directement sur un plateau, à toutes les tailles.
+     */
+    public void testSnapshotsFollowBoard() throws Exception {
+        Random rng = new Random(2024);
+        for (int size = Board.MIN_SIZE; size <= Board.MAX_SIZE; size += 4) {
+            BoardSnapshot snapshot = game.reset(size).get();
+            Board reference = new Board(size);
+            while (!snapshot.isOver()) {
+                List<int[]> moves = reference.getValidMovesForCurrentPlayer();
+                int[] move = moves.get(rng.nextInt(moves.size()));
+                snapshot = game.play(snapshot, move[0], move[1]).get();
+                reference.playAt(move[0], move[1]);
+                assertEquals(reference.toCompactString(), snapshot.toCompactString());
+                assertEquals(reference.getZobristKey(), snapshot.getZobristKey());
+                assertEquals(reference.square(move[0], move[1]), snapshot.getLastMove());
+                assertEquals(reference.countDiscs(PieceColor.BLACK), snapshot.countDiscs(PieceColor.BLACK));
+                // La copie est indépendante de l'instantané
+                Board copy = snapshot.toBoard();
+                assertEquals(reference.isOver(), copy.isOver());
+                assertEquals(reference.getZobristKey(), copy.getZobristKey());
+            }
+            assertSame(snapshot, game.getSnapshot());
+        }
+    }
+
+    public void testStaleBasisIsRejected() throws Exception {
+        BoardSnapshot start = game.getSnapshot();
+        int[] first = start.toBoard().getValidMovesForCurrentPlayer().get(0);
+        BoardSnapshot after = game.play(start, first[0], first[1]).get();
+        assertEquals(start.getVersion() + 1, after.getVersion());
+        assertEquals(1, after.getPly());
+
+        // Coup calculé sur la position de départ : refusé sans modifier la partie
+        int[] other = start.toBoard().getValidMovesForCurrentPlayer().get(1);
+        assertRejected(IllegalStateException.class, game.play(start, other[0], other[1]));
+        assertRejected(IllegalStateException.class, game.pass(start));
+        assertSame(after, game.getSnapshot());
+
+        // Une nouvelle partie rend aussi obsolètes les positions de l'ancienne
+        BoardSnapshot reset = game.reset(Board.BOARD_SIZE).get();
+        assertEquals(0, reset.getPly());
+        assertEquals(BoardSnapshot.NO_MOVE, reset.getLastMove());
+        int[] move = after.toBoard().getValidMovesForCurrentPlayer().get(0);
+        assertRejected(IllegalStateException.class, game.play(after, move[0], move[1]));
+        assertSame(reset, game.getSnapshot());
+    }
+
+    public void testIllegalCommands() throws Exception {
+        BoardSnapshot start = game.getSnapshot();
+        assertRejected(IllegalArgumentException.class, game.play(0, 0));
+        // Le joueur au trait a des coups légaux : il ne peut pas passer
+        assertRejected(IllegalStateException.class, game.pass());
+        assertSame(start, game.getSnapshot());
+    }
+
+    public void testListenersSeeEverySnapshotInOrder() throws Exception {
+        List<BoardSnapshot> published = new ArrayList<>();
+        game.addListener(published::add);
+        BoardSnapshot snapshot = game.getSnapshot();
+        for (int i = 0; i < 10 && !snapshot.isOver(); ++i) {
+            int[] move = snapshot.toBoard().getValidMovesForCurrentPlayer().get(0);
+            snapshot = game.play(move[0], move[1]).get();
+        }
+        assertEquals(10, published.size());
+        for (int i = 0; i < published.size(); ++i) {
+            assertEquals(i + 1, published.get(i).getVersion());
+        }
+        assertSame(snapshot, published.get(published.size() - 1));
+    }
+
+    private static void assertRejected(Class<? extends Exception> expected,
+                                       Future<BoardSnapshot> result) throws InterruptedException {
+        try {
+            result.get();
+            fail("Command should have been rejected");
+        } catch (ExecutionException e) {
+            assertTrue(String.valueOf(e.getCause()), expected.isInstance(e.getCause()));
+        }
+    }
+}
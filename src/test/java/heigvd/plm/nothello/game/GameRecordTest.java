@@ -0,0 +1,135 @@
+package heigvd.plm.nothello.game;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vérifie l'aller-retour écriture, lecture et rejeu des archives de parties (GameRecordWriter, GameRecordReader).
+ */
+public class GameRecordTest extends TestCase {
+
+    private Path file;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("nothello", ".games");
+        Files.delete(file);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    public void testWriteReadReplay() throws IOException {
+        Random rng = new Random(17);
+        List<GameRecord> records = new ArrayList<>();
+        List<Board> finals = new ArrayList<>();
+        for (int game = 0; game < 20; ++game) {
+            Board board = new Board();
+            int[] squares = new int[BitBoard.SQUARES];
+            short[] evaluations = new short[BitBoard.SQUARES];
+            int n = 0;
+            int[] legal = new int[BitBoard.SQUARES];
+            while (!board.isOver()) {
+                int count = board.getLegalSquares(legal);
+                squares[n] = legal[rng.nextInt(count)];
+                evaluations[n] = (short) (rng.nextInt(2001) - 1000);
+                board.makeMove(squares[n++]);
+            }
+            GameRecord record = GameRecord.fromMoves(Arrays.copyOf(squares, n),
+                    game % 2 == 0 ? Arrays.copyOf(evaluations, n) : null);
+            record.setBlackPlayer("noir " + game);
+            record.setBlackStrategy("alphabeta:100");
+            record.setWhitePlayer("blanc é" + game);
+            record.setWhiteStrategy("maxflips");
+            record.setStartMillis(1_700_000_000_000L + game);
+            record.setDurationMillis(1000 * game);
+            records.add(record);
+            finals.add(board);
+        }
+
+        // Deux ouvertures successives : la seconde ajoute à la fin sans réécrire l'en-tête
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            for (GameRecord record : records.subList(0, 10)) {
+                writer.write(record);
+            }
+        }
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            for (GameRecord record : records.subList(10, 20)) {
+                writer.write(record);
+            }
+            assertEquals(10, writer.getWritten());
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            for (int game = 0; game < records.size(); ++game) {
+                GameRecord expected = records.get(game);
+                GameRecord read = reader.next();
+                assertNotNull("game " + game, read);
+                assertTrue(Arrays.equals(expected.getMoves(), read.getMoves()));
+                assertEquals(expected.hasEvaluations(), read.hasEvaluations());
+                for (int ply = 0; ply < read.getPlies(); ++ply) {
+                    assertEquals(expected.getMove(ply), read.getMove(ply));
+                    assertEquals(expected.getEvaluation(ply), read.getEvaluation(ply));
+                }
+                assertEquals(expected.getBlackPlayer(), read.getBlackPlayer());
+                assertEquals(expected.getBlackStrategy(), read.getBlackStrategy());
+                assertEquals(expected.getWhitePlayer(), read.getWhitePlayer());
+                assertEquals(expected.getWhiteStrategy(), read.getWhiteStrategy());
+                assertEquals(expected.getStartMillis(), read.getStartMillis());
+                assertEquals(expected.getDurationMillis(), read.getDurationMillis());
+                assertEquals(expected.getBlackDiscs(), read.getBlackDiscs());
+                assertEquals(expected.getWhiteDiscs(), read.getWhiteDiscs());
+
+                Board replayed = read.replay();
+                assertTrue(replayed.isOver());
+                assertEquals(finals.get(game).getZobristKey(), replayed.getZobristKey());
+            }
+            assertNull(reader.next());
+        }
+    }
+
+    public void testReplayRejectsIllegalRecord() {
+        GameRecord record = GameRecord.fromMoves(new int[]{BitBoard.square(2, 4)}, null);
+        byte[] moves = record.getMoves().clone();
+        moves[0] = (byte) BitBoard.square(0, 0);
+        record.setMoves(moves, null);
+        try {
+            record.replay();
+            fail("Illegal move replayed");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    /**
+     * Un nom trop long doit être refusé sans laisser de partie tronquée dans l'archive.
+     */
+    public void testLongNameLeavesArchiveIntact() throws IOException {
+        GameRecord good = GameRecord.fromMoves(new int[]{BitBoard.square(2, 4)}, null);
+        GameRecord bad = GameRecord.fromMoves(new int[]{BitBoard.square(2, 4)}, null);
+        bad.setWhiteStrategy("x".repeat(256));
+        try (GameRecordWriter writer = new GameRecordWriter(file)) {
+            writer.write(good);
+            try {
+                writer.write(bad);
+                fail("Long name accepted");
+            } catch (IllegalArgumentException expected) {
+            }
+            writer.write(good);
+            assertEquals(2, writer.getWritten());
+        }
+        try (GameRecordReader reader = new GameRecordReader(file)) {
+            assertNotNull(reader.next());
+            assertNotNull(reader.next());
+            assertNull(reader.next());
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package heigvd.plm.nothello.game;
+
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Vérifie la génération des coups, les retournements et les passes de Board avec perft.
+ */
+public class PerftTest extends TestCase {
+
+    // Valeurs de référence de l'Othello depuis la position initiale, profondeurs 0 à 10
+    private static final long[] START_COUNTS = {
+            1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005288, 24571284
+    };
+
+    public void testStartPositionBulk() {
+        for (int depth = 0; depth <= 9; ++depth) {
+            assertEquals("depth " + depth, START_COUNTS[depth], Perft.perft(new Board(), depth, true));
+        }
+    }
+
+    public void testStartPositionWithoutBulk() {
+        for (int depth = 0; depth <= 7; ++depth) {
+            assertEquals("depth " + depth, START_COUNTS[depth], Perft.perft(new Board(), depth, false));
+        }
+    }
+
+    public void testParallelMatchesReference() throws InterruptedException {
+        assertEquals(START_COUNTS[8], Perft.perftParallel(new Board(), 8, true, 4));
+    }
+
+    /**
+     * La représentation multi-mots (WideBitBoard) doit donner les mêmes résultats que BitBoard en 8x8.
+     */
+    public void testWideRepresentationMatchesReference() {
+        for (int depth = 0; depth <= 7; ++depth) {
+            assertEquals("depth " + depth, START_COUNTS[depth], Perft.perft(new Board(8, true), depth, depth % 2 == 0));
+        }
+    }
+
+    public void testWideRepresentationMatchesRandomPositions() {
+        Random rng = new Random(2025);
+        for (int i = 0; i < 20; ++i) {
+            Board board = new Board();
+            int plies = 20 + rng.nextInt(40);
+            for (int ply = 0; ply < plies && !board.isOver(); ++ply) {
+                java.util.List<int[]> moves = board.getValidMovesForCurrentPlayer();
+                int[] move = moves.get(rng.nextInt(moves.size()));
+                board.makeMove(BitBoard.square(move[0], move[1]));
+            }
+            Board wide = new Board(8, true);
+            for (int x = 0; x < 8; ++x) {
+                for (int y = 0; y < 8; ++y) {
+                    wide.hardSetColorAt(x, y, board.getColorAt(x, y));
+                }
+            }
+            wide.setPlayerTurn(board.getPlayerTurn());
+            assertEquals(board.getZobristKey(), wide.getZobristKey());
+            for (int depth = 1; depth <= 4; ++depth) {
+                assertEquals(board.toCompactString() + " depth " + depth,
+                        Perft.perft(board, depth, false), Perft.perft(wide, depth, false));
+            }
+        }
+    }
+
+    public void testOtherSizes() {
+        for (int size = Board.MIN_SIZE; size <= Board.MAX_SIZE; size += 2) {
+            Board board = new Board(size);
+            // Même ouverture qu'en 8x8 : 4 coups puis 12 positions
+            assertEquals("size " + size, 4, Perft.perft(board, 1, false));
+            assertEquals("size " + size, 12, Perft.perft(board, 2, false));
+            String before = board.toCompactString();
+            long key = board.getZobristKey();
+            Perft.perft(board, 4, false);
+            assertEquals(before, board.toCompactString());
+            assertEquals(key, board.getZobristKey());
+            assertEquals(before, Board.fromCompactString(before).toCompactString());
+        }
+    }
+
+    /**
+     * Positions aléatoires sur d'autres tailles, comparées à un perft indépendant sur un tableau de cases.
+     */
+    public void testOtherSizesMatchArrayPerft() {
+        Random rng = new Random(2026);
+        int[] sizes = {6, 10, 12, 16};
+        for (int i = 0; i < 24; ++i) {
+            int size = sizes[i % sizes.length];
+            Board board = new Board(size);
+            int plies = rng.nextInt(size * size - 4);
+            for (int ply = 0; ply < plies && !board.isOver(); ++ply) {
+                java.util.List<int[]> moves = board.getValidMovesForCurrentPlayer();
+                int[] move = moves.get(rng.nextInt(moves.size()));
+                board.makeMove(board.square(move[0], move[1]));
+            }
+            int[][] cells = new int[size][size];
+            for (int x = 0; x < size; ++x) {
+                for (int y = 0; y < size; ++y) {
+                    PieceColor color = board.getColorAt(x, y);
+                    cells[x][y] = color.isNone() ? 0 : color == board.getPlayerTurn() ? 1 : -1;
+                }
+            }
+            for (int depth = 1; depth <= 3; ++depth) {
+                long expected = board.isOver() ? 1 : arrayPerft(cells, depth);
+                assertEquals(board.toCompactString() + " depth " + depth, expected, Perft.perft(board, depth, false));
+                assertEquals(board.toCompactString() + " depth " + depth, expected, Perft.perft(board, depth, true));
+            }
+        }
+    }
+
+    /**
+     * Perft de référence sur un tableau (1 pour le joueur qui doit jouer, -1 pour l'adversaire).
+     */
+    private static long arrayPerft(int[][] cells, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        int size = cells.length;
+        long nodes = 0;
+        boolean moved = false;
+        for (int x = 0; x < size; ++x) {
+            for (int y = 0; y < size; ++y) {
+                int[][] next = play(cells, x, y);
+                if (next != null) {
+                    moved = true;
+                    nodes += arrayPerft(next, depth - 1);
+                }
+            }
+        }
+        if (moved) {
+            return nodes;
+        }
+        int[][] swapped = new int[size][size];
+        boolean opponentMoves = false;
+        for (int x = 0; x < size; ++x) {
+            for (int y = 0; y < size; ++y) {
+                swapped[x][y] = -cells[x][y];
+            }
+        }
+        for (int x = 0; x < size && !opponentMoves; ++x) {
+            for (int y = 0; y < size && !opponentMoves; ++y) {
+                opponentMoves = play(swapped, x, y) != null;
+            }
+        }
+        return opponentMoves ? arrayPerft(swapped, depth - 1) : 1;
+    }
+
+    /**
+     * @return la position après le coup, vue par l'adversaire, ou null si le coup est illégal
+     */
+    private static int[][] play(int[][] cells, int x, int y) {
+        int size = cells.length;
+        if (cells[x][y] != 0) {
+            return null;
+        }
+        int[][] next = new int[size][];
+        for (int i = 0; i < size; ++i) {
+            next[i] = cells[i].clone();
+        }
+        boolean flipped = false;
+        for (Direction dir : Direction.getAllDirections()) {
+            int i = x + dir.getX(), j = y + dir.getY(), length = 0;
+            while (i >= 0 && i < size && j >= 0 && j < size && cells[i][j] == -1) {
+                i += dir.getX();
+                j += dir.getY();
+                ++length;
+            }
+            if (length > 0 && i >= 0 && i < size && j >= 0 && j < size && cells[i][j] == 1) {
+                flipped = true;
+                for (int k = 1; k <= length; ++k) {
+                    next[x + k * dir.getX()][y + k * dir.getY()] = 1;
+                }
+            }
+        }
+        if (!flipped) {
+            return null;
+        }
+        next[x][y] = 1;
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                next[i][j] = -next[i][j];
+            }
+        }
+        return next;
+    }
+
+    public void testBoardIsRestored() {
+        Board board = new Board();
+        String before = board.toCompactString();
+        long key = board.getZobristKey();
+        Perft.perft(board, 6, false);
+        assertEquals(before, board.toCompactString());
+        assertEquals(key, board.getZobristKey());
+    }
+
+    /**
+     * Positions aléatoires de milieu et de fin de partie, où les passes et les fins anticipées sont fréquentes :
+     * Board doit donner le même résultat qu'un perft indépendant sur les masques de BitBoard.
+     */
+    public void testRandomPositionsMatchBitBoardPerft() {
+        Random rng = new Random(2024);
+        for (int i = 0; i < 40; ++i) {
+            Board board = new Board();
+            int plies = 20 + rng.nextInt(40);
+            for (int ply = 0; ply < plies && !board.isOver(); ++ply) {
+                long moves = board.getLegalMoves();
+                for (int skip = rng.nextInt(BitBoard.count(moves)); skip > 0; --skip) {
+                    moves &= moves - 1;
+                }
+                board.makeMove(Long.numberOfTrailingZeros(moves));
+            }
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            for (int depth = 1; depth <= 4; ++depth) {
+                long expected = board.isOver() ? 1 : bitBoardPerft(player, opponent, depth);
+                assertEquals(board.toCompactString() + " depth " + depth, expected, Perft.perft(board, depth, false));
+                assertEquals(board.toCompactString() + " depth " + depth, expected, Perft.perft(board, depth, true));
+            }
+        }
+    }
+
+    /**
+     * Perft de référence sans Board : passe explicite, fin de partie quand aucun joueur ne peut jouer.
+     */
+    private static long bitBoardPerft(long player, long opponent, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long moves = BitBoard.legalMoves(player, opponent);
+        if (moves == 0L) {
+            if (!BitBoard.hasMove(opponent, player)) {
+                return 1;
+            }
+            return bitBoardPerft(opponent, player, depth - 1);
+        }
+        long nodes = 0;
+        for (; moves != 0L; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = BitBoard.flips(player, opponent, square);
+            nodes += bitBoardPerft(opponent ^ flipped, player | flipped | BitBoard.bit(square), depth - 1);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,86 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.Board;
+import junit.framework.TestCase;
+
+import java.util.List;
+
+/**
+ * Vérifie l'éviction LRU d'EvaluationCache et l'égalité de ses clés, en 8x8 comme sur les grands plateaux.
+ */
+public class EvaluationCacheTest extends TestCase {
+
+    private static final String STRATEGY = "maxflips";
+
+    public void testLeastRecentlyUsedIsEvicted() {
+        EvaluationCache<String> cache = new EvaluationCache<>(2);
+        Board board = new Board();
+        EvaluationCache.Key a = EvaluationCache.keyOf(board, STRATEGY);
+        play(board);
+        EvaluationCache.Key b = EvaluationCache.keyOf(board, STRATEGY);
+        play(board);
+        EvaluationCache.Key c = EvaluationCache.keyOf(board, STRATEGY);
+
+        cache.put(a, "a");
+        cache.put(b, "b");
+        // Lire a en fait l'entrée la plus récente : b est évincée à l'ajout de c
+        assertEquals("a", cache.get(a));
+        cache.put(c, "c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get(b));
+        assertEquals("a", cache.get(a));
+        assertEquals("c", cache.get(c));
+        assertEquals(3, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    public void testNullValuesAreNotStored() {
+        EvaluationCache<String> cache = new EvaluationCache<>(2);
+        cache.put(EvaluationCache.keyOf(new Board(), STRATEGY), null);
+        assertEquals(0, cache.size());
+        try {
+            new EvaluationCache<String>(0);
+            fail("A cache must hold at least one entry");
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    /**
+     * Les clés des grands plateaux comparent les pièces par contenu : deux plateaux indépendants
+     * dans la même position donnent la même entrée.
+     */
+    public void testWideBoardKeys() {
+        Board board = new Board(10);
+        Board same = new Board(10);
+        assertFalse(board.isSingleWord());
+        EvaluationCache.Key key = EvaluationCache.keyOf(board, STRATEGY);
+        assertEquals(key, EvaluationCache.keyOf(same, STRATEGY));
+        assertEquals(key.hashCode(), EvaluationCache.keyOf(same, STRATEGY).hashCode());
+
+        EvaluationCache<String> cache = new EvaluationCache<>(4);
+        cache.put(key, "start");
+        assertEquals("start", cache.get(EvaluationCache.keyOf(same, STRATEGY)));
+
+        assertFalse(key.equals(EvaluationCache.keyOf(same, "alphabeta")));
+        assertFalse(key.equals(EvaluationCache.keyOf(new Board(12), STRATEGY)));
+        play(same);
+        assertFalse(key.equals(EvaluationCache.keyOf(same, STRATEGY)));
+        assertNull(cache.get(EvaluationCache.keyOf(same, STRATEGY)));
+    }
+
+    /**
+     * Mêmes pièces, joueur au trait différent : deux entrées distinctes.
+     */
+    public void testSideToMoveIsPartOfKey() {
+        Board white = Board.fromCompactString("XO" + "-".repeat(62) + " O");
+        Board black = Board.fromCompactString("XO" + "-".repeat(62) + " X");
+        assertFalse(EvaluationCache.keyOf(white, STRATEGY).equals(EvaluationCache.keyOf(black, STRATEGY)));
+    }
+
+    private static void play(Board board) {
+        List<int[]> moves = board.getValidMovesForCurrentPlayer();
+        int[] move = moves.get(0);
+        board.playAt(move[0], move[1]);
+    }
+}
@@ -0,0 +1,220 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compare NotHelloAlphaBetaStrategy à la résolution exacte en fin de partie, sur un ou plusieurs threads
+ * et en analyse multi-PV, et vérifie le respect de l'échéance.
+ */
+public class NotHelloAlphaBetaStrategyTest extends TestCase {
+
+    // Pas d'échéance : la recherche va jusqu'à la fin de la partie
+    static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    public void testEndgameMatchesSolver() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null);
+        Random rng = new Random(5);
+        for (int i = 0; i < 40; ++i) {
+            Board board = randomPosition(rng, 2 + rng.nextInt(9));
+            NotHelloAlphaBetaStrategy alphaBeta = newStrategy(1);
+            int[] move = alphaBeta.evaluate(board, NO_DEADLINE);
+
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            int diff = solver.solve(player, opponent);
+            assertEquals(board.toCompactString(), expectedScore(diff), alphaBeta.getLastScore());
+            assertEquals(board.countDiscs(PieceColor.NONE), alphaBeta.getLastDepth());
+
+            // Le coup choisi atteint l'écart optimal
+            int square = BitBoard.square(move[0], move[1]);
+            long flipped = BitBoard.flips(player, opponent, square);
+            assertTrue(flipped != 0L);
+            assertEquals(board.toCompactString(), diff,
+                    -solver.solve(opponent ^ flipped, player | flipped | BitBoard.bit(square)));
+        }
+    }
+
+    public void testDeadline() {
+        Random rng = new Random(50);
+        NotHelloAlphaBetaStrategy alphaBeta = newStrategy(1);
+        for (int i = 0; i < 5; ++i) {
+            Board board = randomPosition(rng, 40);
+            long start = System.nanoTime();
+            int[] move = alphaBeta.evaluate(board, start + 50_000_000L);
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000L;
+            assertTrue(board.isLegalMove(BitBoard.square(move[0], move[1])));
+            assertTrue("depth " + alphaBeta.getLastDepth(), alphaBeta.getLastDepth() >= 1);
+            assertTrue(elapsedMillis + " ms", elapsedMillis < 250);
+        }
+    }
+
+    /**
+     * Lazy SMP : avec 4 threads, le score exact d'une fin de partie est le même qu'avec un seul.
+     */
+    public void testThreadsGiveSameExactScore() {
+        Random rng = new Random(7);
+        NotHelloAlphaBetaStrategy parallel = newStrategy(4);
+        try {
+            assertEquals(4, parallel.getThreads());
+            for (int i = 0; i < 30; ++i) {
+                Board board = randomPosition(rng, 6 + rng.nextInt(5));
+                NotHelloAlphaBetaStrategy single = newStrategy(1);
+                single.evaluate(board, NO_DEADLINE);
+                parallel.getTable().clear();
+                parallel.evaluate(board, NO_DEADLINE);
+                assertEquals(board.toCompactString(), single.getLastScore(), parallel.getLastScore());
+                assertEquals(board.countDiscs(PieceColor.NONE), parallel.getLastDepth());
+            }
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    /**
+     * Multi-PV : classement trié, meilleur coup identique à evaluate à la même profondeur.
+     */
+    public void testAnalysisRankingMatchesSearch() {
+        Random rng = new Random(25);
+        for (int i = 0; i < 10; ++i) {
+            Board board = randomPosition(rng, 44 - 2 * i);
+            int depth = 3 + i % 3;
+            NotHelloAlphaBetaStrategy analyzer = newStrategy(1);
+            analyzer.setMaxDepth(depth);
+            NotHelloAlphaBetaStrategy.Analysis analysis = analyzer.analyze(board, 3, NO_DEADLINE, null, null);
+            assertEquals(depth, analysis.getDepth());
+            assertSorted(analysis, 3);
+
+            NotHelloAlphaBetaStrategy search = newStrategy(1);
+            search.setMaxDepth(depth);
+            int[] move = search.evaluate(board, NO_DEADLINE);
+            assertEquals(board.toCompactString(), search.getLastScore(), analysis.getScore(0));
+            // En cas d'égalité, les deux recherches peuvent retenir des coups différents de même score
+            int square = BitBoard.square(move[0], move[1]);
+            boolean tied = false;
+            for (int rank = 0; rank < analysis.getMoveCount() && analysis.isExact(rank)
+                    && analysis.getScore(rank) == analysis.getScore(0); ++rank) {
+                tied |= analysis.getSquare(rank) == square;
+            }
+            assertTrue(board.toCompactString(), tied);
+        }
+    }
+
+    /**
+     * Une fin de partie entièrement explorée donne des scores exacts, ceux de la résolution.
+     */
+    public void testAnalysisIsExactOnceSolved() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null);
+        Random rng = new Random(52);
+        for (int i = 0; i < 10; ++i) {
+            Board board = randomPosition(rng, 3 + rng.nextInt(6));
+            int moves = BitBoard.count(board.getLegalMoves());
+            NotHelloAlphaBetaStrategy.Analysis analysis = newStrategy(1).analyze(board, moves, NO_DEADLINE, null, null);
+            assertEquals(board.countDiscs(PieceColor.NONE), analysis.getDepth());
+            assertEquals(moves, analysis.getMoveCount());
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            for (int rank = 0; rank < moves; ++rank) {
+                assertTrue(analysis.isExact(rank));
+                int square = analysis.getSquare(rank);
+                long flipped = BitBoard.flips(player, opponent, square);
+                int diff = -solver.solve(opponent ^ flipped, player | flipped | BitBoard.bit(square));
+                assertEquals(board.toCompactString(), expectedScore(diff), analysis.getScore(rank));
+            }
+            assertEquals(1, analysis.getRanking().get(0)[2]);
+        }
+    }
+
+    /**
+     * Le listener reçoit des analyses de plus en plus profondes, la dernière étant celle retournée.
+     */
+    public void testListenerReceivesDeeperAnalyses() {
+        Board board = randomPosition(new Random(250), 40);
+        NotHelloAlphaBetaStrategy analyzer = newStrategy(1);
+        analyzer.setMaxDepth(6);
+        List<NotHelloAlphaBetaStrategy.Analysis> partial = new ArrayList<>();
+        NotHelloAlphaBetaStrategy.Analysis last = analyzer.analyze(board, 2, NO_DEADLINE, null, partial::add);
+        assertEquals(6, partial.size());
+        for (int i = 0; i < partial.size(); ++i) {
+            assertEquals(i + 1, partial.get(i).getDepth());
+            assertSorted(partial.get(i), 2);
+            assertEquals(board.getLegalSquares(new int[BitBoard.SQUARES]), partial.get(i).getRanking().size());
+        }
+        assertSame(last, partial.get(partial.size() - 1));
+        assertEquals(6, analyzer.getLastDepth());
+        assertEquals(last.getScore(0), analyzer.getLastScore());
+    }
+
+    /**
+     * Coups exacts d'abord (au moins multiPv), puis scores (ou bornes) décroissants dans chaque groupe.
+     */
+    private static void assertSorted(NotHelloAlphaBetaStrategy.Analysis analysis, int multiPv) {
+        assertTrue(analysis.isExact(0));
+        int exactCount = 1;
+        while (exactCount < analysis.getMoveCount() && analysis.isExact(exactCount)) {
+            ++exactCount;
+        }
+        assertTrue(exactCount >= Math.min(multiPv, analysis.getMoveCount()));
+        for (int rank = 1; rank < analysis.getMoveCount(); ++rank) {
+            if (analysis.isExact(rank)) {
+                assertTrue(analysis.isExact(rank - 1));
+            }
+            if (analysis.isExact(rank) == analysis.isExact(rank - 1)) {
+                assertTrue(analysis.getScore(rank) <= analysis.getScore(rank - 1));
+            }
+            if (!analysis.isExact(rank)) {
+                // Une borne supérieure ne dépasse pas le K-ième meilleur score exact
+                assertTrue(analysis.getScore(rank) <= analysis.getScore(multiPv - 1));
+            }
+        }
+        int[] previous = null;
+        for (int[] move : analysis.getRanking()) {
+            if (previous != null) {
+                assertTrue(move[2] >= previous[2]);
+            }
+            previous = move;
+        }
+    }
+
+    public void testNoMove() {
+        Board board = Board.fromCompactString("XX" + "-".repeat(62) + " X");
+        assertTrue(board.isOver());
+        assertNull(newStrategy(1).evaluate(board, NO_DEADLINE));
+    }
+
+    static NotHelloAlphaBetaStrategy newStrategy(int threads) {
+        // Petite table : chaque instance alloue la sienne hors du tas
+        return new NotHelloAlphaBetaStrategy(1000,
+                new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED), threads);
+    }
+
+    /**
+     * @return le score de la recherche pour une fin de partie d'écart diff (cf. finalScore)
+     */
+    static int expectedScore(int diff) {
+        return diff > 0 ? NotHelloAlphaBetaStrategy.WIN_SCORE + diff
+                : diff < 0 ? -NotHelloAlphaBetaStrategy.WIN_SCORE + diff : 0;
+    }
+
+    /**
+     * Joue des coups aléatoires jusqu'à ce qu'il reste au plus empties cases vides, partie non terminée.
+     */
+    static Board randomPosition(Random rng, int empties) {
+        while (true) {
+            Board board = new Board();
+            int[] legal = new int[BitBoard.SQUARES];
+            while (!board.isOver() && board.countDiscs(PieceColor.NONE) > empties) {
+                board.makeMove(legal[rng.nextInt(board.getLegalSquares(legal))]);
+            }
+            if (!board.isOver()) {
+                return board;
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Compare la résolution de fin de partie à un minimax naïf, sans élagage ni tri, sur des positions aléatoires.
+ */
+public class NotHelloEndgameStrategyTest extends TestCase {
+
+    private static final int POSITIONS = 60;
+    private static final int MAX_EMPTIES = 9;
+
+    public void testExactScoreMatchesMinimax() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null, MAX_EMPTIES);
+        Random rng = new Random(14);
+        for (int i = 0; i < POSITIONS; ++i) {
+            Board board = randomEndgame(rng, 1 + rng.nextInt(MAX_EMPTIES));
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            assertEquals(board.toCompactString(), minimax(player, opponent, false), solver.solve(player, opponent));
+        }
+    }
+
+    public void testWinDrawLossMatchesMinimax() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null, MAX_EMPTIES);
+        solver.setExact(false);
+        Random rng = new Random(41);
+        for (int i = 0; i < POSITIONS; ++i) {
+            Board board = randomEndgame(rng, 1 + rng.nextInt(MAX_EMPTIES));
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            assertEquals(board.toCompactString(), Integer.signum(minimax(player, opponent, false)),
+                    Integer.signum(solver.solve(player, opponent)));
+        }
+    }
+
+    /**
+     * Le coup choisi doit atteindre le score du minimax, en mode exact comme en victoire/nul/défaite.
+     */
+    public void testChosenMoveIsOptimal() {
+        NotHelloEndgameStrategy exact = new NotHelloEndgameStrategy(null, MAX_EMPTIES);
+        NotHelloEndgameStrategy wdl = new NotHelloEndgameStrategy(null, MAX_EMPTIES);
+        wdl.setExact(false);
+        Random rng = new Random(7);
+        for (int i = 0; i < POSITIONS; ++i) {
+            Board board = randomEndgame(rng, 2 + rng.nextInt(MAX_EMPTIES - 1));
+            long player = board.getDiscs(board.getPlayerTurn());
+            long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+            if (!BitBoard.hasMove(player, opponent)) {
+                continue;
+            }
+            int best = minimax(player, opponent, false);
+            assertEquals(board.toCompactString(), best, scoreAfter(player, opponent, exact.evaluate(board)));
+            assertEquals(board.toCompactString(), Integer.signum(best),
+                    Integer.signum(scoreAfter(player, opponent, wdl.evaluate(board))));
+        }
+    }
+
+    /**
+     * Au-dessus du seuil, la stratégie de repli joue.
+     */
+    public void testFallbackAboveThreshold() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(board -> new int[]{-1, -1}, MAX_EMPTIES);
+        assertEquals(-1, solver.evaluate(new Board())[0]);
+    }
+
+    private static int scoreAfter(long player, long opponent, int[] move) {
+        int square = BitBoard.square(move[0], move[1]);
+        long flipped = BitBoard.flips(player, opponent, square);
+        assertTrue("illegal move " + square, flipped != 0L);
+        return -minimax(opponent ^ flipped, player | flipped | BitBoard.bit(square), false);
+    }
+
+    /**
+     * @return la différence de pions finale du point de vue de player, cases vides non attribuées
+     */
+    private static int minimax(long player, long opponent, boolean passed) {
+        long legal = BitBoard.legalMoves(player, opponent);
+        if (legal == 0L) {
+            if (passed) return BitBoard.count(player) - BitBoard.count(opponent);
+            return -minimax(opponent, player, true);
+        }
+        int best = Integer.MIN_VALUE;
+        for (; legal != 0L; legal &= legal - 1) {
+            int square = Long.numberOfTrailingZeros(legal);
+            long flipped = BitBoard.flips(player, opponent, square);
+            best = Math.max(best, -minimax(opponent ^ flipped, player | flipped | BitBoard.bit(square), false));
+        }
+        return best;
+    }
+
+    /**
+     * Joue des coups aléatoires jusqu'à ce qu'il reste au plus empties cases vides, les deux couleurs au trait.
+     */
+    private static Board randomEndgame(Random rng, int empties) {
+        while (true) {
+            Board board = new Board();
+            int[] legal = new int[BitBoard.SQUARES];
+            while (!board.isOver() && board.countDiscs(PieceColor.NONE) > empties) {
+                int count = board.getLegalSquares(legal);
+                board.makeMove(legal[rng.nextInt(count)]);
+            }
+            if (!board.isOver()) {
+                return board;
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.Board;
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Vérifie que les deux modes de NotHelloMaxFlipsStrategy donnent les mêmes scores.
+ */
+public class NotHelloMaxFlipsStrategyTest extends TestCase {
+
+    public void testSingleSolveMatchesPerMove() {
+        NotHelloMaxFlipsStrategy single = newStrategy(NotHelloMaxFlipsStrategy.Mode.SINGLE_SOLVE, 0);
+        NotHelloMaxFlipsStrategy perMove = newStrategy(NotHelloMaxFlipsStrategy.Mode.PER_MOVE, 0);
+        Random rng = new Random(9);
+        for (int i = 0; i < 8; i++) {
+            Board board = randomPosition(rng, 4 + 6 * i);
+            assertSameRanking(board, perMove.getNormalizedScores(board), single.getNormalizedScores(board));
+            assertEquals(perMove.getNormalizedScores(board).size(), board.getValidMovesForCurrentPlayer().size());
+            assertTrue(Arrays.equals(perMove.evaluate(board), single.evaluate(board)));
+        }
+    }
+
+    /**
+     * Une énumération interrompue par la limite de temps n'est pas prise pour un classement complet :
+     * le résultat reste celui du mode PER_MOVE.
+     */
+    public void testInterruptedEnumerationFallsBackToPerMove() {
+        NotHelloMaxFlipsStrategy limited = newStrategy(NotHelloMaxFlipsStrategy.Mode.SINGLE_SOLVE, 1e-9);
+        NotHelloMaxFlipsStrategy perMove = newStrategy(NotHelloMaxFlipsStrategy.Mode.PER_MOVE, 0);
+        Random rng = new Random(10);
+        for (int i = 0; i < 4; i++) {
+            Board board = randomPosition(rng, 10 + 8 * i);
+            assertSameRanking(board, perMove.getNormalizedScores(board), limited.getNormalizedScores(board));
+        }
+    }
+
+    private static void assertSameRanking(Board board, List<int[]> expected, List<int[]> actual) {
+        assertEquals(board.toCompactString(), expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertTrue(board.toCompactString(), Arrays.equals(expected.get(i), actual.get(i)));
+        }
+    }
+
+    private static NotHelloMaxFlipsStrategy newStrategy(NotHelloMaxFlipsStrategy.Mode mode, double maxTimeSeconds) {
+        NotHelloMaxFlipsStrategy strategy = new NotHelloMaxFlipsStrategy();
+        strategy.setMode(mode);
+        SolverConfig config = new SolverConfig();
+        config.setNumWorkers(1);
+        config.setDeterministic(true);
+        config.setMaxTimeSeconds(maxTimeSeconds);
+        strategy.setSolverConfig(config);
+        return strategy;
+    }
+
+    /**
+     * @return la position après plies coups joués au hasard, avec au moins deux coups légaux
+     */
+    private static Board randomPosition(Random rng, int plies) {
+        while (true) {
+            Board board = new Board();
+            for (int ply = 0; ply < plies && !board.isOver(); ply++) {
+                List<int[]> moves = board.getValidMovesForCurrentPlayer();
+                int[] move = moves.get(rng.nextInt(moves.size()));
+                board.playAt(move[0], move[1]);
+            }
+            if (!board.isOver() && board.getValidMovesForCurrentPlayer().size() >= 2) {
+                return board;
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import junit.framework.TestCase;
+
+import java.util.Random;
+
+/**
+ * Vérifie les choix de NotHelloMctsStrategy sur des fins de partie résolues, et la réutilisation de l'arbre.
+ */
+public class NotHelloMctsStrategyTest extends TestCase {
+
+    // Pas d'échéance : les recherches sont limitées en nombre de parties, donc reproductibles
+    private static final long NO_DEADLINE = Long.MAX_VALUE / 2;
+
+    public void testForcedMove() {
+        // Noir n'a qu'un coup, en (0, 2)
+        Board board = Board.fromCompactString("XO" + "-".repeat(62) + " X");
+        NotHelloMctsStrategy mcts = new NotHelloMctsStrategy(1000);
+        int[] move = mcts.evaluate(board);
+        assertEquals(0, move[0]);
+        assertEquals(2, move[1]);
+        assertEquals(0, mcts.getLastPlayouts());
+    }
+
+    /**
+     * Fins de partie où un seul coup gagne, d'après la résolution exacte : MCTS doit le trouver.
+     */
+    public void testFindsTheOnlyWinningMove() {
+        NotHelloEndgameStrategy solver = new NotHelloEndgameStrategy(null);
+        Random rng = new Random(22);
+        int found = 0;
+        while (found < 10) {
+            Board board = randomEndgame(rng, 4 + rng.nextInt(3));
+            int winning = onlyWinningMove(solver, board);
+            if (winning < 0) {
+                continue;
+            }
+            NotHelloMctsStrategy mcts = new NotHelloMctsStrategy(1000);
+            mcts.setSeed(found);
+            mcts.setPlayoutLimit(20_000);
+            int[] move = mcts.evaluate(board, NO_DEADLINE);
+            assertEquals(board.toCompactString(), winning, BitBoard.square(move[0], move[1]));
+            assertTrue(mcts.getLastWinRate() > 0.5);
+            ++found;
+        }
+    }
+
+    /**
+     * Après le coup choisi et la réponse de l'adversaire, l'arbre garde le sous-arbre de la nouvelle position,
+     * cohérent et avec ses visites.
+     */
+    public void testTreeReuseKeepsConsistentSubtree() {
+        NotHelloMctsStrategy mcts = new NotHelloMctsStrategy(1000, 2);
+        NotHelloMctsStrategy fresh = new NotHelloMctsStrategy(1000);
+        try {
+            mcts.setSeed(5);
+            mcts.setPlayoutLimit(20_000);
+            Board board = new Board();
+            for (int turn = 0; turn < 6; ++turn) {
+                int[] move = mcts.evaluate(board, NO_DEADLINE);
+                mcts.checkTrees(board.getDiscs(board.getPlayerTurn()), board.getDiscs(board.getPlayerTurn().opposite()));
+                board.makeMove(BitBoard.square(move[0], move[1]));
+                int[] reply = fresh.evaluate(board, System.nanoTime() + 10_000_000L);
+                board.makeMove(BitBoard.square(reply[0], reply[1]));
+            }
+
+            // Une seule partie de plus : les visites du coup choisi viennent surtout des recherches précédentes
+            mcts.setPlayoutLimit(2);
+            int[] move = mcts.evaluate(board, NO_DEADLINE);
+            mcts.checkTrees(board.getDiscs(board.getPlayerTurn()), board.getDiscs(board.getPlayerTurn().opposite()));
+            assertTrue(board.isLegalMove(BitBoard.square(move[0], move[1])));
+            assertTrue("visits " + mcts.getLastVisits(), mcts.getLastVisits() > 10);
+        } finally {
+            mcts.shutdown();
+        }
+    }
+
+    /**
+     * @return la seule case gagnante d'après la résolution exacte, ou -1 s'il n'y en a pas exactement une
+     */
+    private static int onlyWinningMove(NotHelloEndgameStrategy solver, Board board) {
+        long player = board.getDiscs(board.getPlayerTurn());
+        long opponent = board.getDiscs(board.getPlayerTurn().opposite());
+        int winning = -1;
+        for (long moves = BitBoard.legalMoves(player, opponent); moves != 0L; moves &= moves - 1) {
+            int square = Long.numberOfTrailingZeros(moves);
+            long flipped = BitBoard.flips(player, opponent, square);
+            int score = -solver.solve(opponent ^ flipped, player | flipped | BitBoard.bit(square));
+            if (score > 0) {
+                if (winning >= 0) return -1;
+                winning = square;
+            } else if (score == 0) {
+                return -1;
+            }
+        }
+        return BitBoard.count(BitBoard.legalMoves(player, opponent)) > 1 ? winning : -1;
+    }
+
+    private static Board randomEndgame(Random rng, int empties) {
+        while (true) {
+            Board board = new Board();
+            int[] legal = new int[BitBoard.SQUARES];
+            while (!board.isOver() && board.countDiscs(PieceColor.NONE) > empties) {
+                board.makeMove(legal[rng.nextInt(board.getLegalSquares(legal))]);
+            }
+            if (!board.isOver()) {
+                return board;
+            }
+        }
+    }
+}
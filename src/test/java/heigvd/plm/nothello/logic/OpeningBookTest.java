@@ -0,0 +1,131 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.PieceColor;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Vérifie la construction d'un livre d'ouvertures (OpeningBookBuilder) et les recherches dans le fichier écrit.
+ */
+public class OpeningBookTest extends TestCase {
+
+    private Path file;
+    // Deux premiers coups possibles depuis la position initiale, a < b, et une réponse à chacun
+    private int a, b, replyA, replyB;
+
+    @Override
+    protected void setUp() throws IOException {
+        file = Files.createTempFile("nothello", ".book");
+        int[] legal = new int[BitBoard.SQUARES];
+        Board board = new Board();
+        board.getLegalSquares(legal);
+        a = Math.min(legal[0], legal[1]);
+        b = Math.max(legal[0], legal[1]);
+        replyA = firstReply(a);
+        replyB = firstReply(b);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Depuis la position initiale, a est joué 3 fois (2 victoires, 1 défaite pour son joueur), b une fois (nul).
+     */
+    private OpeningBookBuilder builder() {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        boolean blackFirst = new Board().getPlayerTurn() == PieceColor.BLACK;
+        int moverWins = blackFirst ? 40 : 24;
+        builder.addGame(new int[]{a, replyA}, moverWins, 64 - moverWins);
+        builder.addGame(new int[]{a, replyA}, moverWins, 64 - moverWins);
+        builder.addGame(new int[]{a, replyA}, 64 - moverWins, moverWins);
+        builder.addGame(new int[]{b, replyB}, 32, 32);
+        return builder;
+    }
+
+    public void testBuildAndLookup() throws IOException {
+        OpeningBookBuilder builder = builder();
+        assertEquals(4, builder.getGames());
+        assertEquals(4, builder.size());
+        builder.write(file, 1);
+
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(4, book.size());
+        long start = new Board().getZobristKey();
+        assertEquals(4, book.plays(start));
+        // a : 2/3 des points, b : 1/2
+        assertEquals(a, book.bestMove(start, 1));
+        assertEquals(a, book.bestMove(start, 3));
+        assertEquals(-1, book.bestMove(start, 4));
+
+        Board afterA = new Board();
+        afterA.makeMove(a);
+        assertEquals(3, book.plays(afterA.getZobristKey()));
+        assertEquals(replyA, book.bestMove(afterA.getZobristKey(), 1));
+
+        long unknown = start ^ 1L;
+        assertEquals(0, book.plays(unknown));
+        assertEquals(-1, book.bestMove(unknown, 1));
+        assertEquals(-1, book.weightedRandomMove(unknown, 0.5));
+    }
+
+    /**
+     * Tirage proportionnel au nombre de parties : a pour [0, 3/4), b pour [3/4, 1).
+     */
+    public void testWeightedRandomMove() throws IOException {
+        builder().write(file, 1);
+        OpeningBook book = OpeningBook.open(file);
+        long start = new Board().getZobristKey();
+        assertEquals(a, book.weightedRandomMove(start, 0.0));
+        assertEquals(a, book.weightedRandomMove(start, 0.74));
+        assertEquals(b, book.weightedRandomMove(start, 0.75));
+        assertEquals(b, book.weightedRandomMove(start, 0.999));
+    }
+
+    public void testMinPlaysFiltersEntries() throws IOException {
+        builder().write(file, 2);
+        OpeningBook book = OpeningBook.open(file);
+        assertEquals(2, book.size());
+        long start = new Board().getZobristKey();
+        assertEquals(3, book.plays(start));
+        assertEquals(a, book.weightedRandomMove(start, 0.99));
+    }
+
+    public void testBookStrategyFallsBackOutsideTheBook() throws IOException {
+        builder().write(file, 1);
+        int[] fallbackMove = {-1, -1};
+        BookStrategy strategy = new BookStrategy(OpeningBook.open(file), board -> fallbackMove);
+        assertTrue(Arrays.equals(new int[]{BitBoard.x(a), BitBoard.y(a)}, strategy.evaluate(new Board())));
+
+        Board afterB = new Board();
+        afterB.makeMove(b);
+        afterB.makeMove(replyB);
+        assertSame(fallbackMove, strategy.evaluate(afterB));
+        assertEquals(1, strategy.getBookMoves());
+        assertEquals(1, strategy.getFallbackMoves());
+    }
+
+    public void testRejectsOtherFiles() throws IOException {
+        Files.write(file, new byte[16]);
+        try {
+            OpeningBook.open(file);
+            fail("Invalid book opened");
+        } catch (IOException expected) {
+        }
+    }
+
+    private static int firstReply(int first) {
+        Board board = new Board();
+        board.makeMove(first);
+        int[] legal = new int[BitBoard.SQUARES];
+        board.getLegalSquares(legal);
+        return legal[0];
+    }
+}
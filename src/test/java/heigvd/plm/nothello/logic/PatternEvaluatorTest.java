@@ -0,0 +1,145 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.BitBoard;
+import heigvd.plm.nothello.game.Board;
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Vérifie la lecture des motifs sur les bitboards, les rotations, la stabilité et le format des poids.
+ */
+public class PatternEvaluatorTest extends TestCase {
+
+    public void testTransformsMatchNaive() {
+        Random rng = new Random(7);
+        for (int i = 0; i < 200; ++i) {
+            long discs = rng.nextLong();
+            long transposed = 0L, rotated = 0L;
+            for (int x = 0; x < 8; ++x) {
+                for (int y = 0; y < 8; ++y) {
+                    if ((discs & BitBoard.bit(BitBoard.square(x, y))) != 0L) {
+                        transposed |= BitBoard.bit(BitBoard.square(y, x));
+                        rotated |= BitBoard.bit(BitBoard.square(7 - y, x));
+                    }
+                }
+            }
+            assertEquals(transposed, PatternEvaluator.transpose(discs));
+            assertEquals(rotated, PatternEvaluator.rotate90(discs));
+        }
+    }
+
+    public void testIndicesMatchNaive() {
+        int[] indices = new int[PatternEvaluator.ROTATIONS * PatternEvaluator.PATTERNS];
+        for (long[] position : positions(100)) {
+            PatternEvaluator.indices(position[0], position[1], indices);
+            for (int r = 0; r < PatternEvaluator.ROTATIONS; ++r) {
+                long player = PatternWeights.rotate(position[0], r), opponent = PatternWeights.rotate(position[1], r);
+                for (int p = 0; p < PatternEvaluator.PATTERNS; ++p) {
+                    int expected = 0;
+                    int[] squares = PatternEvaluator.SQUARES[p];
+                    for (int i = squares.length - 1; i >= 0; --i) {
+                        long bit = BitBoard.bit(squares[i]);
+                        expected = 3 * expected + ((player & bit) != 0L ? 1 : (opponent & bit) != 0L ? 2 : 0);
+                    }
+                    assertEquals("rotation " + r + " pattern " + p, expected,
+                            indices[r * PatternEvaluator.PATTERNS + p]);
+                    assertTrue(expected < PatternEvaluator.SIZES[p]);
+                }
+            }
+        }
+    }
+
+    public void testEvaluationIsRotationInvariant() {
+        PatternEvaluator evaluator = new PatternEvaluator(PatternWeights.defaults());
+        for (long[] position : positions(100)) {
+            int score = evaluator.evaluate(position[0], position[1]);
+            for (int r = 1; r < PatternEvaluator.ROTATIONS; ++r) {
+                assertEquals(score, evaluator.evaluate(PatternWeights.rotate(position[0], r),
+                        PatternWeights.rotate(position[1], r)));
+            }
+        }
+    }
+
+    /**
+     * Les poids par défaut reproduisent l'évaluation de l'alpha-bêta, plus le bonus de stabilité,
+     * à l'arrondi des poids répartis près (au plus un demi-point par motif lu).
+     */
+    public void testDefaultsMatchSquareWeights() {
+        PatternEvaluator evaluator = new PatternEvaluator(PatternWeights.defaults());
+        for (long[] position : positions(200)) {
+            long player = position[0], opponent = position[1];
+            int stability = BitBoard.count(PatternEvaluator.stableDiscs(player, opponent))
+                    - BitBoard.count(PatternEvaluator.stableDiscs(opponent, player));
+            int expected = NotHelloAlphaBetaStrategy.evaluatePosition(player, opponent) + 10 * stability;
+            assertTrue(Math.abs(expected - evaluator.evaluate(player, opponent)) <= 14);
+        }
+    }
+
+    public void testStableDiscs() {
+        long corner = BitBoard.bit(BitBoard.square(0, 0));
+        long next = BitBoard.bit(BitBoard.square(0, 1));
+        assertEquals(corner | next, PatternEvaluator.stableDiscs(corner | next, 0L));
+        // Un pion au bord, sans coin, peut encore être pris
+        assertEquals(0L, PatternEvaluator.stableDiscs(next, 0L));
+        // Plateau plein : tout est stable
+        long half = 0x00000000FFFFFFFFL;
+        assertEquals(half, PatternEvaluator.stableDiscs(half, ~half));
+        for (long[] position : positions(100)) {
+            long stable = PatternEvaluator.stableDiscs(position[0], position[1]);
+            assertEquals(0L, stable & ~position[0]);
+        }
+    }
+
+    public void testWeightsRoundTrip() throws IOException {
+        PatternWeights weights = PatternWeights.defaults();
+        weights.setScalars(2, -3, 7, 11);
+        Path file = Files.createTempFile("patterns", ".bin");
+        try {
+            weights.write(file);
+            assertEquals(PatternWeights.HEADER_BYTES
+                    + PatternWeights.PHASES * (3 + PatternEvaluator.ENTRIES) * Short.BYTES, Files.size(file));
+            PatternWeights read = PatternWeights.read(file);
+            for (int phase = 0; phase < PatternWeights.PHASES; ++phase) {
+                assertTrue(java.util.Arrays.equals(weights.table(phase), read.table(phase)));
+                assertEquals(weights.getBias(phase), read.getBias(phase));
+                assertEquals(weights.getMobility(phase), read.getMobility(phase));
+                assertEquals(weights.getStability(phase), read.getStability(phase));
+            }
+            Files.write(file, new byte[]{1, 2, 3});
+            try {
+                PatternWeights.read(file);
+                fail("Expected an IOException");
+            } catch (IOException e) {
+                // attendu
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Positions de parties aléatoires, du point de vue du joueur au trait.
+     */
+    private static long[][] positions(int count) {
+        Random rng = new Random(2027);
+        long[][] positions = new long[count][];
+        for (int i = 0; i < count; ++i) {
+            Board board = new Board();
+            int plies = rng.nextInt(60);
+            for (int ply = 0; ply < plies && !board.isOver(); ++ply) {
+                long moves = board.getLegalMoves();
+                for (int skip = rng.nextInt(BitBoard.count(moves)); skip > 0; --skip) {
+                    moves &= moves - 1;
+                }
+                board.makeMove(Long.numberOfTrailingZeros(moves));
+            }
+            positions[i] = new long[]{board.getDiscs(board.getPlayerTurn()),
+                    board.getDiscs(board.getPlayerTurn().opposite())};
+        }
+        return positions;
+    }
+}
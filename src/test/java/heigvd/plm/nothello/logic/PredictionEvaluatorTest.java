@@ -0,0 +1,186 @@
+package heigvd.plm.nothello.logic;
+
+import heigvd.plm.nothello.game.Board;
+import heigvd.plm.nothello.game.GameActor;
+import junit.framework.TestCase;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérifie les évaluations asynchrones de PredictionEvaluator : remplacement des demandes et arrêt.
+ */
+public class PredictionEvaluatorTest extends TestCase {
+
+    private GameActor game;
+    private PredictionEvaluator evaluator;
+
+    @Override
+    protected void setUp() {
+        game = new GameActor(Board.BOARD_SIZE);
+        evaluator = new PredictionEvaluator(game::getSnapshot);
+    }
+
+    @Override
+    protected void tearDown() {
+        evaluator.shutdown();
+        game.shutdown();
+    }
+
+    /**
+     * Une nouvelle demande annule l'évaluation en cours, dont le futur est annulé, et seule la dernière
+     * est à jour.
+     */
+    public void testNewerRequestSupersedesOlder() throws Exception {
+        SlowStrategy slow = new SlowStrategy(true);
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> older = evaluator.evaluateMovesAsync(slow);
+        assertTrue(slow.started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> newer =
+                evaluator.evaluateMovesAsync(new FixedStrategy(2, 3));
+        try {
+            older.get(5, TimeUnit.SECONDS);
+            fail("The superseded evaluation must be cancelled");
+        } catch (CancellationException expected) {
+            assertTrue(older.isCancelled());
+        }
+        assertTrue(slow.token.isCancelled());
+
+        PredictionEvaluator.Prediction<int[]> current = newer.get(5, TimeUnit.SECONDS);
+        assertEquals(2, current.getValue()[0]);
+        assertEquals(3, current.getValue()[1]);
+        assertEquals(game.getSnapshot().getZobristKey(), current.getPositionKey());
+        assertTrue(evaluator.isCurrent(current));
+
+        PredictionEvaluator.Prediction<int[]> latest =
+                evaluator.evaluateMovesAsync(new FixedStrategy(4, 5)).get(5, TimeUnit.SECONDS);
+        assertFalse(evaluator.isCurrent(current));
+        assertTrue(evaluator.isCurrent(latest));
+        assertTrue(latest.getVersion() > current.getVersion());
+    }
+
+    /**
+     * Annuler le futur annule aussi le jeton transmis à la stratégie.
+     */
+    public void testCancellingFutureCancelsToken() throws Exception {
+        SlowStrategy slow = new SlowStrategy(true);
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> future = evaluator.evaluateMovesAsync(slow);
+        assertTrue(slow.started.await(5, TimeUnit.SECONDS));
+        future.cancel(false);
+        assertTrue(slow.token.isCancelled());
+        assertTrue(slow.finished.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * L'arrêt termine tous les futurs, y compris ceux des demandes qui attendaient leur tour derrière
+     * une stratégie qui ne consulte pas son jeton.
+     */
+    public void testShutdownCompletesPendingFutures() throws Exception {
+        SlowStrategy running = new SlowStrategy(false);
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> first = evaluator.evaluateMovesAsync(running);
+        assertTrue(running.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> second =
+                evaluator.evaluateMovesAsync(new SlowStrategy(false));
+        CompletableFuture<PredictionEvaluator.Prediction<int[]>> third =
+                evaluator.evaluateMovesAsync(new SlowStrategy(false));
+
+        evaluator.shutdown();
+        for (CompletableFuture<?> future : new CompletableFuture<?>[] {first, second, third}) {
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                fail("Evaluations interrupted by shutdown must be cancelled");
+            } catch (CancellationException expected) {
+                assertTrue(future.isCancelled());
+            }
+        }
+    }
+
+    /**
+     * Seuls les résultats des stratégies déterministes sont mis en cache, en synchrone comme en asynchrone.
+     */
+    public void testOnlyDeterministicStrategiesAreCached() throws Exception {
+        FixedStrategy deterministic = new FixedStrategy(2, 3, true);
+        assertEquals(2, evaluator.evaluateMoves(deterministic)[0]);
+        evaluator.evaluateMoves(deterministic)[0] = 7;
+        assertEquals(2, evaluator.evaluateMoves(deterministic)[0]);
+        assertEquals(1, deterministic.calls);
+        assertEquals(2, evaluator.evaluateMovesAsync(deterministic).get(5, TimeUnit.SECONDS).getValue()[0]);
+        assertEquals(1, deterministic.calls);
+        assertEquals(1, evaluator.getMoveCache().size());
+
+        FixedStrategy random = new FixedStrategy(2, 3, false);
+        evaluator.evaluateMoves(random);
+        evaluator.evaluateMoves(random);
+        evaluator.evaluateMovesAsync(random).get(5, TimeUnit.SECONDS);
+        assertEquals(3, random.calls);
+        assertEquals(1, evaluator.getMoveCache().size());
+    }
+
+    /**
+     * Stratégie lente : attend l'annulation de son jeton, ou une interruption si elle l'ignore.
+     */
+    private static class SlowStrategy implements NotHelloStrategy {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        private final boolean checksToken;
+        volatile CancellationToken token;
+
+        SlowStrategy(boolean checksToken) {
+            this.checksToken = checksToken;
+        }
+
+        @Override
+        public int[] evaluate(Board board) {
+            return evaluate(board, new CancellationToken());
+        }
+
+        @Override
+        public int[] evaluate(Board board, CancellationToken token) {
+            this.token = token;
+            started.countDown();
+            try {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+                while (!(checksToken && token.isCancelled()) && System.nanoTime() < deadline) {
+                    Thread.sleep(1);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+            return board.getValidMovesForCurrentPlayer().get(0);
+        }
+    }
+
+    /**
+     * Stratégie immédiate qui joue toujours la même case, et compte ses appels.
+     */
+    private static class FixedStrategy implements NotHelloStrategy {
+        private final int x;
+        private final int y;
+        private final boolean deterministic;
+        volatile int calls;
+
+        FixedStrategy(int x, int y) {
+            this(x, y, false);
+        }
+
+        FixedStrategy(int x, int y, boolean deterministic) {
+            this.x = x;
+            this.y = y;
+            this.deterministic = deterministic;
+        }
+
+        @Override
+        public int[] evaluate(Board board) {
+            ++calls;
+            return new int[] {x, y};
+        }
+
+        @Override
+        public boolean isDeterministic() {
+            return deterministic;
+        }
+    }
+}
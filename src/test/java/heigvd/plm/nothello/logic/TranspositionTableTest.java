@@ -0,0 +1,111 @@
+package heigvd.plm.nothello.logic;
+
+import junit.framework.TestCase;
+
+/**
+ * Vérifie l'enregistrement, la lecture et le remplacement des entrées de TranspositionTable.
+ */
+public class TranspositionTableTest extends TestCase {
+
+    public void testStoreAndProbe() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        long key = 0x123456789ABCDEFL;
+        assertEquals(0L, table.probe(key));
+
+        table.store(key, 27, 9, TranspositionTable.LOWER, 153);
+        long data = table.probe(key);
+        assertEquals(27, TranspositionTable.move(data));
+        assertEquals(9, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(data));
+        assertEquals(153, TranspositionTable.score(data));
+        assertEquals(0L, table.probe(key ^ 1L << 40));
+
+        // Même position : l'entrée est mise à jour, sans collision
+        table.store(key, -1, 10, TranspositionTable.EXACT, 0);
+        data = table.probe(key);
+        assertEquals(-1, TranspositionTable.move(data));
+        assertEquals(10, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.EXACT, TranspositionTable.bound(data));
+        assertEquals(0L, table.getCollisions());
+        assertEquals(2, table.getHits());
+        assertEquals(2, table.getMisses());
+
+        table.clear();
+        assertEquals(0L, table.probe(key));
+    }
+
+    /**
+     * Les scores négatifs (point de vue du joueur au trait) doivent revenir avec leur signe.
+     */
+    public void testScoreSignRoundTrip() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        int[] scores = {Integer.MIN_VALUE, -1_000_000, -65, -1, 0, 1, 64, 1_000_000, Integer.MAX_VALUE};
+        for (int i = 0; i < scores.length; ++i) {
+            long key = 0x9E3779B97F4A7C15L * (i + 1);
+            table.store(key, 63, 127, TranspositionTable.UPPER, scores[i]);
+            long data = table.probe(key);
+            assertEquals(scores[i], TranspositionTable.score(data));
+            assertEquals(63, TranspositionTable.move(data));
+            assertEquals(127, TranspositionTable.depth(data));
+            assertEquals(TranspositionTable.UPPER, TranspositionTable.bound(data));
+        }
+    }
+
+    /**
+     * Avec ALWAYS, l'entrée la plus ancienne du paquet est remplacée même si c'est la plus profonde.
+     */
+    public void testAlwaysReplacesOldest() {
+        TranspositionTable table = fillBucket(TranspositionTable.ReplacementPolicy.ALWAYS);
+        table.store(sameBucket(4), 0, 1, TranspositionTable.EXACT, 0);
+        assertEquals(0L, table.probe(sameBucket(0)));
+        for (int i = 1; i <= 4; ++i) {
+            assertTrue("entry " + i, table.probe(sameBucket(i)) != 0L);
+        }
+        assertEquals(1, table.getCollisions());
+    }
+
+    /**
+     * Avec DEPTH_PREFERRED, l'entrée profonde survit à une recherche et l'entrée la moins profonde est remplacée.
+     */
+    public void testDepthPreferredKeepsDeepEntries() {
+        TranspositionTable table = fillBucket(TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        table.store(sameBucket(4), 0, 1, TranspositionTable.EXACT, 0);
+        assertTrue(table.probe(sameBucket(0)) != 0L);
+        assertEquals(0L, table.probe(sameBucket(1)));
+        for (int i = 2; i <= 4; ++i) {
+            assertTrue("entry " + i, table.probe(sameBucket(i)) != 0L);
+        }
+
+        // Après assez de recherches, une entrée profonde mais ancienne cède la place aux entrées récentes
+        for (int i = 0; i < 8; ++i) {
+            table.newSearch();
+        }
+        for (int i = 2; i <= 4; ++i) {
+            table.store(sameBucket(i), 0, 1, TranspositionTable.EXACT, 0);
+        }
+        table.store(sameBucket(5), 0, 0, TranspositionTable.EXACT, 0);
+        assertEquals(0L, table.probe(sameBucket(0)));
+    }
+
+    /**
+     * Remplit un paquet : une entrée profonde (profondeur 50), puis trois entrées peu profondes
+     * d'une recherche suivante.
+     */
+    private static TranspositionTable fillBucket(TranspositionTable.ReplacementPolicy policy) {
+        TranspositionTable table = new TranspositionTable(1, policy);
+        table.store(sameBucket(0), 0, 50, TranspositionTable.EXACT, 0);
+        table.newSearch();
+        for (int i = 1; i <= 3; ++i) {
+            table.store(sameBucket(i), 0, 1, TranspositionTable.EXACT, 0);
+        }
+        assertEquals(0, table.getCollisions());
+        return table;
+    }
+
+    /**
+     * @return des clés différentes qui tombent toutes dans le même paquet (mêmes bits de poids faible)
+     */
+    private static long sameBucket(int i) {
+        return 0x2AL + ((long) i << 40);
+    }
+}
@@ -0,0 +1,104 @@
+package heigvd.plm.nothello.server;
+
+import junit.framework.TestCase;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Vérifie les routes du serveur de parties, sur un port libre de localhost.
+ */
+public class GameServerTest extends TestCase {
+
+    private GameServer server;
+
+    @Override
+    protected void setUp() throws IOException {
+        server = new GameServer(0);
+        server.setEvaluationThreads(1);
+        server.setStrategies(List.of("maxflips", "alphabeta:50"));
+        server.start();
+    }
+
+    @Override
+    protected void tearDown() {
+        server.stop();
+    }
+
+    public void testCreateAndPlay() throws IOException {
+        // Le blanc commence : le bot n'a pas encore joué
+        Response created = request("POST", "/games?strategy=alphabeta:50&color=white");
+        assertEquals(201, created.status);
+        assertTrue(created.body, created.body.contains("\"botMoves\":[]"));
+        assertTrue(created.body, created.body.contains("\"turn\":\"white\""));
+        String id = id(created.body);
+
+        Response illegal = request("POST", "/games/" + id + "/move?x=0&y=0");
+        assertEquals(400, illegal.status);
+
+        // Coup d'ouverture légal pour le blanc, suivi de la réponse du bot
+        Response moved = request("POST", "/games/" + id + "/move?x=2&y=4");
+        assertEquals(moved.body, 200, moved.status);
+        assertTrue(moved.body, moved.body.matches(".*\"botMoves\":\\[\\[\\d+,\\d+\\]\\].*"));
+        assertTrue(moved.body, moved.body.contains("\"turn\":\"white\""));
+
+        assertEquals(200, request("GET", "/games/" + id).status);
+        assertEquals(200, request("DELETE", "/games/" + id).status);
+        assertEquals(404, request("GET", "/games/" + id).status);
+    }
+
+    public void testBotOpensWhenHumanIsBlack() throws IOException {
+        Response created = request("POST", "/games?strategy=maxflips&color=black");
+        assertEquals(201, created.status);
+        assertTrue(created.body, created.body.contains("\"turn\":\"black\""));
+        assertFalse(created.body, created.body.contains("\"botMoves\":[]"));
+    }
+
+    public void testStrategyWhitelist() throws IOException {
+        // Même configuration que alphabeta:50 une fois normalisée
+        assertEquals(201, request("POST", "/games?strategy=ALPHABETA:050:1&color=white").status);
+        assertEquals(400, request("POST", "/games?strategy=alphabeta:51&color=white").status);
+        assertEquals(400, request("POST", "/games?strategy=alphabeta:100:64&color=white").status);
+        assertEquals(400, request("POST", "/games?strategy=unknown").status);
+        // L'alpha-bêta ne joue qu'en 8x8
+        assertEquals(400, request("POST", "/games?strategy=alphabeta:50&size=10").status);
+    }
+
+    public void testErrors() throws IOException {
+        assertEquals(404, request("GET", "/games/12345").status);
+        assertEquals(405, request("PUT", "/games").status);
+        assertEquals(400, request("POST", "/games?color=green").status);
+        Response stats = request("GET", "/stats");
+        assertEquals(200, stats.status);
+        assertTrue(stats.body, stats.body.contains("\"sessions\":"));
+    }
+
+    private static String id(String body) {
+        int start = body.indexOf("\"id\":") + 5;
+        return body.substring(start, body.indexOf(',', start));
+    }
+
+    private Response request(String method, String path) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://" + server.getAddress() + path).openConnection();
+        connection.setRequestMethod(method);
+        int status = connection.getResponseCode();
+        InputStream in = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        String body = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        connection.disconnect();
+        return new Response(status, body);
+    }
+
+    private static final class Response {
+        final int status;
+        final String body;
+
+        Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}